@@ -27,6 +27,7 @@ import org.apache.sis.util.iso.ResourceInternationalString;
 import org.geotoolkit.client.AbstractClientFactory;
 import org.geotoolkit.client.CoverageClientFactory;
 import org.geotoolkit.client.map.CachedPyramidSet;
+import org.geotoolkit.client.map.TileCache;
 import org.geotoolkit.storage.coverage.CoverageStore;
 import org.geotoolkit.feature.FeatureUtilities;
 import org.geotoolkit.parameter.DefaultParameterDescriptor;
@@ -69,7 +70,7 @@ public class OSMTMSClientFactory extends AbstractClientFactory implements Covera
 
     public static final ParameterDescriptorGroup PARAMETERS =
             new DefaultParameterDescriptorGroup("OSMTMSParameters",
-                IDENTIFIER,URL,MAX_ZOOM_LEVEL,SECURITY,IMAGE_CACHE,NIO_QUERIES,TIMEOUT);
+                IDENTIFIER,URL,MAX_ZOOM_LEVEL,SECURITY,IMAGE_CACHE,NIO_QUERIES,TIMEOUT,TILE_CACHE_DIRECTORY,TILE_CACHE_SIZE);
 
     @Override
     public Identification getIdentification() {
@@ -103,6 +104,11 @@ public class OSMTMSClientFactory extends AbstractClientFactory implements Covera
             server.setUserProperty(CachedPyramidSet.PROPERTY_NIO, useNIO);
         }catch(ParameterNotFoundException ex){}
 
+        final TileCache tileCache = createTileCache(params);
+        if(tileCache != null){
+            server.setUserProperty(CachedPyramidSet.PROPERTY_TILE_CACHE, tileCache);
+        }
+
         return server;
     }
 
@@ -17,10 +17,15 @@
  */
 package org.geotoolkit.client;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.Serializable;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
+import org.geotoolkit.client.map.DiskTileCache;
+import org.geotoolkit.client.map.MemoryTileCache;
+import org.geotoolkit.client.map.TileCache;
 import org.geotoolkit.factory.Factory;
 import org.geotoolkit.feature.FeatureUtilities;
 import org.apache.sis.metadata.iso.quality.DefaultConformanceResult;
@@ -123,6 +128,50 @@ public abstract class AbstractClientFactory extends Factory implements ClientFac
                     new ResourceInternationalString("org/geotoolkit/client/bundle", "nio"),
                     Boolean.class,Boolean.FALSE,false);
 
+    /**
+     * Directory where tiles are cached between sessions, Optional.
+     * Only used by tiled servers, no disk cache if not set.
+     */
+    public static final ParameterDescriptor<File> TILE_CACHE_DIRECTORY =
+            new DefaultParameterDescriptor<File>("tilecachedirectory",
+                    new ResourceInternationalString("org/geotoolkit/client/bundle", "tileCacheDirectory"),
+                    File.class,null,false);
+
+    /**
+     * Maximum size of the disk tile cache in megabytes, Optional.
+     * Default value is 512.
+     */
+    public static final ParameterDescriptor<Integer> TILE_CACHE_SIZE =
+            new DefaultParameterDescriptor<Integer>("tilecachesize",
+                    new ResourceInternationalString("org/geotoolkit/client/bundle", "tileCacheSize"),
+                    Integer.class,512,false);
+
+    /**
+     * Create the tile cache defined by {@link #TILE_CACHE_DIRECTORY} and {@link #TILE_CACHE_SIZE}.
+     * Tiles are kept in memory in front of the disk cache.
+     *
+     * @param params client parameters
+     * @return TileCache or null if parameters do not define a cache directory
+     * @throws DataStoreException if the cache directory can not be created
+     */
+    protected static TileCache createTileCache(final ParameterValueGroup params) throws DataStoreException {
+        final File directory = (File) Parameters.getOrCreate(TILE_CACHE_DIRECTORY, params).getValue();
+        if (directory == null) {
+            return null;
+        }
+        Integer size = (Integer) Parameters.getOrCreate(TILE_CACHE_SIZE, params).getValue();
+        if (size == null) {
+            size = TILE_CACHE_SIZE.getDefaultValue();
+        }
+        final long maxSize = size * 1024l * 1024l;
+        try {
+            //keep up to 32MB of encoded tiles in memory
+            return new MemoryTileCache(Math.min(32l * 1024 * 1024, maxSize), new DiskTileCache(directory, maxSize));
+        } catch (IOException ex) {
+            throw new DataStoreException(ex.getMessage(), ex);
+        }
+    }
+
     /**
      * Default Implementation abuses the naming convention.
      * <p>
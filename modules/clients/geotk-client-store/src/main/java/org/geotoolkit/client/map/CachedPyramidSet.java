@@ -22,14 +22,18 @@ import java.awt.image.RenderedImage;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLConnection;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
@@ -44,8 +48,10 @@ import javax.imageio.ImageReader;
 import javax.imageio.spi.ImageReaderSpi;
 import javax.imageio.stream.ImageInputStream;
 import javax.imageio.stream.MemoryCacheImageInputStream;
+import org.geotoolkit.client.AbstractRequest;
 import org.geotoolkit.client.Request;
 import org.geotoolkit.client.Client;
+import org.geotoolkit.security.ClientSecurity;
 import org.geotoolkit.security.DefaultClientSecurity;
 import org.apache.sis.storage.DataStoreException;
 import org.geotoolkit.storage.coverage.*;
@@ -74,6 +80,19 @@ public abstract class CachedPyramidSet extends DefaultPyramidSet {
      */
     public static final String PROPERTY_NIO = "nio_query";
 
+    /**
+     * {@link TileCache} property used on tiled servers to keep encoded tiles
+     * between queries and application sessions.
+     * default value is null, no tile cache.
+     */
+    public static final String PROPERTY_TILE_CACHE = "tile_cache";
+
+    /**
+     * Time to live of cached tiles when the server response does not define
+     * a Cache-Control max-age or an Expires header : one day.
+     */
+    public static final long DEFAULT_TILE_TTL = 24l * 60 * 60 * 1000;
+
     protected static final Logger LOGGER = Logging.getLogger(CachedPyramidSet.class);
 
     //NIO netty bootstrap.
@@ -117,6 +136,15 @@ public abstract class CachedPyramidSet extends DefaultPyramidSet {
         return server;
     }
 
+    /**
+     * @return tile cache defined by the {@link #PROPERTY_TILE_CACHE} server property, can be null
+     */
+    protected TileCache getTileCache() {
+        if (server == null) return null;
+        final Object cache = server.getUserProperty(PROPERTY_TILE_CACHE);
+        return (cache instanceof TileCache) ? (TileCache) cache : null;
+    }
+
     public abstract Request getTileRequest(GridMosaic mosaic, int col, int row, Map hints) throws DataStoreException;
 
     public TileReference getTile(GridMosaic mosaic, int col, int row, Map hints) throws DataStoreException {
@@ -132,11 +160,134 @@ public abstract class CachedPyramidSet extends DefaultPyramidSet {
         
         if (cacheImages) {
             return new DefaultTileReference(spi, getTileImage(mosaic, col, row, hints), 0, new Point(col, row));
+        }
+
+        final TileCache cache = getTileCache();
+        if (cache != null) {
+            try {
+                final byte[] data = getTileData(cache, mosaic, col, row, hints);
+                return new BytesTileReference(spi, data, new Point(col, row));
+            } catch (IOException ex) {
+                throw new DataStoreException(ex.getMessage(), ex);
+            }
         } else {
             return new RequestTileReference(spi, getTileRequest(mosaic, col, row, hints), 0, new Point(col, row));
         }
     }
 
+    /**
+     * Get the tile bytes from the tile cache, the tile is queried on the
+     * server if missing and revalidated if expired.
+     */
+    private byte[] getTileData(final TileCache cache, final GridMosaic mosaic,
+            final int col, final int row, final Map hints) throws DataStoreException, IOException {
+        final String pyramidId = mosaic.getPyramid().getId();
+        final String mosaicId = mosaic.getId();
+
+        CachedTile cached = null;
+        try {
+            cached = cache.get(pyramidId, mosaicId, col, row);
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, ex.getMessage(), ex);
+        }
+        final long now = System.currentTimeMillis();
+        if (cached != null && !cached.isExpired(now)) {
+            return cached.getData();
+        }
+
+        final Request request = getTileRequest(mosaic, col, row, hints);
+        final ClientSecurity security = useURLQueries ? server.getClientSecurity() : null;
+        final CachedTile tile = loadTile(request, cached, security, server.getTimeOutValue(), now);
+        try {
+            cache.put(pyramidId, mosaicId, col, row, tile);
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, ex.getMessage(), ex);
+        }
+        return tile.getData();
+    }
+
+    /**
+     * Query a tile on the server.
+     * If a previous tile is given and has an entity tag, the query is conditional
+     * and the previous tile is renewed if the server answers it has not been modified.
+     *
+     * @param request tile request
+     * @param cached previous tile, can be null
+     * @param security client security, null if the request is not an URL request,
+     *        in this case no HTTP header can be used
+     * @param timeout connection timeout in milliseconds
+     * @param now current time
+     * @return loaded tile, never null
+     * @throws IOException if the query failed
+     */
+    static CachedTile loadTile(final Request request, final CachedTile cached,
+            final ClientSecurity security, final int timeout, final long now) throws IOException {
+        if (security == null) {
+            try (InputStream stream = request.getResponseStream()) {
+                return new CachedTile(toBytes(stream), null, now + DEFAULT_TILE_TTL);
+            }
+        }
+
+        URLConnection cnx = request.getURL().openConnection();
+        final Map<String,String> headers = request.getHeaderMap();
+        if (headers != null) {
+            for (Map.Entry<String,String> entry : headers.entrySet()) {
+                cnx.setRequestProperty(entry.getKey(), entry.getValue());
+            }
+        }
+        final String etag = (cached == null) ? null : cached.getETag();
+        if (etag != null) {
+            cnx.setRequestProperty("If-None-Match", etag);
+        }
+        cnx = security.secure(cnx);
+
+        if (etag != null && cnx instanceof HttpURLConnection) {
+            cnx.setConnectTimeout(timeout);
+            cnx.setReadTimeout(timeout*2);
+            if (((HttpURLConnection) cnx).getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                return cached.renew(getExpires(cnx, now));
+            }
+        }
+
+        try (InputStream stream = AbstractRequest.openRichException(cnx, security, timeout)) {
+            return new CachedTile(toBytes(stream), cnx.getHeaderField("ETag"), getExpires(cnx, now));
+        }
+    }
+
+    /**
+     * Compute tile expiration time from Cache-Control and Expires headers.
+     */
+    private static long getExpires(final URLConnection cnx, final long now) {
+        final String cacheControl = cnx.getHeaderField("Cache-Control");
+        if (cacheControl != null) {
+            for (String part : cacheControl.split(",")) {
+                part = part.trim().toLowerCase(Locale.ENGLISH);
+                if (part.equals("no-cache") || part.equals("no-store")) {
+                    //tile must be revalidated on each use
+                    return now;
+                } else if (part.startsWith("max-age=")) {
+                    try {
+                        return now + Long.parseLong(part.substring(8).trim()) * 1000;
+                    } catch (NumberFormatException ex) {
+                        LOGGER.log(Level.FINE, "Invalid Cache-Control header : {0}", cacheControl);
+                    }
+                }
+            }
+        }
+        final long expires = cnx.getHeaderFieldDate("Expires", 0);
+        return (expires > 0) ? expires : now + DEFAULT_TILE_TTL;
+    }
+
+    private static byte[] toBytes(final InputStream stream) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(16384);
+        final byte[] buffer = new byte[8192];
+        int nb;
+        while ((nb = stream.read(buffer)) >= 0) {
+            out.write(buffer, 0, nb);
+        }
+        return out.toByteArray();
+    }
+
     private static String toId(GridMosaic mosaic, int col, int row, Map hints) {
         final String pyramidId = mosaic.getPyramid().getId();
         final String mosaicId = mosaic.getId();
@@ -157,11 +308,15 @@ public abstract class CachedPyramidSet extends DefaultPyramidSet {
             try {
                 value = handler.peek();
                 if (value == null) {
-                    final Request request = getTileRequest(mosaic, col, row, hints);
+                    final TileCache cache = getTileCache();
                     InputStream stream = null;
                     ImageInputStream iis = null;
                     try {
-                        stream = request.getResponseStream();
+                        if (cache != null) {
+                            stream = new ByteArrayInputStream(getTileData(cache, mosaic, col, row, hints));
+                        } else {
+                            stream = getTileRequest(mosaic, col, row, hints).getResponseStream();
+                        }
                         iis = new MemoryCacheImageInputStream(stream);
                         value = ImageIO.read(iis);
                     } catch (IOException ex) {
@@ -197,6 +352,11 @@ public abstract class CachedPyramidSet extends DefaultPyramidSet {
             return queryUnoptimizedIO(mosaic, locations, hints);
         }
 
+        if (getTileCache() != null) {
+            //tile cache and revalidation are handled by the getTile method
+            return queryUnoptimizedIO(mosaic, locations, hints);
+        }
+
         final Client server = getServer();
 
         if (server == null) {
@@ -498,6 +658,27 @@ public abstract class CachedPyramidSet extends DefaultPyramidSet {
         }
     }
 
+    /**
+     * Tile reference on encoded tile bytes, a new stream is created for each reader.
+     */
+    private static class BytesTileReference extends DefaultTileReference {
+
+        public BytesTileReference(ImageReaderSpi spi, byte[] data, Point position) {
+            super(spi, data, 0, position);
+        }
+
+        @Override
+        public ImageReader getImageReader() throws IOException {
+            final ImageInputStream stream = ImageIO.createImageInputStream(new ByteArrayInputStream((byte[]) input));
+            if (spi == null) {
+                return XImageIO.getReader(stream, Boolean.TRUE, Boolean.TRUE);
+            }
+            final ImageReader reader = spi.createReaderInstance();
+            reader.setInput(stream, true, true);
+            return reader;
+        }
+    }
+
     /**
      * Pipeline Factory.
      */
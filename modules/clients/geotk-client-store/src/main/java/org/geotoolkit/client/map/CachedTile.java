@@ -0,0 +1,87 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.client.map;
+
+import org.apache.sis.util.ArgumentChecks;
+
+/**
+ * Encoded tile stored in a {@link TileCache}.
+ * The tile holds the bytes returned by the server, the HTTP entity tag if the
+ * server provided one and the time after which the tile must be revalidated.
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+public final class CachedTile {
+
+    private final byte[] data;
+    private final String etag;
+    private final long expires;
+
+    /**
+     * @param data encoded image, not null
+     * @param etag HTTP entity tag, can be null
+     * @param expires expiration time in milliseconds since epoch
+     */
+    public CachedTile(final byte[] data, final String etag, final long expires) {
+        ArgumentChecks.ensureNonNull("data", data);
+        this.data = data;
+        this.etag = etag;
+        this.expires = expires;
+    }
+
+    /**
+     * @return encoded image bytes, the array is not copied, do not modify it.
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * @return HTTP entity tag, may be null
+     */
+    public String getETag() {
+        return etag;
+    }
+
+    /**
+     * @return expiration time in milliseconds since epoch
+     */
+    public long getExpires() {
+        return expires;
+    }
+
+    /**
+     * @param time reference time in milliseconds since epoch
+     * @return true if the tile must be revalidated at given time
+     */
+    public boolean isExpired(final long time) {
+        return time >= expires;
+    }
+
+    /**
+     * Create a copy of this tile with a new expiration time,
+     * used when the server confirms the tile has not changed.
+     *
+     * @param expires new expiration time
+     * @return renewed tile
+     */
+    public CachedTile renew(final long expires) {
+        return new CachedTile(data, etag, expires);
+    }
+
+}
@@ -0,0 +1,232 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.client.map;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.sis.util.ArgumentChecks;
+import org.apache.sis.util.logging.Logging;
+
+/**
+ * Tile cache storing encoded tiles on disk, bounded by the total size of the files.
+ * <p>
+ * Tiles are stored in a directory tree : <code>root/pyramid/mosaic/col/row.tile</code>.
+ * Pyramid and mosaic identifiers are URL encoded to obtain valid file names.
+ * Each file contains the tile expiration time, entity tag and bytes.
+ * When the size limit is exceeded, the least recently accessed tiles are removed
+ * until the cache size is back under 90% of the limit.
+ * </p>
+ * <p>
+ * Files are written in a temporary file then renamed, the cache directory can be
+ * shared by several clients of the same process.
+ * </p>
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+public class DiskTileCache implements TileCache {
+
+    private static final Logger LOGGER = Logging.getLogger(DiskTileCache.class);
+
+    /** File signature : 'GTKT' */
+    private static final int MAGIC = 0x47544B54;
+    private static final String EXTENSION = ".tile";
+
+    private final File root;
+    private final long maxSize;
+    /** Current size of the tile files, -1 until the directory has been scanned */
+    private long size = -1;
+
+    /**
+     * @param root cache directory, created if it does not exist
+     * @param maxSize maximum size of the tile files in bytes
+     * @throws IOException if the directory could not be created
+     */
+    public DiskTileCache(final File root, final long maxSize) throws IOException {
+        ArgumentChecks.ensureNonNull("root", root);
+        ArgumentChecks.ensurePositive("maxSize", maxSize);
+        if (!root.isDirectory() && !root.mkdirs()) {
+            throw new IOException("Could not create tile cache directory : "+root);
+        }
+        this.root = root;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return cache directory
+     */
+    public File getDirectory() {
+        return root;
+    }
+
+    /**
+     * @return size of the tile files in bytes
+     */
+    public synchronized long getSize() {
+        if (size < 0) {
+            size = 0;
+            for (File f : listTiles(root, new ArrayList<File>())) {
+                size += f.length();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public CachedTile get(String pyramidId, String mosaicId, int col, int row) throws IOException {
+        final File file = toFile(pyramidId, mosaicId, col, row);
+        final CachedTile tile;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                LOGGER.log(Level.FINE, "Invalid tile cache file {0}", file);
+                return null;
+            }
+            final long expires = in.readLong();
+            final String etag = in.readUTF();
+            final byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+            tile = new CachedTile(data, etag.isEmpty() ? null : etag, expires);
+        } catch (FileNotFoundException ex) {
+            return null;
+        }
+        //mark the tile as recently used
+        file.setLastModified(System.currentTimeMillis());
+        return tile;
+    }
+
+    @Override
+    public void put(String pyramidId, String mosaicId, int col, int row, CachedTile tile) throws IOException {
+        final File file = toFile(pyramidId, mosaicId, col, row);
+        final File folder = file.getParentFile();
+        if (!folder.isDirectory() && !folder.mkdirs() && !folder.isDirectory()) {
+            throw new IOException("Could not create tile cache directory : "+folder);
+        }
+
+        final File temp = File.createTempFile("tile", ".tmp", folder);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeLong(tile.getExpires());
+                out.writeUTF(tile.getETag() == null ? "" : tile.getETag());
+                out.writeInt(tile.getData().length);
+                out.write(tile.getData());
+            }
+
+            synchronized (this) {
+                final long current = getSize();
+                final long previous = file.length();
+                if (file.exists() && !file.delete()) {
+                    throw new IOException("Could not replace tile cache file : "+file);
+                }
+                if (!temp.renameTo(file)) {
+                    throw new IOException("Could not create tile cache file : "+file);
+                }
+                size = current - previous + file.length();
+                if (size > maxSize) {
+                    evict();
+                }
+            }
+        } finally {
+            if (temp.exists()) {
+                temp.delete();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void clear() throws IOException {
+        for (File f : listTiles(root, new ArrayList<File>())) {
+            if (!f.delete() && f.exists()) {
+                throw new IOException("Could not delete tile cache file : "+f);
+            }
+        }
+        size = 0;
+    }
+
+    /**
+     * Remove the least recently used tiles.
+     * Must be called with the lock hold.
+     */
+    private void evict() {
+        final List<File> files = listTiles(root, new ArrayList<File>());
+        final long[] dates = new long[files.size()];
+        final List<Integer> order = new ArrayList<>(files.size());
+        for (int i=0; i<dates.length; i++) {
+            dates[i] = files.get(i).lastModified();
+            order.add(i);
+        }
+        Collections.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return Long.compare(dates[o1], dates[o2]);
+            }
+        });
+
+        final long target = maxSize - maxSize/10;
+        for (int i=0, n=order.size(); i<n && size > target; i++) {
+            final File f = files.get(order.get(i));
+            final long length = f.length();
+            if (f.delete()) {
+                size -= length;
+            }
+        }
+    }
+
+    private File toFile(String pyramidId, String mosaicId, int col, int row) {
+        final File folder = new File(new File(new File(root, encode(pyramidId)), encode(mosaicId)), String.valueOf(col));
+        return new File(folder, row + EXTENSION);
+    }
+
+    private static String encode(final String name) {
+        try {
+            return URLEncoder.encode(name, "UTF-8");
+        } catch (UnsupportedEncodingException ex) {
+            //will not happen, UTF-8 is always supported
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static List<File> listTiles(final File folder, final List<File> files) {
+        final File[] children = folder.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                if (child.isDirectory()) {
+                    listTiles(child, files);
+                } else if (child.getName().endsWith(EXTENSION)) {
+                    files.add(child);
+                }
+            }
+        }
+        return files;
+    }
+
+}
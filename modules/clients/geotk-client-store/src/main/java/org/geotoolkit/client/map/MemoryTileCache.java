@@ -0,0 +1,120 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.client.map;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.sis.util.ArgumentChecks;
+
+/**
+ * Least recently used cache of encoded tiles, bounded by the total size of the
+ * tile bytes. An optional second level cache, usually a {@link DiskTileCache},
+ * is used on misses and receives all stored tiles.
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+public class MemoryTileCache implements TileCache {
+
+    private final LinkedHashMap<String,CachedTile> tiles = new LinkedHashMap<>(64, 0.75f, true);
+    private final long maxSize;
+    private final TileCache next;
+    private long size = 0;
+
+    /**
+     * @param maxSize maximum number of bytes hold in memory
+     * @param next second level cache, can be null
+     */
+    public MemoryTileCache(final long maxSize, final TileCache next) {
+        ArgumentChecks.ensurePositive("maxSize", maxSize);
+        this.maxSize = maxSize;
+        this.next = next;
+    }
+
+    /**
+     * @return second level cache, can be null
+     */
+    public TileCache getNext() {
+        return next;
+    }
+
+    /**
+     * @return number of bytes currently hold in memory
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    @Override
+    public CachedTile get(String pyramidId, String mosaicId, int col, int row) throws IOException {
+        final String key = toKey(pyramidId, mosaicId, col, row);
+        synchronized (this) {
+            final CachedTile tile = tiles.get(key);
+            if (tile != null) return tile;
+        }
+        if (next == null) return null;
+
+        final CachedTile tile = next.get(pyramidId, mosaicId, col, row);
+        if (tile != null) {
+            store(key, tile);
+        }
+        return tile;
+    }
+
+    @Override
+    public void put(String pyramidId, String mosaicId, int col, int row, CachedTile tile) throws IOException {
+        store(toKey(pyramidId, mosaicId, col, row), tile);
+        if (next != null) {
+            next.put(pyramidId, mosaicId, col, row, tile);
+        }
+    }
+
+    @Override
+    public void clear() throws IOException {
+        synchronized (this) {
+            tiles.clear();
+            size = 0;
+        }
+        if (next != null) {
+            next.clear();
+        }
+    }
+
+    private synchronized void store(final String key, final CachedTile tile) {
+        final CachedTile previous = tiles.put(key, tile);
+        if (previous != null) {
+            size -= previous.getData().length;
+        }
+        size += tile.getData().length;
+
+        //remove least recently used tiles
+        final Iterator<Map.Entry<String,CachedTile>> ite = tiles.entrySet().iterator();
+        while (size > maxSize && ite.hasNext()) {
+            final Map.Entry<String,CachedTile> entry = ite.next();
+            size -= entry.getValue().getData().length;
+            ite.remove();
+        }
+    }
+
+    private static String toKey(String pyramidId, String mosaicId, int col, int row) {
+        return new StringBuilder(pyramidId).append('/').append(mosaicId)
+                .append('/').append(col).append('/').append(row).toString();
+    }
+
+}
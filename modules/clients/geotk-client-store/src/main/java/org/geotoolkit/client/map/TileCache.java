@@ -0,0 +1,59 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.client.map;
+
+import java.io.IOException;
+
+/**
+ * Cache of encoded tiles used by {@link CachedPyramidSet}.
+ * Tiles are identified by pyramid id, mosaic id, column and row.
+ * <p>
+ * A cache is attached to a client with the {@link CachedPyramidSet#PROPERTY_TILE_CACHE}
+ * user property. Implementations must be thread safe.
+ * </p>
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ * @see MemoryTileCache
+ * @see DiskTileCache
+ */
+public interface TileCache {
+
+    /**
+     * Get a tile from the cache, expired tiles are returned, it is the caller
+     * responsability to revalidate them.
+     *
+     * @return cached tile or null if absent
+     * @throws IOException if an error occured while reading the cache
+     */
+    CachedTile get(String pyramidId, String mosaicId, int col, int row) throws IOException;
+
+    /**
+     * Store a tile in the cache, replacing any previous tile at the same place.
+     *
+     * @throws IOException if an error occured while writing the cache
+     */
+    void put(String pyramidId, String mosaicId, int col, int row, CachedTile tile) throws IOException;
+
+    /**
+     * Remove all tiles from the cache.
+     *
+     * @throws IOException if an error occured while clearing the cache
+     */
+    void clear() throws IOException;
+
+}
@@ -0,0 +1,163 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.client.map;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.geotoolkit.client.AbstractRequest;
+import org.geotoolkit.security.DefaultClientSecurity;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tile cache tests.
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+public class TileCacheTest {
+
+    @Test
+    public void testMemoryCache() throws IOException {
+        final MemoryTileCache cache = new MemoryTileCache(10, null);
+        cache.put("p", "m", 0, 0, new CachedTile(new byte[4], null, Long.MAX_VALUE));
+        cache.put("p", "m", 0, 1, new CachedTile(new byte[4], null, Long.MAX_VALUE));
+        //access first tile, second tile becomes the least recently used
+        assertNotNull(cache.get("p", "m", 0, 0));
+        cache.put("p", "m", 0, 2, new CachedTile(new byte[4], null, Long.MAX_VALUE));
+
+        assertNotNull(cache.get("p", "m", 0, 0));
+        assertNull(cache.get("p", "m", 0, 1));
+        assertNotNull(cache.get("p", "m", 0, 2));
+        assertEquals(8, cache.getSize());
+    }
+
+    @Test
+    public void testDiskCache() throws IOException {
+        final File dir = Files.createTempDirectory("tilecache").toFile();
+        try {
+            DiskTileCache cache = new DiskTileCache(dir, 1000);
+            cache.put("pyramid/1", "mosaic:1", 3, 4, new CachedTile(new byte[]{1,2,3}, "\"v1\"", 1234));
+
+            //reopen the cache, tiles must be preserved
+            cache = new DiskTileCache(dir, 1000);
+            final CachedTile tile = cache.get("pyramid/1", "mosaic:1", 3, 4);
+            assertNotNull(tile);
+            assertArrayEquals(new byte[]{1,2,3}, tile.getData());
+            assertEquals("\"v1\"", tile.getETag());
+            assertEquals(1234, tile.getExpires());
+            assertNull(cache.get("pyramid/1", "mosaic:1", 4, 3));
+
+            //size limit, oldest tiles are removed
+            for (int i=0; i<10; i++) {
+                cache.put("p", "m", 0, i, new CachedTile(new byte[200], null, 0));
+            }
+            assertTrue(cache.getSize() <= 1000);
+            assertTrue(cache.getSize() > 0);
+
+            cache.clear();
+            assertEquals(0, cache.getSize());
+            assertNull(cache.get("p", "m", 0, 9));
+        } finally {
+            delete(dir);
+        }
+    }
+
+    @Test
+    public void testMemoryOverDisk() throws IOException {
+        final File dir = Files.createTempDirectory("tilecache").toFile();
+        try {
+            final MemoryTileCache cache = new MemoryTileCache(10, new DiskTileCache(dir, 1000));
+            cache.put("p", "m", 0, 0, new CachedTile(new byte[8], null, Long.MAX_VALUE));
+            cache.put("p", "m", 0, 1, new CachedTile(new byte[8], null, Long.MAX_VALUE));
+            assertEquals(8, cache.getSize());
+            //evicted from memory but still on disk
+            assertNotNull(cache.get("p", "m", 0, 0));
+        } finally {
+            delete(dir);
+        }
+    }
+
+    /**
+     * Check tiles are revalidated with their entity tag on a local http server.
+     */
+    @Test
+    public void testRevalidation() throws IOException {
+        final byte[] data = new byte[]{5,6,7,8};
+        final AtomicInteger full = new AtomicInteger();
+        final AtomicInteger notModified = new AtomicInteger();
+
+        final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/tile", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.getResponseHeaders().set("ETag", "\"v1\"");
+                exchange.getResponseHeaders().set("Cache-Control", "max-age=60");
+                if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    notModified.incrementAndGet();
+                    exchange.sendResponseHeaders(304, -1);
+                } else {
+                    full.incrementAndGet();
+                    exchange.sendResponseHeaders(200, data.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(data);
+                    }
+                }
+                exchange.close();
+            }
+        });
+        server.start();
+        try {
+            final AbstractRequest request = new AbstractRequest("http://localhost:"+server.getAddress().getPort()+"/tile") {};
+
+            final long now = System.currentTimeMillis();
+            final CachedTile tile = CachedPyramidSet.loadTile(request, null, DefaultClientSecurity.NO_SECURITY, 5000, now);
+            assertArrayEquals(data, tile.getData());
+            assertEquals("\"v1\"", tile.getETag());
+            assertEquals(now + 60000, tile.getExpires());
+            assertEquals(1, full.get());
+
+            //expired tile, only revalidated
+            final CachedTile expired = tile.renew(now);
+            final CachedTile renewed = CachedPyramidSet.loadTile(request, expired, DefaultClientSecurity.NO_SECURITY, 5000, now + 1000);
+            assertSame(tile.getData(), renewed.getData());
+            assertEquals(now + 61000, renewed.getExpires());
+            assertEquals(1, full.get());
+            assertEquals(1, notModified.get());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+}
@@ -28,6 +28,7 @@ import org.apache.sis.util.iso.ResourceInternationalString;
 import org.geotoolkit.client.AbstractClientFactory;
 import org.geotoolkit.client.CoverageClientFactory;
 import org.geotoolkit.client.map.CachedPyramidSet;
+import org.geotoolkit.client.map.TileCache;
 import org.geotoolkit.parameter.DefaultParameterDescriptorGroup;
 import org.geotoolkit.parameter.Parameters;
 import org.geotoolkit.security.ClientSecurity;
@@ -64,7 +65,7 @@ public class WMSCClientFactory extends AbstractClientFactory implements Coverage
     public static final ParameterDescriptor<String> IDENTIFIER = createFixedIdentifier(NAME);
 
     public static final ParameterDescriptorGroup PARAMETERS =
-            new DefaultParameterDescriptorGroup("WMSCParameters", IDENTIFIER,URL,SECURITY,IMAGE_CACHE,NIO_QUERIES,TIMEOUT);
+            new DefaultParameterDescriptorGroup("WMSCParameters", IDENTIFIER,URL,SECURITY,IMAGE_CACHE,NIO_QUERIES,TIMEOUT,TILE_CACHE_DIRECTORY,TILE_CACHE_SIZE);
 
     @Override
     public Identification getIdentification() {
@@ -110,6 +111,11 @@ public class WMSCClientFactory extends AbstractClientFactory implements Coverage
             server.setUserProperty(CachedPyramidSet.PROPERTY_NIO, useNIO);
         }catch(ParameterNotFoundException ex){}
 
+        final TileCache tileCache = createTileCache(params);
+        if(tileCache != null){
+            server.setUserProperty(CachedPyramidSet.PROPERTY_TILE_CACHE, tileCache);
+        }
+
         return server;
     }
 
@@ -30,6 +30,7 @@ import org.apache.sis.util.iso.ResourceInternationalString;
 import org.geotoolkit.client.AbstractClientFactory;
 import org.geotoolkit.client.CoverageClientFactory;
 import org.geotoolkit.client.map.CachedPyramidSet;
+import org.geotoolkit.client.map.TileCache;
 import org.geotoolkit.storage.coverage.CoverageStore;
 import org.geotoolkit.feature.FeatureUtilities;
 import org.geotoolkit.parameter.DefaultParameterDescriptor;
@@ -86,7 +87,7 @@ public class WMTSClientFactory extends AbstractClientFactory implements Coverage
 
     public static final ParameterDescriptorGroup PARAMETERS =
             new DefaultParameterDescriptorGroup("WMTSParameters",
-                IDENTIFIER,URL,VERSION, SECURITY, IMAGE_CACHE,NIO_QUERIES,TIMEOUT);
+                IDENTIFIER,URL,VERSION, SECURITY, IMAGE_CACHE,NIO_QUERIES,TIMEOUT,TILE_CACHE_DIRECTORY,TILE_CACHE_SIZE);
 
     @Override
     public Identification getIdentification() {
@@ -119,6 +120,11 @@ public class WMTSClientFactory extends AbstractClientFactory implements Coverage
             server.setUserProperty(CachedPyramidSet.PROPERTY_NIO, useNIO);
         }catch(ParameterNotFoundException ex){}
 
+        final TileCache tileCache = createTileCache(params);
+        if(tileCache != null){
+            server.setUserProperty(CachedPyramidSet.PROPERTY_TILE_CACHE, tileCache);
+        }
+
         return server;
     }
 
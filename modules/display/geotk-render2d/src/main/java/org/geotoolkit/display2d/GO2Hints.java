@@ -64,8 +64,11 @@ public final class GO2Hints extends Static {
      * Configure the multithreading support. This usually makes the canvas
      * build several buffered images to render each layer separately.
      * This raises memory concumption.
-     *
-     * WARNING : experimental
+     * Map layers are painted in parallel, one image per processor at most,
+     * and images are merged in the layers order.
+     * This hint is ignored, and layers are painted one after another, when the
+     * output graphics has a transform other than identity.
+     * Default value is false.
      */
     public static final Key KEY_MULTI_THREAD = new NamedKey(Boolean.class, "GO2 - MultiThread");
 
@@ -16,26 +16,40 @@
  */
 package org.geotoolkit.display2d.canvas;
 
+import java.awt.AlphaComposite;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.Shape;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.NoninvertibleTransformException;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.sis.util.logging.Logging;
 import org.geotoolkit.display2d.GraphicVisitor;
 import org.geotoolkit.display.canvas.RenderingContext;
 import org.geotoolkit.display.VisitFilter;
 import org.geotoolkit.display2d.GO2Hints;
 import org.geotoolkit.display2d.GO2Utilities;
 import org.geotoolkit.display2d.canvas.painter.BackgroundPainter;
+import org.geotoolkit.display2d.container.stateless.StatelessMapLayerJ2D;
 import org.geotoolkit.display2d.primitive.DefaultSearchAreaJ2D;
 import org.geotoolkit.display2d.primitive.GraphicJ2D;
 import org.geotoolkit.display2d.primitive.SearchAreaJ2D;
+import org.geotoolkit.display2d.style.labeling.LabelLayer;
 import org.geotoolkit.display2d.style.labeling.LabelRenderer;
 import org.geotoolkit.factory.Hints;
 import org.geotoolkit.geometry.isoonjts.JTSUtils;
+import org.geotoolkit.internal.Threads;
 import org.apache.sis.internal.referencing.j2d.AffineTransform2D;
 import static org.apache.sis.util.ArgumentChecks.*;
 import org.geotoolkit.display.canvas.AbstractCanvas2D;
@@ -55,6 +69,8 @@ import org.opengis.referencing.operation.TransformException;
  */
 public abstract class J2DCanvas extends AbstractCanvas2D{
 
+    private static final Logger LOGGER = Logging.getLogger(J2DCanvas.class);
+
     protected final RenderingContext2D context2D = new RenderingContext2D(this);
 
     protected BackgroundPainter painter = null;
@@ -151,36 +167,27 @@ public abstract class J2DCanvas extends AbstractCanvas2D{
 
     protected void render(final RenderingContext2D context2D, final List<SceneNode> graphics){
 
-        //TODO update multithreading rendering for scene tree model
-//        final Boolean mt = (Boolean) context2D.getRenderingHints().get(GO2Hints.KEY_MULTI_THREAD);
-//
-//        if(Boolean.TRUE.equals(mt)){
-//            final MultiThreadedRendering rendering = new MultiThreadedRendering(this.item, this.itemGraphics, renderingContext);
-//            rendering.render();
-//        }else{
-//            for(final MapItem child : item.items()){
-//                if(renderingContext.getMonitor().stopRequested()) break;
-//                final GraphicJ2D gra = itemGraphics.get(child);
-//                if(gra != null){
-//                    gra.paint(renderingContext);
-//                }else{
-//                    getLogger().log(Level.WARNING, "GrahicContextJ2D, paint method : strange, no graphic object affected to layer :{0}", child.getName());
-//                }
-//            }
-//        }
-
         /*
          * Draw all graphics, starting with the one with the lowest <var>z</var> value. Before
          * to start the actual drawing,  we will notify all graphics that they are about to be
          * drawn. Some graphics may spend one or two threads for pre-computing data.
          */
-        for(final Graphic graphic : graphics){
-            if(monitor.stopRequested()){
-                return;
-            }
+        boolean multiThread = GO2Hints.MULTI_THREAD_ON.equals(getRenderingHint(GO2Hints.KEY_MULTI_THREAD));
+        if(multiThread && !isMultiThreadCompatible(context2D)){
+            LOGGER.log(Level.FINE, "Multi thread rendering ignored, the output graphics transform is not identity.");
+            multiThread = false;
+        }
+        if(multiThread){
+            renderMultiThread(context2D, graphics);
+        }else{
+            for(final Graphic graphic : graphics){
+                if(monitor.stopRequested()){
+                    return;
+                }
 
-            if(graphic instanceof GraphicJ2D){
-                ((GraphicJ2D) graphic).paint(context2D);
+                if(graphic instanceof GraphicJ2D){
+                    ((GraphicJ2D) graphic).paint(context2D);
+                }
             }
         }
 
@@ -200,6 +207,155 @@ public abstract class J2DCanvas extends AbstractCanvas2D{
 
     }
 
+    /**
+     * Layers can be painted in separate images only if those images can be
+     * copied as is on the output. Otherwise the canvas falls back on sequential
+     * rendering, see {@link GO2Hints#KEY_MULTI_THREAD}.
+     */
+    private static boolean isMultiThreadCompatible(final RenderingContext2D context){
+        final Graphics2D output = context.getGraphics();
+        return output != null && output.getTransform().isIdentity();
+    }
+
+    /**
+     * Paint map layers in separate images on the shared parallel executor, images are
+     * drawn on the output in the graphics order as soon as they are ready.
+     * Other graphics are painted directly on the output when their turn comes.
+     * Label layers are collected from each layer and appended in the same order,
+     * so the result does not depend on thread scheduling.
+     */
+    private void renderMultiThread(final RenderingContext2D context2D, final List<SceneNode> graphics){
+        final Rectangle bounds = context2D.getCanvasDisplayBounds();
+        final int nb = graphics.size();
+        final List<Future<LayerImage>> tasks = new ArrayList<>(Collections.nCopies(nb, (Future<LayerImage>)null));
+        final ExecutorService executor = Threads.getParallelExecutor();
+        final int nbThreads = Threads.getParallelism();
+        LOGGER.log(Level.FINE, "Painting {0} graphics with multi thread rendering.", nb);
+
+        int next = 0;
+        int running = 0;
+        try{
+            for(int i=0; i<nb; i++){
+                //keep at most one layer per thread in advance to limit memory usage
+                for(; next<nb && running<nbThreads; next++){
+                    final SceneNode node = graphics.get(next);
+                    if(node instanceof StatelessMapLayerJ2D){
+                        tasks.set(next, executor.submit(new LayerPainter(context2D, (GraphicJ2D) node, bounds)));
+                        running++;
+                    }
+                }
+
+                if(monitor.stopRequested()){
+                    return;
+                }
+
+                final Future<LayerImage> task = tasks.get(i);
+                if(task != null){
+                    tasks.set(i, null);
+                    running--;
+                    final LayerImage layer = waitFor(task);
+                    if(layer != null){
+                        layer.paint(context2D);
+                    }
+                }else{
+                    final SceneNode node = graphics.get(i);
+                    if(node instanceof GraphicJ2D){
+                        ((GraphicJ2D) node).paint(context2D);
+                    }
+                }
+            }
+        }finally{
+            //rendering stopped, layers not started yet are skipped
+            for(Future<LayerImage> task : tasks){
+                if(task != null) task.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Wait for a layer to be painted, unless the rendering is stopped.
+     */
+    private LayerImage waitFor(final Future<LayerImage> task){
+        while(!monitor.stopRequested()){
+            try {
+                return task.get(100, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ex) {
+                //check the monitor again
+            } catch (InterruptedException ex) {
+                monitor.exceptionOccured(ex, Level.WARNING);
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException ex) {
+                final Throwable cause = ex.getCause();
+                monitor.exceptionOccured((cause instanceof Exception) ? (Exception) cause : ex, Level.WARNING);
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Paint a single graphic in a separate image.
+     */
+    private static final class LayerPainter implements Callable<LayerImage>{
+
+        private final RenderingContext2D context;
+        private final GraphicJ2D graphic;
+        private final Rectangle bounds;
+
+        private LayerPainter(final RenderingContext2D context, final GraphicJ2D graphic, final Rectangle bounds){
+            this.context = context;
+            this.graphic = graphic;
+            this.bounds = bounds;
+        }
+
+        @Override
+        public LayerImage call() throws Exception {
+            if(context.getMonitor().stopRequested()){
+                return null;
+            }
+            final BufferedImage image = new BufferedImage(bounds.width, bounds.height, BufferedImage.TYPE_INT_ARGB_PRE);
+            final List<LabelLayer> labels = new ArrayList<>();
+            final Graphics2D g2d = image.createGraphics();
+            g2d.translate(-bounds.x, -bounds.y);
+            try{
+                graphic.paint(context.createDeferred(g2d, labels));
+            }finally{
+                g2d.dispose();
+            }
+            return new LayerImage(image, bounds, labels);
+        }
+    }
+
+    /**
+     * Result of a {@link LayerPainter}.
+     */
+    private static final class LayerImage{
+
+        private final BufferedImage image;
+        private final Rectangle bounds;
+        private final List<LabelLayer> labels;
+
+        private LayerImage(final BufferedImage image, final Rectangle bounds, final List<LabelLayer> labels){
+            this.image = image;
+            this.bounds = bounds;
+            this.labels = labels;
+        }
+
+        private void paint(final RenderingContext2D context){
+            context.switchToDisplayCRS();
+            final Graphics2D g2d = context.getGraphics();
+            g2d.setComposite(AlphaComposite.SrcOver);
+            g2d.drawImage(image, bounds.x, bounds.y, null);
+            if(!labels.isEmpty()){
+                final LabelRenderer renderer = context.getLabelRenderer(true);
+                for(LabelLayer layer : labels){
+                    renderer.append(layer);
+                }
+            }
+        }
+    }
+
     /**
      * Visit the {@code Graphics} that occupy the given shape.
      * You should give an Area Object if you can, this will avoid many creation
@@ -29,10 +29,11 @@ import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.Arrays;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.measure.quantity.Length;
@@ -47,6 +48,7 @@ import org.geotoolkit.display.canvas.RenderingContext;
 import org.geotoolkit.display.canvas.control.CanvasMonitor;
 import org.geotoolkit.display2d.GO2Hints;
 import org.geotoolkit.display2d.GO2Utilities;
+import org.geotoolkit.display2d.style.labeling.LabelLayer;
 import org.geotoolkit.display2d.style.labeling.LabelRenderer;
 import org.geotoolkit.display2d.style.labeling.decimate.DecimationLabelRenderer;
 import org.geotoolkit.geometry.DefaultBoundingBox;
@@ -77,7 +79,7 @@ public class RenderingContext2D implements RenderingContext{
 
     private static final Logger LOGGER = Logging.getLogger(RenderingContext2D.class);
     private static final int MAX_WRAP = 3;
-    private static final Map<Font,FontMetrics> fontMetrics = new HashMap<>();
+    private static final Map<Font,FontMetrics> fontMetrics = new ConcurrentHashMap<>();
 
     private static final int DISPLAY_TRS = 0;
     private static final int OBJECTIVE_TRS = 1;
@@ -645,6 +647,28 @@ public class RenderingContext2D implements RenderingContext{
         return context;
     }
 
+    /**
+     * Create a copy of this context for painting a graphic in another thread.
+     * Unlike {@link #create(Graphics2D)} the label renderer is not shared :
+     * label layers appended by the graphic are stored in the given list, they
+     * should be appended to this context label renderer once painting is finished.
+     *
+     * @param g2d Graphics2D
+     * @param labels list where label layers are stored
+     * @return RenderingContext2D
+     */
+    RenderingContext2D createDeferred(final Graphics2D g2d, final List<LabelLayer> labels){
+        g2d.setRenderingHints(this.graphics.getRenderingHints());
+        g2d.setClip(this.graphics.getClip());
+        final RenderingContext2D context = new RenderingContext2D(canvas);
+        context.initParameters(objectiveToDisplay, monitor,
+                               paintingDisplayShape, paintingObjectiveShape,
+                               canvasDisplayShape, canvasObjectiveShape, dpi);
+        context.initGraphic(g2d);
+        context.labelRenderer = new DeferredLabelRenderer(context.getLabelRenderer(true), labels);
+        return context;
+    }
+
     /**
      * Get or Create a label renderer for this rendering context.
      * @param create : if true will create a label renderer if there is none.
@@ -974,4 +998,54 @@ public class RenderingContext2D implements RenderingContext{
         return sb.toString();
     }
 
+    /**
+     * Label renderer which keeps appended label layers in a list instead of
+     * portraying them. Immediate portrayals are delegated to a renderer
+     * attached to the same context.
+     */
+    private static final class DeferredLabelRenderer implements LabelRenderer {
+
+        private final LabelRenderer renderer;
+        private final List<LabelLayer> layers;
+
+        private DeferredLabelRenderer(final LabelRenderer renderer, final List<LabelLayer> layers) {
+            this.renderer = renderer;
+            this.layers = layers;
+        }
+
+        @Override
+        public void setRenderingContext(final RenderingContext2D context) {
+            renderer.setRenderingContext(context);
+        }
+
+        @Override
+        public LabelLayer createLabelLayer() {
+            return renderer.createLabelLayer();
+        }
+
+        @Override
+        public RenderingContext2D getRenderingContext() {
+            return renderer.getRenderingContext();
+        }
+
+        @Override
+        public void append(final LabelLayer layer) {
+            layers.add(layer);
+        }
+
+        @Override
+        public void portrayLabels() throws TransformException {
+            for(LabelLayer layer : layers){
+                renderer.append(layer);
+            }
+            layers.clear();
+            renderer.portrayLabels();
+        }
+
+        @Override
+        public void portrayImmidiately(final LabelLayer layer) {
+            renderer.portrayImmidiately(layer);
+        }
+    }
+
 }
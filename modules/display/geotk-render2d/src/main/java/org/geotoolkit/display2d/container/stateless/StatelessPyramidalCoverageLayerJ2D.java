@@ -177,6 +177,11 @@ public class StatelessPyramidalCoverageLayerJ2D extends StatelessMapLayerJ2D<Cov
                 break;
             }
 
+            if(obj instanceof Exception){
+                monitor.exceptionOccured((Exception)obj, Level.WARNING);
+                break;
+            }
+
             if(obj instanceof TileReference){
                 final TileReference tile = (TileReference)obj;
                 try {
@@ -27,6 +27,7 @@ import org.geotoolkit.display2d.style.labeling.LabelLayer;
 import org.geotoolkit.display2d.style.labeling.LinearLabelDescriptor;
 import org.geotoolkit.display2d.style.labeling.PointLabelDescriptor;
 import org.geotoolkit.display2d.style.labeling.candidate.Candidate;
+import org.geotoolkit.display2d.style.labeling.candidate.CandidateGrid;
 import org.geotoolkit.display2d.style.labeling.candidate.LabelingUtilities;
 import org.geotoolkit.display2d.style.labeling.candidate.LinearCandidate;
 import org.geotoolkit.display2d.style.labeling.candidate.PointCandidate;
@@ -137,19 +138,14 @@ public class DisplacementLabelRenderer extends DefaultLabelRenderer{
         candidates = LabelingUtilities.sortByCost(candidates);
 
         final List<Candidate> cleaned = new ArrayList<Candidate>();
+        final CandidateGrid grid = new CandidateGrid();
 
-        loop:
         for(int i= candidates.size()-1; i>=0; i--){
-            Candidate candidate = candidates.get(i);
-
-            for(Candidate other : cleaned){
-                if(other == candidate) continue;
-
-                if(LabelingUtilities.intersects(candidate,other)){
-                    continue loop;
-                }
+            final Candidate candidate = candidates.get(i);
+            if(!grid.intersects(candidate)){
+                cleaned.add(candidate);
+                grid.add(candidate);
             }
-            cleaned.add(candidate);
         }
 
         return cleaned;
@@ -75,6 +75,9 @@ import org.geotoolkit.display2d.canvas.J2DCanvasBuffered;
 import org.geotoolkit.display2d.canvas.painter.SolidColorPainter;
 import org.geotoolkit.display2d.container.ContextContainer2D;
 import org.geotoolkit.factory.Hints;
+import org.geotoolkit.internal.metrics.GeotkTimed;
+import org.geotoolkit.internal.metrics.Metrics;
+import org.geotoolkit.internal.metrics.Timer;
 import org.geotoolkit.image.io.XImageIO;
 import org.geotoolkit.map.CoverageMapLayer;
 import org.geotoolkit.map.MapBuilder;
@@ -109,6 +112,8 @@ public final class DefaultPortrayalService implements PortrayalService{
      */
     static final Map<String,String> MIME_CACHE = new ConcurrentHashMap<>();
 
+    private static final Timer PORTRAY_TIMER = Metrics.timer("portrayal.portray");
+
     private DefaultPortrayalService(){}
 
 
@@ -223,23 +228,28 @@ public final class DefaultPortrayalService implements PortrayalService{
                 );
     }
 
+    @GeotkTimed("portrayal.portray")
     public static BufferedImage portray(final CanvasDef canvasDef, final SceneDef sceneDef, final ViewDef viewDef) throws PortrayalException{
+        final long start = PORTRAY_TIMER.start();
+        try {
+            final Envelope contextEnv = viewDef.getEnvelope();
+            final CoordinateReferenceSystem crs = contextEnv.getCoordinateReferenceSystem();
 
-        final Envelope contextEnv = viewDef.getEnvelope();
-        final CoordinateReferenceSystem crs = contextEnv.getCoordinateReferenceSystem();
-
-        final J2DCanvasBuffered canvas = new J2DCanvasBuffered(
-                crs,
-                canvasDef.getDimension(),
-                sceneDef.getHints());
+            final J2DCanvasBuffered canvas = new J2DCanvasBuffered(
+                    crs,
+                    canvasDef.getDimension(),
+                    sceneDef.getHints());
 
-        prepareCanvas(canvas, canvasDef, sceneDef, viewDef);
+            prepareCanvas(canvas, canvasDef, sceneDef, viewDef);
 
-        canvas.repaint();
-        final BufferedImage buffer = canvas.getSnapShot();
-        canvas.dispose();
+            canvas.repaint();
+            final BufferedImage buffer = canvas.getSnapShot();
+            canvas.dispose();
 
-        return buffer;
+            return buffer;
+        } finally {
+            PORTRAY_TIMER.stop(start);
+        }
     }
 
     public static void prepareCanvas(final J2DCanvas canvas, final CanvasDef canvasDef, final SceneDef sceneDef, final ViewDef viewDef) throws PortrayalException{
@@ -0,0 +1,193 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2015, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+
+package org.geotoolkit.display2d.style.labeling.candidate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Occupancy grid of placed label candidates.
+ * Candidates are registered in all the display cells their bounds overlap, testing a new
+ * candidate only compares it with the candidates of the cells it covers instead of all
+ * the placed candidates.
+ *
+ * Linear candidates never intersect other candidates (see {@link LabelingUtilities}),
+ * they are not registered.
+ *
+ * This class is not thread safe.
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+public class CandidateGrid {
+
+    /**
+     * Default cell size in pixels, close to the size of a common label.
+     */
+    public static final int DEFAULT_CELL_SIZE = 64;
+
+    private final int cellSize;
+    private final Map<Long,List<Entry>> cells = new HashMap<>();
+    private int size = 0;
+
+    /**
+     * Incremented on each query, avoids testing twice a candidate registered in several cells.
+     */
+    private int stamp = 0;
+
+    public CandidateGrid() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * @param cellSize cell size in pixels, must be positive.
+     */
+    public CandidateGrid(final int cellSize) {
+        if(cellSize <= 0){
+            throw new IllegalArgumentException("Cell size must be positive : "+cellSize);
+        }
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * @return number of registered candidates.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Register a placed candidate.
+     */
+    public void add(final Candidate candidate) {
+        if(!(candidate instanceof PointCandidate)) return;
+        final Entry entry = new Entry((PointCandidate)candidate);
+        final int minCol = cell(entry.minX);
+        final int maxCol = cell(entry.maxX);
+        final int minRow = cell(entry.minY);
+        final int maxRow = cell(entry.maxY);
+        for(int row=minRow; row<=maxRow; row++){
+            for(int col=minCol; col<=maxCol; col++){
+                final Long key = key(col, row);
+                List<Entry> lst = cells.get(key);
+                if(lst == null){
+                    lst = new ArrayList<>(4);
+                    cells.put(key, lst);
+                }
+                lst.add(entry);
+            }
+        }
+        size++;
+    }
+
+    /**
+     * Test if the candidate intersects one of the registered candidates.
+     * Same result as {@link LabelingUtilities#intersects(Candidate, java.util.Collection) }
+     * on all registered candidates.
+     */
+    public boolean intersects(final Candidate candidate) {
+        if(!(candidate instanceof PointCandidate) || size == 0) return false;
+        final PointCandidate pc = (PointCandidate) candidate;
+        final Entry query = new Entry(pc);
+        final int minCol = cell(query.minX);
+        final int maxCol = cell(query.maxX);
+        final int minRow = cell(query.minY);
+        final int maxRow = cell(query.maxY);
+        final int current = ++stamp;
+        for(int row=minRow; row<=maxRow; row++){
+            for(int col=minCol; col<=maxCol; col++){
+                final List<Entry> lst = cells.get(key(col, row));
+                if(lst == null) continue;
+                for(int i=0,n=lst.size(); i<n; i++){
+                    final Entry entry = lst.get(i);
+                    if(entry.stamp == current) continue;
+                    entry.stamp = current;
+                    if(entry.maxX < query.minX || entry.minX > query.maxX
+                     || entry.maxY < query.minY || entry.minY > query.maxY){
+                        continue;
+                    }
+                    if(entry.candidate != pc && LabelingUtilities.intersects(pc, entry.candidate)){
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remove all registered candidates.
+     */
+    public void clear() {
+        cells.clear();
+        size = 0;
+    }
+
+    private int cell(final double ordinate) {
+        return (int) Math.floor(ordinate / cellSize);
+    }
+
+    private static Long key(final int col, final int row) {
+        return (((long)col) << 32) | (row & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Candidate with its display bounds, including rotation.
+     */
+    private static final class Entry {
+
+        private final PointCandidate candidate;
+        private final double minX;
+        private final double minY;
+        private final double maxX;
+        private final double maxY;
+        private int stamp = 0;
+
+        private Entry(final PointCandidate candidate) {
+            this.candidate = candidate;
+            final double x = candidate.getCorrectedX();
+            final double y = candidate.getCorrectedY();
+            final double w = candidate.width;
+            final double top = -candidate.upper;
+            final double bottom = candidate.lower;
+            final double rotation = Math.toRadians(candidate.getDescriptor().getRotation());
+            if(rotation == 0){
+                minX = x;
+                maxX = x + w;
+                minY = y + top;
+                maxY = y + bottom;
+            }else{
+                final double cos = Math.cos(rotation);
+                final double sin = Math.sin(rotation);
+                //corners of the label rotated around the reference point
+                final double x1 = -top*sin,          y1 = top*cos;
+                final double x2 = w*cos - top*sin,   y2 = w*sin + top*cos;
+                final double x3 = -bottom*sin,       y3 = bottom*cos;
+                final double x4 = w*cos - bottom*sin, y4 = w*sin + bottom*cos;
+                //one pixel margin for rounding errors
+                minX = x + Math.min(Math.min(x1, x2), Math.min(x3, x4)) - 1;
+                maxX = x + Math.max(Math.max(x1, x2), Math.max(x3, x4)) + 1;
+                minY = y + Math.min(Math.min(y1, y2), Math.min(y3, y4)) - 1;
+                maxY = y + Math.max(Math.max(y1, y2), Math.max(y3, y4)) + 1;
+            }
+        }
+    }
+
+}
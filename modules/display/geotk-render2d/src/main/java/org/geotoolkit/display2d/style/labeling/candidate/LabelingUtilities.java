@@ -147,6 +147,26 @@ public class LabelingUtilities {
 
     public static boolean intersects(final PointCandidate label1, final Point combine1, final PointCandidate label2, final Point combine2, final boolean useCorrection){
 
+        if(label1.getDescriptor().getRotation() == 0 && label2.getDescriptor().getRotation() == 0){
+            //both labels are horizontal, compare the rectangles
+            double dx = label2.x - label1.x;
+            double dy = (label2.y - label2.upper) - (label1.y - label1.upper);
+            if(useCorrection){
+                dx += label2.correctionX - label1.correctionX;
+                dy += label2.correctionY - label1.correctionY;
+            }
+            if(combine1 != null){
+                dx -= combine1.x;
+                dy -= combine1.y;
+            }
+            if(combine2 != null){
+                dx += combine2.x;
+                dy += combine2.y;
+            }
+            return dx + label2.width > 0 && dx < label1.width
+                && dy + label2.upper + label2.lower > 0 && dy < label1.upper + label1.lower;
+        }
+
         final AffineTransform trs = new AffineTransform();
         trs.translate(0, label1.upper);
         trs.rotate(-Math.toRadians(label1.getDescriptor().getRotation()));
@@ -212,17 +232,26 @@ public class LabelingUtilities {
         if(rect.intersectsLine(p4.getX(), p4.getY(), p3.getX(), p3.getY())) return true;
         if(rect.intersectsLine(p3.getX(), p3.getY(), p1.getX(), p1.getY())) return true;
 
-        //check that the polygon is not contained in the other
-        double minx = Math.min( Math.min(p1.getX(), p2.getX()), Math.min(p3.getX(), p4.getX()) );
-        double maxx = Math.max( Math.max(p1.getX(), p2.getX()), Math.max(p3.getX(), p4.getX()) );
-        double miny = Math.min( Math.min(p1.getY(), p2.getY()), Math.min(p3.getY(), p4.getY()) );
-        double maxy = Math.max( Math.max(p1.getY(), p2.getY()), Math.max(p3.getY(), p4.getY()) );
+        //check that label1 is not contained in label2
+        //no border intersects, testing the label1 center is enough
+        return contains(p1, p3, p4, p2, label1.width/2.0, label1Height/2.0);
+    }
 
-        if(minx <=0 && maxx >= label1.width && miny <=0 && maxy >= label1Height){
-            return true;
-        }
+    /**
+     * Test if the point is inside the convex quadrilateral a-b-c-d.
+     */
+    private static boolean contains(final Point2D a, final Point2D b, final Point2D c, final Point2D d,
+            final double x, final double y){
+        final double s1 = side(a, b, x, y);
+        final double s2 = side(b, c, x, y);
+        final double s3 = side(c, d, x, y);
+        final double s4 = side(d, a, x, y);
+        return (s1 >= 0 && s2 >= 0 && s3 >= 0 && s4 >= 0)
+            || (s1 <= 0 && s2 <= 0 && s3 <= 0 && s4 <= 0);
+    }
 
-        return false;
+    private static double side(final Point2D a, final Point2D b, final double x, final double y){
+        return (b.getX()-a.getX())*(y-a.getY()) - (b.getY()-a.getY())*(x-a.getX());
     }
 
     public static boolean intersects(final LinearCandidate linear, final PointCandidate point){
@@ -29,6 +29,7 @@ import org.geotoolkit.display2d.style.labeling.LabelLayer;
 import org.geotoolkit.display2d.style.labeling.LinearLabelDescriptor;
 import org.geotoolkit.display2d.style.labeling.PointLabelDescriptor;
 import org.geotoolkit.display2d.style.labeling.candidate.Candidate;
+import org.geotoolkit.display2d.style.labeling.candidate.CandidateGrid;
 import org.geotoolkit.display2d.style.labeling.candidate.LabelingUtilities;
 import org.geotoolkit.display2d.style.labeling.candidate.LinearCandidate;
 import org.geotoolkit.display2d.style.labeling.candidate.PointCandidate;
@@ -43,6 +44,10 @@ import org.geotoolkit.display2d.style.labeling.candidate.PointCandidate;
 public class DecimationLabelRenderer extends DefaultLabelRenderer{
     
     private final SortedSet<Candidate> candidates = new TreeSet<Candidate>(LabelingUtilities.XY_COMPARATOR);
+    /**
+     * Placed point candidates, avoids comparing new candidates with all placed ones.
+     */
+    private final CandidateGrid grid = new CandidateGrid();
 
     private final List<LabelLayer> layers = new ArrayList<LabelLayer>();
 
@@ -123,9 +128,9 @@ public class DecimationLabelRenderer extends DefaultLabelRenderer{
                         final PointCandidate pc = (PointCandidate) c;
                         pc.setPriority(1);
                         synchronized(candidates){
-                            if(!LabelingUtilities.intersects(pc,candidates)){
+                            if(!grid.intersects(pc)){
                                 candidates.add(pc);
-                            }else{
+                                grid.add(pc);
                             }
                         }
                     }
@@ -0,0 +1,163 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.display2d.canvas;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Polygon;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import org.apache.sis.geometry.GeneralEnvelope;
+import org.apache.sis.referencing.CommonCRS;
+import org.apache.sis.util.logging.Logging;
+import org.geotoolkit.data.FeatureCollection;
+import org.geotoolkit.data.FeatureStoreUtilities;
+import org.geotoolkit.data.FeatureWriter;
+import org.geotoolkit.display.PortrayalException;
+import org.geotoolkit.display2d.GO2Hints;
+import org.geotoolkit.display2d.service.CanvasDef;
+import org.geotoolkit.display2d.service.DefaultPortrayalService;
+import org.geotoolkit.display2d.service.SceneDef;
+import org.geotoolkit.display2d.service.ViewDef;
+import org.geotoolkit.factory.Hints;
+import org.geotoolkit.feature.Feature;
+import org.geotoolkit.feature.FeatureTypeBuilder;
+import org.geotoolkit.feature.type.FeatureType;
+import org.geotoolkit.map.MapBuilder;
+import org.geotoolkit.map.MapContext;
+import org.geotoolkit.style.DefaultStyleFactory;
+import org.geotoolkit.style.MutableStyleFactory;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check multi thread rendering produces the same image as sequential rendering.
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+public class MultiThreadRenderingTest {
+
+    private static final Logger LOGGER = Logging.getLogger(MultiThreadRenderingTest.class);
+    private static final GeometryFactory GF = new GeometryFactory();
+    private static final MutableStyleFactory SF = new DefaultStyleFactory();
+
+    private static final int NB_LAYERS = 8;
+    private static final int NB_POLYGONS = 500;
+
+    private final MapContext context;
+    private final GeneralEnvelope env;
+
+    public MultiThreadRenderingTest() throws Exception {
+        env = new GeneralEnvelope(CommonCRS.WGS84.normalizedGeographic());
+        env.setRange(0, -180, 180);
+        env.setRange(1, -90, 90);
+
+        final FeatureTypeBuilder ftb = new FeatureTypeBuilder();
+        ftb.setName("test");
+        ftb.add("geom", Polygon.class, CommonCRS.WGS84.normalizedGeographic());
+        final FeatureType type = ftb.buildSimpleFeatureType();
+
+        //overlapping layers, the result depends on the layers order
+        final Random random = new Random(42);
+        context = MapBuilder.createContext();
+        for (int i=0; i<NB_LAYERS; i++) {
+            final FeatureCollection col = FeatureStoreUtilities.collection("layer"+i, type);
+            final FeatureWriter writer = col.getSession().getFeatureStore().getFeatureWriterAppend(type.getName());
+            for (int k=0; k<NB_POLYGONS; k++) {
+                final double x = random.nextDouble()*340 - 170;
+                final double y = random.nextDouble()*160 - 80;
+                final double s = random.nextDouble()*10;
+                final Feature f = writer.next();
+                f.setPropertyValue("geom", GF.createPolygon(GF.createLinearRing(new Coordinate[]{
+                    new Coordinate(x, y), new Coordinate(x+s, y), new Coordinate(x+s, y+s),
+                    new Coordinate(x, y+s), new Coordinate(x, y)}), null));
+                writer.write();
+            }
+            writer.close();
+
+            final Color color = new Color(random.nextInt(0xFFFFFF));
+            context.layers().add(MapBuilder.createFeatureLayer(col,
+                    SF.style(SF.polygonSymbolizer(SF.stroke(Color.BLACK, 1), SF.fill(color), null))));
+        }
+    }
+
+    @Test
+    public void testSameResult() throws PortrayalException {
+        //warm up
+        portray(false);
+        portray(true);
+
+        long time = System.nanoTime();
+        final BufferedImage sequential = portray(false);
+        LOGGER.fine("Sequential rendering : "+(System.nanoTime()-time)/1000000+"ms");
+
+        final List<String> messages = new ArrayList<>();
+        final Logger canvasLogger = Logging.getLogger(J2DCanvas.class);
+        final Level level = canvasLogger.getLevel();
+        final Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                synchronized (messages) {
+                    messages.add(record.getMessage());
+                }
+            }
+            @Override public void flush() {}
+            @Override public void close() {}
+        };
+        final BufferedImage parallel;
+        canvasLogger.setLevel(Level.FINE);
+        canvasLogger.addHandler(handler);
+        try {
+            time = System.nanoTime();
+            parallel = portray(true);
+            LOGGER.fine("Multi thread rendering : "+(System.nanoTime()-time)/1000000+"ms");
+        } finally {
+            canvasLogger.removeHandler(handler);
+            canvasLogger.setLevel(level);
+        }
+        assertTrue("Multi thread rendering has not been used.",
+                messages.contains("Painting {0} graphics with multi thread rendering."));
+
+        final int width = sequential.getWidth();
+        final int height = sequential.getHeight();
+        assertEquals(width, parallel.getWidth());
+        assertEquals(height, parallel.getHeight());
+        assertArrayEquals(sequential.getRGB(0, 0, width, height, null, 0, width),
+                          parallel.getRGB(0, 0, width, height, null, 0, width));
+    }
+
+    private BufferedImage portray(final boolean multiThread) throws PortrayalException {
+        final Hints hints = new Hints();
+        hints.put(GO2Hints.KEY_MULTI_THREAD, multiThread);
+        hints.put(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+        return DefaultPortrayalService.portray(
+                new CanvasDef(new Dimension(800, 400), Color.WHITE),
+                new SceneDef(context, hints),
+                new ViewDef(env));
+    }
+
+}
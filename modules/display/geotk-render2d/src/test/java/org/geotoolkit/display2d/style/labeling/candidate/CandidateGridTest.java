@@ -0,0 +1,146 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2015, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+
+package org.geotoolkit.display2d.style.labeling.candidate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.geotoolkit.display2d.style.labeling.DefaultPointLabelDescriptor;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Check the candidate grid gives the same decimation as the exhaustive comparison.
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+public class CandidateGridTest {
+
+    @Test
+    public void testHorizontalLabels() {
+        final List<PointCandidate> candidates = createCandidates(5000, false);
+        assertSameDecimation(candidates, new CandidateGrid());
+        assertSameDecimation(candidates, new CandidateGrid(7));
+    }
+
+    @Test
+    public void testRotatedLabels() {
+        final List<PointCandidate> candidates = createCandidates(5000, true);
+        assertSameDecimation(candidates, new CandidateGrid());
+        assertSameDecimation(candidates, new CandidateGrid(500));
+    }
+
+    /**
+     * Rectangle comparison of horizontal labels must match the transformed comparison.
+     */
+    @Test
+    public void testHorizontalIntersection() {
+        final PointCandidate c1 = create(0, 10, 10, 20, 5, 3);
+        assertTrue(LabelingUtilities.intersects(c1, create(0, 25, 12, 20, 5, 3)));
+        //touching labels do not intersect
+        assertFalse(LabelingUtilities.intersects(c1, create(0, 30, 10, 20, 5, 3)));
+        assertFalse(LabelingUtilities.intersects(c1, create(0, 10, 18, 20, 5, 3)));
+        //contained label
+        assertTrue(LabelingUtilities.intersects(c1, create(0, 12, 9, 2, 1, 1)));
+        //nearly horizontal labels use the transformed comparison
+        assertTrue(LabelingUtilities.intersects(c1, create(0.001f, 25, 12, 20, 5, 3)));
+        assertFalse(LabelingUtilities.intersects(c1, create(0.001f, 31, 10, 20, 5, 3)));
+    }
+
+    /**
+     * Compare decimation time of the exhaustive comparison and of the grid, on a dense layer of rotated labels.
+     */
+    @Test
+    @Ignore
+    public void benchDecimation() {
+        final List<PointCandidate> candidates = createCandidates(50000, true);
+        for (int i = 0; i < 5; i++) {
+            long time = System.nanoTime();
+            final List<Candidate> placed = new ArrayList<>();
+            for (PointCandidate c : candidates) {
+                if (!LabelingUtilities.intersects(c, placed)) {
+                    placed.add(c);
+                }
+            }
+            final long exhaustive = System.nanoTime() - time;
+
+            time = System.nanoTime();
+            final CandidateGrid grid = new CandidateGrid();
+            for (PointCandidate c : candidates) {
+                if (!grid.intersects(c)) {
+                    grid.add(c);
+                }
+            }
+            final long indexed = System.nanoTime() - time;
+            assertEquals(placed.size(), grid.size());
+            System.out.println(placed.size() + " labels placed, exhaustive : " + exhaustive / 1000000
+                    + "ms  grid : " + indexed / 1000000 + "ms");
+        }
+    }
+
+    private static void assertSameDecimation(final List<PointCandidate> candidates, final CandidateGrid grid) {
+        final List<Candidate> expected = new ArrayList<>();
+        for (PointCandidate c : candidates) {
+            if (!LabelingUtilities.intersects(c, expected)) {
+                expected.add(c);
+            }
+        }
+
+        final List<Candidate> result = new ArrayList<>();
+        for (PointCandidate c : candidates) {
+            if (!grid.intersects(c)) {
+                result.add(c);
+                grid.add(c);
+            }
+        }
+        assertEquals(expected, result);
+        assertEquals(expected.size(), grid.size());
+        assertTrue(expected.size() < candidates.size());
+
+        grid.clear();
+        assertEquals(0, grid.size());
+        assertFalse(grid.intersects(candidates.get(0)));
+    }
+
+    /**
+     * Dense layer of labels on a 1000x1000 pixels canvas.
+     */
+    private static List<PointCandidate> createCandidates(final int nb, final boolean rotated) {
+        final Random random = new Random(42);
+        final List<PointCandidate> candidates = new ArrayList<>(nb);
+        for (int i = 0; i < nb; i++) {
+            final PointCandidate c = create(rotated ? random.nextFloat() * 360 : 0,
+                    random.nextFloat() * 1000, random.nextFloat() * 1000,
+                    10 + random.nextInt(100), 8 + random.nextInt(6), 2 + random.nextInt(3));
+            c.correctionX = random.nextInt(5) - 2;
+            c.correctionY = random.nextInt(5) - 2;
+            candidates.add(c);
+        }
+        return candidates;
+    }
+
+    private static PointCandidate create(final float rotation, final float x, final float y,
+            final int width, final int upper, final int lower) {
+        final DefaultPointLabelDescriptor desc = new DefaultPointLabelDescriptor(
+                "label", null, null, 0, null, 0, 0, 0, 0, rotation, null, null);
+        return new PointCandidate(desc, width, upper, lower, x, y);
+    }
+}
@@ -93,6 +93,14 @@ final class CachingMosaicReader extends MosaicImageReader {
         return reader;
     }
 
+    /**
+     * Returns {@code false} since the reader of cached files is shared by all tiles.
+     */
+    @Override
+    boolean canReadConcurrently() {
+        return false;
+    }
+
     /**
      * Disposes this reader.
      */
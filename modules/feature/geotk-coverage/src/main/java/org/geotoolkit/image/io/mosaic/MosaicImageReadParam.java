@@ -23,6 +23,8 @@ import javax.imageio.ImageReader;
 import javax.imageio.ImageReadParam;
 import javax.imageio.IIOParamController;
 
+import static org.apache.sis.util.ArgumentChecks.ensureStrictlyPositive;
+
 
 /**
  * The parameters for {@link MosaicImageReader}. <strong>Users are strongly encouraged to invoke
@@ -86,6 +88,13 @@ public class MosaicImageReadParam extends ImageReadParam {
      */
     private boolean nullForEmptyImage;
 
+    /**
+     * The maximal number of threads reading tiles concurrently, or 1 for sequential reads.
+     *
+     * @see #getReadingThreads()
+     */
+    private int readingThreads = 1;
+
     /**
      * The tile readers obtained from the {@link MosaicImageReader} given at construction time,
      * or an empty map if none. Values are the parameters to be given to those readers, created
@@ -179,6 +188,38 @@ public class MosaicImageReadParam extends ImageReadParam {
         nullForEmptyImage = allowed;
     }
 
+    /**
+     * Returns the maximal number of threads to use for reading tiles. The default value is 1,
+     * which means that tiles are read sequentially in the caller thread.
+     *
+     * @return The maximal number of threads reading tiles concurrently.
+     *
+     * @since 4.00
+     */
+    public int getReadingThreads() {
+        return readingThreads;
+    }
+
+    /**
+     * Sets the maximal number of threads to use for reading tiles. Values greater than 1 allow
+     * the {@link MosaicImageReader#read read} method to decode many tiles concurrently, which
+     * speedup the reading of large regions made of many small compressed tiles (PNG, JPEG).
+     * Each thread uses its own set of tile readers. The caller thread is one of the reading
+     * threads.
+     * <p>
+     * Tiles are still read sequentially if the destination image packs many pixels in the
+     * same data element, or if the mosaic reader does not support concurrent reads.
+     *
+     * @param n The maximal number of threads reading tiles concurrently.
+     * @throws IllegalArgumentException if the given number is not strictly positive.
+     *
+     * @since 4.00
+     */
+    public void setReadingThreads(final int n) throws IllegalArgumentException {
+        ensureStrictlyPositive("readingThreads", n);
+        readingThreads = n;
+    }
+
     /**
      * Returns the policy for {@link MosaicImageReader#getImageTypes computing image types}.
      * If no policy has been specified, then this method returns {@code null}. In the later
@@ -207,12 +248,14 @@ public class MosaicImageReadParam extends ImageReadParam {
      * needed because {@link MosaicController} may have configured those parameters.
      */
     final ImageReadParam getCachedTileParameters(final ImageReader reader) {
-        ImageReadParam parameters = readers.get(reader);
-        if (parameters == null) {
-            parameters = getTileParameters(reader);
-            readers.put(reader, parameters);
+        synchronized (readers) { // Tiles may be read concurrently, each thread with its own readers.
+            ImageReadParam parameters = readers.get(reader);
+            if (parameters == null) {
+                parameters = getTileParameters(reader);
+                readers.put(reader, parameters);
+            }
+            return parameters;
         }
-        return parameters;
     }
 
     /**
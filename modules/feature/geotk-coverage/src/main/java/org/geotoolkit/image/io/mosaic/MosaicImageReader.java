@@ -22,14 +22,23 @@ import java.awt.Dimension;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
+import java.awt.image.MultiPixelPackedSampleModel;
 import java.awt.image.Raster;
 import java.io.File;
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.*; // Lot of imports used in this class.
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.IIOException;
 import javax.imageio.IIOParamController;
 import javax.imageio.ImageReadParam;
 import javax.imageio.ImageReader;
@@ -48,6 +57,7 @@ import org.geotoolkit.util.logging.LogProducer;
 import org.apache.sis.util.logging.PerformanceLevel;
 import org.apache.sis.util.Classes;
 import org.geotoolkit.util.collection.FrequencySortedSet;
+import org.geotoolkit.internal.Threads;
 import org.geotoolkit.internal.image.io.Formats;
 import org.geotoolkit.internal.image.io.GridDomainAccessor;
 import org.geotoolkit.image.io.metadata.SpatialMetadata;
@@ -88,10 +98,18 @@ public class MosaicImageReader extends ImageReader implements LogProducer, Close
     final TileReaderPool readers;
 
     /**
-     * The reader currently under process of reading, or {@code null} if none. Used by
-     * {@link #abort} only. Changes must be performed inside a {@code synchronized(this)} block.
+     * The cached {@link ImageReader} instances of the threads reading tiles concurrently
+     * with the caller thread, created when first needed.
+     *
+     * @see MosaicImageReadParam#setReadingThreads(int)
+     */
+    private final List<TileReaderPool> workerReaders;
+
+    /**
+     * The readers currently under process of reading. Used by {@link #abort} only.
+     * Changes must be performed inside a {@code synchronized(this)} block.
      */
-    private transient ImageReader reading;
+    private final transient Set<ImageReader> reading;
 
     /**
      * The image metadata, created when first needed.
@@ -126,6 +144,8 @@ public class MosaicImageReader extends ImageReader implements LogProducer, Close
     public MosaicImageReader(final ImageReaderSpi spi) {
         super(spi != null ? spi : Spi.DEFAULT);
         readers = new TileReaderPool();
+        workerReaders = new ArrayList<>();
+        reading = Collections.newSetFromMap(new IdentityHashMap<ImageReader,Boolean>());
     }
 
     /**
@@ -253,6 +273,9 @@ public class MosaicImageReader extends ImageReader implements LogProducer, Close
             Logging.unexpectedException(LOGGER, MosaicImageReader.class, "setInput", e);
         }
         readers.setProviders(providers);
+        for (final TileReaderPool pool : workerReaders) {
+            pool.setProviders(providers);
+        }
     }
 
     /**
@@ -365,6 +388,9 @@ public class MosaicImageReader extends ImageReader implements LogProducer, Close
     public void setLocale(final Locale locale) throws IllegalArgumentException {
         super.setLocale(locale); // May thrown an exception.
         readers.setLocale(locale);
+        for (final TileReaderPool pool : workerReaders) {
+            pool.setLocale(locale);
+        }
     }
 
     /**
@@ -1096,6 +1122,20 @@ public class MosaicImageReader extends ImageReader implements LogProducer, Close
             startTime = 0;
             status = 0;
         }
+        /*
+         * If many threads are allowed, the loop below only computes the regions to read and
+         * the tiles are read concurrently after the loop. This require a destination image
+         * shared by all threads, in which no data element is shared by many pixels.
+         */
+        final List<TileRead> requests;
+        final int numThreads = Math.min(mosaicParam.getReadingThreads(), tiles.size());
+        if (numThreads > 1 && image != null && canReadConcurrently() &&
+                !(image.getSampleModel() instanceof MultiPixelPackedSampleModel))
+        {
+            requests = new ArrayList<>(tiles.size());
+        } else {
+            requests = null;
+        }
         /*
          * Now read every tiles... The log record will be logged in the "finally" block in
          * every case, in order to help debugging in case of failure.
@@ -1208,51 +1248,22 @@ public class MosaicImageReader extends ImageReader implements LogProducer, Close
                     format(table, subsampling.width,   subsampling.height);
                     table.nextLine();
                 }
-                final ImageReader reader = getTileReader(tile);
-                final ImageReadParam tileParam = mosaicParam.getCachedTileParameters(reader);
-                final BufferedImage output;
-                try {
-                    tileParam.setDestinationType(null);
-                    if (manager.canWriteInPlace(reader.getOriginatingProvider())) {
-                        // Must be after setDestinationType and may be null.
-                        tileParam.setDestination(image);
-                        tileParam.setDestinationOffset(destinationOffset);
-                    }
-                    if (tileParam.canSetSourceRenderSize()) {
-                        tileParam.setSourceRenderSize(null); // TODO.
-                    }
-                    tileParam.setSourceRegion(regionToRead);
-                    tileParam.setSourceSubsampling(subsampling.width, subsampling.height, 0, 0);
-                    if (controller != null) {
-                        controller.configure(tile, tileParam);
-                    }
-                    synchronized (this) {  // Same lock than ImageReader.abort()
-                        reading = reader;
-                    }
-                    output = reader.read(tileIndex, tileParam);
-                } finally {
-                    synchronized (this) {  // Same lock than ImageReader.abort()
-                        reading = null;
-                    }
-                    // Cleanup because the parameters are cached.
-                    tileParam.setDestination(null);
-                    tileParam.setSourceRegion(null);
-                    tileParam.setDestinationOffset(new Point());
-                }
-                if (image == null) {
-                    image = output;
-                } else if (output != image) {
-                    /*
-                     * The read operation ignored our destination image. Copy the data (slow,
-                     * consume memory). Note that the sample and color models should be the
-                     * same if we choose correctly the raw image type in the above code.
-                     */
-                    Raster data = output.getRaster();
-                    data = Raster.createRaster(data.getSampleModel(), data.getDataBuffer(), destinationOffset);
-                    image.setData(data);
+                if (requests != null) {
+                    requests.add(new TileRead(tile, regionToRead, subsampling, destinationOffset));
+                } else {
+                    image = readTile(getTileReader(tile), tile, regionToRead, subsampling,
+                            destinationOffset, image, manager, mosaicParam, controller);
                 }
             }
-            status = 0; // Success.
+            if (requests != null && status != 1 &&
+                    !readConcurrently(requests, numThreads, image, manager, mosaicParam, controller))
+            {
+                processReadAborted();
+                status = 1;
+            }
+            if (status != 1) {
+                status = 0; // Success.
+            }
         } finally {
             /*
              * Reading is finished, aborted or an exception has been thrown.
@@ -1278,6 +1289,219 @@ public class MosaicImageReader extends ImageReader implements LogProducer, Close
         return image;
     }
 
+    /**
+     * Reads the given region of a tile, then copies the result in the given image if the tile
+     * reader did not wrote the pixels directly in that image. This method may be invoked by
+     * many threads concurrently, each thread with its own tile readers.
+     *
+     * @param  reader            The reader to use for reading the tile.
+     * @param  tile              The tile to read.
+     * @param  regionToRead      The region to read, in tile coordinates.
+     * @param  subsampling       The subsampling to apply on the tile.
+     * @param  destinationOffset Where to write the pixels in the destination image.
+     * @param  image             The destination image, or {@code null} if not yet created.
+     * @return The destination image, created by the tile reader if {@code image} was null.
+     * @throws IOException if an error occurs during reading.
+     */
+    private BufferedImage readTile(final ImageReader reader, final Tile tile, final Rectangle regionToRead,
+            final Dimension subsampling, final Point destinationOffset, final BufferedImage image,
+            final TileManager manager, final MosaicImageReadParam mosaicParam, final MosaicController controller)
+            throws IOException
+    {
+        final ImageReadParam tileParam = mosaicParam.getCachedTileParameters(reader);
+        final BufferedImage output;
+        try {
+            tileParam.setDestinationType(null);
+            if (manager.canWriteInPlace(reader.getOriginatingProvider())) {
+                // Must be after setDestinationType and may be null.
+                tileParam.setDestination(image);
+                tileParam.setDestinationOffset(destinationOffset);
+            }
+            if (tileParam.canSetSourceRenderSize()) {
+                tileParam.setSourceRenderSize(null); // TODO.
+            }
+            tileParam.setSourceRegion(regionToRead);
+            tileParam.setSourceSubsampling(subsampling.width, subsampling.height, 0, 0);
+            if (controller != null) {
+                synchronized (controller) {
+                    controller.configure(tile, tileParam);
+                }
+            }
+            synchronized (this) {  // Same lock than ImageReader.abort()
+                reading.add(reader);
+            }
+            output = reader.read(tile.getImageIndex(), tileParam);
+        } finally {
+            synchronized (this) {  // Same lock than ImageReader.abort()
+                reading.remove(reader);
+            }
+            // Cleanup because the parameters are cached.
+            tileParam.setDestination(null);
+            tileParam.setSourceRegion(null);
+            tileParam.setDestinationOffset(new Point());
+        }
+        if (image == null) {
+            return output;
+        }
+        if (output != image) {
+            /*
+             * The read operation ignored our destination image. Copy the data (slow,
+             * consume memory). Note that the sample and color models should be the
+             * same if we choose correctly the raw image type in the above code.
+             */
+            Raster data = output.getRaster();
+            data = Raster.createRaster(data.getSampleModel(), data.getDataBuffer(), destinationOffset);
+            image.setData(data);
+        }
+        return image;
+    }
+
+    /**
+     * Returns {@code true} if this reader can read tiles concurrently. This is the case only if
+     * the tile readers are provided by {@link TileReaderPool}, which allows every thread to use
+     * its own set of readers.
+     */
+    boolean canReadConcurrently() {
+        return true;
+    }
+
+    /**
+     * Returns the tile readers of the given worker thread, creating them if needed.
+     *
+     * @param worker Index of the worker thread, starting at 0.
+     */
+    private TileReaderPool getWorkerReaders(final int worker) {
+        while (workerReaders.size() <= worker) {
+            final TileReaderPool pool = new TileReaderPool();
+            pool.setLocale(locale);
+            pool.setProviders(readers.providers);
+            workerReaders.add(pool);
+        }
+        return workerReaders.get(worker);
+    }
+
+    /**
+     * Reads the given tiles using the given number of threads, the caller thread included.
+     * Other threads are taken from the {@linkplain Threads#getParallelExecutor() shared executor}.
+     * Each thread takes the next tile to read from the list until all tiles have been read,
+     * the read has been aborted or a thread failed.
+     *
+     * @return {@code false} if the read has been aborted.
+     * @throws IOException if an error occurs during reading.
+     */
+    private boolean readConcurrently(final List<TileRead> requests, final int numThreads,
+            final BufferedImage image, final TileManager manager, final MosaicImageReadParam mosaicParam,
+            final MosaicController controller) throws IOException
+    {
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicBoolean stop = new AtomicBoolean();
+        final ExecutorService executor = Threads.getParallelExecutor();
+        // More workers than the executor threads would only hold tile readers.
+        final int numWorkers = Math.min(numThreads - 1, Threads.getParallelism());
+        final List<Future<?>> tasks = new ArrayList<>(numWorkers);
+        Throwable failure = null;
+        try {
+            for (int i=1; i<=numWorkers; i++) {
+                final TileReaderPool pool = getWorkerReaders(i - 1);
+                tasks.add(executor.submit(new Callable<Object>() {
+                    @Override public Object call() throws IOException {
+                        readTiles(pool, requests, next, stop, image, manager, mosaicParam, controller);
+                        return null;
+                    }
+                }));
+            }
+            readTiles(null, requests, next, stop, image, manager, mosaicParam, controller);
+        } catch (IOException | RuntimeException | Error e) {
+            failure = e;
+            stop.set(true);
+        }
+        /*
+         * Waits for all worker threads even in case of failure, since they
+         * must not use their readers or write in the image after we return.
+         */
+        boolean interrupted = false;
+        for (final Future<?> task : tasks) {
+            while (true) {
+                try {
+                    task.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                    stop.set(true);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    stop.set(true);
+                    continue;
+                }
+                break;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+            if (failure == null) {
+                failure = new InterruptedIOException();
+            }
+        }
+        if (failure != null) {
+            if (failure instanceof IOException)      throw (IOException)      failure;
+            if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+            if (failure instanceof Error)            throw (Error)            failure;
+            throw new IIOException(failure.getLocalizedMessage(), failure);
+        }
+        return !stop.get();
+    }
+
+    /**
+     * Reads tiles from the given list until all of them have been taken, or until
+     * the {@code stop} flag is set. Invoked by every thread of a concurrent read.
+     *
+     * @param pool The tile readers to use, or {@code null} for the readers of the caller thread.
+     */
+    private void readTiles(final TileReaderPool pool, final List<TileRead> requests,
+            final AtomicInteger next, final AtomicBoolean stop, final BufferedImage image,
+            final TileManager manager, final MosaicImageReadParam mosaicParam,
+            final MosaicController controller) throws IOException
+    {
+        int i;
+        while (!stop.get() && (i = next.getAndIncrement()) < requests.size()) {
+            if (abortRequested()) {
+                stop.set(true);
+                break;
+            }
+            final TileRead request = requests.get(i);
+            final Tile tile = request.tile;
+            final ImageReader reader = (pool != null) ? tile.getImageReader(pool, true, true) : getTileReader(tile);
+            readTile(reader, tile, request.region, request.subsampling, request.destination,
+                    image, manager, mosaicParam, controller);
+        }
+    }
+
+    /**
+     * A tile to read concurrently, together with the parameters
+     * computed by {@link MosaicImageReader#read(int, ImageReadParam)}.
+     */
+    private static final class TileRead {
+        /** The tile to read. */
+        final Tile tile;
+
+        /** The region to read, in tile coordinates. */
+        final Rectangle region;
+
+        /** The subsampling to apply on the tile. */
+        final Dimension subsampling;
+
+        /** Where to write the pixels in the destination image. */
+        final Point destination;
+
+        TileRead(final Tile tile, final Rectangle region, final Dimension subsampling, final Point destination) {
+            this.tile        = tile;
+            this.region      = region;
+            this.subsampling = new Dimension(subsampling);
+            this.destination = new Point(destination);
+        }
+    }
+
     /**
      * Logs the given record to the given logger.
      */
@@ -1327,8 +1551,8 @@ public class MosaicImageReader extends ImageReader implements LogProducer, Close
     @Override
     public synchronized void abort() {
         super.abort();
-        if (reading != null) {
-            reading.abort();
+        for (final ImageReader reader : reading) {
+            reader.abort();
         }
     }
 
@@ -1341,6 +1565,9 @@ public class MosaicImageReader extends ImageReader implements LogProducer, Close
     @Override
     public void close() throws IOException {
         readers.close();
+        for (final TileReaderPool pool : workerReaders) {
+            pool.close();
+        }
     }
 
     /**
@@ -1359,6 +1586,10 @@ public class MosaicImageReader extends ImageReader implements LogProducer, Close
             Logging.unexpectedException(LOGGER, MosaicImageReader.class, "dispose", e);
         }
         readers.dispose();
+        for (final TileReaderPool pool : workerReaders) {
+            pool.dispose();
+        }
+        workerReaders.clear();
         super.dispose();
     }
 
@@ -39,6 +39,7 @@ import static org.apache.sis.util.ArgumentChecks.ensureStrictlyPositive;
  * <p>
  * <ul>
  *   <li>{@link #estimateEfficiency(int)}</li>
+ *   <li>{@link #estimateReadingTime(int, int)}</li>
  * </ul>
  *
  * The example below profiles a mosaic for different subsampling values.
@@ -405,31 +406,82 @@ public class MosaicProfiler {
      *         {@linkplain Tile#getImageReader reader} and this operation failed.
      */
     public synchronized Statistics estimateEfficiency(int numSamples) throws IOException {
-        final int dsx = maxSubsampling.width  - minSubsampling.width  + 1;
-        final int dsy = maxSubsampling.height - minSubsampling.height + 1;
-        final int dw  = maxSize.width  - minSize.width  + 1;
-        final int dh  = maxSize.height - minSize.height + 1;
-        final Rectangle region = this.region; // Shared instance - do not modify!
         final Rectangle sample = new Rectangle();
         final Dimension subsampling = new Dimension();
         final Statistics stats = new Statistics(null);
         while (--numSamples >= 0) {
-            final int sx = minSubsampling.width  + random.nextInt(dsx);
-            final int sy = minSubsampling.height + random.nextInt(dsy);
-            final int width  = Math.min((minSize.width  + random.nextInt(dw)) * sx, region.width);
-            final int height = Math.min((minSize.height + random.nextInt(dh)) * sy, region.height);
-            final int x = region.x + random.nextInt(region.width  - width  + 1);
-            final int y = region.y + random.nextInt(region.height - height + 1);
-            sample.setBounds(x, y, width, height);
-            assert region.contains(sample) : sample;
-            subsampling.setSize(sx, sy);
+            nextSample(sample, subsampling);
             long cost = 0;
             for (final Tile tile : mosaic.getTiles(sample, subsampling, subsamplingChangeAllowed)) {
                 cost += tile.countUnwantedPixelsFromAbsolute(sample, subsampling);
             }
-            final long area = (long) width * (long) height / (subsampling.width * subsampling.height);
+            final long area = (long) sample.width * (long) sample.height / (subsampling.width * subsampling.height);
             stats.accept(1 / ((double) cost / (double) area + 1));
         }
         return stats;
     }
+
+    /**
+     * Reads the given amount of random rectangular regions using a {@link MosaicImageReader}
+     * and returns statistics about the reading time, in milliseconds. Contrarily to
+     * {@link #estimateEfficiency(int)}, the images are really loaded. Setting the same
+     * {@linkplain #setSeed seed} before each profiling session allows to compare the
+     * time spent for reading the same regions with different number of threads.
+     *
+     * @param  numSamples     The number of rectangular regions to load.
+     * @param  readingThreads The maximal number of threads reading tiles concurrently.
+     * @return Statistics about the time spent for loading each region, in milliseconds.
+     * @throws IOException If an error occurred while reading the tiles.
+     *
+     * @see MosaicImageReadParam#setReadingThreads(int)
+     *
+     * @since 4.00
+     */
+    public synchronized Statistics estimateReadingTime(int numSamples, final int readingThreads) throws IOException {
+        final Rectangle sample = new Rectangle();
+        final Dimension subsampling = new Dimension();
+        final Statistics stats = new Statistics(null);
+        final MosaicImageReader reader = new MosaicImageReader();
+        try {
+            reader.setInput(mosaic);
+            while (--numSamples >= 0) {
+                nextSample(sample, subsampling);
+                final MosaicImageReadParam param = reader.getDefaultReadParam();
+                param.setSubsamplingChangeAllowed(subsamplingChangeAllowed);
+                param.setReadingThreads(readingThreads);
+                param.setSourceRegion(sample);
+                param.setSourceSubsampling(subsampling.width, subsampling.height, 0, 0);
+                final long startTime = System.nanoTime();
+                reader.read(0, param);
+                stats.accept((System.nanoTime() - startTime) / 1E+6);
+            }
+        } finally {
+            reader.dispose();
+        }
+        return stats;
+    }
+
+    /**
+     * Computes a random rectangular region and a random subsampling
+     * in the bounds specified by the properties of this profiler.
+     *
+     * @param sample      Where to store the region.
+     * @param subsampling Where to store the subsampling.
+     */
+    private void nextSample(final Rectangle sample, final Dimension subsampling) {
+        final int dsx = maxSubsampling.width  - minSubsampling.width  + 1;
+        final int dsy = maxSubsampling.height - minSubsampling.height + 1;
+        final int dw  = maxSize.width  - minSize.width  + 1;
+        final int dh  = maxSize.height - minSize.height + 1;
+        final Rectangle region = this.region; // Shared instance - do not modify!
+        final int sx = minSubsampling.width  + random.nextInt(dsx);
+        final int sy = minSubsampling.height + random.nextInt(dsy);
+        final int width  = Math.min((minSize.width  + random.nextInt(dw)) * sx, region.width);
+        final int height = Math.min((minSize.height + random.nextInt(dh)) * sy, region.height);
+        final int x = region.x + random.nextInt(region.width  - width  + 1);
+        final int y = region.y + random.nextInt(region.height - height + 1);
+        sample.setBounds(x, y, width, height);
+        assert region.contains(sample) : sample;
+        subsampling.setSize(sx, sy);
+    }
 }
@@ -230,7 +230,7 @@ final class TileReaderPool {
     public void setLocale(final Locale locale) throws IllegalArgumentException {
         this.locale = locale;
         for (final ImageReader reader : readers.values()) {
-            try {
+            if (reader != null) try { // Readers are created only when first needed.
                 reader.setLocale(locale);
             } catch (IllegalArgumentException e) {
                 // Locale not supported by the reader. It may occurs
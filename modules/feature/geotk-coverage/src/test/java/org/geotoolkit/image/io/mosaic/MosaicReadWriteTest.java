@@ -223,6 +223,47 @@ public final strictfp class MosaicReadWriteTest extends ImageTestBase {
         reader.dispose();
     }
 
+    /**
+     * Reads the mosaic with many threads. The images shall be the same than the ones
+     * read sequentially by {@link #testInputMosaic()}.
+     *
+     * @throws IOException If an I/O error occurred.
+     */
+    @Test
+    public void testConcurrentRead() throws IOException {
+        final MosaicImageReader reader = new MosaicImageReader();
+        reader.setInput(sourceMosaic);
+        MosaicImageReadParam param = reader.getDefaultReadParam();
+        param.setReadingThreads(4);
+        image = reader.read(0, param);
+        assertEquals("Width",  4*S, image.getWidth ());
+        assertEquals("Height", 2*S, image.getHeight());
+        assertCurrentChecksumEquals("testConcurrentRead", IMAGE_CHECKSUMS);
+        /*
+         * Loads the mosaic with a subsampling.
+         */
+        param = reader.getDefaultReadParam();
+        param.setReadingThreads(4);
+        param.setSourceSubsampling(4, 2, 0, 0);
+        image = reader.read(0, param);
+        assertEquals("Width",  S, image.getWidth ());
+        assertEquals("Height", S, image.getHeight());
+        assertEquals("Checksum", 329430756L, Commons.checksum(image));
+        /*
+         * Loads a sub-region of the mosaic, twice for reusing the readers of worker threads.
+         */
+        for (int i=0; i<2; i++) {
+            param = reader.getDefaultReadParam();
+            param.setReadingThreads(3);
+            param.setSourceRegion(new Rectangle(S/2, S/4, 3*S, S+S/2));
+            image = reader.read(0, param);
+            assertEquals("Width",  3*S,   image.getWidth ());
+            assertEquals("Height", S+S/2, image.getHeight());
+            assertEquals("Checksum", 4259662989L, Commons.checksum(image));
+        }
+        reader.dispose();
+    }
+
     /**
      * Returns the builder to use for creating the target mosaic. The subsampling levels to create
      * must be supplied in argument. Some tests do not create tiles at the finest subsampling in
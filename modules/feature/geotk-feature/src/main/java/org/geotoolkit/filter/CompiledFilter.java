@@ -0,0 +1,743 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2015, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.filter;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.logging.Level;
+import org.apache.sis.referencing.CommonCRS;
+import org.apache.sis.util.UnconvertibleObjectException;
+import org.apache.sis.util.logging.Logging;
+import org.geotoolkit.feature.simple.SimpleFeature;
+import org.geotoolkit.feature.simple.SimpleFeatureType;
+import org.geotoolkit.feature.type.GeometryDescriptor;
+import org.geotoolkit.filter.binarycomparison.DefaultPropertyIsEqualTo;
+import org.geotoolkit.filter.binarycomparison.DefaultPropertyIsGreaterThan;
+import org.geotoolkit.filter.binarycomparison.DefaultPropertyIsGreaterThanOrEqualTo;
+import org.geotoolkit.filter.binarycomparison.DefaultPropertyIsLessThan;
+import org.geotoolkit.filter.binarycomparison.DefaultPropertyIsLessThanOrEqualTo;
+import org.geotoolkit.filter.binarycomparison.DefaultPropertyIsNotEqualTo;
+import org.geotoolkit.filter.binaryspatial.DefaultBBox;
+import org.geotoolkit.geometry.jts.JTS;
+import org.geotoolkit.referencing.CRS;
+import org.opengis.filter.And;
+import org.opengis.filter.BinaryComparisonOperator;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterVisitor;
+import org.opengis.filter.Not;
+import org.opengis.filter.Or;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Literal;
+import org.opengis.filter.expression.PropertyName;
+import org.opengis.filter.spatial.SpatialOperator;
+import org.opengis.geometry.BoundingBox;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.util.FactoryException;
+
+/**
+ * Filter compiled against a simple feature type.
+ *
+ * Property names are resolved to attribute indexes, literals are converted
+ * to the attribute binding once, logic operators are flattened and their children
+ * ordered to evaluate the cheapest and most selective filters first.
+ * BBOX filters are decided on the geometry envelope, only geometries crossing the
+ * bbox border are tested by the original filter.
+ *
+ * Each compiled node only handles the values for which it gives the same result as
+ * the original filter, other values and features of another type are evaluated by
+ * the original filters.
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+final class CompiledFilter implements Filter {
+
+    /**
+     * Relative evaluation costs, in number of attribute comparisons.
+     */
+    private static final double COST_NULL = 1;
+    private static final double COST_COMPARE = 2;
+    private static final double COST_BETWEEN = 3;
+    private static final double COST_BBOX = 10;
+    private static final double COST_FILTER = 20;
+    private static final double COST_SPATIAL = 100;
+
+    /**
+     * Estimated probability for a feature to pass a filter.
+     */
+    private static final double PASS_EQUAL = 0.1;
+    private static final double PASS_NULL = 0.1;
+    private static final double PASS_COMPARE = 1.0 / 3.0;
+    private static final double PASS_BETWEEN = 0.25;
+    private static final double PASS_DEFAULT = 0.5;
+
+    private static final double EPS = 1E-12;
+
+    private static final int LESS = 0;
+    private static final int LESS_OR_EQUAL = 1;
+    private static final int GREATER = 2;
+    private static final int GREATER_OR_EQUAL = 3;
+
+    private final Filter original;
+    private final SimpleFeatureType type;
+    private final Node root;
+
+    /**
+     * Last feature types found equal or different from the compiled type.
+     */
+    private volatile SimpleFeatureType accepted;
+    private volatile SimpleFeatureType rejected;
+
+    private CompiledFilter(final Filter original, final SimpleFeatureType type, final Node root) {
+        this.original = original;
+        this.type = type;
+        this.root = root;
+    }
+
+    /**
+     * Compile the filter for the given feature type.
+     *
+     * @return compiled filter, {@link Filter#INCLUDE}, {@link Filter#EXCLUDE}
+     *         or the original filter if no part of it could be compiled.
+     */
+    static Filter compile(final Filter filter, final SimpleFeatureType type) {
+        final Node root = new Compiler(type).compile(filter);
+        if (root == Constant.INCLUDE) {
+            return Filter.INCLUDE;
+        } else if (root == Constant.EXCLUDE) {
+            return Filter.EXCLUDE;
+        } else if (root instanceof FilterNode) {
+            return filter;
+        }
+        return new CompiledFilter(filter, type, root);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public boolean evaluate(final Object candidate) {
+        if (candidate instanceof SimpleFeature) {
+            final SimpleFeature feature = (SimpleFeature) candidate;
+            final SimpleFeatureType ft = feature.getType();
+            if (ft == type || ft == accepted || (ft != rejected && isCompatible(ft))) {
+                return root.evaluate(feature);
+            }
+        }
+        return original.evaluate(candidate);
+    }
+
+    private boolean isCompatible(final SimpleFeatureType ft) {
+        if (type.equals(ft)) {
+            accepted = ft;
+            return true;
+        }
+        rejected = ft;
+        return false;
+    }
+
+    /**
+     * Visitors see the original filter.
+     */
+    @Override
+    public Object accept(final FilterVisitor visitor, final Object extraData) {
+        return original.accept(visitor, extraData);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String toString() {
+        return original.toString();
+    }
+
+    /**
+     * Build the evaluation tree.
+     */
+    private static final class Compiler {
+
+        private final SimpleFeatureType type;
+
+        private Compiler(final SimpleFeatureType type) {
+            this.type = type;
+        }
+
+        private Node compile(final Filter filter) {
+            if (filter == Filter.INCLUDE) {
+                return Constant.INCLUDE;
+            } else if (filter == Filter.EXCLUDE) {
+                return Constant.EXCLUDE;
+            } else if (filter instanceof And) {
+                return compileLogic(((And) filter).getChildren(), true);
+            } else if (filter instanceof Or) {
+                return compileLogic(((Or) filter).getChildren(), false);
+            } else if (filter instanceof Not) {
+                final Node child = compile(((Not) filter).getFilter());
+                if (child == Constant.INCLUDE) return Constant.EXCLUDE;
+                if (child == Constant.EXCLUDE) return Constant.INCLUDE;
+                if (child instanceof NotNode) return ((NotNode) child).child;
+                return new NotNode(child);
+            }
+
+            final Class<?> clazz = filter.getClass();
+            Node node = null;
+            if (clazz == DefaultPropertyIsEqualTo.class || clazz == DefaultPropertyIsNotEqualTo.class) {
+                node = compileEqual((BinaryComparisonOperator) filter, clazz == DefaultPropertyIsNotEqualTo.class);
+            } else if (clazz == DefaultPropertyIsLessThan.class) {
+                node = compileCompare((BinaryComparisonOperator) filter, LESS);
+            } else if (clazz == DefaultPropertyIsLessThanOrEqualTo.class) {
+                node = compileCompare((BinaryComparisonOperator) filter, LESS_OR_EQUAL);
+            } else if (clazz == DefaultPropertyIsGreaterThan.class) {
+                node = compileCompare((BinaryComparisonOperator) filter, GREATER);
+            } else if (clazz == DefaultPropertyIsGreaterThanOrEqualTo.class) {
+                node = compileCompare((BinaryComparisonOperator) filter, GREATER_OR_EQUAL);
+            } else if (clazz == DefaultPropertyIsBetween.class) {
+                node = compileBetween((DefaultPropertyIsBetween) filter);
+            } else if (clazz == DefaultPropertyIsNull.class) {
+                final int index = indexOf(((DefaultPropertyIsNull) filter).getExpression());
+                if (index >= 0) node = new NullNode(index);
+            } else if (clazz == DefaultBBox.class) {
+                node = compileBBox((DefaultBBox) filter);
+            }
+
+            if (node == null) {
+                node = new FilterNode(filter, (filter instanceof SpatialOperator) ? COST_SPATIAL : COST_FILTER, PASS_DEFAULT);
+            }
+            return node;
+        }
+
+        /**
+         * Flatten nested operators of the same kind, remove constants and order children
+         * by increasing rank : cost / probability to stop the evaluation.
+         */
+        private Node compileLogic(final List<Filter> filters, final boolean and) {
+            final Constant neutral = and ? Constant.INCLUDE : Constant.EXCLUDE;
+            final Constant absorbing = and ? Constant.EXCLUDE : Constant.INCLUDE;
+            final List<Node> children = new ArrayList<>(filters.size());
+            for (Filter filter : filters) {
+                final Node child = compile(filter);
+                if (child == absorbing) {
+                    return absorbing;
+                } else if (child == neutral) {
+                    continue;
+                } else if (child instanceof LogicNode && ((LogicNode) child).and == and) {
+                    Collections.addAll(children, ((LogicNode) child).children);
+                } else {
+                    children.add(child);
+                }
+            }
+            if (children.isEmpty()) {
+                return neutral;
+            } else if (children.size() == 1) {
+                return children.get(0);
+            }
+            Collections.sort(children, new Comparator<Node>() {
+                @Override
+                public int compare(final Node n1, final Node n2) {
+                    return Double.compare(rank(n1), rank(n2));
+                }
+                private double rank(final Node n) {
+                    final double stop = and ? 1 - n.pass : n.pass;
+                    return (stop <= 0) ? Double.POSITIVE_INFINITY : n.cost / stop;
+                }
+            });
+            return new LogicNode(children.toArray(new Node[children.size()]), and);
+        }
+
+        private Node compileEqual(final BinaryComparisonOperator filter, final boolean negate) {
+            int index = indexOf(filter.getExpression1());
+            Expression other = filter.getExpression2();
+            if (index < 0) {
+                index = indexOf(other);
+                other = filter.getExpression1();
+            }
+            if (index < 0 || !(other instanceof Literal)) {
+                return null;
+            }
+            Object ref = ((Literal) other).getValue();
+            boolean converted = false;
+            final Class<?> binding = getBinding(index);
+            if (ref instanceof String && Number.class.isAssignableFrom(binding)) {
+                //numeric value given as text, the comparison would convert it on each call
+                ref = convert((Literal) other, binding);
+                if (ref == null) return null;
+                converted = true;
+            }
+            return new EqualNode(filter, index, ref, converted, filter.isMatchingCase(), negate);
+        }
+
+        private Node compileCompare(final BinaryComparisonOperator filter, final int operator) {
+            final Expression exp1 = filter.getExpression1();
+            final Expression exp2 = filter.getExpression2();
+            int index = indexOf(exp1);
+            if (index >= 0 && exp2 instanceof Literal) {
+                final Class<?> binding = getBinding(index);
+                if (((Literal) exp2).getValue() instanceof Date && !Date.class.isAssignableFrom(binding)) {
+                    //the attribute value would be converted to a date
+                    return null;
+                }
+                final Object ref = convert((Literal) exp2, binding);
+                if (!(ref instanceof Comparable) || ref instanceof java.sql.Date) {
+                    return null;
+                }
+                return new CompareNode(filter, index, (Comparable) ref, false, operator);
+            }
+            index = indexOf(exp2);
+            if (index >= 0 && exp1 instanceof Literal) {
+                final Object ref = ((Literal) exp1).getValue();
+                if (!(ref instanceof Comparable) || ref instanceof java.sql.Date) {
+                    return null;
+                }
+                return new CompareNode(filter, index, (Comparable) ref, true, operator);
+            }
+            return null;
+        }
+
+        private Node compileBetween(final DefaultPropertyIsBetween filter) {
+            final int index = indexOf(filter.getExpression());
+            if (index < 0 || !(filter.getLowerBoundary() instanceof Literal)
+                          || !(filter.getUpperBoundary() instanceof Literal)) {
+                return null;
+            }
+            final Class<?> binding = getBinding(index);
+            //numbers are compared as doubles
+            final Class<?> target = Number.class.isAssignableFrom(binding) ? Double.class : binding;
+            final Object lower = convert((Literal) filter.getLowerBoundary(), target);
+            final Object upper = convert((Literal) filter.getUpperBoundary(), target);
+            if (!(lower instanceof Comparable) || !(upper instanceof Comparable)) {
+                return null;
+            }
+            return new BetweenNode(filter, index, (Comparable) lower, (Comparable) upper);
+        }
+
+        private Node compileBBox(final DefaultBBox filter) {
+            final int index = indexOf(filter.getExpression1());
+            if (index < 0 || !(type.getDescriptor(index) instanceof GeometryDescriptor)) {
+                return null;
+            }
+            final BoundingBox bbox = filter.getExpression2().getValue();
+            CoordinateReferenceSystem crs = bbox.getCoordinateReferenceSystem();
+            if (crs == null) {
+                crs = CommonCRS.WGS84.normalizedGeographic();
+            }
+            final CoordinateReferenceSystem geomCrs = ((GeometryDescriptor) type.getDescriptor(index)).getCoordinateReferenceSystem();
+            if (geomCrs != null && !CRS.equalsIgnoreMetadata(crs, geomCrs)) {
+                //geometries must be reprojected
+                return null;
+            }
+            //same bounds as the bbox filter geometry
+            double minX = bbox.getMinimum(0);
+            double minY = bbox.getMinimum(1);
+            double maxX = bbox.getMaximum(0);
+            double maxY = bbox.getMaximum(1);
+            if (Double.isNaN(minX) || Double.isInfinite(minX)) minX = Double.MIN_VALUE;
+            if (Double.isNaN(minY) || Double.isInfinite(minY)) minY = Double.MIN_VALUE;
+            if (Double.isNaN(maxX) || Double.isInfinite(maxX)) maxX = Double.MAX_VALUE;
+            if (Double.isNaN(maxY) || Double.isInfinite(maxY)) maxY = Double.MAX_VALUE;
+            return new BBoxNode(filter, index, new Envelope(minX, maxX, minY, maxY), crs);
+        }
+
+        /**
+         * @return attribute index, or -1 if the expression is not a property name
+         *         resolved by the default bindings to a simple attribute.
+         */
+        private int indexOf(final Expression exp) {
+            if (exp == null || (exp.getClass() != DefaultPropertyName.class && exp.getClass() != CachedPropertyName.class)) {
+                return -1;
+            }
+            final String name = ((PropertyName) exp).getPropertyName();
+            if (name.isEmpty() || name.charAt(0) == '@' || name.charAt(0) == '/' || name.charAt(0) == '*') {
+                return -1;
+            }
+            return type.indexOf(name);
+        }
+
+        private Class<?> getBinding(final int index) {
+            return type.getDescriptor(index).getType().getBinding();
+        }
+
+        /**
+         * Convert the literal as the comparison filters would do.
+         *
+         * @return converted value, or null if the literal can not be converted to
+         *         exactly the given class.
+         */
+        private static Object convert(final Literal literal, final Class<?> target) {
+            final Object value;
+            try {
+                value = literal.evaluate(null, target);
+            } catch (UnconvertibleObjectException | UnsupportedOperationException ex) {
+                return null;
+            }
+            return (value != null && value.getClass() == target) ? value : null;
+        }
+    }
+
+    /**
+     * Compiled filter tree node.
+     */
+    private static abstract class Node {
+
+        /** Evaluation cost, in number of attribute comparisons. */
+        final double cost;
+        /** Probability for a feature to pass the filter. */
+        final double pass;
+
+        Node(final double cost, final double pass) {
+            this.cost = cost;
+            this.pass = pass;
+        }
+
+        abstract boolean evaluate(SimpleFeature feature);
+    }
+
+    private static final class Constant extends Node {
+
+        private static final Constant INCLUDE = new Constant(true);
+        private static final Constant EXCLUDE = new Constant(false);
+
+        private final boolean value;
+
+        private Constant(final boolean value) {
+            super(0, value ? 1 : 0);
+            this.value = value;
+        }
+
+        @Override
+        boolean evaluate(final SimpleFeature feature) {
+            return value;
+        }
+    }
+
+    /**
+     * Filter which could not be compiled.
+     */
+    private static final class FilterNode extends Node {
+
+        private final Filter filter;
+
+        private FilterNode(final Filter filter, final double cost, final double pass) {
+            super(cost, pass);
+            this.filter = filter;
+        }
+
+        @Override
+        boolean evaluate(final SimpleFeature feature) {
+            return filter.evaluate(feature);
+        }
+    }
+
+    private static final class NotNode extends Node {
+
+        private final Node child;
+
+        private NotNode(final Node child) {
+            super(child.cost, 1 - child.pass);
+            this.child = child;
+        }
+
+        @Override
+        boolean evaluate(final SimpleFeature feature) {
+            return !child.evaluate(feature);
+        }
+    }
+
+    private static final class LogicNode extends Node {
+
+        private final Node[] children;
+        private final boolean and;
+
+        private LogicNode(final Node[] children, final boolean and) {
+            super(cost(children, and), pass(children, and));
+            this.children = children;
+            this.and = and;
+        }
+
+        /**
+         * Expected cost, a child is evaluated only if the previous ones did not stop the evaluation.
+         */
+        private static double cost(final Node[] children, final boolean and) {
+            double cost = 0;
+            double reached = 1;
+            for (Node child : children) {
+                cost += reached * child.cost;
+                reached *= and ? child.pass : 1 - child.pass;
+            }
+            return cost;
+        }
+
+        private static double pass(final Node[] children, final boolean and) {
+            double fail = 1;
+            double pass = 1;
+            for (Node child : children) {
+                pass *= child.pass;
+                fail *= 1 - child.pass;
+            }
+            return and ? pass : 1 - fail;
+        }
+
+        @Override
+        boolean evaluate(final SimpleFeature feature) {
+            if (and) {
+                for (Node child : children) {
+                    if (!child.evaluate(feature)) return false;
+                }
+                return true;
+            } else {
+                for (Node child : children) {
+                    if (child.evaluate(feature)) return true;
+                }
+                return false;
+            }
+        }
+    }
+
+    private static final class NullNode extends Node {
+
+        private final int index;
+
+        private NullNode(final int index) {
+            super(COST_NULL, PASS_NULL);
+            this.index = index;
+        }
+
+        @Override
+        boolean evaluate(final SimpleFeature feature) {
+            return feature.getAttribute(index) == null;
+        }
+    }
+
+    /**
+     * Equality test, see {@link org.geotoolkit.filter.binarycomparison.AbstractPropertyEqual}.
+     */
+    private static final class EqualNode extends Node {
+
+        private final Filter filter;
+        private final int index;
+        private final Object ref;
+        private final boolean converted;
+        private final boolean matchCase;
+        private final boolean negate;
+
+        private EqualNode(final Filter filter, final int index, final Object ref,
+                final boolean converted, final boolean matchCase, final boolean negate) {
+            super(COST_COMPARE, negate ? 1 - PASS_EQUAL : PASS_EQUAL);
+            this.filter = filter;
+            this.index = index;
+            this.ref = ref;
+            this.converted = converted;
+            this.matchCase = matchCase;
+            this.negate = negate;
+        }
+
+        @Override
+        boolean evaluate(final SimpleFeature feature) {
+            final Object value = feature.getAttribute(index);
+            final boolean equal;
+            if (value == ref) {
+                equal = true;
+            } else if (value == null || ref == null) {
+                equal = false;
+            } else if (value.getClass() == ref.getClass()) {
+                if (converted) {
+                    equal = value.equals(ref) || numberEqual((Number) value, (Number) ref);
+                } else if (!matchCase && value instanceof String) {
+                    equal = ((String) value).equalsIgnoreCase((String) ref);
+                } else {
+                    equal = value.equals(ref);
+                }
+            } else if (!converted && value instanceof Number && ref instanceof Number) {
+                equal = numberEqual((Number) value, (Number) ref);
+            } else {
+                //conversion needed
+                return filter.evaluate(feature);
+            }
+            return equal != negate;
+        }
+
+        private static boolean numberEqual(final Number n1, final Number n2) {
+            if ((n1 instanceof Float) || (n1 instanceof Double)
+             || (n2 instanceof Float) || (n2 instanceof Double)) {
+                final double d1 = n1.doubleValue();
+                final double d2 = n2.doubleValue();
+                if (Double.doubleToLongBits(d1) == Double.doubleToLongBits(d2)) {
+                    return true;
+                }
+                return Math.abs(d1 - d2) < EPS * Math.max(Math.abs(d1), Math.abs(d2));
+            }
+            return n1.longValue() == n2.longValue();
+        }
+    }
+
+    /**
+     * Order comparison, see {@link org.geotoolkit.filter.binarycomparison.AbstractBinaryComparisonOperator}.
+     */
+    private static final class CompareNode extends Node {
+
+        private final Filter filter;
+        private final int index;
+        private final Comparable ref;
+        private final boolean reversed;
+        private final int operator;
+
+        private CompareNode(final Filter filter, final int index, final Comparable ref,
+                final boolean reversed, final int operator) {
+            super(COST_COMPARE, PASS_COMPARE);
+            this.filter = filter;
+            this.index = index;
+            this.ref = ref;
+            this.reversed = reversed;
+            this.operator = operator;
+        }
+
+        @Override
+        boolean evaluate(final SimpleFeature feature) {
+            final Object value = feature.getAttribute(index);
+            if (value == null) {
+                return false;
+            } else if (value.getClass() != ref.getClass()) {
+                //conversion needed
+                return filter.evaluate(feature);
+            }
+            final int c = reversed ? ref.compareTo(value) : ((Comparable) value).compareTo(ref);
+            switch (operator) {
+                case LESS :             return c < 0;
+                case LESS_OR_EQUAL :    return c <= 0;
+                case GREATER :          return c > 0;
+                default :               return c >= 0;
+            }
+        }
+    }
+
+    /**
+     * Range test, see {@link DefaultPropertyIsBetween}.
+     */
+    private static final class BetweenNode extends Node {
+
+        private final Filter filter;
+        private final int index;
+        private final Comparable lower;
+        private final Comparable upper;
+        private final boolean numeric;
+        private final double lowerValue;
+        private final double upperValue;
+
+        private BetweenNode(final Filter filter, final int index, final Comparable lower, final Comparable upper) {
+            super(COST_BETWEEN, PASS_BETWEEN);
+            this.filter = filter;
+            this.index = index;
+            this.lower = lower;
+            this.upper = upper;
+            this.numeric = lower instanceof Double;
+            this.lowerValue = numeric ? (Double) lower : Double.NaN;
+            this.upperValue = numeric ? (Double) upper : Double.NaN;
+        }
+
+        @Override
+        boolean evaluate(final SimpleFeature feature) {
+            final Object value = feature.getAttribute(index);
+            if (value == null) {
+                return false;
+            } else if (numeric && value instanceof Number) {
+                final double d = ((Number) value).doubleValue();
+                return Double.compare(lowerValue, d) < 0 && Double.compare(upperValue, d) >= 0;
+            } else if (!numeric && value.getClass() == lower.getClass()) {
+                return lower.compareTo(value) < 0 && upper.compareTo(value) >= 0;
+            }
+            //conversion needed
+            return filter.evaluate(feature);
+        }
+    }
+
+    /**
+     * Bounding box test decided on the geometry envelope, see {@link DefaultBBox}.
+     * Geometries in another crs and geometries crossing the box border are
+     * evaluated by the original filter.
+     */
+    private static final class BBoxNode extends Node {
+
+        private final Filter filter;
+        private final int index;
+        private final Envelope bounds;
+        private final CoordinateReferenceSystem crs;
+
+        /**
+         * Last geometry crs and srid found equal to the filter crs.
+         */
+        private volatile CoordinateReferenceSystem lastCrs;
+        private volatile int lastSrid = 0;
+
+        private BBoxNode(final Filter filter, final int index, final Envelope bounds, final CoordinateReferenceSystem crs) {
+            super(COST_BBOX, PASS_DEFAULT);
+            this.filter = filter;
+            this.index = index;
+            this.bounds = bounds;
+            this.crs = crs;
+        }
+
+        @Override
+        boolean evaluate(final SimpleFeature feature) {
+            final Object value = feature.getAttribute(index);
+            if (value == null) {
+                return false;
+            } else if (!(value instanceof Geometry) || !isFilterCrs((Geometry) value)) {
+                return filter.evaluate(feature);
+            }
+            final Envelope env = ((Geometry) value).getEnvelopeInternal();
+            if (bounds.contains(env) || env.contains(bounds)) {
+                return true;
+            } else if (bounds.intersects(env)) {
+                return filter.evaluate(feature);
+            }
+            return false;
+        }
+
+        private boolean isFilterCrs(final Geometry geom) {
+            final Object userData = geom.getUserData();
+            final int srid = geom.getSRID();
+            if (userData == null && (srid == 0 || srid == -1)) {
+                //geometry in the attribute crs, compared when compiling
+                return true;
+            } else if (userData instanceof CoordinateReferenceSystem) {
+                if (userData == lastCrs) return true;
+                if (CRS.equalsIgnoreMetadata(crs, userData)) {
+                    lastCrs = (CoordinateReferenceSystem) userData;
+                    return true;
+                }
+            } else if (userData == null) {
+                if (srid == lastSrid) return true;
+                try {
+                    final CoordinateReferenceSystem geomCrs = JTS.findCoordinateReferenceSystem(geom);
+                    if (geomCrs != null && CRS.equalsIgnoreMetadata(crs, geomCrs)) {
+                        lastSrid = srid;
+                        return true;
+                    }
+                } catch (FactoryException ex) {
+                    Logging.getLogger(CompiledFilter.class).log(Level.FINE, null, ex);
+                }
+            }
+            return false;
+        }
+    }
+
+}
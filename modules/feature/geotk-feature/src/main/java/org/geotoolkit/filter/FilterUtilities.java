@@ -24,7 +24,9 @@ import org.geotoolkit.factory.FactoryFinder;
 import org.geotoolkit.filter.visitor.IsStaticExpressionVisitor;
 import org.geotoolkit.filter.visitor.PrepareFilterVisitor;
 import org.geotoolkit.lang.Static;
+import org.geotoolkit.feature.simple.SimpleFeatureType;
 import org.geotoolkit.feature.type.ComplexType;
+import org.geotoolkit.feature.type.FeatureType;
 import org.opengis.filter.Filter;
 import org.opengis.filter.FilterFactory;
 import org.opengis.filter.Not;
@@ -56,6 +58,25 @@ public final class FilterUtilities extends Static {
         return (Filter) filter.accept(visitor, null);
     }
 
+    /**
+     * Compile a filter for features of the given type.
+     * Property names are resolved to attribute indexes, literals are converted to
+     * the attribute bindings and logic operators evaluate the cheapest and most
+     * selective filters first. The compiled filter gives the same results as the
+     * original filter, features of another type are evaluated by the original filter.
+     *
+     * @param filter : filter to compile
+     * @param type : type of the evaluated features
+     * @return compiled filter, or the original filter if it can not be compiled
+     *         against this type.
+     * @since 4.00
+     */
+    public static Filter compile(final Filter filter, final FeatureType type){
+        if(filter == null) return null;
+        if(!(type instanceof SimpleFeatureType)) return filter;
+        return CompiledFilter.compile(filter, (SimpleFeatureType) type);
+    }
+
     /**
      * Generates a property name which caches the value accessor.
      * the returned PropertyName should not be used against objects of a different
@@ -19,8 +19,10 @@ package org.geotoolkit.filter.binaryspatial;
 
 import org.geotoolkit.feature.Feature;
 import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
 
 import java.io.Serializable;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.measure.unit.SI;
 import javax.measure.unit.Unit;
@@ -46,6 +48,7 @@ import org.geotoolkit.feature.ComplexAttribute;
 import org.geotoolkit.feature.GeometryAttribute;
 import org.geotoolkit.feature.Property;
 import org.geotoolkit.feature.type.GeometryDescriptor;
+import org.geotoolkit.filter.visitor.IsStaticExpressionVisitor;
 import org.opengis.coverage.Coverage;
 
 /**
@@ -74,6 +77,14 @@ public abstract class AbstractBinarySpatialOperator<E extends Expression,F exten
     protected final E left;
     protected final F right;
 
+    /**
+     * Geometries of static operands, evaluated once on first use.
+     * Null if the operand is not static.
+     */
+    private transient volatile StaticGeometry leftStatic;
+    private transient volatile StaticGeometry rightStatic;
+    private transient volatile boolean staticSearched = false;
+
     protected AbstractBinarySpatialOperator(final E left, final F right){
         ensureNonNull("left", left);
         ensureNonNull("right", right);
@@ -128,6 +139,89 @@ public abstract class AbstractBinarySpatialOperator<E extends Expression,F exten
         return candidate;
     }
     
+    /**
+     * Evaluate both operands geometries and reproject them to the same CRS.
+     * <p>
+     * Static operands (literals or expressions without property names) are evaluated only once,
+     * prepared for repeated predicate evaluation and reprojected at most once by target CRS.
+     * If only one operand is static, it is reprojected in the other operand CRS, otherwise
+     * the right operand is reprojected in the left operand CRS as in {@link #toSameCRS(Geometry, Geometry)}.
+     * </p>
+     *
+     * @param object evaluated object
+     * @return operands in the same CRS, null if one geometry is missing or could not be reprojected
+     */
+    protected Operands toOperands(final Object object) {
+        if (!staticSearched) {
+            searchStatic();
+        }
+        StaticGeometry sleft = leftStatic;
+        StaticGeometry sright = rightStatic;
+
+        Geometry leftGeom = (sleft != null) ? sleft.geometry : toGeometry(object, left);
+        Geometry rightGeom = (sright != null) ? sright.geometry : toGeometry(object, right);
+        if (leftGeom == null || rightGeom == null) {
+            return null;
+        }
+
+        try {
+            if (sleft != null && sright == null) {
+                //reproject the static left operand in the right operand crs
+                final CoordinateReferenceSystem rightCRS = JTS.findCoordinateReferenceSystem(rightGeom);
+                if (rightCRS != null) {
+                    sleft = sleft.toCRS(rightCRS);
+                    leftGeom = sleft.geometry;
+                }
+            } else {
+                final CoordinateReferenceSystem leftCRS = (sleft != null) ? sleft.crs : JTS.findCoordinateReferenceSystem(leftGeom);
+                if (leftCRS != null) {
+                    if (sright != null) {
+                        sright = sright.toCRS(leftCRS);
+                        rightGeom = sright.geometry;
+                    } else {
+                        final CoordinateReferenceSystem rightCRS = JTS.findCoordinateReferenceSystem(rightGeom);
+                        if (rightCRS != null && !CRS.equalsIgnoreMetadata(leftCRS, rightCRS)) {
+                            rightGeom = JTS.transform(rightGeom, CRS.findMathTransform(rightCRS, leftCRS));
+                        }
+                    }
+                }
+            }
+        } catch (FactoryException ex) {
+            LOGGER.log(Level.WARNING, null, ex);
+            return null;
+        } catch (TransformException ex) {
+            LOGGER.log(Level.WARNING, null, ex);
+            return null;
+        }
+
+        return new Operands(leftGeom, rightGeom,
+                (sleft == null) ? null : sleft.prepared,
+                (sright == null) ? null : sright.prepared);
+    }
+
+    private void searchStatic() {
+        leftStatic = toStaticGeometry(left);
+        rightStatic = toStaticGeometry(right);
+        staticSearched = true;
+    }
+
+    private static StaticGeometry toStaticGeometry(final Expression exp) {
+        if (!Boolean.TRUE.equals(exp.accept(IsStaticExpressionVisitor.VISITOR, null))) {
+            return null;
+        }
+        final Geometry geom = toGeometry(null, exp);
+        if (geom == null) {
+            return null;
+        }
+        CoordinateReferenceSystem crs = null;
+        try {
+            crs = JTS.findCoordinateReferenceSystem(geom);
+        } catch (FactoryException ex) {
+            LOGGER.log(Level.WARNING, null, ex);
+        }
+        return new StaticGeometry(geom, crs);
+    }
+
     /**
      * Reproject geometries to the same CRS if needed and if possible.
      */
@@ -233,6 +327,35 @@ public abstract class AbstractBinarySpatialOperator<E extends Expression,F exten
 
     }
 
+    /**
+     * Operands geometries in the same CRS.
+     * Prepared geometries are available for static operands.
+     */
+    protected static final class Operands {
+
+        public final Geometry left;
+        public final Geometry right;
+        /** Prepared left geometry, null if left operand is not static */
+        public final PreparedGeometry preparedLeft;
+        /** Prepared right geometry, null if right operand is not static */
+        public final PreparedGeometry preparedRight;
+
+        private Operands(final Geometry left, final Geometry right,
+                final PreparedGeometry preparedLeft, final PreparedGeometry preparedRight) {
+            this.left = left;
+            this.right = right;
+            this.preparedLeft = preparedLeft;
+            this.preparedRight = preparedRight;
+        }
+
+        /**
+         * @return true if operands envelopes intersect.
+         */
+        public boolean envelopesIntersect() {
+            return left.getEnvelopeInternal().intersects(right.getEnvelopeInternal());
+        }
+    }
+
     private static Object findFirstGeometry(ComplexAttribute ca){
         //search for a default geometry
         if(ca instanceof Feature){
@@ -17,17 +17,10 @@
  */
 package org.geotoolkit.filter.binaryspatial;
 
-import com.vividsolutions.jts.geom.Envelope;
-import com.vividsolutions.jts.geom.Geometry;
-
-import java.util.logging.Level;
-import java.util.logging.Logger;
 import org.geotoolkit.util.StringUtilities;
 import org.opengis.filter.FilterVisitor;
 import org.opengis.filter.expression.Expression;
 import org.opengis.filter.spatial.Intersects;
-import org.opengis.util.FactoryException;
-import org.opengis.referencing.operation.TransformException;
 
 /**
  * Immutable "intersect" filter.
@@ -46,34 +39,16 @@ public class DefaultIntersect extends AbstractBinarySpatialOperator<Expression,E
      */
     @Override
     public boolean evaluate(final Object object) {
-        Geometry leftGeom = toGeometry(object, left);
-        Geometry rightGeom = toGeometry(object, right);
-
-        if(leftGeom == null || rightGeom == null){
+        final Operands ops = toOperands(object);
+        if (ops == null || !ops.envelopesIntersect()) {
             return false;
         }
-
-        final Geometry[] values;
-        try {
-            values = toSameCRS(leftGeom, rightGeom);
-        } catch (FactoryException ex) {
-            Logger.getLogger(DefaultContains.class.getName()).log(Level.WARNING, null, ex);
-            return false;
-        } catch (TransformException ex) {
-            Logger.getLogger(DefaultContains.class.getName()).log(Level.WARNING, null, ex);
-            return false;
+        if (ops.preparedLeft != null) {
+            return ops.preparedLeft.intersects(ops.right);
+        } else if (ops.preparedRight != null) {
+            return ops.preparedRight.intersects(ops.left);
         }
-        leftGeom = values[0];
-        rightGeom = values[1];
-
-        final Envelope envLeft = leftGeom.getEnvelopeInternal();
-        final Envelope envRight = rightGeom.getEnvelopeInternal();
-
-        if (envLeft.intersects(envRight)) {
-            return leftGeom.intersects(rightGeom);
-        }
-
-        return false;
+        return ops.left.intersects(ops.right);
     }
 
     /**
@@ -17,17 +17,10 @@
  */
 package org.geotoolkit.filter.binaryspatial;
 
-import com.vividsolutions.jts.geom.Envelope;
-import com.vividsolutions.jts.geom.Geometry;
-
-import java.util.logging.Level;
-import java.util.logging.Logger;
 import org.geotoolkit.util.StringUtilities;
 import org.opengis.filter.FilterVisitor;
 import org.opengis.filter.expression.Expression;
 import org.opengis.filter.spatial.Overlaps;
-import org.opengis.util.FactoryException;
-import org.opengis.referencing.operation.TransformException;
 
 /**
  * Immutable "overlaps" filter.
@@ -46,34 +39,17 @@ public class DefaultOverlaps extends AbstractBinarySpatialOperator<Expression,Ex
      */
     @Override
     public boolean evaluate(final Object object) {
-        Geometry leftGeom = toGeometry(object, left);
-        Geometry rightGeom = toGeometry(object, right);
-
-        if(leftGeom == null || rightGeom == null){
+        final Operands ops = toOperands(object);
+        if (ops == null || !ops.envelopesIntersect()) {
             return false;
         }
-
-        final Geometry[] values;
-        try {
-            values = toSameCRS(leftGeom, rightGeom);
-        } catch (FactoryException ex) {
-            Logger.getLogger(DefaultContains.class.getName()).log(Level.WARNING, null, ex);
-            return false;
-        } catch (TransformException ex) {
-            Logger.getLogger(DefaultContains.class.getName()).log(Level.WARNING, null, ex);
-            return false;
+        //overlaps is symmetric
+        if (ops.preparedLeft != null) {
+            return ops.preparedLeft.overlaps(ops.right);
+        } else if (ops.preparedRight != null) {
+            return ops.preparedRight.overlaps(ops.left);
         }
-        leftGeom = values[0];
-        rightGeom = values[1];
-
-        final Envelope envLeft = leftGeom.getEnvelopeInternal();
-        final Envelope envRight = rightGeom.getEnvelopeInternal();
-
-        if (envLeft.intersects(envRight)) {
-            return leftGeom.overlaps(rightGeom);
-        }
-
-        return false;
+        return ops.left.overlaps(ops.right);
     }
 
     /**
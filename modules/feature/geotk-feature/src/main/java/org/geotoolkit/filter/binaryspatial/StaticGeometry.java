@@ -0,0 +1,98 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.filter.binaryspatial;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
+import java.util.Arrays;
+import org.geotoolkit.geometry.jts.JTS;
+import org.geotoolkit.referencing.CRS;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
+
+/**
+ * Geometry of a static filter operand, prepared for repeated predicate evaluation.
+ * Reprojected versions are cached by target CRS, filters are usually evaluated
+ * against a single CRS so the lookup is an identity test.
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+final class StaticGeometry {
+
+    private static final PreparedGeometryFactory PREPARED_FACTORY = new PreparedGeometryFactory();
+
+    /**
+     * Limit the number of cached reprojections, to avoid leaks when a filter
+     * is evaluated against many different CRS.
+     */
+    private static final int MAX_CACHED_CRS = 8;
+
+    final Geometry geometry;
+    final PreparedGeometry prepared;
+    /** Geometry CRS, can be null if unknown */
+    final CoordinateReferenceSystem crs;
+
+    /** Pairs of target CRS and reprojected geometry */
+    private volatile Object[] reprojected = new Object[0];
+
+    StaticGeometry(final Geometry geometry, final CoordinateReferenceSystem crs) {
+        this.geometry = geometry;
+        this.prepared = PREPARED_FACTORY.create(geometry);
+        this.crs = crs;
+    }
+
+    /**
+     * Get this geometry in the given CRS.
+     *
+     * @param target wanted crs, not null
+     * @return this geometry if crs are equal, otherwise a reprojected geometry
+     */
+    StaticGeometry toCRS(final CoordinateReferenceSystem target) throws FactoryException, TransformException {
+        if (crs == null || crs == target) {
+            return this;
+        }
+        Object[] cache = reprojected;
+        for (int i=0; i<cache.length; i+=2) {
+            if (cache[i] == target) return (StaticGeometry) cache[i+1];
+        }
+
+        final StaticGeometry result;
+        if (CRS.equalsIgnoreMetadata(crs, target)) {
+            result = this;
+        } else {
+            final Geometry geom = JTS.transform(geometry, CRS.findMathTransform(crs, target));
+            JTS.setCRS(geom, target);
+            result = new StaticGeometry(geom, target);
+        }
+
+        synchronized (this) {
+            cache = reprojected;
+            if (cache.length >= MAX_CACHED_CRS*2) {
+                cache = new Object[0];
+            }
+            cache = Arrays.copyOf(cache, cache.length+2);
+            cache[cache.length-2] = target;
+            cache[cache.length-1] = result;
+            reprojected = cache;
+        }
+        return result;
+    }
+
+}
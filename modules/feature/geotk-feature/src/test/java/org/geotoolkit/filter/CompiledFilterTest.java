@@ -0,0 +1,168 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2015, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.filter;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import org.apache.sis.referencing.CommonCRS;
+import org.geotoolkit.feature.Feature;
+import org.geotoolkit.feature.FeatureBuilder;
+import org.geotoolkit.feature.FeatureTypeBuilder;
+import org.geotoolkit.feature.simple.SimpleFeature;
+import org.geotoolkit.feature.simple.SimpleFeatureType;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.opengis.filter.Filter;
+import org.opengis.filter.MatchAction;
+
+import static org.junit.Assert.*;
+import static org.geotoolkit.filter.FilterTestConstants.*;
+
+/**
+ * Compiled filters must give the same results as the original filters.
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+public class CompiledFilterTest {
+
+    private static final SimpleFeatureType TYPE;
+    static {
+        final FeatureTypeBuilder ftb = new FeatureTypeBuilder();
+        ftb.setName("compiled");
+        ftb.add("geom", Geometry.class, CommonCRS.WGS84.normalizedGeographic());
+        ftb.add("name", String.class);
+        ftb.add("count", Integer.class);
+        ftb.add("value", Double.class);
+        ftb.add("date", Date.class);
+        TYPE = ftb.buildSimpleFeatureType();
+    }
+
+    @Test
+    public void testSameResults() {
+        final List<Feature> features = createFeatures(2000);
+        final Filter bbox = FF.bbox("geom", 20, 20, 60, 60, null);
+        final Filter[] filters = new Filter[]{
+            FF.equals(FF.property("count"), FF.literal(5)),
+            FF.equals(FF.literal(5), FF.property("count")),
+            FF.equals(FF.property("count"), FF.literal("5")),
+            FF.equals(FF.property("value"), FF.literal(0.5f)),
+            FF.equal(FF.property("name"), FF.literal("alpha"), false, MatchAction.ANY),
+            FF.notEqual(FF.property("name"), FF.literal("alpha")),
+            FF.less(FF.property("value"), FF.literal(0.5)),
+            FF.greater(FF.literal(10), FF.property("count")),
+            FF.lessOrEqual(FF.property("count"), FF.literal("7")),
+            FF.greaterOrEqual(FF.property("date"), FF.literal(new Date(500000))),
+            FF.between(FF.property("count"), FF.literal(3), FF.literal(8)),
+            FF.between(FF.property("name"), FF.literal("a"), FF.literal("b")),
+            FF.isNull(FF.property("name")),
+            bbox,
+            FF.bbox("geom", 20, 20, 60, 60, "EPSG:4326"),
+            FF.like(FF.property("name"), "al*"),
+            FF.and(Arrays.asList(FF.like(FF.property("name"), "al*"), bbox,
+                    FF.less(FF.property("value"), FF.literal(0.8)), FF.equals(FF.property("count"), FF.literal(5)))),
+            FF.or(FF.not(FF.between(FF.property("count"), FF.literal(3), FF.literal(8))), FF.isNull(FF.property("value"))),
+            FF.and(FF.and(bbox, Filter.INCLUDE), FF.not(FF.not(FF.greater(FF.property("count"), FF.literal(2))))),
+            FF.or(FF.equals(FF.property("count"), FF.literal(1)), FF.or(bbox, Filter.EXCLUDE))
+        };
+
+        for (Filter filter : filters) {
+            final Filter compiled = FilterUtilities.compile(filter, TYPE);
+            for (Feature feature : features) {
+                assertEquals(filter.toString(), filter.evaluate(feature), compiled.evaluate(feature));
+            }
+            //other objects are evaluated by the original filter
+            assertEquals(filter.evaluate(CANDIDATE_1), compiled.evaluate(CANDIDATE_1));
+        }
+    }
+
+    @Test
+    public void testConstants() {
+        final Filter like = FF.like(FF.property("name"), "al*");
+        assertEquals(Filter.EXCLUDE, FilterUtilities.compile(FF.and(like, Filter.EXCLUDE), TYPE));
+        assertEquals(Filter.INCLUDE, FilterUtilities.compile(FF.or(like, FF.not(Filter.EXCLUDE)), TYPE));
+        //nothing to compile
+        assertSame(like, FilterUtilities.compile(like, TYPE));
+        assertSame(like, FilterUtilities.compile(like, CX_FEATURE_TYPE));
+        assertNull(FilterUtilities.compile(null, TYPE));
+    }
+
+    /**
+     * Compare interpretive and compiled evaluation.
+     */
+    @Test
+    @Ignore
+    public void benchCompiled() {
+        final List<Feature> features = createFeatures(200000);
+        final Filter filter = FF.and(Arrays.asList(
+                FF.bbox("geom", 10, 10, 90, 90, null),
+                FF.equal(FF.property("name"), FF.literal("alpha"), false, MatchAction.ANY),
+                FF.greaterOrEqual(FF.property("count"), FF.literal("5"))));
+        final Filter compiled = FilterUtilities.compile(filter, TYPE);
+
+        for (int i = 0; i < 10; i++) {
+            long before = System.nanoTime();
+            int nb = 0;
+            for (Feature feature : features) {
+                if (filter.evaluate(feature)) nb++;
+            }
+            final long interpreted = System.nanoTime() - before;
+
+            before = System.nanoTime();
+            int nbCompiled = 0;
+            for (Feature feature : features) {
+                if (compiled.evaluate(feature)) nbCompiled++;
+            }
+            final long time = System.nanoTime() - before;
+            assertEquals(nb, nbCompiled);
+            System.out.println("interpreted : " + interpreted / 1000000 + "ms  compiled : " + time / 1000000 + "ms");
+        }
+    }
+
+    private static List<Feature> createFeatures(final int nb) {
+        final Random random = new Random(42);
+        final String[] names = {"alpha", "Alpha", "beta", "gamma", null};
+        final FeatureBuilder fb = new FeatureBuilder(TYPE);
+        final List<Feature> features = new ArrayList<>(nb);
+        for (int i = 0; i < nb; i++) {
+            Geometry geom = null;
+            if (random.nextInt(10) != 0) {
+                final Point pt = GF.createPoint(new Coordinate(random.nextDouble() * 100, random.nextDouble() * 100));
+                geom = random.nextBoolean() ? pt : pt.buffer(1 + random.nextDouble() * 5);
+                if (random.nextInt(5) == 0) {
+                    geom.setUserData(CommonCRS.WGS84.normalizedGeographic());
+                }
+            }
+            fb.setPropertyValue("geom", geom);
+            fb.setPropertyValue("name", names[random.nextInt(names.length)]);
+            fb.setPropertyValue("count", random.nextInt(10) == 0 ? null : random.nextInt(20));
+            fb.setPropertyValue("value", random.nextInt(10) == 0 ? null : random.nextDouble());
+            fb.setPropertyValue("date", new Date(random.nextInt(1000000)));
+            final Feature feature = fb.buildFeature(String.valueOf(i));
+            assertTrue(feature instanceof SimpleFeature);
+            features.add(feature);
+        }
+        return features;
+    }
+
+}
@@ -21,6 +21,11 @@ import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.LinearRing;
 
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.sis.referencing.CommonCRS;
+import org.geotoolkit.geometry.jts.JTS;
+import org.geotoolkit.referencing.CRS;
 import org.junit.Test;
 
 import org.opengis.filter.spatial.BBOX;
@@ -35,6 +40,8 @@ import org.opengis.filter.spatial.Intersects;
 import org.opengis.filter.spatial.Overlaps;
 import org.opengis.filter.spatial.Touches;
 import org.opengis.filter.spatial.Within;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
 import static org.junit.Assert.*;
 import static org.geotoolkit.filter.FilterTestConstants.*;
 
@@ -261,5 +268,36 @@ public class BinarySpatialTest {
         assertTrue(within.evaluate(CANDIDATE_1));
 
     }
+
+    /**
+     * Static operands are reprojected in the candidate crs, whatever their position.
+     */
+    @Test
+    public void testStaticOperandReprojection() throws Exception {
+        final CoordinateReferenceSystem geographic = CommonCRS.WGS84.normalizedGeographic();
+        final CoordinateReferenceSystem mercator = CRS.decode("EPSG:3395");
+        final MathTransform trs = CRS.findMathTransform(geographic, mercator);
+
+        final Geometry area = (Geometry) GEOM_CONTAINS.clone();
+        JTS.setCRS(area, geographic);
+
+        final Geometry inside = JTS.transform(GF.createPoint(new Coordinate(5, 5)), trs);
+        JTS.setCRS(inside, mercator);
+        final Geometry outside = JTS.transform(GF.createPoint(new Coordinate(30, 5)), trs);
+        JTS.setCRS(outside, mercator);
+        final Map<String,Object> in = new HashMap<>();
+        in.put("testGeometry", inside);
+        final Map<String,Object> out = new HashMap<>();
+        out.put("testGeometry", outside);
+
+        final Intersects staticLeft = FF.intersects(FF.literal(area), FF.property("testGeometry"));
+        final Within staticRight = FF.within(FF.property("testGeometry"), FF.literal(area));
+        for (int i=0; i<2; i++) {
+            assertTrue(staticLeft.evaluate(in));
+            assertFalse(staticLeft.evaluate(out));
+            assertTrue(staticRight.evaluate(in));
+            assertFalse(staticRight.evaluate(out));
+        }
+    }
     
 }
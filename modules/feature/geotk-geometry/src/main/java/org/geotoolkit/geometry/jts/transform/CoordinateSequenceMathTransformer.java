@@ -20,6 +20,7 @@ import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.CoordinateSequence;
 import com.vividsolutions.jts.geom.CoordinateSequenceFactory;
 import com.vividsolutions.jts.geom.impl.CoordinateArraySequenceFactory;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequence;
 import java.util.Arrays;
 
 import org.opengis.geometry.MismatchedDimensionException;
@@ -32,7 +33,10 @@ import org.opengis.referencing.operation.TransformException;
  * means that caller are immediately notified if a transformation fails).
  * <p>
  * This transformer support {@linkplain MathTransform math transform} with up to 3 source
- * or target dimensions. This transformer is not thread-safe.
+ * or target dimensions. When no {@link CoordinateSequenceFactory} is given, the ordinates
+ * are transformed by chunks directly into a {@link PackedCoordinateSequence.Double}, without
+ * creating any {@link Coordinate} object. This transformer does not hold any mutable state
+ * while transforming and can be used concurrently by many threads.
  *
  * @module pending
  * @since 2.1
@@ -46,22 +50,26 @@ public class CoordinateSequenceMathTransformer implements CoordinateSequenceTran
      * The coordinate sequence factory to use.
      */
     static final CoordinateSequenceFactory DEFAULT_CS_FACTORY = CoordinateArraySequenceFactory.instance();
+
     /**
-     * A buffer for coordinate transformations. We choose a length which is divisible by
-     * both 2 and 3, since JTS coordinates may be up to three-dimensional. If the number
-     * of coordinates point to transform is greater than the buffer capacity, then the
-     * buffer will be flushed to the destination array before to continue. We avoid to
-     * create a buffer as large than the number of point to transforms, because it would
-     * consume a large amount of memory for big geometries.
+     * Maximal number of points transformed in a single call to the math transform when the
+     * ordinates must be copied in a temporary buffer. We avoid to create a buffer as large
+     * than the number of points to transform, because it would consume a large amount of
+     * memory for big geometries.
      */
-    private final transient double[] buffer = new double[96];
+    private static final int CHUNK_SIZE = 4096;
 
+    /**
+     * The factory of the created sequences, or {@code null} for creating
+     * {@link PackedCoordinateSequence.Double} directly.
+     */
     private final CoordinateSequenceFactory csf;
 
-    private MathTransform transform = null;
+    private volatile MathTransform transform = null;
 
     /**
      * Constructs a default coordinate sequence transformer.
+     * The transformed sequences will be {@link PackedCoordinateSequence.Double}.
      */
     public CoordinateSequenceMathTransformer(final MathTransform transform) {
         this(null,transform);
@@ -69,21 +77,19 @@ public class CoordinateSequenceMathTransformer implements CoordinateSequenceTran
 
     /**
      * Constructs a coordinate sequence transformer with the given CoordinateSequenceFactory.
+     *
+     * @param csf factory of the transformed sequences, or {@code null} for packed sequences.
      */
     public CoordinateSequenceMathTransformer(final CoordinateSequenceFactory csf, final MathTransform transform) {
-        if(csf == null){
-            this.csf = DEFAULT_CS_FACTORY;
-        }else{
-            this.csf = csf;
-        }
-        this.transform =transform;
+        this.csf = csf;
+        this.transform = transform;
     }
 
-    public synchronized void setTransform(final MathTransform transform) {
+    public void setTransform(final MathTransform transform) {
         this.transform = transform;
     }
 
-    public synchronized MathTransform getTransform() {
+    public MathTransform getTransform() {
         return transform;
     }
 
@@ -91,64 +97,94 @@ public class CoordinateSequenceMathTransformer implements CoordinateSequenceTran
      * {@inheritDoc}
      */
     @Override
-    public synchronized CoordinateSequence transform(final CoordinateSequence sequence, final int minpoints)
+    public CoordinateSequence transform(final CoordinateSequence sequence, final int minpoints)
             throws TransformException {
+        final MathTransform transform = this.transform;
         final int sourceDim = transform.getSourceDimensions();
         final int targetDim = transform.getTargetDimensions();
         final int size = sequence.size();
-        final Coordinate[] tcs = new Coordinate[size];
-        final int bufferCapacity = buffer.length / Math.max(sourceDim, targetDim);
-        int remainingBeforeFlush = Math.min(bufferCapacity, size);
-        int ib = 0; // Index in the buffer array.
-        int it = 0; // Index in the target array.
-
-        for (int i = 0; i < size; i++) {
-            switch (sourceDim) { // Fall through in every cases.
-                default: Arrays.fill(buffer, ib + 3, ib + sourceDim, Double.NaN);
-                case 3:  buffer[ib + 2] = sequence.getOrdinate(i, 2);
-                case 2:  buffer[ib + 1] = sequence.getY(i);
-                case 1:  buffer[ib] = sequence.getX(i);
-                case 0:  break;
-            }
-
-            ib += sourceDim;
-
-            if (--remainingBeforeFlush == 0) {
-                /*
-                 * The buffer is full, or we just copied the last coordinates.
-                 * Transform the coordinates and flush to the destination array.
-                 */
-                assert (ib % sourceDim) == 0;
-
-                final int n = ib / sourceDim;
+        if (targetDim > 3 && size != 0) {
+            throw new MismatchedDimensionException();
+        }
+        /*
+         * JTS sequences have at least 2 dimensions, missing ordinates are NaN.
+         */
+        final int resultDim = Math.max(2, targetDim);
+        final double[] result = new double[size * resultDim];
+
+        final double[] raw = (sequence instanceof PackedCoordinateSequence.Double
+                && sequence.getDimension() == sourceDim) ?
+                ((PackedCoordinateSequence.Double) sequence).getRawCoordinates() : null;
+
+        if (raw != null && sourceDim == targetDim && targetDim == resultDim) {
+            // Most common case: transform the whole packed array in a single call.
+            transform.transform(raw, 0, result, 0, size);
+        } else {
+            final int maxDim = Math.max(sourceDim, targetDim);
+            final double[] buffer = new double[Math.min(size, CHUNK_SIZE) * maxDim];
+            for (int lower = 0; lower < size; lower += CHUNK_SIZE) {
+                final int n = Math.min(CHUNK_SIZE, size - lower);
+                if (raw != null) {
+                    System.arraycopy(raw, lower * sourceDim, buffer, 0, n * sourceDim);
+                } else {
+                    copyOrdinates(sequence, lower, n, sourceDim, buffer);
+                }
                 transform.transform(buffer, 0, buffer, 0, n);
-                ib = 0;
 
+                int ib = 0;                     // Index in the buffer array.
+                int it = lower * resultDim;     // Index in the result array.
                 for (int j = 0; j < n; j++) {
                     switch (targetDim) {
-                        default: throw new MismatchedDimensionException();
-                        case 3:
-                            tcs[it++] = new Coordinate(buffer[ib++], buffer[ib++], buffer[ib++]);
-                            break;
-                        case 2:
-                            tcs[it++] = new Coordinate(buffer[ib++], buffer[ib++]);
-                            break;
-                        case 1:
-                            tcs[it++] = new Coordinate(buffer[ib++], Double.NaN);
-                            break;
-                        case 0:
-                            tcs[it++] = new Coordinate(Double.NaN, Double.NaN);
-                            break;
+                        case 3:  result[it++] = buffer[ib++];
+                                 result[it++] = buffer[ib++];
+                                 result[it++] = buffer[ib++];
+                                 break;
+                        case 2:  result[it++] = buffer[ib++];
+                                 result[it++] = buffer[ib++];
+                                 break;
+                        case 1:  result[it++] = buffer[ib++];
+                                 result[it++] = Double.NaN;
+                                 break;
+                        default: result[it++] = Double.NaN;
+                                 result[it++] = Double.NaN;
+                                 break;
                     }
                 }
                 assert ib == (n * targetDim);
-                ib = 0;
-                remainingBeforeFlush = Math.min(bufferCapacity, size - (i + 1));
             }
         }
-        assert it == tcs.length : tcs.length - it;
 
-        return csf.create(tcs);
+        if (csf == null) {
+            return new PackedCoordinateSequence.Double(result, resultDim);
+        }
+        final CoordinateSequence target = csf.create(size, resultDim);
+        final int dim = Math.min(resultDim, target.getDimension());
+        for (int i = 0, it = 0; i < size; i++, it += resultDim) {
+            for (int d = 0; d < dim; d++) {
+                target.setOrdinate(i, d, result[it + d]);
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Copies the ordinates of {@code n} points starting at index {@code lower} in the given buffer.
+     * Ordinates which do not exist in the sequence are set to NaN.
+     */
+    private static void copyOrdinates(final CoordinateSequence sequence, final int lower, final int n,
+            final int sourceDim, final double[] buffer) {
+        final int seqDim = Math.min(sequence.getDimension(), 3);
+        int ib = 0;
+        for (int i = lower, upper = lower + n; i < upper; i++) {
+            switch (sourceDim) { // Fall through in every cases.
+                default: Arrays.fill(buffer, ib + 3, ib + sourceDim, Double.NaN);
+                case 3:  buffer[ib + 2] = (seqDim > 2) ? sequence.getOrdinate(i, 2) : Double.NaN;
+                case 2:  buffer[ib + 1] = sequence.getY(i);
+                case 1:  buffer[ib] = sequence.getX(i);
+                case 0:  break;
+            }
+            ib += sourceDim;
+        }
     }
 
     @Override
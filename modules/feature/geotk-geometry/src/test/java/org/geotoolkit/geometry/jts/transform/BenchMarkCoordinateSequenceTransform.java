@@ -0,0 +1,101 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2015, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.geometry.jts.transform;
+
+import com.vividsolutions.jts.geom.CoordinateSequence;
+import com.vividsolutions.jts.geom.impl.CoordinateArraySequence;
+import com.vividsolutions.jts.geom.impl.CoordinateArraySequenceFactory;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequence;
+import org.apache.sis.math.Statistics;
+import org.apache.sis.referencing.CommonCRS;
+import org.geotoolkit.referencing.CRS;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.opengis.referencing.operation.MathTransform;
+
+/**
+ * Compare {@link CoordinateSequenceMathTransformer} speed with packed and array coordinate sequences.
+ *
+ * @author Geotoolkit.org contributors
+ */
+public class BenchMarkCoordinateSequenceTransform {
+
+    private static final int NB_POINTS = 200000;
+
+    private static final int NB_RUNS = 50;
+
+    private final MathTransform transform;
+
+    private final CoordinateSequence packed;
+
+    private final CoordinateSequence array;
+
+    public BenchMarkCoordinateSequenceTransform() throws Exception {
+        transform = CRS.findMathTransform(CommonCRS.WGS84.normalizedGeographic(),
+                ReprojectTest.getLocalLambertCRS(10, 60));
+        final double[] ordinates = new double[NB_POINTS*2];
+        for (int i=0; i<NB_POINTS; i++) {
+            ordinates[i*2]   = (i % 3600) / 100.0;
+            ordinates[i*2+1] = 40 + (i % 3000) / 100.0;
+        }
+        packed = new PackedCoordinateSequence.Double(ordinates, 2);
+        array  = new CoordinateArraySequence(packed.toCoordinateArray());
+    }
+
+    /**
+     * Packed source, packed result.
+     */
+    @Test
+    @Ignore
+    public void benchPackedTest() throws Exception {
+        bench("packed to packed", new CoordinateSequenceMathTransformer(transform), packed);
+    }
+
+    /**
+     * Array source, packed result.
+     */
+    @Test
+    @Ignore
+    public void benchArrayToPackedTest() throws Exception {
+        bench("array to packed", new CoordinateSequenceMathTransformer(transform), array);
+    }
+
+    /**
+     * Array source, array result, as before packed sequences were produced.
+     */
+    @Test
+    @Ignore
+    public void benchArrayTest() throws Exception {
+        bench("array to array", new CoordinateSequenceMathTransformer(CoordinateArraySequenceFactory.instance(), transform), array);
+    }
+
+    private static void bench(final String name, final CoordinateSequenceMathTransformer cst,
+            final CoordinateSequence source) throws Exception {
+        final Statistics stats = new Statistics(name);
+        for (int n=0; n<NB_RUNS; n++) {
+            final long t0 = System.nanoTime();
+            cst.transform(source, 1);
+            final long t = System.nanoTime() - t0;
+            //-- first runs are JIT warm up --//
+            if (n >= 10) {
+                stats.accept(t / 1000000.0);
+            }
+        }
+        System.out.println("stats "+name+" (ms) : "+stats);
+    }
+
+}
@@ -21,8 +21,17 @@ import com.vividsolutions.jts.geom.CoordinateSequence;
 import com.vividsolutions.jts.geom.GeometryFactory;
 import com.vividsolutions.jts.geom.LinearRing;
 import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.geom.impl.CoordinateArraySequence;
+import com.vividsolutions.jts.geom.impl.CoordinateArraySequenceFactory;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequence;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.geotoolkit.factory.FactoryFinder;
 import org.geotoolkit.referencing.CRS;
 import org.apache.sis.referencing.CommonCRS;
@@ -124,6 +133,64 @@ public class ReprojectTest {
         GF.createLinearRing(sq);
     }
 
+    /**
+     * Transformed sequences must be packed and identical to a point by point transformation,
+     * including when the same transformer is used by many threads.
+     */
+    @Test
+    public void testPackedConcurrentTransform() throws Exception {
+        final MathTransform mt = CRS.findMathTransform(CommonCRS.WGS84.normalizedGeographic(), getLocalLambertCRS(10, 60));
+        final int nbPoints = 10000;
+        final double[] ordinates = new double[nbPoints*2];
+        for (int i=0; i<nbPoints; i++) {
+            ordinates[i*2]   = (i % 360) / 10.0;
+            ordinates[i*2+1] = 40 + (i % 300) / 10.0;
+        }
+        final double[] expected = new double[ordinates.length];
+        mt.transform(ordinates, 0, expected, 0, nbPoints);
+
+        final CoordinateSequenceMathTransformer cst = new CoordinateSequenceMathTransformer(mt);
+        final CoordinateSequence packed = new PackedCoordinateSequence.Double(ordinates, 2);
+        final CoordinateSequence array = new CoordinateArraySequence(packed.toCoordinateArray());
+
+        // custom factory
+        CoordinateSequence result = new CoordinateSequenceMathTransformer(CoordinateArraySequenceFactory.instance(), mt).transform(array, 1);
+        assertTrue(result instanceof CoordinateArraySequence);
+        assertSequence(expected, result);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<CoordinateSequence>> futures = new ArrayList<>();
+            for (int i=0; i<16; i++) {
+                final CoordinateSequence source = (i % 2 == 0) ? packed : array;
+                futures.add(executor.submit(new Callable<CoordinateSequence>() {
+                    @Override
+                    public CoordinateSequence call() throws Exception {
+                        return cst.transform(source, 1);
+                    }
+                }));
+            }
+            for (Future<CoordinateSequence> future : futures) {
+                result = future.get();
+                assertTrue(result instanceof PackedCoordinateSequence.Double);
+                assertSequence(expected, result);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // source sequence must not be modified
+        assertEquals(0.0, packed.getX(0), 0.0);
+        assertEquals(40.0, packed.getY(0), 0.0);
+    }
+
+    private static void assertSequence(final double[] expected, final CoordinateSequence candidate) {
+        assertEquals(expected.length/2, candidate.size());
+        for (int i=0, n=candidate.size(); i<n; i++) {
+            assertEquals(expected[i*2],   candidate.getX(i), 1E-6);
+            assertEquals(expected[i*2+1], candidate.getY(i), 1E-6);
+        }
+    }
+
     public static ProjectedCRS getLocalLambertCRS(double central_meridan, double latitude_of_origin) {
         try {
             MathTransformFactory mtFactory = FactoryFinder.getMathTransformFactory(null);
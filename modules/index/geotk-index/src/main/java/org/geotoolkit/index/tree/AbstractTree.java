@@ -20,11 +20,15 @@ import org.geotoolkit.internal.tree.TreeUtilities;
 import org.geotoolkit.internal.tree.CalculatorND;
 import org.geotoolkit.internal.tree.Calculator;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
 import org.apache.sis.util.ArgumentChecks;
 import org.apache.sis.util.Classes;
 import static org.geotoolkit.internal.tree.TreeUtilities.*;
 import org.geotoolkit.internal.tree.TreeAccess;
+import org.geotoolkit.internal.tree.TreeBulkUtilities;
 import org.geotoolkit.referencing.CRS;
 import org.opengis.geometry.Envelope;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
@@ -126,6 +130,28 @@ public abstract class AbstractTree<E> implements Tree<E> {
         final double[] regSearch = TreeUtilities.getCoords(regionSearch);
         return new TreeIntegerIdentifierIterator(treeAccess, regSearch);
     }
+
+    /**
+     * {@inheritDoc }.
+     */
+    @Override
+    public TreeIdentifierIterator searchNearest(final Envelope regionSearch, final int k) throws StoreIndexException {
+        ArgumentChecks.ensureNonNull("Envelope regionSearch", regionSearch);
+        ArgumentChecks.ensureStrictlyPositive("k", k);
+        final double[] regSearch = TreeUtilities.getCoords(regionSearch);
+        return new TreeNearestIdentifierIterator(treeAccess, getRoot(), regSearch, k, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * {@inheritDoc }.
+     */
+    @Override
+    public TreeIdentifierIterator searchWithinDistance(final Envelope regionSearch, final double distance) throws StoreIndexException {
+        ArgumentChecks.ensureNonNull("Envelope regionSearch", regionSearch);
+        ArgumentChecks.ensurePositive("distance", distance);
+        final double[] regSearch = TreeUtilities.getCoords(regionSearch);
+        return new TreeNearestIdentifierIterator(treeAccess, getRoot(), regSearch, Integer.MAX_VALUE, distance);
+    }
     
     /**
      * {@inheritDoc}
@@ -134,13 +160,7 @@ public abstract class AbstractTree<E> implements Tree<E> {
     public void insert(final E object) throws IllegalArgumentException , StoreIndexException{
         try {
             ArgumentChecks.ensureNonNull("insert : object", object);
-            final Envelope env = treeEltMap.getEnvelope(object);
-            if (!CRS.equalsIgnoreMetadata(crs, env.getCoordinateReferenceSystem()))
-                throw new IllegalArgumentException("During insertion element should have same CoordinateReferenceSystem as Tree.");
-            final double[] coordinates = TreeUtilities.getCoords(env);
-            for (double d : coordinates)
-                if (Double.isNaN(d))
-                    throw new IllegalArgumentException("coordinates contain at least one NAN value");
+            final double[] coordinates = getCoordinates(object);
             treeEltMap.setTreeIdentifier(object, treeIdentifier);
             insert(treeIdentifier, coordinates);
             treeIdentifier++;
@@ -148,7 +168,160 @@ public abstract class AbstractTree<E> implements Tree<E> {
             throw new StoreIndexException(ex);
         }
     }
-    
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If tree is empty, all objects boundaries are read first, then ordered by {@link #bulkLoad(int[], double[], int) }
+     * which build tree from leaves to root.</p>
+     */
+    @Override
+    public void insertAll(final Iterator<? extends E> objects) throws IllegalArgumentException, StoreIndexException {
+        ArgumentChecks.ensureNonNull("insertAll : objects", objects);
+        final Node root = getRoot();
+        if (root != null && !root.isEmpty()) {
+            while (objects.hasNext()) {
+                insert(objects.next());
+            }
+            return;
+        }
+        try {
+            final int boundLength = crs.getCoordinateSystem().getDimension() << 1;
+            int[] identifiers = new int[1024];
+            double[] bounds   = new double[identifiers.length * boundLength];
+            int count = 0;
+            while (objects.hasNext()) {
+                final E object = objects.next();
+                ArgumentChecks.ensureNonNull("insertAll : object", object);
+                final double[] coordinates = getCoordinates(object);
+                if (count == identifiers.length) {
+                    identifiers = Arrays.copyOf(identifiers, count + (count >> 1));
+                    bounds      = Arrays.copyOf(bounds, identifiers.length * boundLength);
+                }
+                treeEltMap.setTreeIdentifier(object, treeIdentifier);
+                identifiers[count] = treeIdentifier++;
+                System.arraycopy(coordinates, 0, bounds, count * boundLength, boundLength);
+                count++;
+            }
+            if (count > 0) bulkLoad(identifiers, bounds, count);
+        } catch (IOException ex) {
+            throw new StoreIndexException(this.getClass().getName()+" impossible to insert all elements.", ex);
+        }
+    }
+
+    /**
+     * Return tree coordinates of an object, after verifying its CRS.
+     *
+     * @param object object which will be inserted.
+     * @return object coordinates.
+     * @throws IOException if problem during envelope reading from {@link TreeElementMapper}.
+     */
+    private double[] getCoordinates(final E object) throws IOException {
+        final Envelope env = treeEltMap.getEnvelope(object);
+        if (!CRS.equalsIgnoreMetadata(crs, env.getCoordinateReferenceSystem()))
+            throw new IllegalArgumentException("During insertion element should have same CoordinateReferenceSystem as Tree.");
+        final double[] coordinates = TreeUtilities.getCoords(env);
+        for (double d : coordinates)
+            if (Double.isNaN(d))
+                throw new IllegalArgumentException("coordinates contain at least one NAN value");
+        return coordinates;
+    }
+
+    /**
+     * Build tree from all elements, in an empty tree.<br/><br/>
+     *
+     * Elements are ordered with Sort-Tile-Recursive algorithm and grouped in full leaves,
+     * leaves are ordered and grouped in the same way, and so on up to root.<br/>
+     * Node identifiers are attributed from root to data, Node after Node,
+     * so all Nodes are written in a single sequential pass through {@link TreeAccess}.
+     *
+     * @param identifiers tree identifier of each element.
+     * @param bounds boundaries of all elements, boundary {@code i} begin at {@code i * 2 * dimension}.
+     * @param count element number.
+     * @throws IOException if problem during Node writing.
+     * @throws StoreIndexException if problem during root affectation.
+     * @see TreeBulkUtilities#strOrder(double[], int, int, int)
+     */
+    protected void bulkLoad(final int[] identifiers, final double[] bounds, final int count) throws IOException, StoreIndexException {
+        final int dim         = crs.getCoordinateSystem().getDimension();
+        final int boundLength = dim << 1;
+        final int maxElts     = getMaxElements();
+
+        /*
+         * Level 0 contains data, each Node from level l + 1 contains maxElts
+         * consecutive elements of level l, in STR order. Last level contains only root.
+         */
+        final List<int[]> orders         = new ArrayList<int[]>();
+        final List<double[]> levelBounds = new ArrayList<double[]>();
+        final List<Integer> levelCounts  = new ArrayList<Integer>();
+        double[] currentBounds = bounds;
+        int currentCount       = count;
+        levelBounds.add(currentBounds);
+        levelCounts.add(currentCount);
+        do {
+            final int[] order = TreeBulkUtilities.strOrder(currentBounds, currentCount, dim, maxElts);
+            currentBounds     = TreeBulkUtilities.groupBounds(currentBounds, currentCount, dim, order, maxElts);
+            currentCount      = TreeBulkUtilities.ceilDiv(currentCount, maxElts);
+            orders.add(order);
+            levelBounds.add(currentBounds);
+            levelCounts.add(currentCount);
+        } while (currentCount > 1);
+
+        /*
+         * Write from root to data. Upper level Nodes are written when their children
+         * identifiers are known, which is just before children writing.
+         */
+        treeAccess.rewind();
+        Node newRoot      = null;
+        int[] upperOrd    = new int[]{0};
+        int[] upperParent = new int[]{0};
+        int upperBase     = 1;
+        int upperCount    = 1;
+        for (int level = orders.size() - 1; level >= 0; level--) {
+            final int[] order         = orders.get(level);
+            final double[] upperBound = levelBounds.get(level + 1);
+            final int lowerCount      = levelCounts.get(level);
+            final int lowerBase       = upperBase + upperCount;
+            final int[] lowerOrd      = new int[lowerCount];
+            final int[] lowerParent   = new int[lowerCount];
+            final byte properties     = (level == 0) ? IS_LEAF : IS_OTHER;
+            int pos = 0;
+            for (int u = 0; u < upperCount; u++) {
+                final int upperId = upperBase + u;
+                final int start   = upperOrd[u] * maxElts;
+                final int end     = Math.min(lowerCount, start + maxElts);
+                final int sibling = (u + 1 < upperCount && upperParent[u + 1] == upperParent[u]) ? upperId + 1 : 0;
+                final int b       = upperOrd[u] * boundLength;
+                final Node node   = createNode(Arrays.copyOfRange(upperBound, b, b + boundLength),
+                        properties, upperParent[u], sibling, lowerBase + pos);
+                assert node.getNodeId() == upperId : "bulkLoad : unexpected node identifier.";
+                node.setChildCount(end - start);
+                treeAccess.writeNode(node);
+                if (upperId == 1) newRoot = node;
+                for (int c = start; c < end; c++) {
+                    lowerOrd[pos]      = order[c];
+                    lowerParent[pos++] = upperId;
+                }
+            }
+            assert pos == lowerCount : "bulkLoad : all children should have a parent.";
+            upperOrd    = lowerOrd;
+            upperParent = lowerParent;
+            upperBase   = lowerBase;
+            upperCount  = lowerCount;
+        }
+        // data
+        for (int k = 0; k < upperCount; k++) {
+            final int sibling = (k + 1 < upperCount && upperParent[k + 1] == upperParent[k]) ? upperBase + k + 1 : 0;
+            final int b       = upperOrd[k] * boundLength;
+            final Node data   = createNode(Arrays.copyOfRange(bounds, b, b + boundLength),
+                    IS_DATA, upperParent[k], sibling, -identifiers[upperOrd[k]]);
+            assert data.getNodeId() == upperBase + k : "bulkLoad : unexpected data identifier.";
+            treeAccess.writeNode(data);
+        }
+        setRoot(newRoot);
+        eltCompteur = count;
+    }
+
     /**
      * {@inheritDoc}
      */
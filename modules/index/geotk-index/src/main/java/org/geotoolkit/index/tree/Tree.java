@@ -21,6 +21,7 @@ import org.opengis.referencing.crs.CoordinateReferenceSystem;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Iterator;
 
 /**
  * Define a generic Tree.
@@ -54,6 +55,31 @@ public interface Tree<E> extends Closeable {
      */
     TreeIdentifierIterator search(final Envelope regionSearch) throws StoreIndexException;
     
+    /**
+     * Find the {@code k} nearest stored datas from {@code regionSearch} and return an appropriate 
+     * {@code Iterator} to travel their tree identifiers, from the nearest to the farthest.<br/>
+     * Distance is the minimum Euclidean distance between data boundary and {@code regionSearch},
+     * in Tree {@link CoordinateReferenceSystem} units. Datas which intersect {@code regionSearch} are at distance 0.
+     * 
+     * @param regionSearch area or position (empty area) from which distances are computed.
+     * @param k maximum number of returned tree identifiers.
+     * @return Iterator on the k nearest tree identifiers, ordered by distance.
+     * @throws StoreIndexException if regionSearch own NaN coordinates value or during reading first result.
+     */
+    TreeIdentifierIterator searchNearest(final Envelope regionSearch, final int k) throws StoreIndexException;
+    
+    /**
+     * Find all stored datas at a distance lesser or equal to {@code distance} from {@code regionSearch}
+     * and return an appropriate {@code Iterator} to travel their tree identifiers, from the nearest to the farthest.
+     * 
+     * @param regionSearch area or position (empty area) from which distances are computed.
+     * @param distance maximum distance in Tree {@link CoordinateReferenceSystem} units.
+     * @return Iterator on tree identifiers, ordered by distance.
+     * @throws StoreIndexException if regionSearch own NaN coordinates value or during reading first result.
+     * @see #searchNearest(org.opengis.geometry.Envelope, int) 
+     */
+    TreeIdentifierIterator searchWithinDistance(final Envelope regionSearch, final double distance) throws StoreIndexException;
+    
     /**
      * Insert an Object into Rtree.
      *
@@ -61,6 +87,17 @@ public interface Tree<E> extends Closeable {
      * @throws StoreIndexException if problem during reading writing element on file. 
      */
     void insert(final E object) throws StoreIndexException;
+
+    /**
+     * Insert all Objects given by iterator into Rtree.<br/>
+     * If tree is empty, tree is built in a single pass from all objects, with well packed Nodes,
+     * which is faster than inserting objects one by one and give better search performances.<br/>
+     * Else objects are inserted one by one.
+     *
+     * @param objects iterator on all objects which will be inserted.
+     * @throws StoreIndexException if problem during reading writing element on file.
+     */
+    void insertAll(final Iterator<? extends E> objects) throws StoreIndexException;
     
     /**
      * Find an object define by user and remove it from RTree. 
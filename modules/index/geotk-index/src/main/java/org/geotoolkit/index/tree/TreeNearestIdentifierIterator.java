@@ -0,0 +1,214 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.index.tree;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import org.apache.sis.util.ArgumentChecks;
+import org.apache.sis.util.ArraysExt;
+import org.geotoolkit.internal.tree.TreeAccess;
+import static org.geotoolkit.internal.tree.TreeUtilities.*;
+
+/**
+ * An Iterator which travel stored datas from the nearest to the farthest of a search area,
+ * from Tree architecture stored in a {@link TreeAccess } object.<br/><br/>
+ *
+ * Tree is travelled "best first" : all Nodes and datas met are stored in a priority queue
+ * ordered by their minimum distance to search area, so a Node is only red when all
+ * nearer datas have already been returned.
+ *
+ * @author Geotoolkit.org contributors
+ * @see org.geotoolkit.internal.tree.TreeUtilities#getMinimumDistance(double[], double[])
+ */
+class TreeNearestIdentifierIterator implements TreeIdentifierIterator {
+
+    /**
+     * {@link TreeAccess} which contain all saved {@link Tree} {@link Node}.
+     */
+    private final TreeAccess tAF;
+
+    /**
+     * Area of search.
+     */
+    private final double[] regionSearch;
+
+    /**
+     * Maximum distance between search area and returned datas.
+     */
+    private final double maxDistance;
+
+    /**
+     * Remaining data number to return.
+     */
+    private int remaining;
+
+    /**
+     * Nodes and datas not travelled yet, ordered by distance.
+     */
+    private final PriorityQueue<Candidate> queue;
+
+    /**
+     * Next tree identifier to return, 0 if there is no more data.
+     */
+    private int dataValue;
+
+    /**
+     * Create an Iterator on the {@code maxResults} nearest datas from {@code regionSearch},
+     * at distance lesser or equal to {@code maxDistance}.
+     *
+     * @param tAF TreeAccess which contain all saved Node.
+     * @param root tree root Node, may be {@code null}.
+     * @param regionSearch area of search.
+     * @param maxResults maximum returned data number.
+     * @param maxDistance maximum distance between search area and returned datas.
+     * @throws StoreIndexException if problem during first data search.
+     */
+    TreeNearestIdentifierIterator(final TreeAccess tAF, final Node root, final double[] regionSearch,
+            final int maxResults, final double maxDistance) throws StoreIndexException {
+        ArgumentChecks.ensureNonNull("TreeAccess tAF", tAF);
+        ArgumentChecks.ensureNonNull("regionSearch", regionSearch);
+        if (ArraysExt.hasNaN(regionSearch))
+            throw new StoreIndexException("regionSearch parameter should not contain NaN value. region search : "+Arrays.toString(regionSearch));
+        this.tAF          = tAF;
+        this.regionSearch = regionSearch;
+        this.maxDistance  = maxDistance;
+        this.remaining    = maxResults;
+        this.queue        = new PriorityQueue<Candidate>();
+        if (root != null && !root.isEmpty()) {
+            offer(root);
+        }
+        try {
+            getNextData();
+        } catch (IOException ex) {
+            throw new StoreIndexException("problem during first data search file reading.", ex);
+        }
+    }
+
+    /**
+     * Add Node in queue if it is not empty and near enough.
+     */
+    private void offer(final Node node) {
+        final double[] boundary = node.getBoundary();
+        if (boundary == null || ArraysExt.hasNaN(boundary)) return; // empty Hilbert cell.
+        final double distance = getMinimumDistance(boundary, regionSearch);
+        if (distance <= maxDistance) {
+            queue.add(new Candidate(node.getNodeId(), node.getChildId(), distance));
+        }
+    }
+
+    /**
+     * Travel tree until the nearest not returned data.
+     *
+     * @throws IOException if problem during Node reading from TreeAccess.
+     */
+    private void getNextData() throws IOException {
+        dataValue = 0;
+        if (remaining <= 0) {
+            queue.clear();
+            return;
+        }
+        Candidate candidate;
+        while ((candidate = queue.poll()) != null) {
+            if (candidate.childId < 0) {
+                // data, all remaining Nodes are farther.
+                remaining--;
+                dataValue = -candidate.childId;
+                return;
+            }
+            int sibl = candidate.childId;
+            while (sibl != 0) {
+                final Node child = tAF.readNode(sibl);
+                offer(child);
+                sibl = child.getSiblingId();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc }.
+     */
+    @Override
+    public int nextInt() throws IOException {
+        if (dataValue == 0) throw new NoSuchElementException("No more data.");
+        final int nextInt = dataValue;
+        getNextData();
+        return nextInt;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public boolean hasNext() {
+        return dataValue != 0;
+    }
+
+    /**
+     * {@inheritDoc }.
+     */
+    @Override
+    public Integer next() {
+        try {
+            return nextInt();
+        } catch (IOException ex) {
+            throw new IllegalStateException("problem during next data search file reading.", ex);
+        }
+    }
+
+    /**
+     * {@inheritDoc }.
+     */
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Not supported.");
+    }
+
+    /**
+     * Node or data waiting in queue.
+     */
+    private static final class Candidate implements Comparable<Candidate> {
+
+        /**
+         * Node identifier, only used to keep a deterministic order.
+         */
+        private final int nodeId;
+
+        /**
+         * First child identifier of Node, or opposite of tree identifier if Node is a data.
+         */
+        private final int childId;
+
+        /**
+         * Minimum distance between Node boundary and search area.
+         */
+        private final double distance;
+
+        private Candidate(final int nodeId, final int childId, final double distance) {
+            this.nodeId   = nodeId;
+            this.childId  = childId;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(final Candidate other) {
+            final int c = Double.compare(distance, other.distance);
+            return (c != 0) ? c : nodeId - other.nodeId;
+        }
+    }
+}
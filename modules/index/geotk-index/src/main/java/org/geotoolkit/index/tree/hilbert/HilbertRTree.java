@@ -24,6 +24,7 @@ import org.geotoolkit.index.tree.AbstractTree;
 import static org.geotoolkit.internal.tree.TreeUtilities.*;
 import org.geotoolkit.index.tree.Node;
 import org.geotoolkit.internal.tree.TreeAccess;
+import org.geotoolkit.internal.tree.TreeBulkUtilities;
 import org.geotoolkit.index.tree.StoreIndexException;
 import org.geotoolkit.index.tree.TreeElementMapper;
 
@@ -224,6 +225,25 @@ abstract class HilbertRTree<E> extends AbstractTree<E> {
         return (subCandidateParent != null && fileCandidate.getParentId() == 0) ? fileCandidate : null;
     }
 
+    /**
+     * {@inheritDoc }
+     *
+     * <p>In Hilbert RTree, data within leaves are dispatched in Hilbert cells,
+     * so leaves may not be written directly full.<br/>
+     * Elements are ordered on Hilbert curve then inserted, each insertion
+     * travel the same tree branch than the previous one and leaves are filled one after another.</p>
+     */
+    @Override
+    protected void bulkLoad(final int[] identifiers, final double[] bounds, final int count) throws IOException, StoreIndexException {
+        final int dim         = crs.getCoordinateSystem().getDimension();
+        final int boundLength = dim << 1;
+        final int[] order     = TreeBulkUtilities.hilbertOrder(bounds, count, dim);
+        for (int i = 0; i < count; i++) {
+            final int b = order[i] * boundLength;
+            insert(identifiers[order[i]], Arrays.copyOfRange(bounds, b, b + boundLength));
+        }
+    }
+
     /**
      * Condense R-Tree.
      *
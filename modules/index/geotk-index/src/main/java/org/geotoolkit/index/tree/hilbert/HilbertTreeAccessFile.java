@@ -18,8 +18,7 @@ package org.geotoolkit.index.tree.hilbert;
 
 import java.io.File;
 import java.io.IOException;
-import org.apache.sis.util.ArraysExt;
-import static org.geotoolkit.internal.tree.TreeUtilities.intersects;
+import java.nio.ByteBuffer;
 import org.geotoolkit.index.tree.Node;
 import org.geotoolkit.internal.tree.TreeAccessFile;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
@@ -112,54 +111,19 @@ final class HilbertTreeAccessFile extends TreeAccessFile {
      * {@inheritDoc }.
      */
     @Override
-    public void internalSearch(int nodeID) throws IOException {
-        adjustBuffer(nodeID);
+    protected Node readNode(final int indexNode, final ByteBuffer buffer, int offset) {
         final double[] boundary = new double[boundLength];
         for (int i = 0; i < boundLength; i++) {
-            boundary[i] = byteBuffer.getDouble();
+            boundary[i] = buffer.getDouble(offset);
+            offset += 8;
         }
-        byteBuffer.position(byteBuffer.position() + 5);// step properties (1 byte) and step parent ID (int : 4 bytes)
-        final int sibling = byteBuffer.getInt();
-        final int child   = byteBuffer.getInt();
-        byteBuffer.position(byteBuffer.position() + 12);// step hilbertOrder, step child count and step dataCount
-        if (sibling != 0) {
-            internalSearch(sibling);
-        }
-        // trouver a ameliorer avec les valeurs de hilbert qui aide en cas de feuille
-        if (!ArraysExt.hasNaN(boundary) && intersects(boundary, regionSearch, true)) {
-            if (child > 0) {
-                internalSearch(child);
-            } else {
-                if (child == 0)
-                    throw new IllegalStateException("child index should never be 0.");
-                if (currentPosition == currentLength) {
-                    currentLength = currentLength << 1;
-                    final int[] tabTemp = tabSearch;
-                    tabSearch = new int[currentLength];
-                    System.arraycopy(tabTemp, 0, tabSearch, 0, currentPosition);
-                }
-                tabSearch[currentPosition++] = -child;
-            }
-        } 
-    }
-        
-    /**
-     * {@inheritDoc }.
-     */
-    @Override
-    public synchronized Node readNode(final int indexNode) throws IOException {
-        adjustBuffer(indexNode);
-        final double[] boundary = new double[boundLength];
-        for (int i = 0; i < boundLength; i++) {
-            boundary[i] = byteBuffer.getDouble();
-        }
-        final byte properties         = byteBuffer.get();
-        final int parentId            = byteBuffer.getInt();
-        final int siblingId           = byteBuffer.getInt();
-        final int childId             = byteBuffer.getInt();
-        final int currentHilbertOrder = byteBuffer.getInt();
-        final int childCount          = byteBuffer.getInt();
-        final int dataCount           = byteBuffer.getInt();
+        final byte properties         = buffer.get(offset);
+        final int parentId            = buffer.getInt(offset + 1);
+        final int siblingId           = buffer.getInt(offset + 5);
+        final int childId             = buffer.getInt(offset + 9);
+        final int currentHilbertOrder = buffer.getInt(offset + 13);
+        final int childCount          = buffer.getInt(offset + 17);
+        final int dataCount           = buffer.getInt(offset + 21);
         final HilbertNode redNode = new HilbertNode(this, indexNode, boundary, properties, parentId, siblingId, childId);
         redNode.setCurrentHilbertOrder(currentHilbertOrder);
         redNode.setChildCount(childCount);
@@ -171,22 +135,19 @@ final class HilbertTreeAccessFile extends TreeAccessFile {
      * {@inheritDoc }.
      */
     @Override
-    public synchronized void writeNode(final Node candidate) throws IOException {
-        final int indexNode    = candidate.getNodeId();
-        adjustBuffer(indexNode);
-        writeBufferLimit = Math.max(writeBufferLimit, byteBuffer.limit());
+    protected void writeNode(final Node candidate, final ByteBuffer buffer) {
         double[] candidateBound = candidate.getBoundary();
         if (candidateBound == null) candidateBound = nanBound;
         for (int i = 0; i < boundLength; i++) {
-            byteBuffer.putDouble(candidateBound[i]);
+            buffer.putDouble(candidateBound[i]);
         }
-        byteBuffer.put(candidate.getProperties());
-        byteBuffer.putInt(candidate.getParentId());
-        byteBuffer.putInt(candidate.getSiblingId());
-        byteBuffer.putInt(candidate.getChildId());
-        byteBuffer.putInt(((HilbertNode)candidate).getCurrentHilbertOrder());
-        byteBuffer.putInt(candidate.getChildCount());
-        byteBuffer.putInt(((HilbertNode)candidate).getDataCount());
+        buffer.put(candidate.getProperties());
+        buffer.putInt(candidate.getParentId());
+        buffer.putInt(candidate.getSiblingId());
+        buffer.putInt(candidate.getChildId());
+        buffer.putInt(((HilbertNode)candidate).getCurrentHilbertOrder());
+        buffer.putInt(candidate.getChildCount());
+        buffer.putInt(((HilbertNode)candidate).getDataCount());
     }
        
     /**
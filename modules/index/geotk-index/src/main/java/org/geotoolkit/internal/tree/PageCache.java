@@ -0,0 +1,167 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.internal.tree;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of file pages red by {@link TreeAccessFile}.<br/><br/>
+ *
+ * Pages are spread over several independent LRU stripes, each one guarded by its own lock,
+ * to let concurrent readers work on different pages without contention.<br/>
+ * Moreover pages which contain upper tree levels may be pinned, they stay in cache
+ * until {@link #remove(int) } or {@link #clear() } call.<br/><br/>
+ *
+ * Cached {@link ByteBuffer} are only red with absolute get methods, they are never modified.
+ *
+ * @author Geotoolkit.org contributors
+ */
+final class PageCache {
+
+    /**
+     * Stripe number, should be a power of two.
+     */
+    private static final int STRIPE_NUMBER = 16;
+
+    /**
+     * LRU stripes, page at index {@code p} is stored in stripe {@code p & (STRIPE_NUMBER - 1)}.
+     */
+    private final Stripe[] stripes;
+
+    /**
+     * Pinned pages, never evicted.
+     */
+    private final Map<Integer, ByteBuffer> pinned;
+
+    /**
+     * Maximum pinned page number.
+     */
+    private final int maxPinned;
+
+    /**
+     * Create a cache.
+     *
+     * @param capacity maximum not pinned page number.
+     * @param maxPinned maximum pinned page number.
+     */
+    PageCache(final int capacity, final int maxPinned) {
+        final int stripeCapacity = Math.max(1, capacity / STRIPE_NUMBER);
+        stripes = new Stripe[STRIPE_NUMBER];
+        for (int s = 0; s < STRIPE_NUMBER; s++) {
+            stripes[s] = new Stripe(stripeCapacity);
+        }
+        this.pinned    = new ConcurrentHashMap<Integer, ByteBuffer>();
+        this.maxPinned = maxPinned;
+    }
+
+    /**
+     * Return cached page or {@code null} if page is not in cache.
+     *
+     * @param page page index.
+     * @return cached page or {@code null}.
+     */
+    ByteBuffer get(final int page) {
+        final ByteBuffer buffer = pinned.get(page);
+        if (buffer != null) return buffer;
+        final Stripe stripe = stripes[page & (STRIPE_NUMBER - 1)];
+        synchronized (stripe) {
+            return stripe.get(page);
+        }
+    }
+
+    /**
+     * Add page in cache, eldest page of its stripe may be evicted.
+     *
+     * @param page page index.
+     * @param buffer page content.
+     */
+    void put(final int page, final ByteBuffer buffer) {
+        if (pinned.containsKey(page)) return;
+        final Stripe stripe = stripes[page & (STRIPE_NUMBER - 1)];
+        synchronized (stripe) {
+            stripe.put(page, buffer);
+        }
+    }
+
+    /**
+     * Pin page in cache if pinned page number is not reached yet.
+     *
+     * @param page page index.
+     * @param buffer page content.
+     */
+    void pin(final int page, final ByteBuffer buffer) {
+        if (pinned.size() >= maxPinned || pinned.containsKey(page)) return;
+        pinned.put(page, buffer);
+        final Stripe stripe = stripes[page & (STRIPE_NUMBER - 1)];
+        synchronized (stripe) {
+            stripe.remove(page);
+        }
+    }
+
+    /**
+     * Return {@code true} if page is pinned.
+     */
+    boolean isPinned(final int page) {
+        return pinned.containsKey(page);
+    }
+
+    /**
+     * Remove page from cache, pinned or not.
+     *
+     * @param page page index.
+     */
+    void remove(final int page) {
+        pinned.remove(page);
+        final Stripe stripe = stripes[page & (STRIPE_NUMBER - 1)];
+        synchronized (stripe) {
+            stripe.remove(page);
+        }
+    }
+
+    /**
+     * Remove all pages from cache.
+     */
+    void clear() {
+        pinned.clear();
+        for (final Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    /**
+     * LRU map of limited size.
+     */
+    private static final class Stripe extends LinkedHashMap<Integer, ByteBuffer> {
+
+        private final int capacity;
+
+        private Stripe(final int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Integer, ByteBuffer> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -27,17 +27,26 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
 import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.sis.util.ArgumentChecks;
+import org.apache.sis.util.ArraysExt;
 import org.geotoolkit.index.tree.Node;
 import org.geotoolkit.index.tree.StoreIndexException;
-import static org.geotoolkit.internal.tree.TreeUtilities.intersects;
+import static org.geotoolkit.internal.tree.TreeUtilities.*;
 import org.geotoolkit.index.tree.basic.SplitCase;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
 
 /**
  * {@link TreeAccess} implementation.<br/>
- * Store all {@link Node} architecture use by {@link Tree} on disk drive.
+ * Store all {@link Node} architecture use by {@link Tree} on disk drive.<br/><br/>
+ *
+ * Nodes are red with positional reads on {@link FileChannel} through a bounded {@link PageCache},
+ * where pages which contain upper tree levels are pinned. Readers only share a read lock,
+ * so several searches may run concurrently, whereas writing methods take the lock exclusively
+ * and write Nodes through a single buffer.<br/>
+ * Note : each Node is red atomically, but a search which runs during an insertion
+ * may see tree architecture partially updated.
  * 
  * @author Rémi Maréchal (Geomatys).
  */
@@ -48,6 +57,16 @@ public class TreeAccessFile extends TreeAccess {
      */
     private static final int CRS_POSITION = 34;
 
+    /**
+     * Maximum number of not pinned pages kept in cache.
+     */
+    private static final int CACHE_PAGES = 256;
+
+    /**
+     * Maximum number of pinned pages, which contain upper tree levels.
+     */
+    private static final int PINNED_PAGES = 64;
+
     /**
      * Number of Integer per Node.<br/><br/>
      * parent ID<br/>
@@ -90,11 +109,31 @@ public class TreeAccessFile extends TreeAccess {
      */
     protected final ByteBuffer byteBuffer;
     
+    /**
+     * View of {@link #byteBuffer} with its own position and limit, used by readers.
+     */
+    private final ByteBuffer writeBufferView;
+    
     /**
      * ByteBuffer Length.
      */
     private final int bufferLength;
     
+    /**
+     * Node number within a buffer.
+     */
+    private final int nodePerBuffer;
+    
+    /**
+     * Pages red from file.
+     */
+    private final PageCache pageCache;
+    
+    /**
+     * Read lock is hold by readers and write lock by all methods which modify file or {@link #byteBuffer}.
+     */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
     /**
      * ByteBuffer attributs use to read and write.
      */
@@ -221,10 +260,12 @@ public class TreeAccessFile extends TreeAccess {
         nodeSize = (boundLength * Double.SIZE + Integer.SIZE * integerNumberPerNode) / 8 + 1;
         
         // buffer attributs
-        final int div = byteBufferLength / nodeSize;
-        this.bufferLength = div * nodeSize;
+        nodePerBuffer     = byteBufferLength / nodeSize;
+        this.bufferLength = nodePerBuffer * nodeSize;
         byteBuffer = ByteBuffer.allocateDirect(bufferLength);
         byteBuffer.order(bO);
+        writeBufferView = byteBuffer.duplicate().order(bO);
+        pageCache       = new PageCache(CACHE_PAGES, PINNED_PAGES);
         
         beginPosition = (int) inOutChannel.position();
         currentBufferPosition = beginPosition;
@@ -346,12 +387,14 @@ public class TreeAccessFile extends TreeAccess {
          */
         nodeSize = (boundLength * Double.SIZE + Integer.SIZE * integerNumberPerNode) / 8 + 1;
         
-        final int div = byteBufferLength / nodeSize; // 4096
-        this.bufferLength = div * nodeSize;
+        nodePerBuffer     = byteBufferLength / nodeSize; // 4096
+        this.bufferLength = nodePerBuffer * nodeSize;
         // ByteBuffer
         final ByteOrder bO = ByteOrder.nativeOrder();
         byteBuffer = ByteBuffer.allocateDirect((int)bufferLength);
         byteBuffer.order(bO);
+        writeBufferView = byteBuffer.duplicate().order(bO);
+        pageCache       = new PageCache(CACHE_PAGES, PINNED_PAGES);
         
         // stream
         inOutStream  = new RandomAccessFile(outPut, "rw");
@@ -395,55 +438,109 @@ public class TreeAccessFile extends TreeAccess {
         root = null;
     }
         
+    /**
+     * {@inheritDoc }.<br/>
+     * In this implementation search does not use shared search attributs,
+     * so several searches may run concurrently.
+     */
+    @Override
+    public int[] search(final int nodeID, final double[] regionSearch) throws IOException {
+        final SearchResult result = new SearchResult();
+        lock.readLock().lock();
+        try {
+            search(nodeID, regionSearch, result);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return Arrays.copyOf(result.identifiers, result.size);
+    }
+        
     /**
      * {@inheritDoc }.
      */
     @Override
     public void internalSearch(int nodeID) throws IOException {
-        adjustBuffer(nodeID);
+        tabSearch       = search(nodeID, regionSearch);
+        currentLength   = tabSearch.length;
+        currentPosition = currentLength;
+    }
+    
+    /**
+     * Add in {@code result} all tree identifiers stored in {@code nodeID} Node and its siblings,
+     * which intersect {@code regionSearch}.
+     */
+    private void search(int nodeID, final double[] regionSearch, final SearchResult result) throws IOException {
         final double[] boundary = new double[boundLength];
-        for (int i = 0; i < boundLength; i++) {
-            boundary[i] = byteBuffer.getDouble();
-        }
-        byteBuffer.position(byteBuffer.position() + 5);// step properties (1 byte) and step parent ID (int  : 4 byte)
-        final int sibling = byteBuffer.getInt();
-        final int child   = byteBuffer.getInt();
-        byteBuffer.position(byteBuffer.position() + 4);// step child count
-        if (sibling != 0) {
-            internalSearch(sibling);
-        }
-        if (intersects(boundary, regionSearch, true)) {
-            if (child > 0) {
-                internalSearch(child);
-            } else {
-                if (child == 0)
-                    throw new IllegalStateException("child index should never be 0.");
-                if (currentPosition == currentLength) {
-                    currentLength = currentLength << 1;
-                    final int[] tabTemp = tabSearch;
-                    tabSearch = new int[currentLength];
-                    System.arraycopy(tabTemp, 0, tabSearch, 0, currentPosition);
+        ByteBuffer buffer = null;
+        int page = -1;
+        while (nodeID != 0) {
+            // siblings are often stored within same page.
+            final int nodePage = getPageIndex(nodeID);
+            if (nodePage != page) {
+                page   = nodePage;
+                buffer = getPage(page);
+            }
+            int offset = getOffset(nodeID);
+            for (int i = 0; i < boundLength; i++) {
+                boundary[i] = buffer.getDouble(offset);
+                offset += 8;
+            }
+            // step properties (1 byte) and parent ID (int : 4 bytes)
+            final int sibling = buffer.getInt(offset + 5);
+            final int child   = buffer.getInt(offset + 9);
+            if (!ArraysExt.hasNaN(boundary) && intersects(boundary, regionSearch, true)) {
+                if (child > 0) {
+                    search(child, regionSearch, result);
+                } else {
+                    if (child == 0)
+                        throw new IllegalStateException("child index should never be 0.");
+                    result.add(-child);
                 }
-                tabSearch[currentPosition++] = -child;
             }
-        } 
+            nodeID = sibling;
+        }
     }
         
     /**
      * {@inheritDoc }.
      */
     @Override
-    public synchronized Node readNode(final int indexNode) throws IOException {
-        adjustBuffer(indexNode);
+    public Node readNode(final int indexNode) throws IOException {
+        lock.readLock().lock();
+        try {
+            final int page          = getPageIndex(indexNode);
+            final ByteBuffer buffer = getPage(page);
+            final Node redNode      = readNode(indexNode, buffer, getOffset(indexNode));
+            // keep upper tree levels in cache.
+            if (buffer != writeBufferView && (redNode.getProperties() & (IS_LEAF | IS_DATA | IS_CELL)) == 0) {
+                pageCache.pin(page, buffer);
+            }
+            return redNode;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Create Node stored from {@code offset} position within {@code buffer}.<br/>
+     * {@code buffer} may be shared by several readers, it should only be red with absolute get methods.
+     * 
+     * @param indexNode node identifier.
+     * @param buffer page which contain Node.
+     * @param offset Node position within page.
+     * @return red Node.
+     */
+    protected Node readNode(final int indexNode, final ByteBuffer buffer, int offset) {
         final double[] boundary = new double[boundLength];
         for (int i = 0; i < boundLength; i++) {
-            boundary[i] = byteBuffer.getDouble();
+            boundary[i] = buffer.getDouble(offset);
+            offset += 8;
         }
-        final byte properties  = byteBuffer.get();
-        final int parentId     = byteBuffer.getInt();
-        final int siblingId    = byteBuffer.getInt();
-        final int childId      = byteBuffer.getInt();
-        final int childCount   = byteBuffer.getInt();
+        final byte properties  = buffer.get(offset);
+        final int parentId     = buffer.getInt(offset + 1);
+        final int siblingId    = buffer.getInt(offset + 5);
+        final int childId      = buffer.getInt(offset + 9);
+        final int childCount   = buffer.getInt(offset + 13);
         final Node redNode = new Node(this, indexNode, boundary, properties, parentId, siblingId, childId);
         redNode.setChildCount(childCount);
         return redNode;
@@ -453,20 +550,74 @@ public class TreeAccessFile extends TreeAccess {
      * {@inheritDoc }.
      */
     @Override
-    public synchronized void writeNode(final Node candidate) throws IOException {
-        final int indexNode    = candidate.getNodeId();
-        adjustBuffer(indexNode);
-        writeBufferLimit = Math.max(writeBufferLimit, byteBuffer.limit());
+    public void writeNode(final Node candidate) throws IOException {
+        lock.writeLock().lock();
+        try {
+            adjustBuffer(candidate.getNodeId());
+            writeBufferLimit = Math.max(writeBufferLimit, byteBuffer.limit());
+            writeNode(candidate, byteBuffer);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Write Node from current {@code buffer} position.
+     * 
+     * @param candidate Node which will be written.
+     * @param buffer buffer where Node is written.
+     */
+    protected void writeNode(final Node candidate, final ByteBuffer buffer) {
         double[] candidateBound = candidate.getBoundary();
         if (candidateBound == null) candidateBound = nanBound;
         for (int i = 0; i < boundLength; i++) {
-            byteBuffer.putDouble(candidateBound[i]);
+            buffer.putDouble(candidateBound[i]);
         }
-        byteBuffer.put(candidate.getProperties());
-        byteBuffer.putInt(candidate.getParentId());
-        byteBuffer.putInt(candidate.getSiblingId());
-        byteBuffer.putInt(candidate.getChildId());
-        byteBuffer.putInt(candidate.getChildCount());
+        buffer.put(candidate.getProperties());
+        buffer.putInt(candidate.getParentId());
+        buffer.putInt(candidate.getSiblingId());
+        buffer.putInt(candidate.getChildId());
+        buffer.putInt(candidate.getChildCount());
+    }
+    
+    /**
+     * Return index of page which contain Node.
+     */
+    private int getPageIndex(final int nodeID) {
+        return (nodeID - 1) / nodePerBuffer;
+    }
+    
+    /**
+     * Return Node position within its page.
+     */
+    private int getOffset(final int nodeID) {
+        return ((nodeID - 1) % nodePerBuffer) * nodeSize;
+    }
+    
+    /**
+     * Return page content, from buffer used to write if it is the current written page,
+     * else from cache or file.<br/>
+     * Caller should hold read or write lock.
+     * 
+     * @param page page index.
+     * @return page content, only readable with absolute get methods.
+     * @throws IOException if problem during file reading.
+     */
+    private ByteBuffer getPage(final int page) throws IOException {
+        if (beginPosition + (long) page * bufferLength == currentBufferPosition) {
+            return writeBufferView;
+        }
+        ByteBuffer buffer = pageCache.get(page);
+        if (buffer == null) {
+            buffer = ByteBuffer.allocate(bufferLength);
+            buffer.order(byteBuffer.order());
+            final long position = beginPosition + (long) page * bufferLength;
+            while (buffer.hasRemaining()) {
+                if (inOutChannel.read(buffer, position + buffer.position()) < 0) break;
+            }
+            pageCache.put(page, buffer);
+        }
+        return buffer;
     }
     
     /**
@@ -491,6 +642,8 @@ public class TreeAccessFile extends TreeAccess {
             final int div = (rwIndex - beginPosition) / bufferLength;
             currentBufferPosition = div * bufferLength + beginPosition;
             inOutChannel.read(byteBuffer, currentBufferPosition);
+            // cached page will become obsolete.
+            pageCache.remove(div);
         }
         rwIndex -= currentBufferPosition;
         byteBuffer.limit(rwIndex + nodeSize);
@@ -509,37 +662,50 @@ public class TreeAccessFile extends TreeAccess {
      * {@inheritDoc }.
      */
     @Override
-    public synchronized void rewind() throws IOException {
-        super.rewind();
-        byteBuffer.position(0);
-        byteBuffer.limit(writeBufferLimit);
-        int writtenByte = 0;
-        while (writtenByte != writeBufferLimit) {
-            writtenByte = inOutChannel.write(byteBuffer, currentBufferPosition);
+    public void rewind() throws IOException {
+        lock.writeLock().lock();
+        try {
+            super.rewind();
+            byteBuffer.position(0);
+            byteBuffer.limit(writeBufferLimit);
+            int writtenByte = 0;
+            while (writtenByte != writeBufferLimit) {
+                writtenByte = inOutChannel.write(byteBuffer, currentBufferPosition);
+            }
+            inOutChannel.position(beginPosition);
+            currentBufferPosition = beginPosition;
+            writeBufferLimit = 0;
+            pageCache.clear();
+            // write buffer content is now page at beginPosition.
+            byteBuffer.clear();
+            inOutChannel.read(byteBuffer, currentBufferPosition);
+        } finally {
+            lock.writeLock().unlock();
         }
-        inOutChannel.position(beginPosition);
-        currentBufferPosition = beginPosition;
-        writeBufferLimit = 0;
     }
 
     /**
      * {@inheritDoc }.
      */
     @Override
-     public synchronized void flush() throws IOException {
-
-        byteBuffer.position(0);
-        byteBuffer.limit(writeBufferLimit);
-        int writtenByte = 0;
-        while (writtenByte != writeBufferLimit) {
-            writtenByte = inOutChannel.write(byteBuffer, currentBufferPosition);
+     public void flush() throws IOException {
+        lock.writeLock().lock();
+        try {
+            byteBuffer.position(0);
+            byteBuffer.limit(writeBufferLimit);
+            int writtenByte = 0;
+            while (writtenByte != writeBufferLimit) {
+                writtenByte = inOutChannel.write(byteBuffer, currentBufferPosition);
+            }
+            // write nodeID
+            inOutChannel.position(22);
+            inOutStream.writeInt(nodeId);
+            inOutStream.writeInt(treeIdentifier);
+            inOutStream.writeInt(eltNumber);
+            adjustBuffer(nodeId);
+        } finally {
+            lock.writeLock().unlock();
         }
-        // write nodeID
-        inOutChannel.position(22);
-        inOutStream.writeInt(nodeId);
-        inOutStream.writeInt(treeIdentifier);
-        inOutStream.writeInt(eltNumber);
-        adjustBuffer(nodeId);
      }
 
 
@@ -547,20 +713,26 @@ public class TreeAccessFile extends TreeAccess {
      * {@inheritDoc }.
      */
     @Override
-     public synchronized void close() throws IOException {
-        byteBuffer.position(0);
-        byteBuffer.limit(writeBufferLimit);
-        int writtenByte = 0;
-        while (writtenByte != writeBufferLimit) {
-            writtenByte = inOutChannel.write(byteBuffer, currentBufferPosition);
+     public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            byteBuffer.position(0);
+            byteBuffer.limit(writeBufferLimit);
+            int writtenByte = 0;
+            while (writtenByte != writeBufferLimit) {
+                writtenByte = inOutChannel.write(byteBuffer, currentBufferPosition);
+            }
+            // write nodeID
+            inOutChannel.position(22); 
+            inOutStream.writeInt(nodeId);
+            inOutStream.writeInt(treeIdentifier);
+            inOutStream.writeInt(eltNumber);
+            //close
+            inOutChannel.close();
+            pageCache.clear();
+        } finally {
+            lock.writeLock().unlock();
         }
-        // write nodeID
-        inOutChannel.position(22); 
-        inOutStream.writeInt(nodeId);
-        inOutStream.writeInt(treeIdentifier);
-        inOutStream.writeInt(eltNumber);
-        //close
-        inOutChannel.close();
      }
 
     /**
@@ -572,6 +744,21 @@ public class TreeAccessFile extends TreeAccess {
         return !inOutChannel.isOpen();
     }
 
+    /**
+     * Growing table of search results.
+     */
+    private static final class SearchResult {
+        private int[] identifiers = new int[100];
+        private int size;
+
+        private void add(final int identifier) {
+            if (size == identifiers.length) {
+                identifiers = Arrays.copyOf(identifiers, size << 1);
+            }
+            identifiers[size++] = identifier;
+        }
+    }
+
     /**
      * Retrieve the CRS of the input tree.
      * @param treeFile The file containing the tree.
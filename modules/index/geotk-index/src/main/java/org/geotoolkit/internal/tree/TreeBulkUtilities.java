@@ -0,0 +1,268 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.internal.tree;
+
+import java.util.Arrays;
+import org.apache.sis.util.ArgumentChecks;
+import org.geotoolkit.path.iterator.HilbertIterator;
+
+/**
+ * Ordering utilities used to build a packed {@link org.geotoolkit.index.tree.Tree} from a set of boundaries.<br/><br/>
+ *
+ * All boundaries are stored in a single table, boundary at index {@code i} is stored
+ * from {@code i * 2 * dimension} (all minimum ordinates then all maximum ordinates),
+ * like others tree boundaries.
+ *
+ * @author Geotoolkit.org contributors
+ */
+public final class TreeBulkUtilities {
+
+    /**
+     * Maximum bit number of Hilbert value used to order boundaries.<br/>
+     * Hilbert curve of this order is precomputed, so it should stay reasonable.
+     */
+    private static final int HILBERT_MAX_BITS = 20;
+
+    /**
+     * Under this length, sort is done by insertion.
+     */
+    private static final int INSERTION_SORT_LENGTH = 16;
+
+    private TreeBulkUtilities() {
+    }
+
+    /**
+     * Return boundary indexes ordered by Sort-Tile-Recursive algorithm.<br/>
+     * Boundaries are sorted on their first ordinate center and cut into slices,
+     * each slice is sorted on next ordinate and so on, then each group of {@code nodeCapacity}
+     * consecutive boundaries represent a well packed Node.
+     *
+     * @param bounds all boundaries.
+     * @param count boundary number.
+     * @param dimension boundary dimension.
+     * @param nodeCapacity maximum element number per Node.
+     * @return boundary indexes in STR order.
+     */
+    public static int[] strOrder(final double[] bounds, final int count, final int dimension, final int nodeCapacity) {
+        ArgumentChecks.ensureNonNull("bounds", bounds);
+        ArgumentChecks.ensureStrictlyPositive("dimension", dimension);
+        ArgumentChecks.ensureBetween("nodeCapacity", 2, Integer.MAX_VALUE, nodeCapacity);
+        final int[] order = identity(count);
+        strSort(bounds, dimension, order, 0, count, 0, nodeCapacity);
+        return order;
+    }
+
+    /**
+     * Sort recursively boundaries from {@code from} inclusive to {@code to} exclusive, on {@code axis} ordinate center.
+     */
+    private static void strSort(final double[] bounds, final int dimension, final int[] order,
+            final int from, final int to, final int axis, final int nodeCapacity) {
+        sort(bounds, dimension, axis, order, from, to - 1);
+        if (axis == dimension - 1) return;
+        final int pages = ceilDiv(to - from, nodeCapacity);
+        if (pages <= 1) return;
+        final int slices    = (int) Math.ceil(Math.pow(pages, 1.0 / (dimension - axis)));
+        final int sliceSize = ceilDiv(pages, slices) * nodeCapacity;
+        for (int s = from; s < to; s += sliceSize) {
+            strSort(bounds, dimension, order, s, Math.min(to, s + sliceSize), axis + 1, nodeCapacity);
+        }
+    }
+
+    /**
+     * Return boundary indexes ordered from Hilbert value of their center.<br/>
+     * Hilbert curve is computed with {@link HilbertIterator} on the global area of boundary centers.
+     *
+     * @param bounds all boundaries.
+     * @param count boundary number.
+     * @param dimension boundary dimension.
+     * @return boundary indexes in Hilbert curve order.
+     */
+    public static int[] hilbertOrder(final double[] bounds, final int count, final int dimension) {
+        ArgumentChecks.ensureNonNull("bounds", bounds);
+        ArgumentChecks.ensureBetween("dimension", 1, HILBERT_MAX_BITS, dimension);
+        final int boundLength = dimension << 1;
+
+        // area of all centers
+        final double[] minCenter = new double[dimension];
+        final double[] maxCenter = new double[dimension];
+        Arrays.fill(minCenter, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxCenter, Double.NEGATIVE_INFINITY);
+        for (int i = 0, b = 0; i < count; i++, b += boundLength) {
+            for (int d = 0; d < dimension; d++) {
+                final double center = (bounds[b + d] + bounds[b + d + dimension]) / 2;
+                if (center < minCenter[d]) minCenter[d] = center;
+                if (center > maxCenter[d]) maxCenter[d] = center;
+            }
+        }
+
+        // choose an order which give approximately one cell per boundary.
+        int hilbertOrder = (int) Math.ceil(Math.log(Math.max(count, 2)) / (Math.log(2) * dimension)) + 1;
+        hilbertOrder = Math.max(1, Math.min(hilbertOrder, HILBERT_MAX_BITS / dimension));
+        final int side = 1 << hilbertOrder;
+
+        // Hilbert value of each cell
+        final int[] hilbertValues = new int[1 << (hilbertOrder * dimension)];
+        if (dimension == 1) {
+            for (int i = 0; i < side; i++) hilbertValues[i] = i;
+        } else {
+            final HilbertIterator hIt = new HilbertIterator(hilbertOrder, dimension);
+            int hilbertValue = 0;
+            while (hIt.hasNext()) {
+                hilbertValues[cellIndex(hIt.next(), side)] = hilbertValue++;
+            }
+        }
+
+        // counting sort on Hilbert value, stable.
+        final int[] keys   = new int[count];
+        final int[] starts = new int[hilbertValues.length + 1];
+        final int[] cell   = new int[dimension];
+        for (int i = 0, b = 0; i < count; i++, b += boundLength) {
+            for (int d = 0; d < dimension; d++) {
+                final double span = maxCenter[d] - minCenter[d];
+                if (span <= 0) {
+                    cell[d] = 0;
+                } else {
+                    final double center = (bounds[b + d] + bounds[b + d + dimension]) / 2;
+                    cell[d] = Math.min(side - 1, (int) ((center - minCenter[d]) / span * side));
+                }
+            }
+            keys[i] = hilbertValues[cellIndex(cell, side)];
+            starts[keys[i] + 1]++;
+        }
+        for (int k = 1; k < starts.length; k++) {
+            starts[k] += starts[k - 1];
+        }
+        final int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[starts[keys[i]]++] = i;
+        }
+        return order;
+    }
+
+    /**
+     * Compute boundaries of Nodes which contain each {@code nodeCapacity} consecutive
+     * boundaries from {@code order}.
+     *
+     * @param bounds children boundaries.
+     * @param count children number.
+     * @param dimension boundary dimension.
+     * @param order children order.
+     * @param nodeCapacity maximum element number per Node.
+     * @return parent Node boundaries, parent at index {@code p} contains children
+     * {@code order[p * nodeCapacity]} to {@code order[min(count, (p+1) * nodeCapacity) - 1]}.
+     */
+    public static double[] groupBounds(final double[] bounds, final int count, final int dimension,
+            final int[] order, final int nodeCapacity) {
+        final int boundLength = dimension << 1;
+        final int parentCount = ceilDiv(count, nodeCapacity);
+        final double[] result = new double[parentCount * boundLength];
+        for (int p = 0; p < parentCount; p++) {
+            final int start = p * nodeCapacity;
+            final int end   = Math.min(count, start + nodeCapacity);
+            final int r     = p * boundLength;
+            System.arraycopy(bounds, order[start] * boundLength, result, r, boundLength);
+            for (int c = start + 1; c < end; c++) {
+                final int b = order[c] * boundLength;
+                for (int d = 0; d < dimension; d++) {
+                    result[r + d]             = Math.min(result[r + d], bounds[b + d]);
+                    result[r + d + dimension] = Math.max(result[r + d + dimension], bounds[b + d + dimension]);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Return {@code ceil(value / divisor)} for positive values.
+     */
+    public static int ceilDiv(final int value, final int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+
+    /**
+     * Return table {0, 1, ... , count-1}.
+     */
+    private static int[] identity(final int count) {
+        final int[] order = new int[count];
+        for (int i = 0; i < count; i++) order[i] = i;
+        return order;
+    }
+
+    /**
+     * Index of a Hilbert cell in a table of {@code side^dimension} cells.
+     */
+    private static int cellIndex(final int[] cell, final int side) {
+        int index = 0;
+        for (int d = cell.length - 1; d >= 0; d--) {
+            index = index * side + cell[d];
+        }
+        return index;
+    }
+
+    /**
+     * Return center ordinate of boundary {@code index} on {@code axis}, multiplied by 2.
+     */
+    private static double center(final double[] bounds, final int dimension, final int axis, final int index) {
+        final int b = index * (dimension << 1) + axis;
+        return bounds[b] + bounds[b + dimension];
+    }
+
+    /**
+     * Sort {@code order} from {@code low} to {@code high} inclusive, on boundary center of {@code axis} ordinate.
+     */
+    private static void sort(final double[] bounds, final int dimension, final int axis, final int[] order,
+            int low, int high) {
+        while (high - low >= INSERTION_SORT_LENGTH) {
+            // median of three
+            final int mid = (low + high) >>> 1;
+            if (center(bounds, dimension, axis, order[mid])  < center(bounds, dimension, axis, order[low])) swap(order, mid, low);
+            if (center(bounds, dimension, axis, order[high]) < center(bounds, dimension, axis, order[low])) swap(order, high, low);
+            if (center(bounds, dimension, axis, order[high]) < center(bounds, dimension, axis, order[mid])) swap(order, high, mid);
+            final double pivot = center(bounds, dimension, axis, order[mid]);
+            int i = low, j = high;
+            while (i <= j) {
+                while (center(bounds, dimension, axis, order[i]) < pivot) i++;
+                while (center(bounds, dimension, axis, order[j]) > pivot) j--;
+                if (i <= j) swap(order, i++, j--);
+            }
+            // recurse on smallest part, loop on the other.
+            if (j - low < high - i) {
+                sort(bounds, dimension, axis, order, low, j);
+                low = i;
+            } else {
+                sort(bounds, dimension, axis, order, i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            final int value  = order[i];
+            final double key = center(bounds, dimension, axis, value);
+            int j = i - 1;
+            while (j >= low && center(bounds, dimension, axis, order[j]) > key) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = value;
+        }
+    }
+
+    private static void swap(final int[] order, final int i, final int j) {
+        final int temp = order[i];
+        order[i] = order[j];
+        order[j] = temp;
+    }
+}
@@ -158,6 +158,32 @@ public class TreeUtilities {
         return getDistanceBetween2Positions(getMedian(envelopA), getMedian(envelopB));
     }
     
+    /**
+     * Compute minimum Euclidean distance between two {@code Envelope} in dimension n.<br/>
+     * Distance is 0 if envelopes intersect.
+     *
+     * @param envelopA
+     * @param envelopB
+     * @return minimum distance between envelopA and envelopB borders.
+     */
+    public static double getMinimumDistance(final double[] envelopA, final double[] envelopB) {
+        assert envelopA.length == envelopB.length : "getMinimumDistance : envelopA and envelopB are not in same dimension";
+        final int dim = envelopA.length >> 1;
+        double sum = 0;
+        for (int i = 0, d = dim; i < dim; i++, d++) {
+            final double gap;
+            if (envelopA[d] < envelopB[i]) {
+                gap = envelopB[i] - envelopA[d];
+            } else if (envelopB[d] < envelopA[i]) {
+                gap = envelopA[i] - envelopB[d];
+            } else {
+                continue;
+            }
+            sum += gap * gap;
+        }
+        return Math.sqrt(sum);
+    }
+    
     /**
      * Compute general boundary of all {@code Envelope} passed in parameter.
      *
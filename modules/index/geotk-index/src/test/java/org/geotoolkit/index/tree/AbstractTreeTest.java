@@ -172,6 +172,46 @@ public abstract class AbstractTreeTest extends TreeTest {
         }
     }
     
+    /**
+     * Test if tree built from {@link Tree#insertAll(java.util.Iterator) } contain all elements
+     * and stay conform after new insertions and deletions.
+     */
+    @Test
+    public void insertAllTest() throws StoreIndexException, IOException {
+        tree.setRoot(null);
+        tEM.clear();
+        tree.insertAll(lData.iterator());
+        tree.flush();
+        assertTrue(tree.getElementsNumber() == lSize);
+        tAF = ((AbstractTree)tree).getTreeAccess();
+        checkNode(tree.getRoot(), lData);
+        
+        final GeneralEnvelope rG = new GeneralEnvelope(crs);
+        rG.setEnvelope(getExtent(lData));
+        int[] tabSearch = tree.searchID(rG);
+        assertTrue(compareLists(lData, Arrays.asList(getResult(tabSearch))));
+        
+        // packed tree should accept usual insertions and deletions.
+        final List<double[]> lDataTemp = new ArrayList<double[]>(lData);
+        Collections.shuffle(lDataTemp);
+        for (int i = 0; i < lSize / 2; i++) {
+            assertTrue(tree.remove(lDataTemp.remove(lDataTemp.size() - 1)));
+        }
+        final double[] center = new double[dimension];
+        for (int i = 0; i < 20; i++) {
+            for (int d = 0; d < dimension; d++) {
+                center[d] = (minMax[d+dimension]-minMax[d]) * Math.random() + minMax[d];
+            }
+            final double[] entry = createEntry(center);
+            tree.insert(entry);
+            lDataTemp.add(entry);
+        }
+        rG.setEnvelope(getExtent(lDataTemp));
+        tabSearch = tree.searchID(rG);
+        assertTrue(tree.getElementsNumber() == lDataTemp.size());
+        assertTrue(compareLists(lDataTemp, Arrays.asList(getResult(tabSearch))));
+    }
+    
     /**
      * Compare node properties from its children.<br/>
      * Compare Node boundary from its sub-Nodes boundary sum.<br/>
@@ -367,7 +407,100 @@ public abstract class AbstractTreeTest extends TreeTest {
         assertTrue("comparison between tabSearch from iterator not equals with tabSearch", compareID(tabSearch, tabIterSearch));
         assertTrue(compareLists(lData, Arrays.asList(getResult(tabSearch))));
     }
-        
+
+    /**
+     * Test that {@link Tree#searchNearest(org.opengis.geometry.Envelope, int) } return
+     * the k nearest datas ordered by increasing distance.
+     */
+    @Test
+    public void searchNearestTest() throws StoreIndexException, IOException {
+        if (tree.getRoot() == null) insert();
+        final GeneralEnvelope rG = new GeneralEnvelope(crs);
+        final double[] center = new double[dimension];
+        for (int q = 0; q < 20; q++) {
+            for (int d = 0; d < dimension; d++) {
+                center[d] = (minMax[d+dimension]-minMax[d]) * Math.random() + minMax[d];
+            }
+            final double[] areaSearch = createEntry(center);
+            rG.setEnvelope(areaSearch);
+            final int k = 1 + q * 3;
+            final double[] expected = getSortedDistances(lData, areaSearch);
+            final TreeIdentifierIterator triter = tree.searchNearest(rG, k);
+            int n = 0;
+            while (triter.hasNext()) {
+                final double distance = getMinimumDistance(tEM.getObjectFromTreeIdentifier(triter.nextInt()), areaSearch);
+                assertTrue("data "+n+" is not at expected distance.", Math.abs(distance - expected[n]) < 1E-9);
+                n++;
+            }
+            assertTrue(n == Math.min(k, lSize));
+        }
+
+        // more results than datas
+        rG.setEnvelope(minMax.clone());
+        final int[] tabSearch = toArray(tree.searchNearest(rG, lSize * 2));
+        assertTrue(compareLists(lData, Arrays.asList(getResult(tabSearch))));
+    }
+
+    /**
+     * Test that {@link Tree#searchWithinDistance(org.opengis.geometry.Envelope, double) } return
+     * all datas within distance ordered by increasing distance.
+     */
+    @Test
+    public void searchWithinDistanceTest() throws StoreIndexException, IOException {
+        if (tree.getRoot() == null) insert();
+        final GeneralEnvelope rG = new GeneralEnvelope(crs);
+        final double[] center = new double[dimension];
+        for (int q = 0; q < 20; q++) {
+            for (int d = 0; d < dimension; d++) {
+                center[d] = (minMax[d+dimension]-minMax[d]) * Math.random() + minMax[d];
+            }
+            final double[] areaSearch = createEntry(center);
+            rG.setEnvelope(areaSearch);
+            final double maxDistance = (minMax[dimension]-minMax[0]) * q / 40;
+            final List<double[]> lDataTemp = new ArrayList<double[]>();
+            for (double[] data : lData) {
+                if (getMinimumDistance(data, areaSearch) <= maxDistance) lDataTemp.add(data);
+            }
+            final TreeIdentifierIterator triter = tree.searchWithinDistance(rG, maxDistance);
+            final List<double[]> result = new ArrayList<double[]>();
+            double previous = 0;
+            while (triter.hasNext()) {
+                final double[] data = tEM.getObjectFromTreeIdentifier(triter.nextInt());
+                final double distance = getMinimumDistance(data, areaSearch);
+                assertTrue(distance >= previous);
+                assertTrue(distance <= maxDistance);
+                previous = distance;
+                result.add(data);
+            }
+            assertTrue(compareLists(lDataTemp, result));
+        }
+    }
+
+    /**
+     * Return distances between search area and all datas, in increasing order.
+     */
+    private static double[] getSortedDistances(final List<double[]> datas, final double[] areaSearch) {
+        final double[] distances = new double[datas.size()];
+        for (int i = 0; i < distances.length; i++) {
+            distances[i] = getMinimumDistance(datas.get(i), areaSearch);
+        }
+        Arrays.sort(distances);
+        return distances;
+    }
+
+    /**
+     * Return all tree identifiers from iterator.
+     */
+    private static int[] toArray(final TreeIdentifierIterator triter) throws IOException {
+        final List<Integer> ids = new ArrayList<Integer>();
+        while (triter.hasNext()) {
+            ids.add(triter.nextInt());
+        }
+        final int[] tab = new int[ids.size()];
+        for (int i = 0; i < tab.length; i++) tab[i] = ids.get(i);
+        return tab;
+    }
+
     /**
      * Return result given by {@link TreeElementMapper} from tree identifier table given in parameter.
      * 
@@ -0,0 +1,192 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.index.tree.star;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.sis.geometry.GeneralEnvelope;
+import org.geotoolkit.index.tree.FileTreeElementMapperTest;
+import org.geotoolkit.index.tree.StoreIndexException;
+import org.geotoolkit.index.tree.Tree;
+import org.geotoolkit.index.tree.TreeIdentifierIterator;
+import org.geotoolkit.index.tree.TreeTest;
+import org.geotoolkit.referencing.crs.PredefinedCRS;
+import org.junit.Test;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test searches run by several threads on a same {@link FileStarRTree}, with or without a writer.
+ *
+ * @author Geotoolkit.org contributors
+ */
+public final class FileStarRTreeConcurrentTest extends TreeTest {
+
+    private static final CoordinateReferenceSystem CRS = PredefinedCRS.CARTESIAN_2D;
+
+    private static final int DATA_NUMBER = 20000;
+
+    private static final int QUERY_NUMBER = 500;
+
+    private static final int THREAD_NUMBER = 4;
+
+    private final List<double[]> lData = new ArrayList<double[]>();
+
+    private final double[][] queries = new double[QUERY_NUMBER][];
+
+    public FileStarRTreeConcurrentTest() throws IOException {
+        super();
+        final Random random = new Random(42);
+        for (int i = 0; i < DATA_NUMBER; i++) {
+            lData.add(createEntry(new double[]{random.nextDouble() * 1E5, random.nextDouble() * 1E5}));
+        }
+        for (int i = 0; i < QUERY_NUMBER; i++) {
+            final double x = random.nextDouble() * 1E5;
+            final double y = random.nextDouble() * 1E5;
+            final double s = random.nextDouble() * 5000;
+            queries[i] = new double[]{x, y, x + s, y + s};
+        }
+    }
+
+    /**
+     * Several threads search within a re-opened tree and should find same results than a single thread,
+     * then a writer insert datas outside of searched area while searches are running.
+     */
+    @Test
+    public void concurrentSearchTest() throws Exception {
+        final File treeFile   = File.createTempFile("concurrent", "tree", tempDir);
+        final File mapperFile = File.createTempFile("concurrent", "mapper", tempDir);
+        FileTreeElementMapperTest mapper = new FileTreeElementMapperTest(CRS, mapperFile);
+        Tree<double[]> tree = new FileStarRTree<double[]>(treeFile, 9, CRS, mapper);
+        for (double[] data : lData) {
+            tree.insert(data);
+        }
+        tree.close();
+        mapper.close();
+        mapper = new FileTreeElementMapperTest(mapperFile, CRS);
+        final Tree<double[]> fileTree = new FileStarRTree<double[]>(treeFile, mapper);
+
+        final int[][] expected = new int[QUERY_NUMBER][];
+        final GeneralEnvelope area = new GeneralEnvelope(CRS);
+        for (int i = 0; i < QUERY_NUMBER; i++) {
+            area.setEnvelope(queries[i]);
+            expected[i] = fileTree.searchID(area);
+            Arrays.sort(expected[i]);
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(THREAD_NUMBER + 1);
+        try {
+            final List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int t = 0; t < THREAD_NUMBER; t++) {
+                futures.add(executor.submit(new Searcher(fileTree, expected, t)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            // a writer insert datas outside of searched area.
+            futures.clear();
+            final Future<?> writer = executor.submit(new Callable<Object>() {
+                @Override
+                public Object call() throws StoreIndexException {
+                    for (int i = 0; i < 1000; i++) {
+                        fileTree.insert(createEntry(new double[]{2E5 + i, 2E5 + i}));
+                    }
+                    return null;
+                }
+            });
+            for (int t = 0; t < THREAD_NUMBER; t++) {
+                futures.add(executor.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() throws StoreIndexException, IOException {
+                        final GeneralEnvelope area = new GeneralEnvelope(CRS);
+                        while (!writer.isDone()) {
+                            for (double[] query : queries) {
+                                area.setEnvelope(query);
+                                fileTree.searchID(area);
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            writer.get();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(DATA_NUMBER + 1000, fileTree.getElementsNumber());
+        area.setEnvelope(2E5 - 1, 2E5 - 1, 3E5, 3E5);
+        assertEquals(1000, fileTree.searchID(area).length);
+        for (int t = 0; t < THREAD_NUMBER; t++) {
+            new Searcher(fileTree, expected, t).call();
+        }
+        fileTree.close();
+        mapper.close();
+    }
+
+    /**
+     * Search a part of queries with {@link Tree#searchID(org.opengis.geometry.Envelope) }
+     * and {@link Tree#search(org.opengis.geometry.Envelope) } and compare results with expected ones.
+     */
+    private final class Searcher implements Callable<Object> {
+
+        private final Tree<double[]> tree;
+
+        private final int[][] expected;
+
+        private final int start;
+
+        private Searcher(final Tree<double[]> tree, final int[][] expected, final int start) {
+            this.tree     = tree;
+            this.expected = expected;
+            this.start    = start;
+        }
+
+        @Override
+        public Object call() throws StoreIndexException, IOException {
+            final GeneralEnvelope area = new GeneralEnvelope(CRS);
+            for (int i = start; i < QUERY_NUMBER; i += THREAD_NUMBER) {
+                area.setEnvelope(queries[i]);
+                final int[] result = tree.searchID(area);
+                Arrays.sort(result);
+                assertArrayEquals(expected[i], result);
+
+                final TreeIdentifierIterator triter = tree.search(area);
+                final int[] iterResult = new int[result.length];
+                int n = 0;
+                while (triter.hasNext()) {
+                    iterResult[n++] = triter.nextInt();
+                }
+                Arrays.sort(iterResult);
+                assertArrayEquals(expected[i], iterResult);
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.index.tree.star;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.apache.sis.geometry.GeneralEnvelope;
+import org.geotoolkit.index.tree.FileTreeElementMapperTest;
+import org.geotoolkit.index.tree.Node;
+import org.geotoolkit.index.tree.StoreIndexException;
+import org.geotoolkit.index.tree.Tree;
+import org.geotoolkit.index.tree.TreeElementMapperTest;
+import org.geotoolkit.index.tree.TreeTest;
+import org.geotoolkit.internal.tree.TreeAccessMemory;
+import org.geotoolkit.referencing.crs.PredefinedCRS;
+import org.junit.Test;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compare {@link StarRTree} built by {@link Tree#insertAll(java.util.Iterator) } with
+ * {@link StarRTree} built by successive insertions, in build time and buffer loads during search.
+ *
+ * @author Geotoolkit.org contributors
+ */
+public final class StarRTreeBulkLoadTest extends TreeTest {
+
+    private static final CoordinateReferenceSystem CRS = PredefinedCRS.CARTESIAN_2D;
+
+    private static final int MAX_ELEMENTS = 9;
+
+    private static final int DATA_NUMBER = 20000;
+
+    private static final int QUERY_NUMBER = 500;
+
+    /**
+     * Node number within a {@link org.geotoolkit.internal.tree.TreeAccessFile} buffer of 4096 bytes,
+     * in 2D a Node is stored on 49 bytes.
+     */
+    private static final int NODES_PER_BUFFER = 4096 / 49;
+
+    private final List<double[]> lData = new ArrayList<double[]>();
+
+    private final List<double[]> lQuery = new ArrayList<double[]>();
+
+    public StarRTreeBulkLoadTest() throws IOException {
+        super();
+        final Random random = new Random(42);
+        for (int i = 0; i < DATA_NUMBER; i++) {
+            lData.add(createEntry(new double[]{random.nextDouble() * 1E5, random.nextDouble() * 1E5}));
+        }
+        for (int i = 0; i < QUERY_NUMBER; i++) {
+            final double x = random.nextDouble() * 1E5;
+            final double y = random.nextDouble() * 1E5;
+            final double s = random.nextDouble() * 2000;
+            lQuery.add(new double[]{x, y, x + s, y + s});
+        }
+    }
+
+    /**
+     * Build same Tree in memory with the two ways, and compare search results and buffer loads
+     * which would be done by a {@link org.geotoolkit.internal.tree.TreeAccessFile} during search.
+     */
+    @Test
+    public void memoryTest() throws StoreIndexException, IOException {
+        final CountTreeAccess incrementalAccess = new CountTreeAccess();
+        final Tree<double[]> incremental = new StarRTree<double[]>(incrementalAccess, new TreeElementMapperTest(CRS)) {};
+        long time = System.nanoTime();
+        for (double[] data : lData) {
+            incremental.insert(data);
+        }
+        final long incrementalTime = System.nanoTime() - time;
+
+        final CountTreeAccess bulkAccess = new CountTreeAccess();
+        final Tree<double[]> bulk = new StarRTree<double[]>(bulkAccess, new TreeElementMapperTest(CRS)) {};
+        time = System.nanoTime();
+        bulk.insertAll(lData.iterator());
+        final long bulkTime = System.nanoTime() - time;
+
+        assertEquals(DATA_NUMBER, bulk.getElementsNumber());
+        assertTrue(bulk.getRoot().checkInternal());
+        assertArrayEquals(incremental.getRoot().getBoundary(), bulk.getRoot().getBoundary(), 0.0);
+
+        incrementalAccess.loadNumber = 0;
+        bulkAccess.loadNumber = 0;
+        final GeneralEnvelope area = new GeneralEnvelope(CRS);
+        for (double[] query : lQuery) {
+            area.setEnvelope(query);
+            final int[] expected = incremental.searchID(area);
+            final int[] result   = bulk.searchID(area);
+            Arrays.sort(expected);
+            Arrays.sort(result);
+            assertArrayEquals(expected, result);
+        }
+        LOGGER.fine("StarRTree in memory, "+DATA_NUMBER+" elements : insert "+incrementalTime / 1000000
+                +"ms, insertAll "+bulkTime / 1000000+"ms. Buffer loads for "+QUERY_NUMBER+" queries : insert "
+                +incrementalAccess.loadNumber+", insertAll "+bulkAccess.loadNumber);
+        assertTrue("Packed tree should load less buffers during search.", bulkAccess.loadNumber < incrementalAccess.loadNumber);
+    }
+
+    /**
+     * Build same Tree on hard drive with the two ways, compare build and search time
+     * and search results on the re-opened bulk loaded Tree.
+     */
+    @Test
+    public void fileTest() throws StoreIndexException, IOException, ClassNotFoundException {
+        final File incrementalFile = File.createTempFile("incremental", "tree", tempDir);
+        final Tree<double[]> incremental = new FileStarRTree<double[]>(incrementalFile, MAX_ELEMENTS, CRS,
+                new FileTreeElementMapperTest(CRS, File.createTempFile("incremental", "mapper", tempDir)));
+        long time = System.nanoTime();
+        for (double[] data : lData) {
+            incremental.insert(data);
+        }
+        final long incrementalTime = System.nanoTime() - time;
+
+        final File bulkFile       = File.createTempFile("bulk", "tree", tempDir);
+        final File bulkMapperFile = File.createTempFile("bulk", "mapper", tempDir);
+        FileTreeElementMapperTest mapper = new FileTreeElementMapperTest(CRS, bulkMapperFile);
+        Tree<double[]> bulk = new FileStarRTree<double[]>(bulkFile, MAX_ELEMENTS, CRS, mapper);
+        time = System.nanoTime();
+        bulk.insertAll(lData.iterator());
+        final long bulkTime = System.nanoTime() - time;
+        bulk.close();
+        mapper.close();
+        mapper = new FileTreeElementMapperTest(bulkMapperFile, CRS);
+        bulk   = new FileStarRTree<double[]>(bulkFile, mapper);
+        assertEquals(DATA_NUMBER, bulk.getElementsNumber());
+
+        final GeneralEnvelope area = new GeneralEnvelope(CRS);
+        long incrementalSearch = 0;
+        long bulkSearch        = 0;
+        for (double[] query : lQuery) {
+            area.setEnvelope(query);
+            time = System.nanoTime();
+            final int[] expected = incremental.searchID(area);
+            incrementalSearch += System.nanoTime() - time;
+            time = System.nanoTime();
+            final int[] result = bulk.searchID(area);
+            bulkSearch += System.nanoTime() - time;
+            Arrays.sort(expected);
+            Arrays.sort(result);
+            assertArrayEquals(expected, result);
+        }
+        LOGGER.fine("FileStarRTree, "+DATA_NUMBER+" elements : insert "+incrementalTime / 1000000
+                +"ms ("+incrementalFile.length()+" bytes), insertAll "+bulkTime / 1000000+"ms ("+bulkFile.length()
+                +" bytes). Search time for "+QUERY_NUMBER+" queries : insert "+incrementalSearch / 1000000
+                +"ms, insertAll "+bulkSearch / 1000000+"ms");
+        incremental.close();
+        bulk.close();
+        mapper.close();
+    }
+
+    /**
+     * {@link TreeAccessMemory} which count buffer loads, each time a read Node
+     * is not within the same buffer than the previous one.
+     */
+    private static final class CountTreeAccess extends TreeAccessMemory {
+
+        private long loadNumber;
+
+        private int currentBuffer = -1;
+
+        private CountTreeAccess() {
+            super(MAX_ELEMENTS, CRS);
+        }
+
+        @Override
+        public synchronized Node readNode(final int indexNode) throws IOException {
+            final int buffer = (indexNode - 1) / NODES_PER_BUFFER;
+            if (buffer != currentBuffer) {
+                currentBuffer = buffer;
+                loadNumber++;
+            }
+            return super.readNode(indexNode);
+        }
+    }
+}
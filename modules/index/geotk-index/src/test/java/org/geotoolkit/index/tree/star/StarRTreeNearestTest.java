@@ -0,0 +1,127 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.index.tree.star;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.apache.sis.geometry.GeneralEnvelope;
+import org.geotoolkit.index.tree.StoreIndexException;
+import org.geotoolkit.index.tree.Tree;
+import org.geotoolkit.index.tree.TreeElementMapper;
+import org.geotoolkit.index.tree.TreeElementMapperTest;
+import org.geotoolkit.index.tree.TreeIdentifierIterator;
+import org.geotoolkit.index.tree.TreeTest;
+import org.geotoolkit.referencing.crs.PredefinedCRS;
+import org.junit.Test;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+import static org.junit.Assert.*;
+import static org.geotoolkit.internal.tree.TreeUtilities.getMinimumDistance;
+
+/**
+ * Compare {@link Tree#searchNearest(org.opengis.geometry.Envelope, int) } with the k nearest
+ * datas found by repeated {@link Tree#searchID(org.opengis.geometry.Envelope) } on growing areas.
+ *
+ * @author Geotoolkit.org contributors
+ */
+public final class StarRTreeNearestTest extends TreeTest {
+
+    private static final CoordinateReferenceSystem CRS = PredefinedCRS.CARTESIAN_2D;
+
+    private static final int DATA_NUMBER = 20000;
+
+    private static final int QUERY_NUMBER = 500;
+
+    private static final int K = 10;
+
+    /**
+     * Side of the first searched area around query point, doubled until enough datas are found.
+     */
+    private static final double FIRST_SIDE = 200;
+
+    private final List<double[]> lData = new ArrayList<double[]>();
+
+    private final List<double[]> lQuery = new ArrayList<double[]>();
+
+    public StarRTreeNearestTest() throws IOException {
+        super();
+        final Random random = new Random(42);
+        for (int i = 0; i < DATA_NUMBER; i++) {
+            lData.add(createEntry(new double[]{random.nextDouble() * 1E5, random.nextDouble() * 1E5}));
+        }
+        for (int i = 0; i < QUERY_NUMBER; i++) {
+            final double x = random.nextDouble() * 1E5;
+            final double y = random.nextDouble() * 1E5;
+            lQuery.add(new double[]{x, y, x, y});
+        }
+    }
+
+    /**
+     * Search the {@link #K} nearest datas of each query point with the two ways,
+     * compare results and log search time.
+     */
+    @Test
+    public void nearestTest() throws StoreIndexException, IOException {
+        final TreeElementMapper<double[]> mapper = new TreeElementMapperTest(CRS);
+        final Tree<double[]> tree = new MemoryStarRTree<double[]>(9, CRS, mapper);
+        tree.insertAll(lData.iterator());
+
+        final GeneralEnvelope area = new GeneralEnvelope(CRS);
+        long nearestTime   = 0;
+        long envelopeTime  = 0;
+        int envelopeSearch = 0;
+        for (double[] query : lQuery) {
+            area.setEnvelope(query);
+            long time = System.nanoTime();
+            final TreeIdentifierIterator triter = tree.searchNearest(area, K);
+            final double[] result = new double[K];
+            int n = 0;
+            while (triter.hasNext()) {
+                result[n++] = getMinimumDistance(mapper.getObjectFromTreeIdentifier(triter.nextInt()), query);
+            }
+            nearestTime += System.nanoTime() - time;
+            assertEquals(K, n);
+
+            time = System.nanoTime();
+            double side = FIRST_SIDE;
+            double[] expected;
+            while (true) {
+                envelopeSearch++;
+                area.setEnvelope(query[0] - side, query[1] - side, query[2] + side, query[3] + side);
+                final int[] ids = tree.searchID(area);
+                if (ids.length >= K) {
+                    expected = new double[ids.length];
+                    for (int i = 0; i < ids.length; i++) {
+                        expected[i] = getMinimumDistance(mapper.getObjectFromTreeIdentifier(ids[i]), query);
+                    }
+                    Arrays.sort(expected);
+                    // k-th distance should be within searched area to be sure of result.
+                    if (expected[K - 1] <= side) break;
+                }
+                side *= 2;
+            }
+            envelopeTime += System.nanoTime() - time;
+            assertArrayEquals(Arrays.copyOf(expected, K), result, 1E-9);
+        }
+        LOGGER.fine("StarRTree "+DATA_NUMBER+" elements, "+QUERY_NUMBER+" queries of "+K+" nearest : searchNearest "
+                +nearestTime / 1000000+"ms, repeated searchID "+envelopeTime / 1000000+"ms ("+envelopeSearch+" searches)");
+        tree.close();
+    }
+}
@@ -20,6 +20,17 @@ package org.geotoolkit.lucene.index;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 // JTS dependencies
@@ -33,8 +44,9 @@ import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TieredMergePolicy;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TermQuery;
-import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.Version;
 
 // Geotoolkit dependencies
@@ -42,11 +54,13 @@ import org.geotoolkit.index.tree.StoreIndexException;
 import org.geotoolkit.index.tree.TreeElementMapper;
 import org.geotoolkit.index.tree.manager.NamedEnvelope;
 import org.geotoolkit.index.tree.manager.SQLRtreeManager;
+import org.geotoolkit.internal.Threads;
 import org.geotoolkit.io.wkb.WKBUtils;
 import org.geotoolkit.lucene.IndexingException;
 import org.geotoolkit.lucene.LuceneUtils;
 import org.geotoolkit.lucene.filter.LuceneOGCFilter;
 import static org.geotoolkit.lucene.index.IndexLucene.LOGGER;
+import org.geotoolkit.referencing.CRS;
 import org.geotoolkit.util.FileUtilities;
 import org.geotoolkit.util.collection.CloseableIterator;
 import org.opengis.geometry.MismatchedReferenceSystemException;
@@ -71,7 +85,23 @@ public abstract class AbstractIndexer<E> extends IndexLucene {
     protected static final String LOCK_SINGLE_MSG      = "LockObtainException while indexing document: ";
     protected static final String LOCK_MULTI_MSG       = "LockObtainException while indexing documents.";
     protected static final String IO_SINGLE_MSG        = "IOException while indexing document: ";
-    
+
+    /**
+     * RAM buffer of the writer used to create the whole index, in MB.
+     */
+    private static final double CREATION_RAM_BUFFER_MB = 256;
+
+    /**
+     * Number of segments per tier allowed while creating the whole index.
+     * It is higher than Lucene default to merge less often during the creation.
+     */
+    private static final double CREATION_SEGMENTS_PER_TIER = 20;
+
+    /**
+     * Maximum number of entries waiting to be indexed, per indexing thread.
+     */
+    private static final int QUEUE_SIZE_PER_THREAD = 64;
+
     /**
      * A flag use in child constructor.
      */
@@ -90,7 +120,45 @@ public abstract class AbstractIndexer<E> extends IndexLucene {
     /**
      * Map of fieldName / Number type.
      */
-    private final Map<String, String> numericFields = new HashMap<>();
+    private final ConcurrentMap<String, String> numericFields = new ConcurrentHashMap<>();
+
+    /**
+     * The number of threads building documents during index creation.
+     */
+    private int indexingThreads = 1;
+
+    /**
+     * Envelopes waiting to be inserted in the R-Tree at the end of the index creation.
+     */
+    private final List<NamedEnvelope> pendingEnvelopes = new ArrayList<>();
+
+    /**
+     * {@code true} while the whole index is created or documents are added, the envelopes are then
+     * inserted together in the R-Tree at the end of the creation or before the commit, instead of one by one.
+     */
+    private volatile boolean deferEnvelopes;
+
+    /**
+     * Guards {@link #nextDocId} and the calls to {@link #createDocument(Object, int)} during index creation.
+     */
+    private final Object docIdLock = new Object();
+
+    /**
+     * Identifier of the next document built during index creation.
+     */
+    private int nextDocId;
+
+    /**
+     * The writer used for incremental updates, opened on first use and kept until {@link #destroy()}.
+     * It holds the index write lock meanwhile: no other writer, from this JVM or another process,
+     * can open the index until this indexer is destroyed.
+     */
+    private IndexWriter writer;
+
+    /**
+     * Near-real-time searchers on {@link #writer}.
+     */
+    private SearcherManager searcherManager;
     
     /**
      * Build a new Indexer witch create an index in the specified directory,
@@ -187,21 +255,33 @@ public abstract class AbstractIndexer<E> extends IndexLucene {
         final long time = System.currentTimeMillis();
         int nbEntries = 0;
         try {
-            final IndexWriterConfig conf = new IndexWriterConfig(Version.LATEST, analyzer);
-            final IndexWriter writer     = new IndexWriter(LuceneUtils.getAppropriateDirectory(getFileDirectory()), conf);
+            closeWriter();
+            final IndexWriter writer     = new IndexWriter(LuceneUtils.getAppropriateDirectory(getFileDirectory()), createWriterConfig(true));
             final String serviceID       = getServiceID();
+            final IndexingTasks tasks    = new IndexingTasks(writer);
             
             resetTree();
-            nbEntries = toIndex.size();
-            for (E entry : toIndex) {
-                if (!stopIndexing && !indexationToStop.contains(serviceID)) {
-                    indexDocument(writer, entry);
-                } else {
-                     LOGGER.info("Index creation stopped after " + (System.currentTimeMillis() - time) + " ms for service:" + serviceID);
-                     stopIndexation(writer, serviceID);
-                     return;
+            deferEnvelopes = true;
+            try {
+                for (final E entry : toIndex) {
+                    if (!stopIndexing && !indexationToStop.contains(serviceID)) {
+                        tasks.submit(entry, null);
+                    } else {
+                         LOGGER.info("Index creation stopped after " + (System.currentTimeMillis() - time) + " ms for service:" + serviceID);
+                         tasks.await();
+                         stopIndexation(writer, serviceID);
+                         return;
+                    }
                 }
+                tasks.await();
+                insertPendingEnvelopes();
+            } catch (IndexingException | RuntimeException ex) {
+                abortCreation(writer, tasks);
+                throw ex;
+            } finally {
+                deferEnvelopes = false;
             }
+            nbEntries = tasks.getIndexed();
             // writer.optimize(); no longer justified
             writer.close();
 
@@ -226,53 +306,57 @@ public abstract class AbstractIndexer<E> extends IndexLucene {
         final long time  = System.currentTimeMillis();
         int nbEntries      = 0;
         try {
-            final IndexWriterConfig conf       = new IndexWriterConfig(Version.LATEST, analyzer);
-            final IndexWriter writer           = new IndexWriter(LuceneUtils.getAppropriateDirectory(getFileDirectory()), conf);
+            closeWriter();
+            final IndexWriter writer           = new IndexWriter(LuceneUtils.getAppropriateDirectory(getFileDirectory()), createWriterConfig(true));
             final String serviceID             = getServiceID();
+            final IndexingTasks tasks          = new IndexingTasks(writer);
 
             resetTree();
             LOGGER.log(logLevel, "starting indexing...");
 
-            if (useEntryIterator()) {
-                final Iterator<E> entries = getEntryIterator();
-                while (entries.hasNext()) {
-                    if (!stopIndexing && !indexationToStop.contains(serviceID)) {
-                        
-                        final E entry = entries.next();
-                        indexDocument(writer, entry);
-                        nbEntries++;
-                        
-                    } else {
-                         LOGGER.info("Index creation stopped after " + (System.currentTimeMillis() - time) + " ms for service:" + serviceID);
-                         stopIndexation(writer, serviceID);
-                         return;
+            deferEnvelopes = true;
+            try {
+                if (useEntryIterator()) {
+                    final Iterator<E> entries = getEntryIterator();
+                    while (entries.hasNext()) {
+                        if (!stopIndexing && !indexationToStop.contains(serviceID)) {
+                            tasks.submit(entries.next(), null);
+                        } else {
+                             LOGGER.info("Index creation stopped after " + (System.currentTimeMillis() - time) + " ms for service:" + serviceID);
+                             tasks.await();
+                             stopIndexation(writer, serviceID);
+                             return;
+                        }
                     }
-                }
-                if (entries instanceof CloseableIterator) {
-                    ((CloseableIterator)entries).close();
-                }
-            } else {
-                final Iterator<String> identifiers = getIdentifierIterator();
-                while (identifiers.hasNext()) {
-                    final String identifier = identifiers.next();
-                    if (!stopIndexing && !indexationToStop.contains(serviceID)) {
-                        try {
-                            final E entry = getEntry(identifier);
-                            indexDocument(writer, entry);
-                            nbEntries++;
-                        } catch (IndexingException ex) {
-                            LOGGER.warning("Metadata IO exeption while indexing metadata: " + identifier + " " + ex.getMessage() + "\nmove to next metadata...");
+                    if (entries instanceof CloseableIterator) {
+                        ((CloseableIterator)entries).close();
+                    }
+                } else {
+                    final Iterator<String> identifiers = getIdentifierIterator();
+                    while (identifiers.hasNext()) {
+                        final String identifier = identifiers.next();
+                        if (!stopIndexing && !indexationToStop.contains(serviceID)) {
+                            tasks.submit(null, identifier);
+                        } else {
+                             LOGGER.info("Index creation stopped after " + (System.currentTimeMillis() - time) + " ms for service:" + serviceID);
+                             tasks.await();
+                             stopIndexation(writer, serviceID);
+                             return;
                         }
-                    } else {
-                         LOGGER.info("Index creation stopped after " + (System.currentTimeMillis() - time) + " ms for service:" + serviceID);
-                         stopIndexation(writer, serviceID);
-                         return;
+                    }
+                    if (identifiers instanceof CloseableIterator) {
+                        ((CloseableIterator)identifiers).close();
                     }
                 }
-                if (identifiers instanceof CloseableIterator) {
-                    ((CloseableIterator)identifiers).close();
-                }
+                tasks.await();
+                insertPendingEnvelopes();
+            } catch (IndexingException | RuntimeException ex) {
+                abortCreation(writer, tasks);
+                throw ex;
+            } finally {
+                deferEnvelopes = false;
             }
+            nbEntries = tasks.getIndexed();
             // writer.optimize(); no longer justified
             writer.close();
             
@@ -286,6 +370,206 @@ public abstract class AbstractIndexer<E> extends IndexLucene {
         LOGGER.log(logLevel, "Index creation process in " + (System.currentTimeMillis() - time) + " ms\n documents indexed: " + nbEntries + ".");
     }
 
+    /**
+     * Set the number of threads reading entries during index creation.
+     * When more than one thread is used, {@link #getEntry(String)} must be thread-safe and documents
+     * are not added in iteration order. {@link #createDocument(Object, int)} is never called concurrently.
+     *
+     * @param indexingThreads The number of threads, 1 to build documents in the calling thread.
+     */
+    public void setIndexingThreads(final int indexingThreads) {
+        this.indexingThreads = Math.max(1, indexingThreads);
+    }
+
+    /**
+     * Build the configuration of an index writer.
+     *
+     * @param creation {@code true} for the writer creating the whole index, tuned for throughput.
+     */
+    private IndexWriterConfig createWriterConfig(final boolean creation) {
+        final IndexWriterConfig conf = new IndexWriterConfig(Version.LATEST, analyzer);
+        if (creation) {
+            conf.setRAMBufferSizeMB(CREATION_RAM_BUFFER_MB);
+            final TieredMergePolicy mergePolicy = new TieredMergePolicy();
+            mergePolicy.setSegmentsPerTier(CREATION_SEGMENTS_PER_TIER);
+            conf.setMergePolicy(mergePolicy);
+        }
+        return conf;
+    }
+
+    /**
+     * Stop the running tasks and discard the index being created, releasing its write lock.
+     */
+    private void abortCreation(final IndexWriter writer, final IndexingTasks tasks) {
+        tasks.cancel();
+        synchronized (pendingEnvelopes) {
+            pendingEnvelopes.clear();
+        }
+        try {
+            writer.rollback();
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "IOException while closing the index writer", ex);
+        }
+    }
+
+    /**
+     * Documents added during an index creation, by the calling thread or by an executor.
+     * The executor queue is bounded, when it is full the calling thread builds the document itself.
+     * A failure of a task is rethrown by {@link #submit(Object, String)} or {@link #await()}.
+     */
+    private final class IndexingTasks {
+
+        private final IndexWriter writer;
+
+        private final ThreadPoolExecutor executor;
+
+        private final CompletionService<Boolean> completion;
+
+        /**
+         * Number of submitted tasks not checked yet.
+         */
+        private int pending;
+
+        /**
+         * Number of documents added to the index.
+         */
+        private final AtomicInteger indexed = new AtomicInteger();
+
+        private IndexingTasks(final IndexWriter writer) {
+            this.writer = writer;
+            synchronized (docIdLock) {
+                nextDocId = writer.maxDoc();
+            }
+            if (indexingThreads > 1) {
+                executor = new ThreadPoolExecutor(indexingThreads, indexingThreads, 1, TimeUnit.MINUTES,
+                        new ArrayBlockingQueue<Runnable>(indexingThreads * QUEUE_SIZE_PER_THREAD), Threads.createThreadFactory("Indexer #"));
+                executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+                completion = new ExecutorCompletionService<>(executor);
+            } else {
+                executor   = null;
+                completion = null;
+            }
+        }
+
+        private void submit(final E entry, final String identifier) throws IndexingException {
+            final DocumentTask task = new DocumentTask(writer, entry, identifier, indexed);
+            if (executor == null) {
+                task.call();
+                return;
+            }
+            completion.submit(task);
+            pending++;
+            Future<Boolean> done;
+            while ((done = completion.poll()) != null) {
+                pending--;
+                check(done);
+            }
+        }
+
+        /**
+         * Wait for all the submitted documents to be indexed.
+         */
+        private void await() throws IndexingException {
+            if (executor == null) {
+                return;
+            }
+            try {
+                while (pending > 0) {
+                    final Future<Boolean> done = completion.take();
+                    pending--;
+                    check(done);
+                }
+            } catch (InterruptedException ex) {
+                cancel();
+                throw new IndexingException("Interrupted while indexing documents", ex);
+            }
+            executor.shutdown();
+        }
+
+        private void check(final Future<Boolean> done) throws IndexingException {
+            try {
+                done.get();
+            } catch (InterruptedException ex) {
+                cancel();
+                throw new IndexingException("Interrupted while indexing documents", ex);
+            } catch (ExecutionException ex) {
+                cancel();
+                final Throwable cause = ex.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IndexingException("Exception while indexing documents: " + cause.getMessage(), cause);
+            }
+        }
+
+        private void cancel() {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+
+        private int getIndexed() {
+            return indexed.get();
+        }
+    }
+
+    /**
+     * Build and add a document to the index, the entry is read first if only its identifier is known.
+     */
+    private final class DocumentTask implements Callable<Boolean> {
+
+        private final IndexWriter writer;
+
+        private final E entry;
+
+        private final String identifier;
+
+        private final AtomicInteger indexed;
+
+        private DocumentTask(final IndexWriter writer, final E entry, final String identifier, final AtomicInteger indexed) {
+            this.writer     = writer;
+            this.entry      = entry;
+            this.identifier = identifier;
+            this.indexed    = indexed;
+        }
+
+        /**
+         * @return {@code true} if the document has been added.
+         */
+        @Override
+        public Boolean call() {
+            E meta = entry;
+            if (meta == null) {
+                try {
+                    meta = getEntry(identifier);
+                } catch (IndexingException ex) {
+                    LOGGER.warning("Metadata IO exeption while indexing metadata: " + identifier + " " + ex.getMessage() + "\nmove to next metadata...");
+                    return false;
+                }
+            }
+            try {
+                final Document doc;
+                // the identifier is only consumed by a document actually built,
+                // so the identifiers stay contiguous and match writer.maxDoc() at the end.
+                synchronized (docIdLock) {
+                    doc = createDocument(meta, nextDocId);
+                    nextDocId++;
+                }
+                writer.addDocument(doc);
+                indexed.incrementAndGet();
+                LOGGER.log(Level.FINER, "Metadata: {0} indexed", getIdentifier(meta));
+                return true;
+            } catch (IndexingException ex) {
+                LOGGER.log(Level.WARNING, "indexingException " +ex.getMessage(), ex);
+            } catch (IOException ex) {
+                LOGGER.log(Level.WARNING, IO_SINGLE_MSG + ex.getMessage(), ex);
+            }
+            return false;
+        }
+    }
+
     
    /**
      * Index a document from the specified object with the specified index writer.
@@ -314,25 +598,112 @@ public abstract class AbstractIndexer<E> extends IndexLucene {
      * @param meta The object to index.
      */
     public void indexDocument(final E meta) {
-        try {
-            final IndexWriterConfig config = new IndexWriterConfig(Version.LATEST, analyzer);
-            final IndexWriter writer = new IndexWriter(LuceneUtils.getAppropriateDirectory(getFileDirectory()), config);
+        indexDocuments(Collections.singletonList(meta));
+    }
 
-            final int docId = writer.maxDoc();
-            //adding the document in a specific model. in this case we use a MDwebDocument.
-            writer.addDocument(createDocument(meta, docId));
-            LOGGER.log(Level.FINER, "Metadata: {0} indexed", getIdentifier(meta));
-            writer.close();
-            if (rTree != null) {
-                rTree.getTreeElementMapper().flush();
-                rTree.flush();
+    /**
+     * Add new documents to the index, with a single commit.
+     * Documents are added through a writer kept open until {@link #destroy()},
+     * which holds the index write lock meanwhile. Their envelopes are inserted
+     * in the R-Tree with a single flush before the commit.
+     *
+     * @param metas The objects to index.
+     */
+    public synchronized void indexDocuments(final Collection<E> metas) {
+        final boolean wasDeferred = deferEnvelopes;
+        deferEnvelopes = true;
+        try {
+            final IndexWriter writer = getIndexWriter();
+            for (E meta : metas) {
+                indexDocument(writer, meta);
             }
-
-        } catch (IndexingException | StoreIndexException ex) {
-            LOGGER.log(Level.WARNING, "Error while indexing single document", ex);
         } catch (IOException ex) {
             LOGGER.log(Level.WARNING, IO_SINGLE_MSG + ex.getMessage(), ex);
+        } finally {
+            deferEnvelopes = wasDeferred;
+        }
+        try {
+            if (!wasDeferred) {
+                insertPendingEnvelopes();
+            }
+        } catch (StoreIndexException | IOException ex) {
+            LOGGER.log(Level.WARNING, "Unable to insert envelopes in R-Tree.", ex);
+        }
+        try {
+            commit();
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, IO_SINGLE_MSG + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Return the writer used for incremental updates, opening it if needed.
+     */
+    private synchronized IndexWriter getIndexWriter() throws IOException {
+        if (writer == null) {
+            writer = new IndexWriter(LuceneUtils.getAppropriateDirectory(getFileDirectory()), createWriterConfig(false));
+            searcherManager = new SearcherManager(writer, true, null);
         }
+        return writer;
+    }
+
+    /**
+     * Return a manager of near-real-time searchers, which see the documents added or removed by this indexer
+     * as soon as the manager is refreshed. The manager is refreshed after each update of this indexer.
+     * Searchers must be obtained by {@link SearcherManager#acquire()} and given back by {@link SearcherManager#release}.
+     * The manager is closed by {@link #destroy()}.
+     *
+     * @return A searcher manager on the index.
+     * @throws IndexingException if the index writer can not be opened.
+     */
+    public synchronized SearcherManager getSearcherManager() throws IndexingException {
+        try {
+            getIndexWriter();
+        } catch (IOException ex) {
+            throw new IndexingException("IOException while opening the index writer", ex);
+        }
+        return searcherManager;
+    }
+
+    /**
+     * Commit the pending modifications of the index and refresh the near-real-time searchers.
+     */
+    public synchronized void commit() throws IOException {
+        if (writer != null) {
+            writer.commit();
+            searcherManager.maybeRefresh();
+        }
+    }
+
+    /**
+     * Commit the pending modifications, then close the writer used for incremental updates if it is open.
+     */
+    private synchronized void closeWriter() throws IOException {
+        commit();
+        if (writer != null) {
+            searcherManager.close();
+            writer.close();
+            searcherManager = null;
+            writer          = null;
+        }
+    }
+
+    /**
+     * Insert the envelopes queued during the index creation or the addition of documents
+     * in the R-Tree, then flush it. On an empty tree they are bulk loaded.
+     */
+    private void insertPendingEnvelopes() throws StoreIndexException, IOException {
+        final List<NamedEnvelope> envelopes;
+        synchronized (pendingEnvelopes) {
+            if (pendingEnvelopes.isEmpty()) {
+                return;
+            }
+            envelopes = new ArrayList<>(pendingEnvelopes);
+            pendingEnvelopes.clear();
+        }
+        rTree.insertAll(envelopes.iterator());
+        rTree.getTreeElementMapper().flush();
+        rTree.flush();
     }
 
 
@@ -354,6 +725,9 @@ public abstract class AbstractIndexer<E> extends IndexLucene {
     private void stopIndexation(final IndexWriter writer, final String serviceID) throws IOException {
         // writer.optimize(); no longer justified
         writer.close();
+        synchronized (pendingEnvelopes) {
+            pendingEnvelopes.clear();
+        }
         FileUtilities.deleteDirectory(getFileDirectory());
         if (indexationToStop.contains(serviceID)) {
             indexationToStop.remove(serviceID);
@@ -386,9 +760,7 @@ public abstract class AbstractIndexer<E> extends IndexLucene {
      * @param numberType 
      */
     protected void addNumericField(final String fieldName, final Character numberType) {
-        if (numericFields.get(fieldName) == null) {
-            numericFields.put(fieldName, numberType.toString());
-        }
+        numericFields.putIfAbsent(fieldName, numberType.toString());
     }
     
     /**
@@ -397,36 +769,42 @@ public abstract class AbstractIndexer<E> extends IndexLucene {
      * @param identifier
      */
     public void removeDocument(final String identifier) {
-        try {
-            final Directory dir   = LuceneUtils.getAppropriateDirectory(getFileDirectory());
-            final Term t          = new Term("id", identifier);
-            final TermQuery query = new TermQuery(t);
-            LOGGER.log(logLevel, "Term query:{0}", query);
+        removeDocuments(Collections.singletonList(identifier));
+    }
 
-            // look for DOC ID for R-Tree removal
-            final NamedEnvelope env = new NamedEnvelope(getTreeCrs(), identifier);
+    /**
+     * Remove from the index the documents identified by the specified identifiers, with a single commit.
+     *
+     * @param identifiers
+     */
+    public synchronized void removeDocuments(final Collection<String> identifiers) {
+        try {
+            final IndexWriter writer = getIndexWriter();
             final TreeElementMapper<NamedEnvelope> mapper = rTree.getTreeElementMapper();
-            final int treeID = mapper.getTreeIdentifier(env);
-            if (treeID != -1) {
-                final NamedEnvelope realEnv = mapper.getObjectFromTreeIdentifier(treeID);
-                boolean removed = rTree.remove(realEnv);
-                if (!removed) {
-                    LOGGER.log(Level.WARNING, "unable to remove envelope for:{0}", identifier);
-                } else {
-                    //remove from mapper
-                    mapper.setTreeIdentifier(null, treeID);
-                    mapper.flush();
-                    rTree.flush();
+            for (String identifier : identifiers) {
+                final Term t          = new Term("id", identifier);
+                final TermQuery query = new TermQuery(t);
+                LOGGER.log(logLevel, "Term query:{0}", query);
+
+                // look for DOC ID for R-Tree removal
+                final NamedEnvelope env = new NamedEnvelope(getTreeCrs(), identifier);
+                final int treeID = mapper.getTreeIdentifier(env);
+                if (treeID != -1) {
+                    final NamedEnvelope realEnv = mapper.getObjectFromTreeIdentifier(treeID);
+                    boolean removed = rTree.remove(realEnv);
+                    if (!removed) {
+                        LOGGER.log(Level.WARNING, "unable to remove envelope for:{0}", identifier);
+                    } else {
+                        //remove from mapper
+                        mapper.setTreeIdentifier(null, treeID);
+                    }
                 }
+                writer.deleteDocuments(query);
+                LOGGER.log(logLevel, "Metadata: {0} removed from the index", identifier);
             }
-            
-            final IndexWriterConfig config = new IndexWriterConfig(Version.LATEST, analyzer);
-            final IndexWriter writer       = new IndexWriter(dir, config);
-            writer.deleteDocuments(query);
-            LOGGER.log(logLevel, "Metadata: {0} removed from the index", identifier);
-
-            writer.commit();
-            writer.close();
+            mapper.flush();
+            rTree.flush();
+            commit();
             
         } catch (CorruptIndexException ex) {
             LOGGER.log(Level.WARNING, "CorruptIndexException while indexing document: " + ex.getMessage(), ex);
@@ -480,21 +858,51 @@ public abstract class AbstractIndexer<E> extends IndexLucene {
         try {
             final String id = doc.get("id");
             namedBound      = LuceneUtils.getNamedEnvelope(id, geom, crs);
-            rTree.insert(namedBound);
-            rTree.getTreeElementMapper().flush();
-            rTree.flush();
-        } catch (TransformException | FactoryException | MismatchedReferenceSystemException | StoreIndexException | IOException ex) {
+            addEnvelope(namedBound);
+        } catch (TransformException | FactoryException | MismatchedReferenceSystemException ex) {
             LOGGER.log(Level.WARNING, "Unable to insert envelope in R-Tree.", ex);
         }
         doc.add(new StoredField(LuceneOGCFilter.GEOMETRY_FIELD_NAME,WKBUtils.toWKBwithSRID(geom)));
         return namedBound;
     }
+
+    /**
+     * Add an envelope in the R-Tree. During the creation of the whole index or the addition of
+     * documents by {@link #indexDocuments(Collection)}, the envelopes are inserted together at the end,
+     * otherwise they are inserted immediately.
+     *
+     * @param envelope An envelope in the R-Tree CRS.
+     */
+    protected void addEnvelope(final NamedEnvelope envelope) {
+        if (!CRS.equalsIgnoreMetadata(getTreeCrs(), envelope.getCoordinateReferenceSystem())) {
+            LOGGER.log(Level.WARNING, "Unable to insert envelope in R-Tree, mismatched CRS for:{0}", envelope.getId());
+            return;
+        }
+        if (deferEnvelopes) {
+            synchronized (pendingEnvelopes) {
+                pendingEnvelopes.add(envelope);
+            }
+            return;
+        }
+        try {
+            rTree.insert(envelope);
+            rTree.getTreeElementMapper().flush();
+            rTree.flush();
+        } catch (StoreIndexException | IOException ex) {
+            LOGGER.log(Level.WARNING, "Unable to insert envelope in R-Tree.", ex);
+        }
+    }
     
     /**
      * Free the resources.
      */
     @Override
     public void destroy() {
+        try {
+            closeWriter();
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "IOException while closing the index writer", ex);
+        }
         super.destroy();
     }
 
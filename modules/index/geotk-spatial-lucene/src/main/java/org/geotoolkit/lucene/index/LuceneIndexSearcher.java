@@ -20,14 +20,16 @@ package org.geotoolkit.lucene.index;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.index.AtomicReader;
+import org.apache.lucene.index.AtomicReaderContext;
 import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.MultiReader;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
@@ -40,6 +42,7 @@ import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.Version;
 import org.geotoolkit.index.tree.manager.SQLRtreeManager;
 import org.geotoolkit.lucene.IndexingException;
@@ -61,7 +64,7 @@ public class LuceneIndexSearcher extends IndexLucene {
     /**
      * This is the index searcher of Lucene.
      */
-    protected IndexSearcher searcher;
+    protected volatile IndexSearcher searcher;
 
     /**
      * A default Query requesting all the document
@@ -69,14 +72,30 @@ public class LuceneIndexSearcher extends IndexLucene {
     private final static Query SIMPLE_QUERY = new TermQuery(new Term("metafile", "doc"));
 
     /**
-     * A map of cached request
+     * The maximum number of cached queries.
      */
-    private final Map<SpatialQuery, Set<String>> cachedQueries = new ConcurrentHashMap<>();
+    private static final int MAX_CACHED_QUERIES_SIZE = 1000;
 
     /**
-     * The maximum size of the map of queries.
+     * The maximum number of metadata identifiers in all the cached results.
      */
-    private static final int MAX_CACHED_QUERIES_SIZE = 50;
+    private static final long MAX_CACHED_IDENTIFIERS = 500000;
+
+    /**
+     * Above this number of modified documents, the whole cache is cleared on refresh
+     * instead of checking each cached query.
+     */
+    private static final int MAX_INCREMENTAL_CHANGES = 1000;
+
+    /**
+     * Generation value used to search without cache.
+     */
+    private static final long NO_CACHE = -1;
+
+    /**
+     * The cached requests.
+     */
+    private final QueryCache cachedQueries = new QueryCache(MAX_CACHED_QUERIES_SIZE, MAX_CACHED_IDENTIFIERS);
 
     /**
      * A flag indicating if the cache system for query is enabled.
@@ -86,7 +105,13 @@ public class LuceneIndexSearcher extends IndexLucene {
     /**
      * A Map of DocID -> metadata ID .
      */
-    private final Map<Integer, String> identifiers = new HashMap<>();
+    private volatile Map<Integer, String> identifiers = new HashMap<>();
+
+    /**
+     * The metadata IDs of each segment of the index, by segment core key.
+     * Used to reload only the new segments on refresh.
+     */
+    private Map<Object, SegmentIdentifiers> segments = new HashMap<>();
     
     /**
      * A list of numeric fields names.
@@ -177,7 +202,7 @@ public class LuceneIndexSearcher extends IndexLucene {
             }
             isCacheEnabled        = true;
             initSearcher();
-            initIdentifiersList();
+            initIdentifiersList(new HashSet<String>(), new ArrayList<AtomicReader>());
 
         } catch (CorruptIndexException ex) {
             throw new IndexingException("Corruption encountered during index searcher creation", ex);
@@ -189,42 +214,95 @@ public class LuceneIndexSearcher extends IndexLucene {
 
     /**
      * initialize the IndexSearcher of this index.
+     * If the searcher is already initialized, only the modified segments of the index are reopened.
+     *
+     * @return {@code false} if the index has not been modified since the previous initialization.
      */
-    private void initSearcher() throws CorruptIndexException, IOException {
+    private boolean initSearcher() throws CorruptIndexException, IOException {
         final File indexDirectory = getFileDirectory();
         this.rTree = SQLRtreeManager.get(indexDirectory, this);
-        final IndexReader reader  = DirectoryReader.open(LuceneUtils.getAppropriateDirectory(indexDirectory));
+        final DirectoryReader reader;
+        if (searcher != null) {
+            reader = DirectoryReader.openIfChanged((DirectoryReader) searcher.getIndexReader());
+            if (reader == null) {
+                return false;
+            }
+        } else {
+            reader = DirectoryReader.open(LuceneUtils.getAppropriateDirectory(indexDirectory));
+        }
         searcher                  = new IndexSearcher(reader);
         LOGGER.log(Level.INFO, "Creating new Index Searcher with index directory:{0}", indexDirectory.getPath());
-       
+        return true;
     }
 
     /**
-     * Fill the list of identifiers ordered by doc ID
+     * Fill the list of identifiers ordered by doc ID.
+     * The documents are only read for the segments added since the previous call.
+     *
+     * @param changedIds filled with the identifiers of the documents added, modified or removed since the previous call.
+     * @param addedSegments filled with the segments added since the previous call.
      */
-    private void initIdentifiersList() throws IOException {
+    private void initIdentifiersList(final Set<String> changedIds, final List<AtomicReader> addedSegments) throws IOException {
         final Map<Integer, String> temp = new HashMap<>();
+        final Map<Object, SegmentIdentifiers> newSegments = new HashMap<>();
         final int nbValidDoc = searcher.getIndexReader().numDocs(); // do not take in count deleted document
-        final long nbDoc = searcher.collectionStatistics("id").maxDoc(); // contains deleted document
-        for (int i = 0; i < nbDoc; i++) {
-            final String metadataID = getMatchingID(searcher.doc(i));
-            temp.put(i, metadataID);
+        for (AtomicReaderContext context : searcher.getIndexReader().leaves()) {
+            final AtomicReader segmentReader = context.reader();
+            final Bits liveDocs = segmentReader.getLiveDocs();
+            SegmentIdentifiers segment = segments.remove(segmentReader.getCoreCacheKey());
+            if (segment == null) {
+                // new segment : added or modified documents, or merge of previous segments.
+                final String[] ids = new String[segmentReader.maxDoc()];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = getMatchingID(segmentReader.document(i));
+                }
+                segment = new SegmentIdentifiers(ids, liveDocs);
+                segment.addLiveIdentifiers(changedIds);
+                addedSegments.add(segmentReader);
+            } else {
+                // same segment : only deletions may have occured.
+                for (int i = 0; i < segment.ids.length; i++) {
+                    if (segment.isLive(i) && liveDocs != null && !liveDocs.get(i)) {
+                        changedIds.add(segment.ids[i]);
+                    }
+                }
+                segment = new SegmentIdentifiers(segment.ids, liveDocs);
+            }
+            newSegments.put(segmentReader.getCoreCacheKey(), segment);
+            for (int i = 0; i < segment.ids.length; i++) {
+                temp.put(context.docBase + i, segment.ids[i]);
+            }
+        }
+        // the remaining segments have been merged or all their documents have been removed.
+        for (SegmentIdentifiers segment : segments.values()) {
+            segment.addLiveIdentifiers(changedIds);
         }
-        identifiers.clear();
-        identifiers.putAll(temp);
+        segments    = newSegments;
+        identifiers = temp;
         LOGGER.log(logLevel, "{0} records found.", nbValidDoc);
     }
 
     /**
-     * Refresh the searcher (must be call after deleting document from the index for example)
+     * Refresh the searcher (must be call after deleting document from the index for example).
+     *
+     * The cached queries are kept if the index has not been modified.
+     * Otherwise the new segments are searched for each cached query: if the query matches
+     * none of their documents it is kept, only the modified or removed documents are removed from its results.
      *
      * @throws IndexingException
      */
-    public void refresh() throws IndexingException {
+    public synchronized void refresh() throws IndexingException {
         try {
-            initSearcher();
-            initIdentifiersList();
-            cachedQueries.clear();
+            if (!initSearcher()) {
+                LOGGER.log(logLevel, "index unchanged, keeping index searcher");
+                return;
+            }
+            final Set<String> changedIds = new HashSet<>();
+            final List<AtomicReader> addedSegments = new ArrayList<>();
+            initIdentifiersList(changedIds, addedSegments);
+            // searches started from now use the new searcher, their results can be cached.
+            final long previousGeneration = cachedQueries.nextGeneration();
+            updateCache(changedIds, addedSegments, previousGeneration);
             LOGGER.log(logLevel, "refreshing index searcher");
         } catch (CorruptIndexException ex) {
             throw new IndexingException("Corruption exception encountered during refreshing the index searcher", ex);
@@ -233,12 +311,56 @@ public class LuceneIndexSearcher extends IndexLucene {
         }
     }
 
+    /**
+     * Remove from the cache the queries invalidated by an index modification.
+     *
+     * @param changedIds The identifiers of the documents added, modified or removed.
+     * @param addedSegments The segments added to the index.
+     * @param previousGeneration The cache generation of the queries computed before the modification.
+     */
+    private void updateCache(final Set<String> changedIds, final List<AtomicReader> addedSegments,
+            final long previousGeneration) throws IOException {
+        if (changedIds.size() > MAX_INCREMENTAL_CHANGES) {
+            cachedQueries.clear();
+            return;
+        }
+        if (!addedSegments.isEmpty()) {
+            // a searcher on the new segments only.
+            final MultiReader reader = new MultiReader(addedSegments.toArray(new IndexReader[addedSegments.size()]), false);
+            final IndexSearcher addedSearcher = new IndexSearcher(reader);
+            final Map<Integer, String> addedIdentifiers = new HashMap<>();
+            for (AtomicReaderContext context : reader.leaves()) {
+                final String[] ids = segments.get(context.reader().getCoreCacheKey()).ids;
+                for (int i = 0; i < ids.length; i++) {
+                    addedIdentifiers.put(context.docBase + i, ids[i]);
+                }
+            }
+            int invalidated = 0;
+            for (SpatialQuery query : cachedQueries.queries(previousGeneration)) {
+                boolean matches;
+                try {
+                    matches = !doSearch(query, addedSearcher, addedIdentifiers, NO_CACHE).isEmpty();
+                } catch (SearchingException ex) {
+                    LOGGER.log(Level.FINER, "Unable to check cached query against new documents", ex);
+                    matches = true;
+                }
+                if (matches) {
+                    cachedQueries.remove(query, previousGeneration);
+                    invalidated++;
+                }
+            }
+            LOGGER.log(logLevel, "{0} cached queries invalidated", invalidated);
+        }
+        cachedQueries.revalidate(changedIds, previousGeneration);
+    }
+
     /**
      * Add the metadata id to the list of result if its present in the identifiers.
      * @param results
      * @param docID
+     * @param identifiers A Map of DocID -> metadata ID.
      */
-    private void addToResult(final Set<String> results, final int docID) {
+    private static void addToResult(final Set<String> results, final int docID, final Map<Integer, String> identifiers) {
         final String metadataID = identifiers.get(docID);
         if (metadataID != null) {
             results.add(metadataID);
@@ -316,16 +438,36 @@ public class LuceneIndexSearcher extends IndexLucene {
      * @throws SearchingException
      */
     public Set<String> doSearch(final SpatialQuery spatialQuery) throws SearchingException {
+        // the generation must be red before the searcher, see refresh().
+        final long generation = isCacheEnabled ? cachedQueries.getGeneration() : NO_CACHE;
+        return doSearch(spatialQuery, searcher, identifiers, generation);
+    }
+
+    /**
+     * This method proceed a lucene search and returns a list of ID.
+     *
+     * @param spatialQuery The lucene query string with spatials filters.
+     * @param searcher The index searcher, on the whole index or some of its segments.
+     * @param identifiers A Map of DocID -> metadata ID for this searcher.
+     * @param generation The cache generation of the searcher, or {@link #NO_CACHE} if the cache should not be used.
+     *
+     * @return A List of metadata identifiers.
+     * @throws SearchingException
+     */
+    private Set<String> doSearch(final SpatialQuery spatialQuery, final IndexSearcher searcher,
+            final Map<Integer, String> identifiers, final long generation) throws SearchingException {
         try {
             final long start = System.currentTimeMillis();
             final Set<String> results = new LinkedHashSet<>();
             spatialQuery.applyRtreeOnFilter(rTree, envelopeOnly);
 
             //we look for a cached Query
-            if (isCacheEnabled && cachedQueries.containsKey(spatialQuery)) {
+            if (generation != NO_CACHE) {
                 final Set<String> cachedResults = cachedQueries.get(spatialQuery);
-                LOGGER.log(logLevel, "returning result from cache ({0} matching documents)", results.size());
-                return cachedResults;
+                if (cachedResults != null) {
+                    LOGGER.log(logLevel, "returning result from cache ({0} matching documents)", cachedResults.size());
+                    return cachedResults;
+                }
             }
 
             int maxRecords = (int) searcher.collectionStatistics("id").maxDoc();
@@ -391,7 +533,7 @@ public class LuceneIndexSearcher extends IndexLucene {
                     docs = searcher.search(query, filter, maxRecords);
                 }
                 for (ScoreDoc doc : docs.scoreDocs) {
-                    addToResult(results, doc.doc);
+                    addToResult(results, doc.doc, identifiers);
                 }
 
             // for a OR we need to perform many request
@@ -406,10 +548,10 @@ public class LuceneIndexSearcher extends IndexLucene {
                     hits2 = searcher.search(SIMPLE_QUERY, spatialQuery.getSpatialFilter(), maxRecords);
                 }
                 for (ScoreDoc doc : hits1.scoreDocs) {
-                    addToResult(results, doc.doc);
+                    addToResult(results, doc.doc, identifiers);
                 }
                 for (ScoreDoc doc : hits2.scoreDocs) {
-                    addToResult(results, doc.doc);
+                    addToResult(results, doc.doc, identifiers);
                 }
 
             // for a NOT we need to perform many request
@@ -422,7 +564,7 @@ public class LuceneIndexSearcher extends IndexLucene {
                 }
                 final Set<String> unWanteds = new LinkedHashSet<>();
                 for (ScoreDoc doc : hits1.scoreDocs) {
-                    addToResult(unWanteds, doc.doc);
+                    addToResult(unWanteds, doc.doc, identifiers);
                 }
 
                 final TopDocs hits2;
@@ -450,7 +592,7 @@ public class LuceneIndexSearcher extends IndexLucene {
                 }
                 
                 for (SpatialQuery sub : spatialQuery.getSubQueries()) {
-                    final Set<String> subResults = doSearch(sub);
+                    final Set<String> subResults = doSearch(sub, searcher, identifiers, generation);
                     if (operator == SerialChainFilter.AND) {
                         final Set<String> toRemove   = new HashSet<>();
                         for (String r : results) {
@@ -469,7 +611,9 @@ public class LuceneIndexSearcher extends IndexLucene {
             }
 
             //we put the query in cache
-            putInCache(spatialQuery, results);
+            if (generation != NO_CACHE) {
+                cachedQueries.put(spatialQuery, results, generation);
+            }
             
             LOGGER.log(logLevel, results.size() + " total matching documents (" + (System.currentTimeMillis() - start) + "ms)");
             return results;
@@ -496,23 +640,6 @@ public class LuceneIndexSearcher extends IndexLucene {
         return s;
     }
     
-    /**
-     * Add a query and its results to the cache.
-     * if the map has reach the maximum size the older query is removed from the cache.
-     *
-     * @param query a Lucene spatial query.
-     * @param results A list of metadataIdentifier.
-     */
-    private void putInCache(final SpatialQuery query, final Set<String> results) {
-        if (isCacheEnabled) {
-            // if we had reach the maximum cache size we remove the first request
-            if (cachedQueries.size() >= MAX_CACHED_QUERIES_SIZE) {
-                cachedQueries.remove(cachedQueries.keySet().iterator().next());
-            }
-            cachedQueries.put(query, results);
-        }
-    }
-
     /**
      * Free the resources when closing the searcher.
      */
@@ -522,4 +649,37 @@ public class LuceneIndexSearcher extends IndexLucene {
         LOGGER.info("shutting down index searcher");
         cachedQueries.clear();
     }
+
+    /**
+     * The metadata IDs of a segment, by document number within the segment.
+     */
+    private static final class SegmentIdentifiers {
+
+        private final String[] ids;
+
+        /**
+         * The live documents of the segment, {@code null} if there is no deleted document.
+         */
+        private final Bits liveDocs;
+
+        private SegmentIdentifiers(final String[] ids, final Bits liveDocs) {
+            this.ids      = ids;
+            this.liveDocs = liveDocs;
+        }
+
+        private boolean isLive(final int doc) {
+            return liveDocs == null || liveDocs.get(doc);
+        }
+
+        /**
+         * Add the identifiers of the live documents.
+         */
+        private void addLiveIdentifiers(final Set<String> results) {
+            for (int i = 0; i < ids.length; i++) {
+                if (isLive(i)) {
+                    results.add(ids[i]);
+                }
+            }
+        }
+    }
 }
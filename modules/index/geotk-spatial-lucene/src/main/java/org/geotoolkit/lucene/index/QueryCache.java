@@ -0,0 +1,213 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation; either
+ *    version 3 of the License, or (at your option) any later version.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+
+package org.geotoolkit.lucene.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.geotoolkit.internal.metrics.Counter;
+import org.geotoolkit.internal.metrics.Metrics;
+import org.geotoolkit.lucene.filter.SpatialQuery;
+
+/**
+ * A cache of query results, bounded by its number of queries and by the total number
+ * of identifiers it contains. The least recently used queries are evicted first.
+ *
+ * Each result is tagged with the index generation it has been computed on. When the index is modified
+ * the generation is incremented: results of the previous generation are no longer returned
+ * until they have been revalidated, and results computed on the previous generation are not added.
+ *
+ * Hits, misses and evictions are recorded in the {@code lucene.cache.hit},
+ * {@code lucene.cache.miss} and {@code lucene.cache.eviction} counters.
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+final class QueryCache {
+
+    private static final Counter HIT_COUNTER      = Metrics.counter("lucene.cache.hit");
+    private static final Counter MISS_COUNTER     = Metrics.counter("lucene.cache.miss");
+    private static final Counter EVICTION_COUNTER = Metrics.counter("lucene.cache.eviction");
+
+    /**
+     * The cached results, in access order.
+     */
+    private final LinkedHashMap<SpatialQuery, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The maximum number of cached queries.
+     */
+    private final int maxQueries;
+
+    /**
+     * The maximum number of identifiers in all the cached results.
+     */
+    private final long maxWeight;
+
+    /**
+     * The current number of identifiers in all the cached results.
+     */
+    private long weight;
+
+    /**
+     * The current index generation.
+     */
+    private long generation;
+
+    /**
+     * @param maxQueries The maximum number of cached queries.
+     * @param maxWeight The maximum number of identifiers in all the cached results.
+     */
+    QueryCache(final int maxQueries, final long maxWeight) {
+        this.maxQueries = maxQueries;
+        this.maxWeight  = maxWeight;
+    }
+
+    /**
+     * Return the current index generation.
+     */
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Increment the index generation, called when the index has been modified.
+     *
+     * @return The previous generation.
+     */
+    synchronized long nextGeneration() {
+        return generation++;
+    }
+
+    /**
+     * Return the cached results of a query, or {@code null} if the query is not cached
+     * for the current generation.
+     */
+    synchronized Set<String> get(final SpatialQuery query) {
+        final Entry entry = entries.get(query);
+        if (entry != null && entry.generation == generation) {
+            HIT_COUNTER.increment();
+            return entry.results;
+        }
+        MISS_COUNTER.increment();
+        return null;
+    }
+
+    /**
+     * Add the results of a query, the least recently used queries are removed
+     * if the cache exceeds its maximum size or weight.
+     * Results heavier than the maximum weight, or computed on a previous generation, are not cached.
+     *
+     * @param generation The index generation on which results have been computed.
+     */
+    synchronized void put(final SpatialQuery query, final Set<String> results, final long generation) {
+        if (generation != this.generation || results.size() > maxWeight) {
+            return;
+        }
+        final Entry previous = entries.put(query, new Entry(results, generation));
+        if (previous != null) {
+            weight -= previous.results.size();
+        }
+        weight += results.size();
+        final Iterator<Entry> it = entries.values().iterator();
+        while ((entries.size() > maxQueries || weight > maxWeight) && it.hasNext()) {
+            weight -= it.next().results.size();
+            it.remove();
+            EVICTION_COUNTER.increment();
+        }
+    }
+
+    /**
+     * Return a snapshot of the queries cached for the given generation.
+     */
+    synchronized List<SpatialQuery> queries(final long generation) {
+        final List<SpatialQuery> queries = new ArrayList<>();
+        for (Map.Entry<SpatialQuery, Entry> entry : entries.entrySet()) {
+            if (entry.getValue().generation == generation) {
+                queries.add(entry.getKey());
+            }
+        }
+        return queries;
+    }
+
+    /**
+     * Remove a query from the cache, if it has been cached for the given generation.
+     */
+    synchronized void remove(final SpatialQuery query, final long generation) {
+        final Entry previous = entries.get(query);
+        if (previous != null && previous.generation == generation) {
+            entries.remove(query);
+            weight -= previous.results.size();
+        }
+    }
+
+    /**
+     * Move the results of the given generation to the current one, after removing
+     * the given identifiers from them. Results of older generations are removed.
+     * The order of the remaining identifiers is preserved.
+     */
+    synchronized void revalidate(final Collection<String> identifiers, final long previousGeneration) {
+        final Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            final Entry entry = it.next();
+            if (entry.generation == previousGeneration) {
+                if (!Collections.disjoint(entry.results, identifiers)) {
+                    // cached sets may have been returned to callers, they are replaced instead of modified.
+                    final Set<String> patched = new LinkedHashSet<>(entry.results);
+                    patched.removeAll(identifiers);
+                    weight -= entry.results.size() - patched.size();
+                    entry.results = patched;
+                }
+                entry.generation = generation;
+            } else if (entry.generation < previousGeneration) {
+                weight -= entry.results.size();
+                it.remove();
+            }
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * Cached results and the index generation they have been computed on.
+     */
+    private static final class Entry {
+
+        private Set<String> results;
+
+        private long generation;
+
+        private Entry(final Set<String> results, final long generation) {
+            this.results    = results;
+            this.generation = generation;
+        }
+    }
+}
@@ -8,7 +8,6 @@ import java.util.Iterator;
 import java.util.List;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.document.Document;
-import org.geotoolkit.index.tree.StoreIndexException;
 import org.geotoolkit.index.tree.manager.NamedEnvelope;
 import org.geotoolkit.lucene.DocumentIndexer.DocumentEnvelope;
 import org.geotoolkit.lucene.index.AbstractIndexer;
@@ -59,11 +58,7 @@ public class DocumentIndexer extends AbstractIndexer<DocumentEnvelope>{
     @Override
     protected Document createDocument(DocumentEnvelope object, int docId) throws IndexingException {
         if (object.env != null) {
-            try {
-                rTree.insert(object.env);
-            } catch (StoreIndexException ex) {
-                throw new IndexingException("Unable to insert BBOX for document", ex);
-            }
+            addEnvelope(object.env);
         }
         return object.doc;
     }
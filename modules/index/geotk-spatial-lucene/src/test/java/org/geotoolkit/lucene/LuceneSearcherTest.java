@@ -37,6 +37,8 @@ import org.apache.lucene.document.Field;
 import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherManager;
 
 import org.geotoolkit.filter.DefaultFilterFactory2;
 import org.apache.sis.geometry.Envelopes;
@@ -44,6 +46,8 @@ import org.apache.sis.geometry.GeneralEnvelope;
 import org.geotoolkit.geometry.jts.SRIDGenerator;
 import org.geotoolkit.geometry.jts.SRIDGenerator.Version;
 import org.geotoolkit.index.tree.Tree;
+import org.geotoolkit.internal.metrics.Counter;
+import org.geotoolkit.internal.metrics.Metrics;
 import org.geotoolkit.index.tree.TreeElementMapper;
 import org.geotoolkit.index.tree.manager.NamedEnvelope;
 import org.geotoolkit.index.tree.manager.SQLRtreeManager;
@@ -2459,6 +2463,190 @@ public class LuceneSearcherTest {
         assertTrue(results.contains("line 1 projected"));
     }
 
+    /**
+     * Test that the cached queries not affected by an index modification are kept after a refresh.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void CacheAfterRefreshTest() throws Exception {
+        final boolean metricsEnabled = Metrics.isEnabled();
+        Metrics.setEnabled(true);
+        try {
+            final Counter hits = Metrics.counter("lucene.cache.hit");
+            final SpatialQuery bboxQuery  = new SpatialQuery(wrap(FF.bbox(GEOMETRY_PROPERTY, -20, -20, 20, 20, "CRS:84")));
+            final SpatialQuery otherQuery = new SpatialQuery(wrap(FF.bbox(GEOMETRY_PROPERTY, -50, -60, -20, -30, "CRS:84")));
+
+            Set<String> results = searcher.doSearch(bboxQuery);
+            assertEquals(10, results.size());
+            assertTrue(results.contains("box 2 projected"));
+            assertEquals(Collections.singleton("box 1"), new HashSet<>(searcher.doSearch(otherQuery)));
+
+            // the index has not been modified, queries stay in cache.
+            long hitCount = hits.getCount();
+            searcher.refresh();
+            searcher.doSearch(bboxQuery);
+            searcher.doSearch(otherQuery);
+            assertEquals(hitCount + 2, hits.getCount());
+
+            // we remove a document, it is removed from cached results.
+            final Analyzer analyzer = new StandardAnalyzer(org.apache.lucene.util.Version.LUCENE_4_9);
+            DocumentIndexer indexer = new DocumentIndexer(directory, null, analyzer);
+            indexer.removeDocument("box 2 projected");
+            indexer.destroy();
+            searcher.refresh();
+
+            hitCount = hits.getCount();
+            results = searcher.doSearch(bboxQuery);
+            assertEquals(hitCount + 1, hits.getCount());
+            assertEquals(9, results.size());
+            assertFalse(results.contains("box 2 projected"));
+
+            // we re-add the document, only the query matching it is removed from cache.
+            final int srid3395 = SRIDGenerator.toSRID(CRS.decode("EPSG:3395"), Version.V1);
+            Document docu = new Document();
+            docu.add(new StringField("id", "box 2 projected", Field.Store.YES));
+            docu.add(new StringField("docid", 66 + "", Field.Store.YES));
+            docu.add(new StringField("metafile", "doc",   Field.Store.YES));
+            NamedEnvelope env = addBoundingBox(docu,             556597.4539663679,  1113194.9079327357,  1111475.1028522244, 1678147.5163917788, srid3395);
+            indexer = new DocumentIndexer(directory, null, analyzer);
+            indexer.indexDocument(new DocumentIndexer.DocumentEnvelope(docu, env));
+            indexer.destroy();
+            searcher.refresh();
+
+            hitCount = hits.getCount();
+            results = searcher.doSearch(bboxQuery);
+            assertEquals(hitCount, hits.getCount());
+            assertEquals(10, results.size());
+            assertTrue(results.contains("box 2 projected"));
+            assertEquals(Collections.singleton("box 1"), new HashSet<>(searcher.doSearch(otherQuery)));
+            assertEquals(hitCount + 1, hits.getCount());
+        } finally {
+            Metrics.setEnabled(metricsEnabled);
+        }
+    }
+
+    /**
+     * Test an index created by several threads, then updated through the near-real-time searchers of the indexer.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void ParallelIndexingTest() throws Exception {
+        final File parallelDirectory = new File("luceneSearcherParallelTest");
+        if (parallelDirectory.exists()) {
+            FileUtilities.deleteDirectory(parallelDirectory);
+        }
+        parallelDirectory.mkdir();
+        final Analyzer analyzer = new StandardAnalyzer(org.apache.lucene.util.Version.LUCENE_4_9);
+        final List<DocumentEnvelope> docs = fillTestData();
+        final DocumentIndexer indexer = new DocumentIndexer(parallelDirectory, docs, analyzer);
+        LuceneIndexSearcher parallelSearcher = null;
+        try {
+            try {
+                indexer.setIndexingThreads(4);
+                indexer.createIndex();
+
+                final SearcherManager manager = indexer.getSearcherManager();
+                IndexSearcher nrtSearcher = manager.acquire();
+                try {
+                    assertEquals(docs.size(), nrtSearcher.getIndexReader().numDocs());
+                } finally {
+                    manager.release(nrtSearcher);
+                }
+                indexer.removeDocument("point 1");
+                nrtSearcher = manager.acquire();
+                try {
+                    assertEquals(docs.size() - 1, nrtSearcher.getIndexReader().numDocs());
+                } finally {
+                    manager.release(nrtSearcher);
+                }
+            } finally {
+                indexer.destroy();
+            }
+
+            parallelSearcher = new LuceneIndexSearcher(parallelDirectory, null, analyzer, false);
+            final SpatialQuery bboxQuery = new SpatialQuery(wrap(FF.bbox(GEOMETRY_PROPERTY, -20, -20, 20, 20, "CRS:84")));
+            final Set<String> expected = new HashSet<>(searcher.doSearch(bboxQuery));
+            assertTrue(expected.remove("point 1"));
+            assertEquals(expected, new HashSet<>(parallelSearcher.doSearch(bboxQuery)));
+        } finally {
+            if (parallelSearcher != null) {
+                parallelSearcher.destroy();
+            }
+            FileUtilities.deleteDirectory(parallelDirectory);
+        }
+    }
+
+    /**
+     * Entries which can not be read must not consume a document identifier,
+     * and failures of the indexing threads must be reported to the caller.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void ParallelIndexingFailureTest() throws Exception {
+        final File parallelDirectory = new File("luceneSearcherParallelFailureTest");
+        if (parallelDirectory.exists()) {
+            FileUtilities.deleteDirectory(parallelDirectory);
+        }
+        parallelDirectory.mkdir();
+        final Analyzer analyzer = new StandardAnalyzer(org.apache.lucene.util.Version.LUCENE_4_9);
+        final List<DocumentEnvelope> docs = fillTestData();
+        final List<Integer> docIds = Collections.synchronizedList(new ArrayList<Integer>());
+        DocumentIndexer indexer = new DocumentIndexer(parallelDirectory, docs, analyzer) {
+            @Override
+            protected DocumentEnvelope getEntry(final String identifier) throws IndexingException {
+                if (identifier.equals("point 1") || identifier.equals("box 2")) {
+                    throw new IndexingException("unreadable entry");
+                }
+                return super.getEntry(identifier);
+            }
+
+            @Override
+            protected Document createDocument(final DocumentEnvelope object, final int docId) throws IndexingException {
+                docIds.add(docId);
+                return super.createDocument(object, docId);
+            }
+        };
+        try {
+            indexer.setIndexingThreads(4);
+            indexer.createIndex();
+
+            final SearcherManager manager = indexer.getSearcherManager();
+            final IndexSearcher nrtSearcher = manager.acquire();
+            try {
+                assertEquals(docs.size() - 2, nrtSearcher.getIndexReader().maxDoc());
+            } finally {
+                manager.release(nrtSearcher);
+            }
+            Collections.sort(docIds);
+            for (int i = 0; i < docIds.size(); i++) {
+                assertEquals(Integer.valueOf(i), docIds.get(i));
+            }
+            assertEquals(docs.size() - 2, docIds.size());
+        } finally {
+            indexer.destroy();
+        }
+
+        indexer = new DocumentIndexer(parallelDirectory, docs, analyzer) {
+            @Override
+            protected Document createDocument(final DocumentEnvelope object, final int docId) throws IndexingException {
+                if (docId == 5) {
+                    throw new IllegalStateException("broken document");
+                }
+                return super.createDocument(object, docId);
+            }
+        };
+        try {
+            indexer.setIndexingThreads(4);
+            indexer.createIndex();
+            fail("The failure of an indexing thread must be reported.");
+        } catch (IllegalStateException ex) {
+            assertEquals("broken document", ex.getMessage());
+        } finally {
+            indexer.destroy();
+            FileUtilities.deleteDirectory(parallelDirectory);
+        }
+    }
+
     private static List<DocumentEnvelope> fillTestData() throws Exception {
 
         final List<DocumentEnvelope> docs = new ArrayList<>();
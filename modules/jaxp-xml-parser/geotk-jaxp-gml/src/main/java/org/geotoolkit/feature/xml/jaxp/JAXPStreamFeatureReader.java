@@ -98,6 +98,7 @@ public class JAXPStreamFeatureReader extends StaxStreamReader implements XmlFeat
     protected static final Logger LOGGER = Logger.getLogger("org.geotoolkit.feature.xml.jaxp");
     private static final FeatureFactory FF = FeatureFactory.LENIENT;
     private Unmarshaller unmarshaller;
+    private final JAXPStreamGeometryReader geometryReader = new JAXPStreamGeometryReader();
     public static final String LONGITUDE_FIRST = "longitudeFirst";
 
     /**
@@ -562,6 +563,15 @@ public class JAXPStreamFeatureReader extends StaxStreamReader implements XmlFeat
                     longitudeFirst = true;
                 }
             
+                //common geometries are read directly from the stream, others are unmarshalled by JAXB
+                if (JAXPStreamGeometryReader.isSupported(reader) && getPool() == GMLMarshallerPool.getInstance()) {
+                    try {
+                        return geometryReader.read(reader, longitudeFirst);
+                    } catch (FactoryException ex) {
+                        throw new XMLStreamException("Factory Exception while transforming GML object to JTS", ex);
+                    }
+                }
+
                 final Geometry jtsGeom;
                 final Object geometry = ((JAXBElement) unmarshaller.unmarshal(reader)).getValue();
                 if (geometry instanceof JTSGeometry) {
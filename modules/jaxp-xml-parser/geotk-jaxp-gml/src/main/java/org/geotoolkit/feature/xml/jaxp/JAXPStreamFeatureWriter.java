@@ -104,6 +104,11 @@ public class JAXPStreamFeatureWriter extends StaxStreamWriter implements XmlFeat
     private final String gmlNamespace;
     private final String gmlLocation;
 
+    /**
+     * Direct StAX writer for common geometries, null if GML version is not supported.
+     */
+    private final JAXPStreamGeometryWriter geometryWriter;
+
     private static final DateFormat FORMATTER = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
 
     public JAXPStreamFeatureWriter() {
@@ -127,6 +132,11 @@ public class JAXPStreamFeatureWriter extends StaxStreamWriter implements XmlFeat
             gmlNamespace = "http://www.opengis.net/gml";
             gmlLocation  = "http://schemas.opengis.net/gml/3.1.1/base/gml.xsd";
         }
+        if ("3.1.1".equals(gmlVersion) || "3.2.1".equals(gmlVersion)) {
+            geometryWriter = new JAXPStreamGeometryWriter(gmlVersion, gmlNamespace);
+        } else {
+            geometryWriter = null;
+        }
 
         if (schemaLocations != null && schemaLocations.size() > 0) {
             final StringBuilder sb = new StringBuilder();
@@ -525,39 +535,43 @@ public class JAXPStreamFeatureWriter extends StaxStreamWriter implements XmlFeat
                 }
 
                 final CoordinateReferenceSystem crs = ((GeometryType)typeA).getCoordinateReferenceSystem();
-                final JAXBElement element;
-                final MarshallerPool POOL;
-                if ("3.1.1".equals(gmlVersion)) {
-                    final Geometry isoGeometry = JTSUtils.toISO((com.vividsolutions.jts.geom.Geometry) valueA, crs);
-                    element = OBJECT_FACTORY.buildAnyGeometry(isoGeometry);
-                    POOL = GML_31_POOL;
-                } else if ("3.2.1".equals(gmlVersion)) {
-                    AbstractGeometry gmlGeometry = null;
-                    try {
-                        gmlGeometry = JTStoGeometry.toGML(gmlVersion, (com.vividsolutions.jts.geom.Geometry) valueA,  crs);
-                    } catch (FactoryException ex) {
-                        LOGGER.log(Level.WARNING, "Factory exception when transforming JTS geometry to GML binding", ex);
+                final com.vividsolutions.jts.geom.Geometry jtsGeom = (com.vividsolutions.jts.geom.Geometry) valueA;
+                //common geometries are written directly on the stream, others are marshalled by JAXB
+                if (geometryWriter == null || !geometryWriter.write(writer, jtsGeom, crs, id)) {
+                    final JAXBElement element;
+                    final MarshallerPool POOL;
+                    if ("3.1.1".equals(gmlVersion)) {
+                        final Geometry isoGeometry = JTSUtils.toISO(jtsGeom, crs);
+                        element = OBJECT_FACTORY.buildAnyGeometry(isoGeometry);
+                        POOL = GML_31_POOL;
+                    } else if ("3.2.1".equals(gmlVersion)) {
+                        AbstractGeometry gmlGeometry = null;
+                        try {
+                            gmlGeometry = JTStoGeometry.toGML(gmlVersion, jtsGeom,  crs);
+                        } catch (FactoryException ex) {
+                            LOGGER.log(Level.WARNING, "Factory exception when transforming JTS geometry to GML binding", ex);
+                        }
+                        if(gmlGeometry!=null){
+                            //id is requiered in version 3.2.1
+                            //NOTE we often see gml where the geometry id is the same as the feature
+                            // we use the last parent with an id, seems acceptable.
+                            gmlGeometry.setId(id);
+                        }
+                        element = GML32_FACTORY.buildAnyGeometry(gmlGeometry);
+                        POOL = GML_32_POOL;
+                    } else {
+                        throw new IllegalArgumentException("Unexpected GML version:" + gmlVersion);
                     }
-                    if(gmlGeometry!=null){
-                        //id is requiered in version 3.2.1
-                        //NOTE we often see gml where the geometry id is the same as the feature
-                        // we use the last parent with an id, seems acceptable.
-                        gmlGeometry.setId(id);
+                    try {
+                        final Marshaller marshaller;
+                        marshaller = POOL.acquireMarshaller();
+                        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+                        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, false);
+                        marshaller.marshal(element, writer);
+                        POOL.recycle(marshaller);
+                    } catch (JAXBException ex) {
+                        LOGGER.log(Level.WARNING, "JAXB Exception while marshalling the iso geometry: " + ex.getMessage(), ex);
                     }
-                    element = GML32_FACTORY.buildAnyGeometry(gmlGeometry);
-                    POOL = GML_32_POOL;
-                } else {
-                    throw new IllegalArgumentException("Unexpected GML version:" + gmlVersion);
-                }
-                try {
-                    final Marshaller marshaller;
-                    marshaller = POOL.acquireMarshaller();
-                    marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
-                    marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, false);
-                    marshaller.marshal(element, writer);
-                    POOL.recycle(marshaller);
-                } catch (JAXBException ex) {
-                    LOGGER.log(Level.WARNING, "JAXB Exception while marshalling the iso geometry: " + ex.getMessage(), ex);
                 }
                 
                 if(!descIsType)writer.writeEndElement();
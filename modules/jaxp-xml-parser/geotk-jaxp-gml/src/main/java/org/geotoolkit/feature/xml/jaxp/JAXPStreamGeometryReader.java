@@ -0,0 +1,505 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2015, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.feature.xml.jaxp;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.geotoolkit.geometry.jts.JTS;
+import org.geotoolkit.referencing.CRS;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.util.FactoryException;
+
+import static javax.xml.stream.XMLStreamConstants.*;
+
+/**
+ * Read GML 3.1.1 and 3.2.1 geometries directly from a StAX stream into JTS geometries,
+ * without building the intermediate JAXB objects.
+ *
+ * Only the common geometry types are handled, see {@link #isSupported(javax.xml.stream.XMLStreamReader) }.
+ * Other geometries must be read with JAXB and {@link org.geotoolkit.gml.GeometrytoJTS}, the produced
+ * geometries are the same than the ones produced by this way.
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+final class JAXPStreamGeometryReader {
+
+    private static final GeometryFactory GF = new GeometryFactory();
+
+    private static final String GML_311 = "http://www.opengis.net/gml";
+    private static final String GML_321 = "http://www.opengis.net/gml/3.2";
+
+    /**
+     * Geometry elements which can be read by this reader.
+     */
+    private static final Set<String> SUPPORTED = new HashSet<>(Arrays.asList(
+            "Point", "LineString", "Polygon", "MultiPoint", "MultiLineString",
+            "MultiCurve", "MultiPolygon", "MultiSurface"));
+
+    /**
+     * AbstractGML properties which may appear before the geometry content, they are ignored.
+     */
+    private static final Set<String> IGNORED = new HashSet<>(Arrays.asList(
+            "metaDataProperty", "description", "descriptionReference", "identifier", "name"));
+
+    /**
+     * Decoded CRS by srsName, decoding is costly and most documents use a single CRS.
+     */
+    private final Map<String,CoordinateReferenceSystem> crsCache = new HashMap<>();
+
+    private boolean longitudeFirst = true;
+
+    /**
+     * Srs name found on the last point pos element, points may declare their CRS there.
+     */
+    private String pointSrs;
+
+    /**
+     * @param reader stream positioned on a START_ELEMENT.
+     * @return true if the current element is a geometry which can be read by this reader.
+     */
+    static boolean isSupported(final XMLStreamReader reader) {
+        final String namespace = reader.getNamespaceURI();
+        return (GML_311.equals(namespace) || GML_321.equals(namespace))
+                && SUPPORTED.contains(reader.getLocalName());
+    }
+
+    /**
+     * Read the geometry starting at current element.
+     * The stream is left on the event following the geometry end element.
+     *
+     * @param reader stream positioned on a supported geometry START_ELEMENT.
+     * @param longitudeFirst axis order used when decoding srsName.
+     * @return JTS geometry, never null.
+     */
+    Geometry read(final XMLStreamReader reader, final boolean longitudeFirst) throws XMLStreamException, FactoryException {
+        if (this.longitudeFirst != longitudeFirst) {
+            this.longitudeFirst = longitudeFirst;
+            crsCache.clear();
+        }
+        final Geometry geom = readGeometry(reader, null, 0);
+        reader.next();
+        return geom;
+    }
+
+    /**
+     * Read any supported geometry, including the ones only allowed as members.
+     * Curves and surfaces may contain several parts, those are returned separately.
+     */
+    private void readMember(final XMLStreamReader reader, final String parentSrs, final int parentDim,
+            final List<Geometry> members) throws XMLStreamException, FactoryException {
+        final String name = reader.getLocalName();
+        if ("Curve".equals(name)) {
+            final String srs = srsName(reader, parentSrs);
+            final int dim = srsDimension(reader, parentDim);
+            for (Coordinate[] segment : readCurve(reader, srs, dim)) {
+                members.add(setCRS(GF.createLineString(segment), srs));
+            }
+        } else if ("Surface".equals(name)) {
+            final String srs = srsName(reader, parentSrs);
+            final int dim = srsDimension(reader, parentDim);
+            for (Polygon patch : readSurface(reader, srs, dim)) {
+                members.add(setCRS(patch, srs));
+            }
+        } else {
+            final Geometry geom = readGeometry(reader, parentSrs, parentDim);
+            for (int i = 0, n = geom.getNumGeometries(); i < n; i++) {
+                members.add(geom.getGeometryN(i));
+            }
+        }
+    }
+
+    private Geometry readGeometry(final XMLStreamReader reader, final String parentSrs, final int parentDim)
+            throws XMLStreamException, FactoryException {
+        final String name = reader.getLocalName();
+        final String srs = srsName(reader, parentSrs);
+        final int dim = srsDimension(reader, parentDim);
+
+        final Geometry geom;
+        switch (name) {
+            case "Point": {
+                final String ownSrs = srsName(reader, null);
+                final Coordinate[] coords = readCoordinates(reader, dim, true);
+                if (coords.length != 1) {
+                    throw new XMLStreamException("A GML point must specify one direct position.", reader.getLocation());
+                }
+                geom = GF.createPoint(coords[0]);
+                //point CRS is searched on the point, then on its position, then on its parent
+                return setCRS(geom, ownSrs != null ? ownSrs : (pointSrs != null ? pointSrs : parentSrs));
+            }
+            case "LineString":
+                geom = GF.createLineString(readCoordinates(reader, dim, false));
+                break;
+            case "Polygon":
+                geom = readPolygon(reader, srs, dim);
+                break;
+            case "MultiPoint": {
+                final List<Geometry> members = readMembers(reader, srs, dim, "pointMember", "pointMembers");
+                geom = GF.createMultiPoint(members.toArray(new Point[members.size()]));
+                break;
+            }
+            case "MultiLineString":
+            case "MultiCurve": {
+                final List<Geometry> members = readMembers(reader, srs, dim, "lineStringMember", "curveMember", "curveMembers");
+                geom = GF.createMultiLineString(members.toArray(new LineString[members.size()]));
+                break;
+            }
+            case "MultiPolygon":
+            case "MultiSurface": {
+                final List<Geometry> members = readMembers(reader, srs, dim, "polygonMember", "surfaceMember", "surfaceMembers");
+                geom = GF.createMultiPolygon(members.toArray(new Polygon[members.size()]));
+                break;
+            }
+            default:
+                throw new XMLStreamException("Unsupported geometry type : " + name, reader.getLocation());
+        }
+        return setCRS(geom, srs);
+    }
+
+    /**
+     * Read the positions of a point, line string or linear ring.
+     * Reader is positioned on the geometry START_ELEMENT and left on its END_ELEMENT.
+     */
+    private Coordinate[] readCoordinates(final XMLStreamReader reader, final int dim, final boolean point)
+            throws XMLStreamException {
+        pointSrs = null;
+        final List<Coordinate> coords = new ArrayList<>();
+        while (nextChild(reader)) {
+            final String name = reader.getLocalName();
+            switch (name) {
+                case "pos": {
+                    if (point) pointSrs = reader.getAttributeValue(null, "srsName");
+                    final double[] values = parseDoubles(reader.getElementText());
+                    if (values.length < 2) {
+                        throw new XMLStreamException("Malformed GML direct position.", reader.getLocation());
+                    }
+                    coords.add(new Coordinate(values[0], values[1]));
+                    break;
+                }
+                case "posList": {
+                    final int listDim = srsDimension(reader, dim);
+                    final double[] values = parseDoubles(reader.getElementText());
+                    if (values.length % listDim != 0) {
+                        throw new XMLStreamException("Malformed GML position list.", reader.getLocation());
+                    }
+                    for (int i = 0; i < values.length; i += listDim) {
+                        coords.add(new Coordinate(values[i], values[i + 1]));
+                    }
+                    break;
+                }
+                case "coordinates":
+                    readCoordinatesElement(reader, coords);
+                    break;
+                default:
+                    skipIgnored(reader);
+            }
+        }
+        return coords.toArray(new Coordinate[coords.size()]);
+    }
+
+    /**
+     * Read the old style coordinates element, with its tuple, coordinate and decimal separators.
+     */
+    private static void readCoordinatesElement(final XMLStreamReader reader, final List<Coordinate> coords)
+            throws XMLStreamException {
+        final String cs      = attribute(reader, "cs", ",");
+        final String ts      = attribute(reader, "ts", " ");
+        final String decimal = attribute(reader, "decimal", ".");
+        final String text    = reader.getElementText().trim();
+        if (text.isEmpty()) return;
+        final String[] tuples = ts.trim().isEmpty() ? text.split("\\s+") : text.split(Pattern.quote(ts));
+        for (String tuple : tuples) {
+            tuple = tuple.trim();
+            if (tuple.isEmpty()) continue;
+            if (!".".equals(decimal)) {
+                tuple = tuple.replace(decimal, ".");
+            }
+            final String[] values = tuple.split(Pattern.quote(cs));
+            if (values.length < 2) {
+                throw new XMLStreamException("Malformed GML coordinates : " + tuple, reader.getLocation());
+            }
+            try {
+                coords.add(new Coordinate(Double.parseDouble(values[0].trim()), Double.parseDouble(values[1].trim())));
+            } catch (NumberFormatException ex) {
+                throw new XMLStreamException("Malformed GML coordinates : " + tuple, reader.getLocation(), ex);
+            }
+        }
+    }
+
+    private Polygon readPolygon(final XMLStreamReader reader, final String srs, final int dim)
+            throws XMLStreamException, FactoryException {
+        LinearRing exterior = null;
+        final List<LinearRing> holes = new ArrayList<>();
+        while (nextChild(reader)) {
+            final String name = reader.getLocalName();
+            switch (name) {
+                case "exterior":
+                case "outerBoundaryIs":
+                    exterior = readRingProperty(reader, srs, dim);
+                    break;
+                case "interior":
+                case "innerBoundaryIs":
+                    holes.add(readRingProperty(reader, srs, dim));
+                    break;
+                default:
+                    skipIgnored(reader);
+            }
+        }
+        if (exterior == null) {
+            throw new XMLStreamException("A GML polygon must have an exterior ring.", reader.getLocation());
+        }
+        return GF.createPolygon(exterior, holes.toArray(new LinearRing[holes.size()]));
+    }
+
+    /**
+     * Read an exterior or interior property, containing a LinearRing or a Ring.
+     */
+    private LinearRing readRingProperty(final XMLStreamReader reader, final String parentSrs, final int parentDim)
+            throws XMLStreamException, FactoryException {
+        LinearRing ring = null;
+        while (nextChild(reader)) {
+            final String name = reader.getLocalName();
+            final int dim = srsDimension(reader, parentDim);
+            if ("LinearRing".equals(name)) {
+                ring = GF.createLinearRing(readCoordinates(reader, dim, false));
+            } else if ("Ring".equals(name)) {
+                ring = GF.createLinearRing(readRing(reader, srsName(reader, parentSrs), dim));
+            } else {
+                throw new XMLStreamException("Unsupported ring type : " + name, reader.getLocation());
+            }
+        }
+        if (ring == null) {
+            throw new XMLStreamException("Empty GML ring property.", reader.getLocation());
+        }
+        return ring;
+    }
+
+    /**
+     * Read a Ring, its curve members are joined in a single closed sequence.
+     */
+    private Coordinate[] readRing(final XMLStreamReader reader, final String srs, final int dim)
+            throws XMLStreamException, FactoryException {
+        final List<Coordinate> coords = new ArrayList<>();
+        while (nextChild(reader)) {
+            if (!"curveMember".equals(reader.getLocalName())) {
+                skipIgnored(reader);
+                continue;
+            }
+            while (nextChild(reader)) {
+                final String name = reader.getLocalName();
+                final int memberDim = srsDimension(reader, dim);
+                if ("LineString".equals(name)) {
+                    append(coords, readCoordinates(reader, memberDim, false));
+                } else if ("Curve".equals(name)) {
+                    for (Coordinate[] segment : readCurve(reader, srs, memberDim)) {
+                        append(coords, segment);
+                    }
+                } else {
+                    throw new XMLStreamException("Unsupported ring member : " + name, reader.getLocation());
+                }
+            }
+        }
+        return coords.toArray(new Coordinate[coords.size()]);
+    }
+
+    /**
+     * Read the LineStringSegment of a Curve, each segment is returned separately.
+     */
+    private List<Coordinate[]> readCurve(final XMLStreamReader reader, final String srs, final int dim)
+            throws XMLStreamException {
+        final List<Coordinate[]> segments = new ArrayList<>();
+        while (nextChild(reader)) {
+            if (!"segments".equals(reader.getLocalName())) {
+                skipIgnored(reader);
+                continue;
+            }
+            while (nextChild(reader)) {
+                if (!"LineStringSegment".equals(reader.getLocalName())) {
+                    throw new XMLStreamException("only lineStringSegment are allowed in curveType segments", reader.getLocation());
+                }
+                segments.add(readCoordinates(reader, srsDimension(reader, dim), false));
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Read the PolygonPatch of a Surface, each patch is returned separately.
+     */
+    private List<Polygon> readSurface(final XMLStreamReader reader, final String srs, final int dim)
+            throws XMLStreamException, FactoryException {
+        final List<Polygon> patches = new ArrayList<>();
+        while (nextChild(reader)) {
+            final String name = reader.getLocalName();
+            if (!"patches".equals(name) && !"polygonPatches".equals(name)) {
+                skipIgnored(reader);
+                continue;
+            }
+            while (nextChild(reader)) {
+                if (!"PolygonPatch".equals(reader.getLocalName())) {
+                    throw new XMLStreamException("Unsupported surface patch : " + reader.getLocalName(), reader.getLocation());
+                }
+                patches.add(readPolygon(reader, srs, srsDimension(reader, dim)));
+            }
+        }
+        return patches;
+    }
+
+    /**
+     * Read all the members of a multi geometry, the single member properties
+     * and the array properties given in argument.
+     */
+    private List<Geometry> readMembers(final XMLStreamReader reader, final String srs, final int dim,
+            final String... properties) throws XMLStreamException, FactoryException {
+        final List<Geometry> members = new ArrayList<>();
+        while (nextChild(reader)) {
+            if (!Arrays.asList(properties).contains(reader.getLocalName())) {
+                skipIgnored(reader);
+                continue;
+            }
+            while (nextChild(reader)) {
+                readMember(reader, srs, dim, members);
+            }
+        }
+        return members;
+    }
+
+    /**
+     * Append coordinates, the first one is dropped if it duplicates the last appended one.
+     */
+    private static void append(final List<Coordinate> coords, final Coordinate[] part) {
+        int start = 0;
+        if (!coords.isEmpty() && part.length > 0 && coords.get(coords.size() - 1).equals2D(part[0])) {
+            start = 1;
+        }
+        for (int i = start; i < part.length; i++) {
+            coords.add(part[i]);
+        }
+    }
+
+    private <T extends Geometry> T setCRS(final T geom, final String srs) throws FactoryException {
+        if (srs != null) {
+            CoordinateReferenceSystem crs = crsCache.get(srs);
+            if (crs == null) {
+                crs = CRS.decode(srs, longitudeFirst);
+                crsCache.put(srs, crs);
+            }
+            JTS.setCRS(geom, crs);
+        }
+        return geom;
+    }
+
+    private static String srsName(final XMLStreamReader reader, final String parentSrs) {
+        final String srs = reader.getAttributeValue(null, "srsName");
+        return (srs != null && !srs.isEmpty()) ? srs : parentSrs;
+    }
+
+    /**
+     * @return declared srsDimension, the parent one if not declared, 2 by default.
+     */
+    private static int srsDimension(final XMLStreamReader reader, final int parentDim) throws XMLStreamException {
+        final String value = reader.getAttributeValue(null, "srsDimension");
+        if (value != null && !value.isEmpty()) {
+            try {
+                final int dim = Integer.parseInt(value.trim());
+                if (dim >= 2) return dim;
+            } catch (NumberFormatException ex) {
+                throw new XMLStreamException("Invalid srsDimension : " + value, reader.getLocation(), ex);
+            }
+            throw new XMLStreamException("Invalid srsDimension : " + value, reader.getLocation());
+        }
+        return parentDim > 0 ? parentDim : 2;
+    }
+
+    private static String attribute(final XMLStreamReader reader, final String name, final String fallback) {
+        final String value = reader.getAttributeValue(null, name);
+        return (value == null || value.isEmpty()) ? fallback : value;
+    }
+
+    /**
+     * Parse a white space separated list of numbers.
+     */
+    private static double[] parseDoubles(final String text) throws XMLStreamException {
+        double[] values = new double[16];
+        int count = 0;
+        final int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && Character.isWhitespace(text.charAt(i))) i++;
+            if (i == length) break;
+            final int start = i;
+            while (i < length && !Character.isWhitespace(text.charAt(i))) i++;
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            try {
+                values[count++] = Double.parseDouble(text.substring(start, i));
+            } catch (NumberFormatException ex) {
+                throw new XMLStreamException("Malformed GML position : " + text.substring(start, i), ex);
+            }
+        }
+        return Arrays.copyOf(values, count);
+    }
+
+    /**
+     * Move to the next child element.
+     *
+     * @return true if reader is on a child START_ELEMENT, false if it reached the parent END_ELEMENT.
+     */
+    private static boolean nextChild(final XMLStreamReader reader) throws XMLStreamException {
+        while (true) {
+            final int event = reader.next();
+            if (event == START_ELEMENT) return true;
+            if (event == END_ELEMENT) return false;
+            if (event == END_DOCUMENT) {
+                throw new XMLStreamException("Unexpected end of document in GML geometry.");
+            }
+        }
+    }
+
+    /**
+     * Skip an AbstractGML property, any other element is not supported.
+     */
+    private static void skipIgnored(final XMLStreamReader reader) throws XMLStreamException {
+        final String name = reader.getLocalName();
+        if (!IGNORED.contains(name)) {
+            throw new XMLStreamException("Unsupported GML geometry property : " + name, reader.getLocation());
+        }
+        int depth = 1;
+        while (depth > 0) {
+            final int event = reader.next();
+            if (event == START_ELEMENT) depth++;
+            else if (event == END_ELEMENT) depth--;
+        }
+    }
+
+}
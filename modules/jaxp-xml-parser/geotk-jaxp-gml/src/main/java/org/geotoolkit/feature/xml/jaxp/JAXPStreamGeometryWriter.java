@@ -0,0 +1,223 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2015, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.feature.xml.jaxp;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.MultiLineString;
+import com.vividsolutions.jts.geom.MultiPoint;
+import com.vividsolutions.jts.geom.MultiPolygon;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import org.apache.sis.referencing.IdentifiedObjects;
+import org.geotoolkit.metadata.Citations;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.util.FactoryException;
+
+/**
+ * Write JTS geometries directly as GML 3.1.1 or 3.2.1 on a StAX stream,
+ * without building the intermediate JAXB objects.
+ *
+ * The produced XML is the same than the one marshalled by JAXB for points, line strings, polygons
+ * and their multi geometries. Other geometries are not written and must be marshalled with JAXB,
+ * see {@link #write(javax.xml.stream.XMLStreamWriter, com.vividsolutions.jts.geom.Geometry, org.opengis.referencing.crs.CoordinateReferenceSystem, java.lang.String) }.
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+final class JAXPStreamGeometryWriter {
+
+    private static final Logger LOGGER = Logger.getLogger("org.geotoolkit.feature.xml.jaxp");
+
+    private final boolean gml32;
+
+    private final String gmlNamespace;
+
+    /**
+     * CRS identifiers already looked up, the lookup is costly and all geometries
+     * of a feature type property share the same CRS instance.
+     */
+    private final Map<CoordinateReferenceSystem,String> srsNames = new IdentityHashMap<>();
+
+    /**
+     * @param gmlVersion 3.1.1 or 3.2.1
+     * @param gmlNamespace namespace of the given GML version.
+     */
+    JAXPStreamGeometryWriter(final String gmlVersion, final String gmlNamespace) {
+        this.gml32        = "3.2.1".equals(gmlVersion);
+        this.gmlNamespace = gmlNamespace;
+    }
+
+    /**
+     * Write the geometry if it is supported.
+     *
+     * @param writer output stream.
+     * @param geom geometry to write.
+     * @param crs geometry CRS, only 2D CRS are supported.
+     * @param id geometry identifier, only written in GML 3.2.1, may be null.
+     * @return false if nothing has been written because the geometry is not supported,
+     *         the caller must then use JAXB.
+     */
+    boolean write(final XMLStreamWriter writer, final Geometry geom, final CoordinateReferenceSystem crs,
+            final String id) throws XMLStreamException {
+        if (geom.isEmpty() || geom instanceof LinearRing || !(geom instanceof Point || geom instanceof LineString
+                || geom instanceof Polygon || geom instanceof MultiPoint || geom instanceof MultiLineString
+                || geom instanceof MultiPolygon)) {
+            return false;
+        }
+        if (crs == null || crs.getCoordinateSystem() == null || crs.getCoordinateSystem().getDimension() != 2) {
+            return false;
+        }
+        final String srsName = getSrsName(crs);
+        if (srsName == null) {
+            return false;
+        }
+
+        if (geom instanceof Point) {
+            writePoint(writer, (Point) geom, srsName, id);
+        } else if (geom instanceof LineString) {
+            writeLineString(writer, (LineString) geom, srsName, id);
+        } else if (geom instanceof Polygon) {
+            writePolygon(writer, (Polygon) geom, srsName, id);
+        } else if (geom instanceof MultiPoint) {
+            startGeometry(writer, "MultiPoint", srsName, id);
+            for (int i = 0, n = geom.getNumGeometries(); i < n; i++) {
+                writer.writeStartElement("gml", "pointMember", gmlNamespace);
+                writePoint(writer, (Point) geom.getGeometryN(i), srsName, null);
+                writer.writeEndElement();
+            }
+            writer.writeEndElement();
+        } else if (geom instanceof MultiLineString) {
+            startGeometry(writer, "MultiCurve", srsName, id);
+            for (int i = 0, n = geom.getNumGeometries(); i < n; i++) {
+                writer.writeStartElement("gml", "curveMember", gmlNamespace);
+                writeLineString(writer, (LineString) geom.getGeometryN(i), srsName, null);
+                writer.writeEndElement();
+            }
+            writer.writeEndElement();
+        } else {
+            startGeometry(writer, "MultiSurface", srsName, id);
+            for (int i = 0, n = geom.getNumGeometries(); i < n; i++) {
+                writer.writeStartElement("gml", "surfaceMember", gmlNamespace);
+                writePolygon(writer, (Polygon) geom.getGeometryN(i), srsName, null);
+                writer.writeEndElement();
+            }
+            writer.writeEndElement();
+        }
+        return true;
+    }
+
+    private void writePoint(final XMLStreamWriter writer, final Point point, final String srsName, final String id)
+            throws XMLStreamException {
+        startGeometry(writer, "Point", srsName, id);
+        writePos(writer, point.getCoordinate(), srsName);
+        writer.writeEndElement();
+    }
+
+    private void writeLineString(final XMLStreamWriter writer, final LineString line, final String srsName, final String id)
+            throws XMLStreamException {
+        startGeometry(writer, "LineString", srsName, id);
+        if (gml32) {
+            for (Coordinate coord : line.getCoordinates()) {
+                writePos(writer, coord, srsName);
+            }
+        } else {
+            writePosList(writer, line.getCoordinates());
+        }
+        writer.writeEndElement();
+    }
+
+    private void writePolygon(final XMLStreamWriter writer, final Polygon polygon, final String srsName, final String id)
+            throws XMLStreamException {
+        startGeometry(writer, "Polygon", srsName, id);
+        writeRing(writer, "exterior", polygon.getExteriorRing());
+        for (int i = 0, n = polygon.getNumInteriorRing(); i < n; i++) {
+            writeRing(writer, "interior", polygon.getInteriorRingN(i));
+        }
+        writer.writeEndElement();
+    }
+
+    private void writeRing(final XMLStreamWriter writer, final String property, final LineString ring)
+            throws XMLStreamException {
+        writer.writeStartElement("gml", property, gmlNamespace);
+        writer.writeStartElement("gml", "LinearRing", gmlNamespace);
+        writePosList(writer, ring.getCoordinates());
+        writer.writeEndElement();
+        writer.writeEndElement();
+    }
+
+    private void startGeometry(final XMLStreamWriter writer, final String type, final String srsName, final String id)
+            throws XMLStreamException {
+        writer.writeStartElement("gml", type, gmlNamespace);
+        writer.writeAttribute("srsName", srsName);
+        if (gml32 && id != null) {
+            writer.writeAttribute("gml", gmlNamespace, "id", id);
+        }
+    }
+
+    private void writePos(final XMLStreamWriter writer, final Coordinate coord, final String srsName)
+            throws XMLStreamException {
+        writer.writeStartElement("gml", "pos", gmlNamespace);
+        if (gml32) {
+            writer.writeAttribute("srsName", srsName);
+            writer.writeAttribute("srsDimension", "2");
+        }
+        writer.writeCharacters(coord.x + " " + coord.y);
+        writer.writeEndElement();
+    }
+
+    private void writePosList(final XMLStreamWriter writer, final Coordinate[] coords) throws XMLStreamException {
+        final StringBuilder sb = new StringBuilder(coords.length * 24);
+        for (int i = 0; i < coords.length; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(coords[i].x).append(' ').append(coords[i].y);
+        }
+        writer.writeStartElement("gml", "posList", gmlNamespace);
+        writer.writeCharacters(sb.toString());
+        writer.writeEndElement();
+    }
+
+    /**
+     * Same identifier as the one written by JAXB.
+     *
+     * @return CRS identifier or null if none can be found.
+     */
+    private String getSrsName(final CoordinateReferenceSystem crs) {
+        if (srsNames.containsKey(crs)) {
+            return srsNames.get(crs);
+        }
+        String srsName = null;
+        try {
+            srsName = org.geotoolkit.referencing.IdentifiedObjects.lookupIdentifier(Citations.URN_OGC, crs, false);
+            if (srsName == null) {
+                srsName = IdentifiedObjects.getIdentifierOrName(crs);
+            }
+        } catch (FactoryException ex) {
+            LOGGER.log(Level.FINE, "No identifier found for CRS, geometry will be marshalled by JAXB.", ex);
+        }
+        srsNames.put(crs, srsName);
+        return srsName;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2015, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+
+package org.geotoolkit.feature.xml.jaxp;
+
+import com.vividsolutions.jts.geom.Geometry;
+import java.io.StringReader;
+import java.io.StringWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import org.geotoolkit.geometry.jts.JTS;
+import org.geotoolkit.gml.GeometrytoJTS;
+import org.geotoolkit.referencing.CRS;
+import org.junit.Test;
+
+import static javax.xml.stream.XMLStreamConstants.*;
+import static org.junit.Assert.*;
+
+/**
+ * Compare geometries read from the stream with the ones unmarshalled by JAXB.
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+public class JAXPStreamGeometryReaderTest {
+
+    private static final String GML32 = "xmlns:gml=\"http://www.opengis.net/gml/3.2\"";
+    private static final String GML31 = "xmlns:gml=\"http://www.opengis.net/gml\"";
+    private static final String SRS   = "srsName=\"urn:ogc:def:crs:EPSG::4326\"";
+
+    @Test
+    public void testPoint() throws Exception {
+        assertSameAsJAXB("<gml:Point " + GML32 + " " + SRS + " gml:id=\"p1\">"
+                + "<gml:pos srsDimension=\"2\">5.0 10.0</gml:pos></gml:Point>");
+        // CRS declared on the position
+        assertSameAsJAXB("<gml:Point " + GML31 + "><gml:pos " + SRS + ">5.0 10.0</gml:pos></gml:Point>");
+        assertSameAsJAXB("<gml:Point " + GML31 + " " + SRS + "><gml:coordinates>5.0,10.0</gml:coordinates></gml:Point>");
+    }
+
+    @Test
+    public void testLineString() throws Exception {
+        assertSameAsJAXB("<gml:LineString " + GML31 + " " + SRS + ">"
+                + "<gml:posList>10.0 10.0 20.0 20.0 30.0 30.0</gml:posList></gml:LineString>");
+        assertSameAsJAXB("<gml:LineString " + GML32 + " " + SRS + " gml:id=\"l1\">"
+                + "<gml:pos>10.0 10.0</gml:pos><gml:pos>20.0 20.0</gml:pos></gml:LineString>");
+    }
+
+    @Test
+    public void testPolygon() throws Exception {
+        assertSameAsJAXB("<gml:Polygon " + GML32 + " " + SRS + " gml:id=\"s1\">"
+                + "<gml:name>polygon</gml:name>"
+                + "<gml:exterior><gml:LinearRing><gml:posList>0 0 10 0 10 10 0 0</gml:posList></gml:LinearRing></gml:exterior>"
+                + "<gml:interior><gml:LinearRing><gml:posList>1 1 2 1 2 2 1 1</gml:posList></gml:LinearRing></gml:interior>"
+                + "</gml:Polygon>");
+    }
+
+    @Test
+    public void testMultiGeometries() throws Exception {
+        assertSameAsJAXB("<gml:MultiPoint " + GML31 + " " + SRS + ">"
+                + "<gml:pointMember><gml:Point><gml:pos>5.0 10.0</gml:pos></gml:Point></gml:pointMember>"
+                + "<gml:pointMember><gml:Point><gml:pos>15.0 20.0</gml:pos></gml:Point></gml:pointMember>"
+                + "</gml:MultiPoint>");
+        assertSameAsJAXB("<gml:MultiCurve " + GML32 + " " + SRS + " gml:id=\"mc1\">"
+                + "<gml:curveMember><gml:LineString " + SRS + " gml:id=\"l1\"><gml:posList>10 10 20 20</gml:posList></gml:LineString></gml:curveMember>"
+                + "<gml:curveMember><gml:LineString " + SRS + " gml:id=\"l2\"><gml:posList>11 11 21 21</gml:posList></gml:LineString></gml:curveMember>"
+                + "</gml:MultiCurve>");
+        assertSameAsJAXB("<gml:MultiSurface " + GML31 + " " + SRS + ">"
+                + "<gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing>"
+                + "<gml:posList>0 0 10 0 10 10 0 0</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>"
+                + "<gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing>"
+                + "<gml:posList>1 1 11 1 11 11 1 1</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>"
+                + "</gml:MultiSurface>");
+    }
+
+    /**
+     * Geometries written on the stream must be read back identical.
+     */
+    @Test
+    public void testWriteRead() throws Exception {
+        final String gml = "<gml:MultiSurface " + GML32 + " " + SRS + ">"
+                + "<gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing>"
+                + "<gml:posList>0 0 10 0 10 10 0 0</gml:posList></gml:LinearRing></gml:exterior>"
+                + "<gml:interior><gml:LinearRing><gml:posList>1 1 2 1 2 2 1 1</gml:posList></gml:LinearRing></gml:interior>"
+                + "</gml:Polygon></gml:surfaceMember></gml:MultiSurface>";
+        final Geometry expected = readStream(gml);
+
+        for (String version : new String[]{"3.1.1", "3.2.1"}) {
+            final String namespace = "3.2.1".equals(version) ? "http://www.opengis.net/gml/3.2" : "http://www.opengis.net/gml";
+            final StringWriter out = new StringWriter();
+            final XMLOutputFactory factory = XMLOutputFactory.newInstance();
+            factory.setProperty(XMLOutputFactory.IS_REPAIRING_NAMESPACES, true);
+            final XMLStreamWriter writer = factory.createXMLStreamWriter(out);
+            final JAXPStreamGeometryWriter geometryWriter = new JAXPStreamGeometryWriter(version, namespace);
+            assertTrue(geometryWriter.write(writer, expected, JTS.findCoordinateReferenceSystem(expected), "id-1"));
+            writer.flush();
+
+            final Geometry result = readStream(out.toString());
+            assertTrue(expected.equalsExact(result));
+            assertTrue(CRS.equalsIgnoreMetadata(JTS.findCoordinateReferenceSystem(expected), JTS.findCoordinateReferenceSystem(result)));
+        }
+    }
+
+    private static void assertSameAsJAXB(final String gml) throws Exception {
+        final Geometry expected = GeometrytoJTS.toJTS(gml);
+        final Geometry result   = readStream(gml);
+        assertEquals(expected.getGeometryType(), result.getGeometryType());
+        assertTrue(expected.equalsExact(result));
+        assertEquals(JTS.findCoordinateReferenceSystem(expected), JTS.findCoordinateReferenceSystem(result));
+    }
+
+    private static Geometry readStream(final String gml) throws Exception {
+        final XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(gml));
+        while (reader.next() != START_ELEMENT);
+        assertTrue(JAXPStreamGeometryReader.isSupported(reader));
+        final Geometry geom = new JAXPStreamGeometryReader().read(reader, true);
+        // reader must be left after the geometry end element
+        assertEquals(END_DOCUMENT, reader.getEventType());
+        return geom;
+    }
+}
@@ -16,19 +16,32 @@
  */
 package org.geotoolkit.processing.chain;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geotoolkit.cql.CQL;
 import org.geotoolkit.factory.FactoryFinder;
+import org.geotoolkit.internal.Threads;
 import org.geotoolkit.filter.function.groovy.GroovyFunctionFactory;
 import org.geotoolkit.filter.function.javascript.JavaScriptFunctionFactory;
 import org.geotoolkit.processing.AbstractProcess;
 import org.geotoolkit.processing.AbstractProcessDescriptor;
+import org.geotoolkit.processing.ProcessListenerAdapter;
 import org.geotoolkit.process.Process;
+import org.geotoolkit.process.ProcessEvent;
 import org.geotoolkit.process.ProcessDescriptor;
 import org.geotoolkit.process.ProcessException;
 import org.geotoolkit.process.ProcessFinder;
@@ -38,6 +51,7 @@ import org.geotoolkit.processing.chain.model.Constant;
 import org.geotoolkit.processing.chain.model.DataLink;
 import org.geotoolkit.processing.chain.model.Element;
 import org.geotoolkit.processing.chain.model.ElementCondition;
+import org.apache.sis.util.ArgumentChecks;
 import org.apache.sis.util.ObjectConverters;
 import org.apache.sis.util.UnconvertibleObjectException;
 import org.apache.sis.util.ObjectConverter;
@@ -58,8 +72,25 @@ public class ChainProcess extends AbstractProcess {
 
     protected static final Logger LOGGER = Logging.getLogger(ChainProcess.class);
 
-    private Process currentProcess;
+    /**
+     * Sub processes currently running.
+     */
+    private final List<Process> running = new CopyOnWriteArrayList<Process>();
+
+    /**
+     * Monitor notified when the process is resumed or canceled.
+     */
+    private final Object pauseLock = new Object();
 
+    /**
+     * Number of completed elements, used for progress.
+     */
+    private final AtomicInteger completed = new AtomicInteger();
+
+    /**
+     * Maximum number of elements executed at the same time.
+     */
+    private volatile int maxConcurrency = 1;
 
     public ChainProcess(final ChainProcessDescriptor desc, final ParameterValueGroup input) {
         super(desc, input);
@@ -73,6 +104,26 @@ public class ChainProcess extends AbstractProcess {
         return (ChainProcessDescriptor)super.getDescriptor();
     }
 
+    /**
+     * @return maximum number of chain elements executed at the same time.
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Set the maximum number of chain elements executed at the same time.
+     * Elements of a same rank do not depend on each other and can run concurrently
+     * when this value is greater than 1. Default value is 1, elements are executed
+     * one after another in the calling thread.
+     *
+     * @param maxConcurrency maximum number of concurrent elements, strictly positive.
+     */
+    public void setMaxConcurrency(final int maxConcurrency) {
+        ArgumentChecks.ensureStrictlyPositive("maxConcurrency", maxConcurrency);
+        this.maxConcurrency = maxConcurrency;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -83,7 +134,7 @@ public class ChainProcess extends AbstractProcess {
 
         // processing progress
         final float part = 100 / model.getElements().size();
-        int i = 1;
+        completed.set(0);
 
         final Collection<FlowNode> nodes = Flow.createFlow(model);
         List<List<FlowNode>> ranked = Flow.sortByRank(nodes);
@@ -130,69 +181,48 @@ public class ChainProcess extends AbstractProcess {
         // Will contain all the versions of processes used
         final StringBuilder processVersion = new StringBuilder();
 
-        //run processes in order
-        for (int j = 0; j < ranked.size(); j++) {
-            final List<FlowNode> rank = ranked.get(j);
-
-            for(FlowNode node : rank){
-                final Object obj = node.getObject();
-                if (obj == ElementProcess.BEGIN) {
-                    //copy input params in children nodes
-                    for(DataLink link : model.getInputLinks(Integer.MIN_VALUE)){
-                        final Object value = inputParameters.parameter(link.getSourceCode()).getValue();
-                        setValue(value, configs.get(link.getTargetId()).parameter(link.getTargetCode()));
-                    }
-                } else if (obj == ElementProcess.END) {
-                    // do nothing
-
-                } else if(obj instanceof ElementProcess) {
-                    // handle process cancel
-                    if (isCanceled()) {
-                       throw new ProcessException("Process Canceled by user", this, null);
-                    }
-                    // handle process pause
-                    if (isPaused()) {
-                        fireProcessPaused(descriptor.getIdentifier().getCode() + " paused", i * part);
-                        while (isPaused()) {
-                            try {
-                                Thread.sleep(1000);
-                            } catch (InterruptedException ex) {
-                                LOGGER.log(Level.WARNING, "Interruption while process is in pause", ex);
-                            }
+        final ExecutorService executor = (maxConcurrency > 1) ?
+                Executors.newFixedThreadPool(maxConcurrency, Threads.createThreadFactory("Chain element #")) : null;
+        try {
+            //run processes in order
+            for (int j = 0; j < ranked.size(); j++) {
+                final List<FlowNode> rank = ranked.get(j);
+                final List<ElementProcess> elements = new ArrayList<ElementProcess>();
+                final List<ElementCondition> conditions = new ArrayList<ElementCondition>();
+
+                for(FlowNode node : rank){
+                    final Object obj = node.getObject();
+                    if (obj == ElementProcess.BEGIN) {
+                        //copy input params in children nodes
+                        for(DataLink link : model.getInputLinks(Integer.MIN_VALUE)){
+                            final Object value = inputParameters.parameter(link.getSourceCode()).getValue();
+                            setValue(value, configs.get(link.getTargetId()).parameter(link.getTargetCode()));
                         }
-                        fireProcessResumed(descriptor.getIdentifier().getCode() + " resumed", i * part);
-                    }
+                    } else if (obj == ElementProcess.END) {
+                        // do nothing
 
-                    //execute process
-                    final ElementProcess element = (ElementProcess) obj;
-                    final ParameterValueGroup config = configs.get(element.getId());
-                    final ProcessDescriptor pdesc;
-                    try {
-                        pdesc = getProcessDescriptor(element);
-                    } catch (NoSuchIdentifierException ex) {
-                        throw new ProcessException("Sub process not found", this, ex);
+                    } else if(obj instanceof ElementProcess) {
+                        elements.add((ElementProcess) obj);
+                    } else if (obj instanceof ElementCondition) {
+                        conditions.add((ElementCondition) obj);
                     }
-                    currentProcess = pdesc.createProcess(config);
+                }
 
-                    final String processId = pdesc.getIdentifier().getCode();
-                    // Fill process version with values coming from the current process.
-                    if (processVersion.length() > 0) {
-                        processVersion.append(", ");
+                //elements of a same rank do not depend on each other
+                if (executor == null || elements.size() < 2) {
+                    for (ElementProcess element : elements) {
+                        final Process process = startElement(element, configs, processVersion, part);
+                        try {
+                            endElement(element, process.call(), model, configs, part);
+                        } finally {
+                            running.remove(process);
+                        }
                     }
-                    processVersion.append(processId).append(" ")
-                            .append(((AbstractProcessDescriptor)currentProcess.getDescriptor()).getVersion());
-
-                    final ParameterValueGroup result = currentProcess.call();
-                    fireProgressing(pdesc.getIdentifier().getCode() + " completed", i * part, false);
-                    i++;
+                } else {
+                    executeConcurrently(executor, elements, model, configs, processVersion, part);
+                }
 
-                    //set result in children
-                    for(DataLink link : model.getInputLinks(element.getId())){
-                        final Object value = result.parameter(link.getSourceCode()).getValue();
-                        setValue(value, configs.get(link.getTargetId()).parameter(link.getTargetCode()));
-                    }
-                } else if (obj instanceof ElementCondition) {
-                    final ElementCondition condition = (ElementCondition) obj;
+                for (ElementCondition condition : conditions) {
                     final Boolean result = executeConditionalElement(condition, configs.get(condition.getId()));
 
                     final Chain updateModel = new Chain(model);
@@ -204,8 +234,152 @@ public class ChainProcess extends AbstractProcess {
                     ranked = Flow.sortByRank(Flow.createFlow(updateModel));
                 }
             }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+
+    }
+
+    /**
+     * Run the given elements on the executor, at most {@link #maxConcurrency} at a time.
+     * Results are copied in the children configurations by the calling thread,
+     * as soon as each element completes.
+     */
+    private void executeConcurrently(final ExecutorService executor, final List<ElementProcess> elements,
+            final Chain model, final Map<Integer, ParameterValueGroup> configs,
+            final StringBuilder processVersion, final float part) throws ProcessException {
+
+        final CompletionService<ParameterValueGroup> service = new ExecutorCompletionService<ParameterValueGroup>(executor);
+        final Map<Future<ParameterValueGroup>,ElementProcess> submitted = new HashMap<Future<ParameterValueGroup>,ElementProcess>();
+        final Map<Future<ParameterValueGroup>,Process> processes = new HashMap<Future<ParameterValueGroup>,Process>();
+
+        try {
+            for (final ElementProcess element : elements) {
+                if (submitted.size() >= maxConcurrency) {
+                    collect(service.take(), submitted, processes, model, configs, part);
+                }
+                final Process process = startElement(element, configs, processVersion, part);
+                final Future<ParameterValueGroup> future = service.submit(new Callable<ParameterValueGroup>() {
+                    @Override
+                    public ParameterValueGroup call() throws ProcessException {
+                        return process.call();
+                    }
+                });
+                submitted.put(future, element);
+                processes.put(future, process);
+            }
+            while (!submitted.isEmpty()) {
+                collect(service.take(), submitted, processes, model, configs, part);
+            }
+        } catch (InterruptedException ex) {
+            throw new ProcessException("Interruption while waiting for chain elements", this, ex);
+        } finally {
+            //stop remaining elements if one of them failed
+            for (Map.Entry<Future<ParameterValueGroup>,Process> entry : processes.entrySet()) {
+                final Process process = entry.getValue();
+                if (process instanceof AbstractProcess) {
+                    ((AbstractProcess) process).cancelProcess();
+                }
+                entry.getKey().cancel(true);
+                running.remove(process);
+            }
         }
+    }
 
+    private void collect(final Future<ParameterValueGroup> future,
+            final Map<Future<ParameterValueGroup>,ElementProcess> submitted,
+            final Map<Future<ParameterValueGroup>,Process> processes,
+            final Chain model, final Map<Integer, ParameterValueGroup> configs, final float part)
+            throws ProcessException, InterruptedException {
+        final ElementProcess element = submitted.remove(future);
+        running.remove(processes.remove(future));
+        final ParameterValueGroup result;
+        try {
+            result = future.get();
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof ProcessException) {
+                throw (ProcessException) cause;
+            }
+            throw new ProcessException("Sub process "+element.getAuthority()+"."+element.getCode()+" failed.", this, cause);
+        }
+        endElement(element, result, model, configs, part);
+    }
+
+    /**
+     * Check cancel and pause state, then create the process for the given element.
+     */
+    private Process startElement(final ElementProcess element, final Map<Integer, ParameterValueGroup> configs,
+            final StringBuilder processVersion, final float part) throws ProcessException {
+        // handle process cancel
+        if (isCanceled()) {
+           throw new ProcessException("Process Canceled by user", this, null);
+        }
+        // handle process pause
+        if (isPaused()) {
+            fireProcessPaused(descriptor.getIdentifier().getCode() + " paused", completed.get() * part);
+            synchronized (pauseLock) {
+                while (isPaused() && !isCanceled()) {
+                    try {
+                        pauseLock.wait();
+                    } catch (InterruptedException ex) {
+                        LOGGER.log(Level.WARNING, "Interruption while process is in pause", ex);
+                    }
+                }
+            }
+            if (isCanceled()) {
+               throw new ProcessException("Process Canceled by user", this, null);
+            }
+            fireProcessResumed(descriptor.getIdentifier().getCode() + " resumed", completed.get() * part);
+        }
+
+        final ParameterValueGroup config = configs.get(element.getId());
+        final ProcessDescriptor pdesc;
+        try {
+            pdesc = getProcessDescriptor(element);
+        } catch (NoSuchIdentifierException ex) {
+            throw new ProcessException("Sub process not found", this, ex);
+        }
+        final Process process = pdesc.createProcess(config);
+
+        final String processId = pdesc.getIdentifier().getCode();
+        // Fill process version with values coming from the current process.
+        if (processVersion.length() > 0) {
+            processVersion.append(", ");
+        }
+        processVersion.append(processId).append(" ")
+                .append(((AbstractProcessDescriptor)process.getDescriptor()).getVersion());
+
+        // forward element progress, scaled to this element part of the chain
+        process.addListener(new ProcessListenerAdapter() {
+            @Override
+            public void progressing(final ProcessEvent event) {
+                final float progress = event.getProgress();
+                if (!Float.isNaN(progress)) {
+                    fireProgressing(processId + " : " + event.getTask(),
+                            (completed.get() + progress / 100) * part, false);
+                }
+            }
+        });
+        running.add(process);
+        return process;
+    }
+
+    /**
+     * Notify the element completion and copy its result in children configurations.
+     */
+    private void endElement(final ElementProcess element, final ParameterValueGroup result, final Chain model,
+            final Map<Integer, ParameterValueGroup> configs, final float part) {
+        final int done = completed.incrementAndGet();
+        fireProgressing(element.getCode() + " completed", done * part, false);
+
+        //set result in children
+        for(DataLink link : model.getInputLinks(element.getId())){
+            final Object value = result.parameter(link.getSourceCode()).getValue();
+            setValue(value, configs.get(link.getTargetId()).parameter(link.getTargetCode()));
+        }
     }
 
     private boolean executeConditionalElement(final ElementCondition condition, final ParameterValueGroup inputs) throws ProcessException {
@@ -283,8 +457,21 @@ public class ChainProcess extends AbstractProcess {
     @Override
     public void cancelProcess() {
         super.cancelProcess();
-        if (currentProcess instanceof AbstractProcess) {
-            ((AbstractProcess)currentProcess).cancelProcess();
+        for (Process process : running) {
+            if (process instanceof AbstractProcess) {
+                ((AbstractProcess)process).cancelProcess();
+            }
+        }
+        synchronized (pauseLock) {
+            pauseLock.notifyAll();
+        }
+    }
+
+    @Override
+    public void resumeProcess() {
+        super.resumeProcess();
+        synchronized (pauseLock) {
+            pauseLock.notifyAll();
         }
     }
 
@@ -236,6 +236,8 @@ public class CopyCoverageStoreProcess extends AbstractProcess {
                             break;
                         }else if(obj == null){
                             continue;
+                        }else if(obj instanceof Exception){
+                            throw new DataStoreException("Failed to fetch mosaic tiles.", (Exception)obj);
                         }
                         final TileReference inTR = (TileReference) obj;
                         final int x = inTR.getPosition().x;
@@ -20,8 +20,17 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import javax.xml.bind.JAXBException;
 import org.geotoolkit.process.ProcessDescriptor;
+import org.geotoolkit.process.ProcessEvent;
 import org.geotoolkit.process.Process;
 import org.geotoolkit.process.ProcessException;
 import org.geotoolkit.processing.chain.model.Chain;
@@ -30,6 +39,8 @@ import org.geotoolkit.processing.chain.model.Constant;
 import org.geotoolkit.processing.chain.model.ElementCondition;
 import org.geotoolkit.processing.chain.model.FlowLink;
 import org.geotoolkit.processing.chain.model.Parameter;
+import org.geotoolkit.processing.ProcessListenerAdapter;
+import org.junit.After;
 import org.junit.Test;
 import static org.junit.Assert.*;
 import static org.geotoolkit.processing.chain.model.Element.*;
@@ -112,6 +123,125 @@ public class ChainProcessTest {
         return chain;
     }
     
+    private Chain createParallelChain(){        
+        //produce a chain equivalent to :  ($a + 10) / ($b * 10)
+        final Chain chain = new Chain("parallelChain");
+        int id = 1;
+        
+        //input/out/constants parameters
+        final Parameter a = chain.addInputParameter("a", Double.class, "desc",1,1,null);
+        final Parameter b = chain.addInputParameter("b", Double.class, "desc",1,1,null);   
+        final Parameter r = chain.addOutputParameter("r", Double.class, "desc",1,1,null);       
+        final Constant c = chain.addConstant(id++, Double.class, 10d);        
+        
+        //chain blocks, add and multiply are independent
+        final ElementProcess add = chain.addProcessElement(id++, "demo", "add");
+        final ElementProcess multi = chain.addProcessElement(id++, "demo", "multiply");
+        final ElementProcess divide = chain.addProcessElement(id++, "demo", "divide");        
+        
+        //execution flow links
+        chain.addFlowLink(BEGIN.getId(), add.getId());
+        chain.addFlowLink(BEGIN.getId(), multi.getId());
+        chain.addFlowLink(add.getId(), divide.getId());
+        chain.addFlowLink(multi.getId(), divide.getId());
+        chain.addFlowLink(divide.getId(), END.getId());
+        
+        //data flow links
+        chain.addDataLink(BEGIN.getId(), a.getCode(), add.getId(), "first");
+        chain.addDataLink(c.getId(), "", add.getId(), "second");
+        chain.addDataLink(BEGIN.getId(), b.getCode(), multi.getId(), "first");
+        chain.addDataLink(c.getId(), "", multi.getId(), "second");
+        chain.addDataLink(add.getId(), "result", divide.getId(), "first");
+        chain.addDataLink(multi.getId(), "result", divide.getId(), "second");
+        chain.addDataLink(divide.getId(), "result", END.getId(), r.getCode());
+        
+        return chain;
+    }
+    
+    private Chain createWaitChain(){
+        //produce a chain equivalent to :  wait($a) + wait($b)
+        final Chain chain = new Chain("waitChain");
+        int id = 1;
+
+        final Parameter a = chain.addInputParameter("a", Double.class, "desc",1,1,null);
+        final Parameter b = chain.addInputParameter("b", Double.class, "desc",1,1,null);
+        final Parameter r = chain.addOutputParameter("r", Double.class, "desc",1,1,null);
+
+        //wait1 and wait2 are independent
+        final ElementProcess wait1 = chain.addProcessElement(id++, "demo", "wait");
+        final ElementProcess wait2 = chain.addProcessElement(id++, "demo", "wait");
+        final ElementProcess add = chain.addProcessElement(id++, "demo", "add");
+
+        chain.addFlowLink(BEGIN.getId(), wait1.getId());
+        chain.addFlowLink(BEGIN.getId(), wait2.getId());
+        chain.addFlowLink(wait1.getId(), add.getId());
+        chain.addFlowLink(wait2.getId(), add.getId());
+        chain.addFlowLink(add.getId(), END.getId());
+
+        chain.addDataLink(BEGIN.getId(), a.getCode(), wait1.getId(), "value");
+        chain.addDataLink(BEGIN.getId(), b.getCode(), wait2.getId(), "value");
+        chain.addDataLink(wait1.getId(), "result", add.getId(), "first");
+        chain.addDataLink(wait2.getId(), "result", add.getId(), "second");
+        chain.addDataLink(add.getId(), "result", END.getId(), r.getCode());
+
+        return chain;
+    }
+
+    private Chain createSequenceChain(){
+        //produce a chain equivalent to :  wait(wait(wait($a)))
+        final Chain chain = new Chain("sequenceChain");
+        int id = 1;
+
+        final Parameter a = chain.addInputParameter("a", Double.class, "desc",1,1,null);
+        final Parameter r = chain.addOutputParameter("r", Double.class, "desc",1,1,null);
+
+        int previous = BEGIN.getId();
+        String previousCode = a.getCode();
+        for(int i=0;i<3;i++){
+            final ElementProcess wait = chain.addProcessElement(id++, "demo", "wait");
+            chain.addFlowLink(previous, wait.getId());
+            chain.addDataLink(previous, previousCode, wait.getId(), "value");
+            previous = wait.getId();
+            previousCode = "result";
+        }
+        chain.addFlowLink(previous, END.getId());
+        chain.addDataLink(previous, previousCode, END.getId(), r.getCode());
+
+        return chain;
+    }
+
+    private static ChainProcess createProcess(final Chain chain, final double a, final Double b){
+        final Set<MockProcessRegistry> registries = Collections.singleton(new MockProcessRegistry());
+        final ProcessDescriptor desc = new ChainProcessDescriptor(chain, MockProcessRegistry.IDENTIFICATION, registries);
+        final ParameterValueGroup input = desc.getInputDescriptor().createValue();
+        input.parameter("a").setValue(a);
+        if(b != null){
+            input.parameter("b").setValue(b);
+        }
+        return (ChainProcess) desc.createProcess(input);
+    }
+
+    private static Future<ParameterValueGroup> submit(final ExecutorService executor, final ChainProcess process){
+        return executor.submit(new Callable<ParameterValueGroup>() {
+            @Override
+            public ParameterValueGroup call() throws ProcessException {
+                return process.call();
+            }
+        });
+    }
+
+    private static void waitStarted(final int nb) throws InterruptedException{
+        for(int i=0; i<500 && MockWaitDescriptor.STARTED.get()<nb; i++){
+            Thread.sleep(20);
+        }
+        assertEquals(nb, MockWaitDescriptor.STARTED.get());
+    }
+
+    @After
+    public void resetWait(){
+        MockWaitDescriptor.reset();
+    }
+
     @Test
     public void testSimpleChain() throws ProcessException{
         
@@ -230,4 +360,122 @@ public class ChainProcessTest {
         
     }
     
+    @Test
+    public void testParallelChain() throws ProcessException{
+        
+        final Chain chain = createParallelChain();
+        
+        //process registries to use
+        final Set<MockProcessRegistry> registries = Collections.singleton(new MockProcessRegistry());
+        
+        //create a process descriptor to use it like any process.
+        final ProcessDescriptor desc = new ChainProcessDescriptor(chain, MockProcessRegistry.IDENTIFICATION, registries);
+        
+        //input params 
+        final ParameterValueGroup input = desc.getInputDescriptor().createValue();
+        input.parameter("a").setValue(15d);
+        input.parameter("b").setValue(2d);
+        
+        final ChainProcess process = (ChainProcess) desc.createProcess(input);
+        process.setMaxConcurrency(4);
+        final ParameterValueGroup result = process.call();
+        
+        assertEquals(1.25d, result.parameter("r").doubleValue(),0.000001);
+        
+    }
+    
+    /**
+     * Independent elements must run at the same time : each one waits
+     * on a barrier the other one must reach.
+     */
+    @Test
+    public void testParallelOverlap() throws ProcessException{
+        MockWaitDescriptor.barrier = new CyclicBarrier(2);
+        final ChainProcess process = createProcess(createWaitChain(), 15d, 2d);
+        process.setMaxConcurrency(2);
+        final ParameterValueGroup result = process.call();
+
+        assertEquals(17d, result.parameter("r").doubleValue(),0.000001);
+        assertEquals(2, MockWaitDescriptor.STARTED.get());
+    }
+
+    /**
+     * Cancel must stop the running element and the pending ones must never start.
+     */
+    @Test
+    public void testCancel() throws Exception{
+        MockWaitDescriptor.release = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try{
+            //sequential chain, only the first element is running
+            ChainProcess process = createProcess(createSequenceChain(), 15d, null);
+            Future<ParameterValueGroup> future = submit(executor, process);
+            waitStarted(1);
+            process.cancelProcess();
+            try{
+                future.get(10, TimeUnit.SECONDS);
+                fail("Canceled chain must fail.");
+            }catch(ExecutionException ex){
+                assertTrue(ex.getCause() instanceof ProcessException);
+            }
+            Thread.sleep(100);
+            assertEquals("Pending elements must not start.", 1, MockWaitDescriptor.STARTED.get());
+
+            //concurrent elements, all running elements are canceled
+            MockWaitDescriptor.STARTED.set(0);
+            process = createProcess(createWaitChain(), 15d, 2d);
+            process.setMaxConcurrency(2);
+            future = submit(executor, process);
+            waitStarted(2);
+            process.cancelProcess();
+            try{
+                future.get(10, TimeUnit.SECONDS);
+                fail("Canceled chain must fail.");
+            }catch(ExecutionException ex){
+                assertTrue(ex.getCause() instanceof ProcessException);
+            }
+        }finally{
+            MockWaitDescriptor.release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * A paused chain must not start any element until resumed.
+     */
+    @Test
+    public void testPauseResume() throws Exception{
+        final ChainProcess process = createProcess(createSequenceChain(), 15d, null);
+        final CountDownLatch paused = new CountDownLatch(1);
+        final CountDownLatch resumed = new CountDownLatch(1);
+        process.addListener(new ProcessListenerAdapter() {
+            @Override
+            public void paused(final ProcessEvent event) {
+                paused.countDown();
+            }
+            @Override
+            public void resumed(final ProcessEvent event) {
+                resumed.countDown();
+            }
+        });
+        process.pauseProcess();
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try{
+            final Future<ParameterValueGroup> future = submit(executor, process);
+            assertTrue(paused.await(10, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            assertEquals("No element must run while paused.", 0, MockWaitDescriptor.STARTED.get());
+            assertFalse(future.isDone());
+
+            process.resumeProcess();
+            assertTrue(resumed.await(10, TimeUnit.SECONDS));
+            final ParameterValueGroup result = future.get(10, TimeUnit.SECONDS);
+            assertEquals(15d, result.parameter("r").doubleValue(),0.000001);
+            assertEquals(3, MockWaitDescriptor.STARTED.get());
+        }finally{
+            executor.shutdownNow();
+        }
+    }
+
 }
@@ -0,0 +1,114 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2015, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.processing.chain;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.geotoolkit.parameter.DefaultParameterDescriptor;
+import org.geotoolkit.parameter.DefaultParameterDescriptorGroup;
+import org.geotoolkit.processing.AbstractProcess;
+import org.geotoolkit.processing.AbstractProcessDescriptor;
+import org.geotoolkit.process.Process;
+import org.geotoolkit.process.ProcessDescriptor;
+import org.geotoolkit.process.ProcessException;
+import org.apache.sis.util.iso.SimpleInternationalString;
+import org.opengis.parameter.GeneralParameterDescriptor;
+import org.opengis.parameter.ParameterDescriptor;
+import org.opengis.parameter.ParameterDescriptorGroup;
+import org.opengis.parameter.ParameterValueGroup;
+
+/**
+ * Copy its input in its output, after waiting on the barrier and latch set by the test.
+ */
+public class MockWaitDescriptor extends AbstractProcessDescriptor{
+
+    public static final String NAME = "wait";
+
+    public static final ParameterDescriptor<Double> VALUE = new DefaultParameterDescriptor<Double>("value", "", Double.class, null, true);
+    public static final ParameterDescriptorGroup INPUT_DESC =
+            new DefaultParameterDescriptorGroup("InputParameters",
+            new GeneralParameterDescriptor[]{VALUE});
+
+    public static final ParameterDescriptor<Double> RESULT_NUMBER = new DefaultParameterDescriptor<Double>("result", "", Double.class, null, true);
+    public static final ParameterDescriptorGroup OUTPUT_DESC =
+            new DefaultParameterDescriptorGroup("OutputParameters",
+            new GeneralParameterDescriptor[]{RESULT_NUMBER});
+
+    /** Instance */
+    public static final ProcessDescriptor INSTANCE = new MockWaitDescriptor();
+
+    /** Number of started processes. */
+    static final AtomicInteger STARTED = new AtomicInteger();
+
+    /** If not null, all processes must reach this barrier before going on. */
+    static volatile CyclicBarrier barrier;
+
+    /** If not null, processes wait until this latch is released or they are canceled. */
+    static volatile CountDownLatch release;
+
+    private MockWaitDescriptor() {
+        super(NAME, MockProcessRegistry.IDENTIFICATION,
+                new SimpleInternationalString(""),INPUT_DESC, OUTPUT_DESC);
+    }
+
+    static void reset() {
+        STARTED.set(0);
+        barrier = null;
+        release = null;
+    }
+
+    @Override
+    public Process createProcess(final ParameterValueGroup input) {
+        return new WaitProcess(this, input);
+    }
+
+    public class WaitProcess extends AbstractProcess {
+
+        public WaitProcess(final ProcessDescriptor descriptor, final ParameterValueGroup input) {
+            super(descriptor, input);
+        }
+
+        @Override
+        protected void execute() throws ProcessException {
+            STARTED.incrementAndGet();
+            try {
+                final CyclicBarrier b = barrier;
+                if (b != null) {
+                    b.await(10, TimeUnit.SECONDS);
+                }
+                final CountDownLatch r = release;
+                if (r != null) {
+                    while (!r.await(20, TimeUnit.MILLISECONDS)) {
+                        if (isCanceled()) {
+                            throw new ProcessException("Canceled", this, null);
+                        }
+                    }
+                }
+            } catch (Exception ex) {
+                if (ex instanceof ProcessException) {
+                    throw (ProcessException) ex;
+                }
+                throw new ProcessException(ex.getMessage(), this, ex);
+            }
+            final Object value = inputParameters.parameter(VALUE.getName().getCode()).getValue();
+            outputParameters.parameter(RESULT_NUMBER.getName().getCode()).setValue(value);
+        }
+    }
+
+}
@@ -60,6 +60,9 @@ import org.apache.sis.referencing.operation.DefaultOperationMethod;
 import org.apache.sis.internal.referencing.AxisDirections;
 import org.geotoolkit.internal.referencing.OperationContext;
 import org.geotoolkit.internal.referencing.VerticalDatumTypes;
+import org.geotoolkit.internal.metrics.GeotkTimed;
+import org.geotoolkit.internal.metrics.Metrics;
+import org.geotoolkit.internal.metrics.Timer;
 import org.apache.sis.internal.referencing.ReferencingUtilities;
 import org.apache.sis.referencing.CommonCRS;
 import org.apache.sis.referencing.operation.DefaultPassThroughOperation;
@@ -90,6 +93,12 @@ import static org.geotoolkit.factory.Factory.EMPTY_HINTS;
  * @module
  */
 public class DefaultCoordinateOperationFactory extends AbstractCoordinateOperationFactory {
+    /**
+     * Time spent in {@link #createOperation(CoordinateReferenceSystem, CoordinateReferenceSystem)},
+     * nested calls are not recorded.
+     */
+    private static final Timer CREATE_TIMER = Metrics.timer("referencing.operation.create");
+
     /**
      * The operation to use by {@link #createTransformationStep(GeographicCRS,GeographicCRS)} for
      * datum shift. This string can have one of the following values:
@@ -171,6 +180,7 @@ public class DefaultCoordinateOperationFactory extends AbstractCoordinateOperati
      * @throws FactoryException if the operation creation failed for some other reason.
      */
     @Override
+    @GeotkTimed("referencing.operation.create")
     public CoordinateOperation createOperation(final CoordinateReferenceSystem sourceCRS,
                                                final CoordinateReferenceSystem targetCRS)
             throws OperationNotFoundException, FactoryException
@@ -181,6 +191,7 @@ public class DefaultCoordinateOperationFactory extends AbstractCoordinateOperati
         if (areaOfInterest != null) {
             return createOperation(sourceCRS, targetCRS, areaOfInterest);
         }
+        final long start = CREATE_TIMER.start();
         areaOfInterest = Extents.intersection(
                 CRS.getGeographicBoundingBox(sourceCRS),
                 CRS.getGeographicBoundingBox(targetCRS));
@@ -189,6 +200,7 @@ public class DefaultCoordinateOperationFactory extends AbstractCoordinateOperati
             return createOperation(sourceCRS, targetCRS, areaOfInterest);
         } finally {
             OperationContext.clear();
+            CREATE_TIMER.stop(start);
         }
     }
 
@@ -26,6 +26,13 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.Locale;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
 import java.nio.ByteOrder;
 import java.nio.ByteBuffer;
@@ -79,6 +86,7 @@ import org.geotoolkit.image.io.UnsupportedImageFormatException;
 import org.geotoolkit.image.io.metadata.SpatialMetadata;
 import org.geotoolkit.image.color.ScaledColorSpace;
 import org.geotoolkit.internal.image.io.DimensionAccessor;
+import org.geotoolkit.internal.Threads;
 import org.geotoolkit.internal.image.io.SupportFiles;
 import org.geotoolkit.internal.io.IOUtilities;
 import org.geotoolkit.io.wkt.PrjFiles;
@@ -108,8 +116,9 @@ import org.opengis.referencing.crs.CoordinateReferenceSystem;
  * <ul>
  *   <li>Can read only from files as a {@link File} or {@link String} input objects
  *       (the standard {@link javax.imageio.stream.ImageInputStream} is not supported).</li>
- *   <li>Can read only uncompressed (RAW) images
- *       (the JPEG and LZW compressions are not supported).</li>
+ *   <li>Can read only uncompressed (RAW), PackBits, LZW and Deflate compressed images
+ *       (the JPEG compression is not supported). Deflate compressed tiles or strips
+ *       are decoded concurrently.</li>
  *   <li>Can read only tiled images (this restriction may be removed in a future version).</li>
  *   <li>Color model must be RGB (this restriction may be removed in a future version).</li>
  *   <li>Components are stored in "chunky" format, not planar (this restriction may be removed
@@ -261,6 +270,11 @@ public class TiffImageReader extends SpatialImageReader {
      */
     private long[] tileOffsets;
 
+    /**
+     * The length in bytes of each tiles in the current image, or {@code null} if unknown.
+     */
+    private long[] tileByteCounts;
+
     /**
      * The cached return value of {@link #getRawDataType(int)} for the current image.
      */
@@ -974,6 +988,7 @@ public class TiffImageReader extends SpatialImageReader {
         currentImage   = -1;
         bitsPerSample  = null;
         tileOffsets    = null;
+        tileByteCounts = null;
         rawImageType   = null;
         if (imageStream != null) {
             // If given input was a stream or an ImageInputStream, it's the owner of the stream who should close it.
@@ -1001,6 +1016,7 @@ public class TiffImageReader extends SpatialImageReader {
         countIFD       = 0;
         bitsPerSample  = null;
         tileOffsets    = null;
+        tileByteCounts = null;
         rawImageType   = null;
         buffer       = ByteBuffer.allocate(8196);
         positionIFD  = new long[4];
@@ -1078,6 +1094,7 @@ public class TiffImageReader extends SpatialImageReader {
                     samplesPerPixel =  0;
                     bitsPerSample   = null;
                     tileOffsets     = null;
+                    tileByteCounts  = null;
                     rawImageType    = null;
 
                     headProperties  = metaHeads[layerIndex];
@@ -1164,6 +1181,8 @@ public class TiffImageReader extends SpatialImageReader {
                         tileWidth   = (int) ((twObj == null) ? -1 : ((long[]) twObj.get(ATT_VALUE))[0]);
                         tileHeight  = (int) ((thObj == null) ? -1 : ((long[]) thObj.get(ATT_VALUE))[0]);
                         if (toObj  != null)  tileOffsets = (long[]) toObj.get(ATT_VALUE);
+                        final Map<String, Object> tbcObj = headProperties.get(TileByteCounts);
+                        tileByteCounts = (tbcObj != null) ? (long[]) tbcObj.get(ATT_VALUE) : null;
 
                         ensureDefined(tileWidth,   "tileWidth");
                         ensureDefined(tileHeight,  "tileHeight");
@@ -1453,7 +1472,10 @@ public class TiffImageReader extends SpatialImageReader {
             case Compression: { //-- Compression.
                 assert count == 1 : "with tiff compression tag, count should be equal 1.";
                 compression = (int) (imageStream.readShort() & 0xFFFF);
-                if (compression != 1 && compression != 32773 && compression != 5) { // '1' stands for "uncompressed". // '32 773' stands for packbits compression
+                // '1' stands for "uncompressed". // '32 773' stands for packbits compression
+                // '8' and '32 946' stand for Deflate and Adobe Deflate compression
+                if (compression != 1 && compression != 32773 && compression != 5
+                 && compression != 8 && compression != 32946) {
                     final Object nameCompress;
                     switch (compression) {
                         case 6:  nameCompress = "JPEG";      break;
@@ -1921,6 +1943,9 @@ public class TiffImageReader extends SpatialImageReader {
                 assert tileOffsets != null;
                 readFromTilesLZW(image.getRaster(), param, srcRegion, dstRegion);
             }
+        } else if (compression == 8 || compression == 32946) {
+            //-- strips and tiles are decoded the same way
+            readFromBlocksDeflate(image.getRaster(), param, srcRegion, dstRegion);
         } else {
             //-- by strips
             if (stripOffsets != null) {
@@ -3307,6 +3332,441 @@ public class TiffImageReader extends SpatialImageReader {
         }
     }
 
+    /**
+     * Processes to the image reading, and stores the pixels in the given raster.<br/>
+     * Method adapted to read data from Deflate (tag value 8) or Adobe Deflate (tag value 32946) compression,
+     * from strips or tiles. Strips are handled as tiles covering the whole image width.<br/>
+     * Compressed blocks are read sequentially from the stream, then inflated and copied into the raster
+     * concurrently, each block writing a distinct area of the raster.<br/>
+     * An abort request is checked before each block, pending decodings are then cancelled.
+     *
+     * @param  raster    The raster where to store the pixel values.
+     * @param  param     Parameters used to control the reading process, or {@code null}.
+     * @param  srcRegion The region to read in source image.
+     * @param  dstRegion The region to write in the given raster.
+     * @throws IOException If an error occurred while reading the image.
+     */
+    private void readFromBlocksDeflate(final WritableRaster raster, final ImageReadParam param,
+            final Rectangle srcRegion, final Rectangle dstRegion) throws IOException
+    {
+        clearAbortRequest();
+        final int numBands = raster.getNumBands();
+        checkReadParamBandSettings(param, samplesPerPixel, numBands);
+        final int[]      sourceBands;
+        final int[] destinationBands;
+        final int sourceXSubsampling;
+        final int sourceYSubsampling;
+        if (param != null) {
+            sourceBands        = param.getSourceBands();
+            destinationBands   = param.getDestinationBands();
+            sourceXSubsampling = param.getSourceXSubsampling();
+            sourceYSubsampling = param.getSourceYSubsampling();
+        } else {
+            sourceBands        = null;
+            destinationBands   = null;
+            sourceXSubsampling = 1;
+            sourceYSubsampling = 1;
+        }
+        if (sourceBands != null || destinationBands != null) {
+            throw new IIOException("Source and target bands not yet supported.");
+        }
+        final DataBuffer dataBuffer    = raster.getDataBuffer();
+        final int[] bankOffsets        = dataBuffer.getOffsets();
+        final int dataType             = dataBuffer.getDataType();
+        final int targetScanlineStride = SampleModels.getScanlineStride(raster.getSampleModel());
+
+        //-- sample size --//
+        final long bitpersampl = bitsPerSample[0];
+        if (bitpersampl != DataBuffer.getDataTypeSize(dataType)) {
+            throw new UnsupportedImageFormatException(error(Errors.Keys.ILLEGAL_PARAMETER_VALUE_2,
+                    "bitsPerSample", bitpersampl));
+        }
+        final int sampleSize = (int) (bitpersampl / Byte.SIZE);
+
+        //-- planar configuration --//
+        final Map<String, Object> planarConfig = headProperties.get(PlanarConfiguration);
+        short pC = 1;
+        /*
+         * If samples per pixel = 1, planar configuration has no impact.
+         */
+        if (planarConfig != null && samplesPerPixel > 1) {
+            pC = ((short[]) planarConfig.get(ATT_VALUE)) [0];
+        }
+        final int pixelLength = (pC == 1) ? samplesPerPixel : 1;
+
+        //-- predictor study ---//
+        final Map<String, Object> predictor = (headProperties.get(Predictor));
+        final short predic    = (predictor != null) ? (short) ((long[]) predictor.get(ATT_VALUE)) [0] : 1;
+        final boolean floatingType = (dataType == DataBuffer.TYPE_FLOAT || dataType == DataBuffer.TYPE_DOUBLE);
+        //-- horizontal differencing is only defined on integer samples, floating point predictor on float samples --//
+        if (predic < 1 || predic > 3 || (predic == 2 && floatingType) || (predic == 3 && !floatingType)) {
+            throw new UnsupportedImageFormatException(error(Errors.Keys.ILLEGAL_PARAMETER_VALUE_2,
+                    "predictor", predic));
+        }
+
+        //-- fillOrder --//
+        final Map<String, Object> fillOrder = headProperties.get(FillOrder);
+        short fO = 1;
+        if (fillOrder != null) {
+            fO = (short) ((long[]) fillOrder.get(ATT_VALUE)) [0];
+        }
+        //-- adapt imageStream in function of fill order value --//
+        final ImageInputStream rasterReader = getImageInputStream(fO == 2);
+
+        //-- strips are tiles which cover all image width --//
+        final boolean tiled = (tileOffsets != null);
+        final long[] blockOffsets    = tiled ? tileOffsets    : stripOffsets;
+        final long[] blockByteCounts = tiled ? tileByteCounts : stripByteCounts;
+        ensureDefined(blockByteCounts, tiled ? "tileByteCounts" : "stripByteCounts");
+        final int blockWidth  = tiled ? tileWidth  : imageWidth;
+        final int blockHeight = tiled ? tileHeight : ((rowsPerStrip <= 0 || rowsPerStrip > imageHeight) ? imageHeight : rowsPerStrip);
+
+        //-- target arrays and region offset for each bank --//
+        final Object[] targetArrays = new Object[bankOffsets.length];
+        final int[] targetRegionOffsets = new int[bankOffsets.length];
+        for (int bank = 0; bank < bankOffsets.length; bank++) {
+            switch (dataType) {
+                case DataBuffer.TYPE_BYTE   : targetArrays[bank] = ((DataBufferByte)   dataBuffer).getData(bank); break;
+                case DataBuffer.TYPE_USHORT : targetArrays[bank] = ((DataBufferUShort) dataBuffer).getData(bank); break;
+                case DataBuffer.TYPE_SHORT  : targetArrays[bank] = ((DataBufferShort)  dataBuffer).getData(bank); break;
+                case DataBuffer.TYPE_INT    : targetArrays[bank] = ((DataBufferInt)    dataBuffer).getData(bank); break;
+                case DataBuffer.TYPE_FLOAT  : targetArrays[bank] = ((DataBufferFloat)  dataBuffer).getData(bank); break;
+                case DataBuffer.TYPE_DOUBLE : targetArrays[bank] = ((DataBufferDouble) dataBuffer).getData(bank); break;
+                default: throw new AssertionError(dataType);
+            }
+            targetRegionOffsets[bank] = bankOffsets[bank] + dstRegion.y * targetScanlineStride + dstRegion.x * samplesPerPixel;
+        }
+
+        final DeflateBlockDecoder decoder = new DeflateBlockDecoder(targetArrays, targetRegionOffsets, targetScanlineStride,
+                dataType, rasterReader.getByteOrder(), sampleSize, samplesPerPixel, pixelLength, predic,
+                blockWidth, blockHeight, imageHeight, srcRegion, sourceXSubsampling, sourceYSubsampling);
+
+        //-- block index from source area --//
+        final int minBlockX = srcRegion.x / blockWidth;
+        final int minBlockY = srcRegion.y / blockHeight;
+        final int maxBlockX = (srcRegion.x + srcRegion.width  + blockWidth  - 1) / blockWidth;
+        final int maxBlockY = (srcRegion.y + srcRegion.height + blockHeight - 1) / blockHeight;
+
+        //-- block number from source image dimension --//
+        final int numXBlock = (imageWidth  + blockWidth  - 1) / blockWidth;
+        final int numYBlock = (imageHeight + blockHeight - 1) / blockHeight;
+
+        /*
+         * The stream is not thread safe, compressed blocks are read by this thread only.
+         * The number of blocks waiting for decoding is bounded to limit memory usage.
+         */
+        final boolean concurrent = (maxBlockX - minBlockX) * (maxBlockY - minBlockY) * (samplesPerPixel / pixelLength) > 1;
+        final ExecutorService executor = Threads.getParallelExecutor();
+        final int maxPending = 2 * Threads.getParallelism();
+        final ArrayDeque<Future<?>> pending = new ArrayDeque<>();
+        try {
+            for (int s = 0; s < samplesPerPixel; s += pixelLength) {
+                final int blockIndexOffset = s * numXBlock * numYBlock;
+                for (int by = minBlockY; by < maxBlockY; by++) {
+                    for (int bx = minBlockX; bx < maxBlockX; bx++) {
+                        if (!decoder.intersects(bx, by)) continue;
+                        if (abortRequested()) {
+                            cancel(pending);
+                            processReadAborted();
+                            return;
+                        }
+                        final int blockIndex = blockIndexOffset + by * numXBlock + bx;
+                        //-- sparse files may omit empty blocks --//
+                        if (blockByteCounts[blockIndex] == 0) continue;
+
+                        final byte[] compressed = new byte[(int) blockByteCounts[blockIndex]];
+                        rasterReader.seek(blockOffsets[blockIndex]);
+                        rasterReader.readFully(compressed);
+
+                        if (!concurrent) {
+                            decoder.decode(compressed, bx, by, s);
+                            continue;
+                        }
+                        final int fbx = bx, fby = by, fs = s;
+                        pending.add(executor.submit(new Callable<Object>() {
+                            @Override
+                            public Object call() throws IOException {
+                                decoder.decode(compressed, fbx, fby, fs);
+                                return null;
+                            }
+                        }));
+                        if (pending.size() >= maxPending) {
+                            waitFor(pending.poll());
+                        }
+                    }
+                }
+            }
+            while (!pending.isEmpty()) {
+                waitFor(pending.poll());
+            }
+        } finally {
+            //-- only remains on failure --//
+            cancel(pending);
+        }
+    }
+
+    /**
+     * Cancels the block decodings which are not yet done.
+     *
+     * @param pending The block decoding tasks, emptied by this method.
+     */
+    private static void cancel(final ArrayDeque<Future<?>> pending) {
+        Future<?> f;
+        while ((f = pending.poll()) != null) {
+            f.cancel(false);
+        }
+    }
+
+    /**
+     * Waits for the decoding of a block, rethrowing decoding errors.
+     *
+     * @param future The block decoding task.
+     * @throws IOException If the block could not be decoded or if the thread has been interrupted.
+     */
+    private static void waitFor(final Future<?> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while decoding image blocks.");
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof IOException)      throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error)            throw (Error) cause;
+            throw new IIOException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Inflates Deflate compressed blocks (tiles or strips), reverses the predictor and copies
+     * the samples intersecting the source region in the target raster.
+     * Instances are immutable and can be used by many threads, each block writing
+     * in a distinct area of the target arrays.
+     */
+    private static final class DeflateBlockDecoder {
+
+        private final Object[] targetArrays;
+        private final int[] targetRegionOffsets;
+        private final int targetScanlineStride;
+        private final int dataType;
+        private final ByteOrder byteOrder;
+        private final int sampleSize, samplesPerPixel, pixelLength;
+        private final short predictor;
+        private final int blockWidth, blockHeight, imageHeight;
+        private final int srcMinX, srcMinY, srcMaxX, srcMaxY;
+        private final int sourceXSubsampling, sourceYSubsampling;
+
+        DeflateBlockDecoder(final Object[] targetArrays, final int[] targetRegionOffsets, final int targetScanlineStride,
+                final int dataType, final ByteOrder byteOrder, final int sampleSize, final int samplesPerPixel,
+                final int pixelLength, final short predictor, final int blockWidth, final int blockHeight,
+                final int imageHeight, final Rectangle srcRegion, final int sourceXSubsampling, final int sourceYSubsampling) {
+            this.targetArrays         = targetArrays;
+            this.targetRegionOffsets  = targetRegionOffsets;
+            this.targetScanlineStride = targetScanlineStride;
+            this.dataType             = dataType;
+            this.byteOrder            = byteOrder;
+            this.sampleSize           = sampleSize;
+            this.samplesPerPixel      = samplesPerPixel;
+            this.pixelLength          = pixelLength;
+            this.predictor            = predictor;
+            this.blockWidth           = blockWidth;
+            this.blockHeight          = blockHeight;
+            this.imageHeight          = imageHeight;
+            this.srcMinX              = srcRegion.x;
+            this.srcMinY              = srcRegion.y;
+            this.srcMaxX              = srcRegion.x + srcRegion.width;
+            this.srcMaxY              = srcRegion.y + srcRegion.height;
+            this.sourceXSubsampling   = sourceXSubsampling;
+            this.sourceYSubsampling   = sourceYSubsampling;
+        }
+
+        /**
+         * Returns the first column or row at or after {@code min} which is read with the given subsampling.
+         */
+        private static int firstSubsampled(final int min, final int regionMin, final int subsampling) {
+            final int r = (min - regionMin) % subsampling;
+            return (r == 0) ? min : min + subsampling - r;
+        }
+
+        /**
+         * Returns {@code true} if at least one pixel of the given block is read, in function of subsampling.
+         */
+        boolean intersects(final int bx, final int by) {
+            final int minX = Math.max(srcMinX, bx * blockWidth);
+            final int minY = Math.max(srcMinY, by * blockHeight);
+            return firstSubsampled(minX, srcMinX, sourceXSubsampling) < Math.min(srcMaxX, (bx + 1) * blockWidth)
+                && firstSubsampled(minY, srcMinY, sourceYSubsampling) < Math.min(srcMaxY, (by + 1) * blockHeight);
+        }
+
+        /**
+         * Decodes a block and copies its samples in the target raster.
+         *
+         * @param compressed Deflate compressed block bytes.
+         * @param bx block column index.
+         * @param by block row index.
+         * @param s  first sample (band) stored in this block.
+         * @throws IOException If the compressed data are invalid.
+         */
+        void decode(final byte[] compressed, final int bx, final int by, final int s) throws IOException {
+            final int blockMinX = bx * blockWidth;
+            final int blockMinY = by * blockHeight;
+            //-- last strip may be shorter than the others --//
+            final int rows      = Math.min(blockHeight, imageHeight - blockMinY);
+            final int rowLength = blockWidth * pixelLength;
+
+            final byte[] raw = new byte[rows * rowLength * sampleSize];
+            inflate(compressed, raw);
+
+            //-- floating point predictor stores bytes in big endian order --//
+            if (predictor == 3) {
+                final byte[] row = new byte[rowLength * sampleSize];
+                for (int r = 0; r < raw.length; r += row.length) {
+                    reverseFloatingPointPredictor(raw, r, row);
+                }
+            }
+            final ByteBuffer bb = ByteBuffer.wrap(raw).order(predictor == 3 ? ByteOrder.BIG_ENDIAN : byteOrder);
+            final Object samples;
+            switch (dataType) {
+                case DataBuffer.TYPE_BYTE : {
+                    samples = raw;
+                    break;
+                }
+                case DataBuffer.TYPE_USHORT :
+                case DataBuffer.TYPE_SHORT  : {
+                    final short[] array = new short[raw.length / sampleSize];
+                    bb.asShortBuffer().get(array);
+                    samples = array;
+                    break;
+                }
+                case DataBuffer.TYPE_INT : {
+                    final int[] array = new int[raw.length / sampleSize];
+                    bb.asIntBuffer().get(array);
+                    samples = array;
+                    break;
+                }
+                case DataBuffer.TYPE_FLOAT : {
+                    final float[] array = new float[raw.length / sampleSize];
+                    bb.asFloatBuffer().get(array);
+                    samples = array;
+                    break;
+                }
+                case DataBuffer.TYPE_DOUBLE : {
+                    final double[] array = new double[raw.length / sampleSize];
+                    bb.asDoubleBuffer().get(array);
+                    samples = array;
+                    break;
+                }
+                default: throw new AssertionError(dataType);
+            }
+            if (predictor == 2) {
+                reverseHorizontalDifferencing(samples, rows, rowLength);
+            }
+
+            //-- copy intersection between srcRegion and current block --//
+            final int interMinX = firstSubsampled(Math.max(srcMinX, blockMinX), srcMinX, sourceXSubsampling);
+            final int interMinY = firstSubsampled(Math.max(srcMinY, blockMinY), srcMinY, sourceYSubsampling);
+            final int interMaxX = Math.min(srcMaxX, blockMinX + blockWidth);
+            final int interMaxY = Math.min(srcMaxY, blockMinY + rows);
+            if (interMinX >= interMaxX) return;
+
+            final int targetColOffset = ((interMinX - srcMinX) / sourceXSubsampling) * samplesPerPixel + s;
+            final int sourceColOffset = (interMinX - blockMinX) * pixelLength;
+            final boolean contiguous  = (pixelLength == samplesPerPixel && sourceXSubsampling == 1);
+            final int sourceStep      = sourceXSubsampling * pixelLength;
+
+            for (int bank = 0; bank < targetArrays.length; bank++) {
+                final Object targetArray = targetArrays[bank];
+                for (int srcY = interMinY; srcY < interMaxY; srcY += sourceYSubsampling) {
+                    int targetPos = targetRegionOffsets[bank] + ((srcY - srcMinY) / sourceYSubsampling) * targetScanlineStride + targetColOffset;
+                    int sourcePos = (srcY - blockMinY) * rowLength + sourceColOffset;
+                    if (contiguous) {
+                        System.arraycopy(samples, sourcePos, targetArray, targetPos, (interMaxX - interMinX) * pixelLength);
+                    } else {
+                        for (int srcX = interMinX; srcX < interMaxX; srcX += sourceXSubsampling) {
+                            System.arraycopy(samples, sourcePos, targetArray, targetPos, pixelLength);
+                            sourcePos += sourceStep;
+                            targetPos += samplesPerPixel;
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Inflates the given compressed bytes. If the compressed stream is shorter
+         * than expected, the remaining bytes are left to zero.
+         */
+        private static void inflate(final byte[] compressed, final byte[] raw) throws IOException {
+            final Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(compressed);
+                int n = 0;
+                while (n < raw.length) {
+                    final int r = inflater.inflate(raw, n, raw.length - n);
+                    if (r == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) break;
+                    n += r;
+                }
+            } catch (DataFormatException ex) {
+                throw new IIOException("Invalid Deflate compressed data.", ex);
+            } finally {
+                inflater.end();
+            }
+        }
+
+        /**
+         * Reverses the horizontal differencing (predictor 2) on each row.
+         */
+        private void reverseHorizontalDifferencing(final Object samples, final int rows, final int rowLength) {
+            for (int r = 0, rowStart = 0; r < rows; r++, rowStart += rowLength) {
+                final int rowEnd = rowStart + rowLength;
+                switch (dataType) {
+                    case DataBuffer.TYPE_BYTE : {
+                        final byte[] array = (byte[]) samples;
+                        for (int i = rowStart + pixelLength; i < rowEnd; i++) array[i] += array[i - pixelLength];
+                        break;
+                    }
+                    case DataBuffer.TYPE_USHORT :
+                    case DataBuffer.TYPE_SHORT  : {
+                        final short[] array = (short[]) samples;
+                        for (int i = rowStart + pixelLength; i < rowEnd; i++) array[i] += array[i - pixelLength];
+                        break;
+                    }
+                    case DataBuffer.TYPE_INT : {
+                        final int[] array = (int[]) samples;
+                        for (int i = rowStart + pixelLength; i < rowEnd; i++) array[i] += array[i - pixelLength];
+                        break;
+                    }
+                    default: throw new AssertionError(dataType);
+                }
+            }
+        }
+
+        /**
+         * Reverses the floating point predictor (predictor 3) on the row starting at the given offset.
+         * Bytes are differenced, then stored by significance : all most significant bytes of the row
+         * first, then all second bytes, <i>etc.</i> Samples are restored in big endian order.
+         *
+         * @param raw    decompressed bytes.
+         * @param offset row start in {@code raw}.
+         * @param row    work array of row length.
+         */
+        private void reverseFloatingPointPredictor(final byte[] raw, final int offset, final byte[] row) {
+            final int rowBytes = row.length;
+            final int end = offset + rowBytes;
+            for (int i = offset + pixelLength; i < end; i++) {
+                raw[i] += raw[i - pixelLength];
+            }
+            System.arraycopy(raw, offset, row, 0, rowBytes);
+            final int count = rowBytes / sampleSize;
+            for (int c = 0; c < count; c++) {
+                for (int b = 0; b < sampleSize; b++) {
+                    raw[offset + c * sampleSize + b] = row[b * count + c];
+                }
+            }
+        }
+    }
+
     /**
      * Return an image input stream for data usage.
      * @param reversedReading True if we want the returned stream to inverse byte values at reading. False otherwise.
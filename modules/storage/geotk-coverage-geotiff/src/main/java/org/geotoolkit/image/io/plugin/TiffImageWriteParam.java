@@ -17,7 +17,9 @@
  */
 package org.geotoolkit.image.io.plugin;
 
+import java.util.Arrays;
 import javax.imageio.ImageWriter;
+import org.apache.sis.util.ArgumentChecks;
 import org.geotoolkit.image.io.SpatialImageWriteParam;
 
 /**
@@ -26,16 +28,84 @@ import org.geotoolkit.image.io.SpatialImageWriteParam;
  *
  * /!\ {@linkplain #setSourceBands(int[])} method will have no impact on image writing for now.
  *
+ * <p>With {@code "Deflate"} compression, the {@linkplain #setCompressionQuality(float) compression quality}
+ * gives the Deflate level (1 is the best and slowest compression) and a {@linkplain #setPredictor(int) predictor}
+ * may be applied before compression.</p>
+ *
+ * <p>When {@linkplain #setOverviews(int...) overviews} are defined, reduced resolution images are written
+ * after the full resolution image in a cloud optimized layout : all image file directories first,
+ * then tiles from the smallest overview up to the full resolution image.</p>
+ *
  * @author Remi Marechal (Geomatys).
  */
 public class TiffImageWriteParam extends SpatialImageWriteParam {
 
+    /**
+     * Predictor applied before Deflate compression, 1 for none.
+     */
+    private int predictor = 1;
+
+    /**
+     * Decimation factors of the internal overviews, or {@code null} if none.
+     */
+    private int[] overviews;
+
     public TiffImageWriteParam(ImageWriter writer) {
         super(writer);
         canOffsetTiles      = false;
         canWriteCompressed  = true;
         canWriteProgressive = false;
         canWriteTiles       = true;
-        compressionTypes    = new String[]{"LZW", "PackBits"};
+        compressionTypes    = new String[]{"LZW", "PackBits", "Deflate"};
+    }
+
+    /**
+     * Returns the predictor applied before Deflate compression.
+     *
+     * @return 1 for no predictor, 2 for horizontal differencing or 3 for floating point predictor.
+     */
+    public int getPredictor() {
+        return predictor;
+    }
+
+    /**
+     * Sets the predictor applied before Deflate compression. Predictor is ignored by other compressions.
+     * Horizontal differencing (2) is only supported by integer images, floating point predictor (3)
+     * only by {@code float} and {@code double} images.
+     *
+     * @param predictor 1 for no predictor, 2 for horizontal differencing or 3 for floating point predictor.
+     */
+    public void setPredictor(final int predictor) {
+        ArgumentChecks.ensureBetween("predictor", 1, 3, predictor);
+        this.predictor = predictor;
+    }
+
+    /**
+     * Returns the decimation factors of the internal overviews.
+     *
+     * @return decimation factors in ascending order, or {@code null} if no overview will be written.
+     */
+    public int[] getOverviews() {
+        return (overviews != null) ? overviews.clone() : null;
+    }
+
+    /**
+     * Sets the decimation factors of the internal overviews, for example {@code 2, 4, 8}.
+     * Overviews are obtained by subsampling the full resolution image (nearest neighbour)
+     * and require tiled writing.
+     *
+     * @param factors strictly increasing decimation factors greater than 1, or {@code null} for no overview.
+     */
+    public void setOverviews(final int... factors) {
+        if (factors == null || factors.length == 0) {
+            overviews = null;
+            return;
+        }
+        for (int i = 0; i < factors.length; i++) {
+            if (factors[i] < 2 || (i > 0 && factors[i] <= factors[i-1])) {
+                throw new IllegalArgumentException("Overview factors must be strictly increasing and greater than 1 : "+Arrays.toString(factors));
+            }
+        }
+        overviews = factors.clone();
     }
 }
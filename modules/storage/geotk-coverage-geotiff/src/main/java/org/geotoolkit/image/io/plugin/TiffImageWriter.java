@@ -35,20 +35,28 @@ import java.awt.image.SampleModel;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.lang.reflect.Array;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.Deflater;
 import javax.imageio.IIOException;
 import javax.imageio.IIOImage;
 import javax.imageio.ImageTypeSpecifier;
@@ -65,6 +73,7 @@ import org.geotoolkit.image.io.SpatialImageWriteParam;
 import org.geotoolkit.image.io.SpatialImageWriter;
 import org.geotoolkit.image.io.metadata.SpatialMetadata;
 import org.geotoolkit.image.io.metadata.SpatialMetadataFormat;
+import org.geotoolkit.internal.Threads;
 import org.geotoolkit.metadata.geotiff.GeoTiffConstants;
 import org.geotoolkit.resources.Errors;
 import org.geotoolkit.util.Utilities;
@@ -109,6 +118,13 @@ public class TiffImageWriter extends SpatialImageWriter {
      */
     private final static String packbits = "PackBits";
 
+    /**
+     * String use to determinate Deflate compression type.
+     *
+     * @see TiffImageWriteParam#compressionTypes
+     */
+    private final static String deflate  = "Deflate";
+
     /**
      * Size of data structures in standard TIFF files ({@code SIZE_*}) and in big TIFF files
      * ({@code SIZE_BIG_*}). In standard TIFF, the size of structures for counting the number
@@ -172,6 +188,13 @@ public class TiffImageWriter extends SpatialImageWriter {
      */
     private long offsetTagPosition;
 
+    /**
+     * Position in tiff file reserved to write byte count and offset arrays when they are not contained
+     * in their tags, or -1 to write them after image data.
+     * Only use to write image file directories before image data, see {@link #writeWithOverviews}.
+     */
+    private long reservedArraysPosition = -1;
+
     /*
      * Attributs only use during packbits compression writing.
      */
@@ -220,6 +243,49 @@ public class TiffImageWriter extends SpatialImageWriter {
      */
     private long rowByte32773Pos;
 
+    /*
+     * Attributs only use during Deflate compression writing.
+     */
+    /**
+     * Predictor of current image writing : 1 none, 2 horizontal differencing, 3 floating point.
+     */
+    private short predictor;
+
+    /**
+     * Deflate compression level of current image writing.
+     */
+    private int deflateLevel;
+
+    /**
+     * Samples of the current tile or strip, in {@link #currentBO} order, in attempt to be compressed.
+     */
+    private byte[] deflateBlock;
+
+    /**
+     * Number of bytes currently stored in {@linkplain #deflateBlock}.
+     */
+    private int deflateBlockLength;
+
+    /**
+     * Number of samples in a row of the current tile or strip.
+     */
+    private int deflateRowLength;
+
+    /**
+     * Number of samples per pixel within current tile or strip, 1 for planar configuration 2.
+     */
+    private int deflatePixelLength;
+
+    /**
+     * Tiles or strips being compressed, in the order they must be written.
+     */
+    private final ArrayDeque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+
+    /**
+     * Index in offset and byte count arrays of the first block from {@linkplain #pendingBlocks}.
+     */
+    private int pendingBlockIndex;
+
     /**
      * Bits size of current written LZW code.
      */
@@ -398,7 +464,7 @@ public class TiffImageWriter extends SpatialImageWriter {
 
         assert compObj != null;
         final int comp = ((short[]) compObj.get(ATT_VALUE))[0];
-        assert comp == 1 || comp == 5 || comp == 32773 : "compression of current layer is not supported. layer index : "+layerIndex+" compression value : "+compression;
+        assert comp == 1 || comp == 5 || comp == 8 || comp == 32773 : "compression of current layer is not supported. layer index : "+layerIndex+" compression value : "+compression;
 
         compression = comp;
 
@@ -967,6 +1033,143 @@ public class TiffImageWriter extends SpatialImageWriter {
      */
     private void write(final RenderedImage image, final Map<Integer, Map> headProperties,
                        final ImageWriteParam param, final long[] ifdPosition) throws IOException {
+        if (param instanceof TiffImageWriteParam && ((TiffImageWriteParam) param).getOverviews() != null) {
+            writeWithOverviews(image, headProperties, (TiffImageWriteParam) param, ifdPosition);
+            return;
+        }
+        prepareIFD(image, ifdPosition);
+
+        //-- add image properties in a Map in attempt to writing. --//
+        addImageProperties(image, headProperties, param);
+
+        //-- write all image properties. --//
+        //-- write tiff tags --//
+        writeTags(headProperties, ifdPosition);
+        //-- write image raster(s) data --//
+        writeImage(image, headProperties, param);
+        if (metaIndex == metaHeads.length) {
+            metaHeads = Arrays.copyOf(metaHeads, metaHeads.length << 1);
+        }
+        metaHeads[metaIndex++] = headProperties;
+        this.headProperties = null;
+    }
+
+    /**
+     * Write image and its internal overviews (reduced resolution images) in a cloud optimized layout :
+     * image file directories of all resolutions first, then tiles of each resolution
+     * from the smallest overview up to the full resolution image.<br/>
+     * Overviews are obtained by subsampling source image with {@link TiffImageWriteParam#getOverviews()}
+     * factors and are marked as reduced resolution images by NewSubfileType tag.
+     *
+     * @param image {@link RenderedImage} which will be write.
+     * @param headProperties full resolution image properties.
+     * @param param properties to write image, must define explicit tiling.
+     * @param ifdPosition table of length 2 where ifdPosition[0] contain chanel position of current image datas beginning
+     *                    and ifdPosition[1] contain chanel position where to write the nextIFD offset.
+     * @throws IOException if problem during writing.
+     * @throws IllegalArgumentException if tiling is not explicit or a destination offset is defined.
+     */
+    private void writeWithOverviews(final RenderedImage image, final Map<Integer, Map> headProperties,
+                       final TiffImageWriteParam param, final long[] ifdPosition) throws IOException {
+        if (param.getTilingMode() != ImageWriteParam.MODE_EXPLICIT) {
+            throw new IllegalArgumentException("Overviews writing requires explicit tiling.");
+        }
+        final Point dstOffset = param.getDestinationOffset();
+        if (dstOffset != null && (dstOffset.x != 0 || dstOffset.y != 0)) {
+            throw new IllegalArgumentException("Overviews writing does not support destination offset.");
+        }
+
+        final int[] factors  = param.getOverviews();
+        final int numLevels  = factors.length + 1;
+        final ImageWriteParam[] params       = new ImageWriteParam[numLevels];
+        final Map<Integer, Map>[] properties = new Map[numLevels];
+        final long[] byteCountPositions      = new long[numLevels];
+        final long[] offsetPositions         = new long[numLevels];
+        final long[] arraysPositions         = new long[numLevels];
+        params[0]     = param;
+        properties[0] = headProperties;
+        for (int l = 1; l < numLevels; l++) {
+            params[l]     = createOverviewParam(param, factors[l-1]);
+            properties[l] = new TreeMap<>();
+            addProperty(NewSubfileType, TYPE_LONG, 1, new long[]{1}, properties[l]);
+        }
+
+        //-- write image file directories of all resolutions --//
+        for (int l = 0; l < numLevels; l++) {
+            prepareIFD(image, ifdPosition);
+            addImageProperties(image, properties[l], params[l]);
+            writeTags(properties[l], ifdPosition);
+            byteCountPositions[l] = byteCountTagPosition;
+            offsetPositions[l]    = offsetTagPosition;
+
+            //-- reserve space for byte count and offset arrays which are not contained in their tags --//
+            final int arrayLength = getAttributeLength(properties[l].get(TileOffsets));
+            if (arrayLength > currentSizeNextIFD) {
+                arraysPositions[l] = channel.getStreamPosition();
+                final byte[] empty = new byte[arrayLength];
+                channel.write(empty);
+                channel.write(empty);
+            } else {
+                arraysPositions[l] = -1;
+            }
+        }
+
+        //-- write tiles from the smallest overview up to full resolution --//
+        for (int l = numLevels - 1; l >= 0; l--) {
+            computeRegions(image, params[l]);
+            this.headProperties    = (TreeMap<Integer, Map>) properties[l];
+            byteCountTagPosition   = byteCountPositions[l];
+            offsetTagPosition      = offsetPositions[l];
+            reservedArraysPosition = arraysPositions[l];
+            try {
+                writeImage(image, properties[l], params[l]);
+            } finally {
+                reservedArraysPosition = -1;
+            }
+        }
+
+        for (int l = 0; l < numLevels; l++) {
+            if (metaIndex == metaHeads.length) {
+                metaHeads = Arrays.copyOf(metaHeads, metaHeads.length << 1);
+            }
+            metaHeads[metaIndex++] = properties[l];
+        }
+        this.headProperties = null;
+    }
+
+    /**
+     * Create parameters to write an overview of the image written with given parameters.
+     *
+     * @param param full resolution image parameters.
+     * @param factor overview decimation factor.
+     * @return parameters with same tiling and compression, and subsampling multiplied by factor.
+     */
+    private TiffImageWriteParam createOverviewParam(final TiffImageWriteParam param, final int factor) {
+        final TiffImageWriteParam overviewParam = new TiffImageWriteParam(this);
+        overviewParam.setTilingMode(ImageWriteParam.MODE_EXPLICIT);
+        overviewParam.setTiling(param.getTileWidth(), param.getTileHeight(), 0, 0);
+        if (param.getCompressionMode() == ImageWriteParam.MODE_EXPLICIT && param.getCompressionType() != null) {
+            overviewParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            overviewParam.setCompressionType(param.getCompressionType());
+            overviewParam.setCompressionQuality(param.getCompressionQuality());
+        }
+        overviewParam.setPredictor(param.getPredictor());
+        overviewParam.setSourceRegion(param.getSourceRegion());
+        overviewParam.setSourceSubsampling(param.getSourceXSubsampling() * factor, param.getSourceYSubsampling() * factor, 0, 0);
+        return overviewParam;
+    }
+
+    /**
+     * Open channel if necessary and link previous image file directory to the next one
+     * which will be written at the current channel position.
+     *
+     * @param image {@link RenderedImage} which will be write.
+     * @param ifdPosition table of length 2 where ifdPosition[0] contain chanel position of current image datas beginning
+     *                    and ifdPosition[1] contain chanel position where to write the nextIFD offset.
+     * @throws IOException if problem during writing.
+     * @throws IllegalArgumentException if you try to write a bigTiff image when you have already written a none bigTiff image.
+     */
+    private void prepareIFD(final RenderedImage image, final long[] ifdPosition) throws IOException {
         if (channel != null) {
             //-- We authorize to write none big tiff image after big tiff already writen but not the inverse --//
             if (isBigTIFF != isBigTiff(image)) {
@@ -1004,20 +1207,6 @@ public class TiffImageWriter extends SpatialImageWriter {
          * Open channel if its necessary else do nothing.
          */
         open(ifdPosition);
-
-        //-- add image properties in a Map in attempt to writing. --//
-        addImageProperties(image, headProperties, param);
-
-        //-- write all image properties. --//
-        //-- write tiff tags --//
-        writeTags(headProperties, ifdPosition);
-        //-- write image raster(s) data --//
-        writeImage(image, headProperties, param);
-        if (metaIndex == metaHeads.length) {
-            metaHeads = Arrays.copyOf(metaHeads, metaHeads.length << 1);
-        }
-        metaHeads[metaIndex++] = headProperties;
-        this.headProperties = null;
     }
 
     /**
@@ -1307,6 +1496,8 @@ public class TiffImageWriter extends SpatialImageWriter {
                     compression = 5;
                 } else if (packbits.equalsIgnoreCase(comp)) {
                     compression = 32773;
+                } else if (deflate.equalsIgnoreCase(comp)) {
+                    compression = 8;
                 } else {
                     throw new IllegalStateException("the compression type : "+comp+". Is not known. Impossible to write image.");
                 }
@@ -1314,6 +1505,7 @@ public class TiffImageWriter extends SpatialImageWriter {
         }
         assert compression <= 0xFFFF : "compression exceed short max value";
         addProperty(Compression, TYPE_USHORT, 1, new short[]{(short) compression}, properties);
+        addPredictorProperty(param, sm.getDataType(), properties);
 
         //-- planar configuration
         final short planarConfig = getPlanarConfiguration(sm);
@@ -1439,6 +1631,8 @@ public class TiffImageWriter extends SpatialImageWriter {
                     compression = 5;
                 } else if (packbits.equalsIgnoreCase(comp)) {
                     compression = 32773;
+                } else if (deflate.equalsIgnoreCase(comp)) {
+                    compression = 8;
                 } else {
                     throw new IllegalStateException("the compression type : "+comp+". Is not known. Impossible to write image.");
                 }
@@ -1446,6 +1640,7 @@ public class TiffImageWriter extends SpatialImageWriter {
         }
         assert compression <= 0xFFFF : "compression exceed short max value";
         addProperty(Compression, TYPE_USHORT, 1, new short[]{(short) compression}, properties);
+        addPredictorProperty(param, sm.getDataType(), properties);
 
         /*
          * Some globals class attribut have been already initialized to define writing made.
@@ -1458,6 +1653,42 @@ public class TiffImageWriter extends SpatialImageWriter {
         }
     }
 
+    /**
+     * Define predictor and Deflate level of current image from {@link ImageWriteParam} and add Predictor tag if needed.<br/>
+     * Predictor is only used with Deflate compression, the Deflate level is deduced from compression quality.
+     *
+     * @param param Image parameter or {@code null}.
+     * @param dataType sample data type of current image.
+     * @param properties {@link Map} which contain all properties of current image.
+     * @throws IllegalStateException if predictor is not supported by image data type.
+     */
+    private void addPredictorProperty(final ImageWriteParam param, final int dataType, final Map properties) {
+        predictor    = 1;
+        deflateLevel = Deflater.DEFAULT_COMPRESSION;
+        if (compression != 8) return;
+
+        deflateLevel = Math.max(Deflater.BEST_SPEED, Math.round(param.getCompressionQuality() * Deflater.BEST_COMPRESSION));
+        if (param instanceof TiffImageWriteParam) {
+            predictor = (short) ((TiffImageWriteParam) param).getPredictor();
+        }
+        final boolean isFloat = (dataType == DataBuffer.TYPE_FLOAT || dataType == DataBuffer.TYPE_DOUBLE);
+        switch (predictor) {
+            case 1 : return;
+            case 2 : {
+                if (isFloat || bitPerSample < Byte.SIZE)
+                    throw new IllegalStateException("Horizontal differencing predictor is only supported with integer samples of 8 bits or more.");
+                break;
+            }
+            case 3 : {
+                if (!isFloat)
+                    throw new IllegalStateException("Floating point predictor is only supported with float or double samples.");
+                break;
+            }
+            default : throw new IllegalStateException("Unknown predictor : "+predictor);
+        }
+        addProperty(Predictor, TYPE_USHORT, 1, new short[]{predictor}, properties);
+    }
+
     /**
      * Add appropriate tag in {@link #headProperties} adapted to strip offset writing of current image.<br/>
      * Note : in this current implementation we admit one row for one strip.
@@ -1937,6 +2168,9 @@ public class TiffImageWriter extends SpatialImageWriter {
         lastByte32773     = destTileByteCount - 1;
         precLastByte32773 = lastByte32773     - 1;
 
+        //-- initialization for Deflate compression --//
+        if (compression == 8) initDeflateBlocks(currentImgTW * pixelLength, pixelLength);
+
         // initialize tile offset
         long tileOffsetBeg = channel.getStreamPosition();//-- position in bytes
         int tileOffsetID = 0;
@@ -1979,6 +2213,10 @@ public class TiffImageWriter extends SpatialImageWriter {
                          * flushed when we write LZW end of file value.
                          */
                         if (compression == 5) writeWithLZWCompression(LZW_EOI_CODE);
+                        if (compression == 8) {
+                            endDeflateBlock(offsetArray, byteCountArray, tileOffsetID++);
+                            continue;
+                        }
 
                         final long currentOffset = channel.getStreamPosition();
                         final long currentTileByteCount = currentOffset - tileOffsetBeg;
@@ -2113,6 +2351,10 @@ public class TiffImageWriter extends SpatialImageWriter {
                      * flushed when we write LZW end of file value.
                      */
                     if (compression == 5) writeWithLZWCompression(LZW_EOI_CODE);
+                    if (compression == 8) {
+                        endDeflateBlock(offsetArray, byteCountArray, tileOffsetID++);
+                        continue;
+                    }
 
                     final long currentOffset = channel.getStreamPosition();
                     final long currentTileByteCount = currentOffset - tileOffsetBeg;
@@ -2131,6 +2373,7 @@ public class TiffImageWriter extends SpatialImageWriter {
                 }
             }
         }
+        if (compression == 8) flushDeflateBlocks(offsetArray, byteCountArray);
         writeByteCountAndOffsets(byteCountTagPosition, arrayType, byteCountArray, offsetTagPosition, arrayType, offsetArray);
         //-- add current offset array in current headProperties --//
         addProperty(TileOffsets, arrayType, Array.getLength(offsetArray), offsetArray, headProperties);
@@ -2161,6 +2404,9 @@ public class TiffImageWriter extends SpatialImageWriter {
         } else if (compress == 5 || compress == 32773) {
             //-- with compression --//
             writeWithCompression(sourceArray, datatype, arrayOffset, arrayLength, bitPerSample);
+        } else if (compress == 8) {
+            //-- stored until the end of tile or strip --//
+            appendToDeflateBlock(sourceArray, datatype, arrayOffset, arrayLength);
         } else {
             throw new IllegalStateException("Impossible to write image, unknown compression format. Compression = "+compress);
         }
@@ -2548,13 +2794,17 @@ public class TiffImageWriter extends SpatialImageWriter {
         assert bcaLen == offLen : "byteCount and offset array should have same length : byte count len = "+bcaLen+" offset array len = "+offLen;
         assert offsetType == byteCountType : "expected same byte count and offset type.";
 
+        //-- arrays are written after image datas, or in space reserved after image file directory --//
+        final long endPosition = channel.getStreamPosition();
+        long arrayPosition     = (reservedArraysPosition >= 0) ? reservedArraysPosition : endPosition;
+
         //---------- byteCount ---------------//
         if (bcaLen * TYPE_SIZE[byteCountType] <= datasize) {
             channel.seek(byteCountPosition);
             writeArray(byteCountArray, byteCountType);
         } else {
 
-            final long byteOffset = channel.getStreamPosition();
+            final long byteOffset = arrayPosition;
             channel.seek(byteCountPosition);
 
             if (isBigTIFF) channel.writeLong(byteOffset);
@@ -2562,6 +2812,7 @@ public class TiffImageWriter extends SpatialImageWriter {
 
             channel.seek(byteOffset);
             writeArray(byteCountArray, byteCountType);
+            arrayPosition = channel.getStreamPosition();
         }
 
         //--------- offsets------------//
@@ -2569,7 +2820,7 @@ public class TiffImageWriter extends SpatialImageWriter {
             channel.seek(offsetPosition);
             writeArray(offsetArray, offsetType);
         } else {
-            final long offsetOffset = channel.getStreamPosition();
+            final long offsetOffset = arrayPosition;
             channel.seek(offsetPosition);
 
             if (isBigTIFF) channel.writeLong(offsetOffset);
@@ -2578,6 +2829,7 @@ public class TiffImageWriter extends SpatialImageWriter {
             channel.seek(offsetOffset);
             writeArray(offsetArray, offsetType);
         }
+        if (reservedArraysPosition >= 0) channel.seek(endPosition);
     }
 
     /**
@@ -2747,6 +2999,9 @@ public class TiffImageWriter extends SpatialImageWriter {
         lastByte32773     = currentByteCount - 1;
         precLastByte32773 = lastByte32773 - 1;
 
+        //-- initialization for Deflate compression --//
+        if (compression == 8) initDeflateBlocks(destRegion.width * pixelLength, pixelLength);
+
         int stripArrayID = 0;
         // on defini intersection indice de tuiles
         final int minTX = imgMinTXOffset + (srcRegion.x - imageMinX) / imgTileWidth;
@@ -2789,6 +3044,10 @@ public class TiffImageWriter extends SpatialImageWriter {
                     write(destOffsetRowArray, dataType, 0, destRegion.width * pixelLength, bitPerSample, compression);
 
                     if (compression == 5) writeWithLZWCompression(LZW_EOI_CODE);
+                    if (compression == 8) {
+                        endDeflateBlock(offsetArray, byteCountArray, stripArrayID++);
+                        continue;
+                    }
                     lastByte32773     += currentByteCount;
                     precLastByte32773 += currentByteCount;
                     final long currentStripOffset = channel.getStreamPosition();
@@ -2875,6 +3134,10 @@ public class TiffImageWriter extends SpatialImageWriter {
                    }
 
                    if (compression == 5) writeWithLZWCompression(LZW_EOI_CODE);
+                   if (compression == 8) {
+                       endDeflateBlock(offsetArray, byteCountArray, stripArrayID++);
+                       continue;
+                   }
                    lastByte32773     += currentByteCount;
                    precLastByte32773 += currentByteCount;
                    final long currentStripOffset = channel.getStreamPosition();
@@ -2898,6 +3161,7 @@ public class TiffImageWriter extends SpatialImageWriter {
                }
             }
         }
+        if (compression == 8) flushDeflateBlocks(offsetArray, byteCountArray);
         //-- after destination image writing, write stripOffset and stripByteCount tables --//
         writeByteCountAndOffsets(byteCountTagPosition, arrayType, byteCountArray, offsetTagPosition, arrayType, offsetArray);
         //-- add current offset array in current headProperties --//
@@ -2978,6 +3242,133 @@ public class TiffImageWriter extends SpatialImageWriter {
         }
     }
 
+    /**
+     * Prepare Deflate compression of tiles or strips of current image.
+     *
+     * @param rowLength number of samples in a row of a tile or strip.
+     * @param pixelLength number of samples per pixel within a tile or strip.
+     */
+    private void initDeflateBlocks(final int rowLength, final int pixelLength) {
+        cancelDeflateBlocks();
+        deflateRowLength   = rowLength;
+        deflatePixelLength = pixelLength;
+        deflateBlockLength = 0;
+        if (deflateBlock == null) deflateBlock = new byte[8196];
+    }
+
+    /**
+     * Store samples of the current tile or strip in {@linkplain #deflateBlock}.
+     * They are compressed when the tile or strip is complete.
+     *
+     * @param sourceArray sample source array data.
+     * @param datatype type of data within sourceArray.
+     * @param arrayOffset offset in the source array of the first sample which will be written.
+     * @param arrayLength number of sample which will be written.
+     * @see #endDeflateBlock(java.lang.Object, java.lang.Object, int)
+     */
+    private void appendToDeflateBlock(final Object sourceArray, final int datatype,
+            final int arrayOffset, final int arrayLength) {
+        final int length = arrayLength * (DataBuffer.getDataTypeSize(datatype) / Byte.SIZE);
+        if (deflateBlockLength + length > deflateBlock.length) {
+            deflateBlock = Arrays.copyOf(deflateBlock, Math.max(deflateBlock.length << 1, deflateBlockLength + length));
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(deflateBlock, deflateBlockLength, length).order(currentBO);
+        switch (datatype) {
+            case DataBuffer.TYPE_BYTE   : buffer.put(                  (byte[])   sourceArray, arrayOffset, arrayLength); break;
+            case DataBuffer.TYPE_USHORT :
+            case DataBuffer.TYPE_SHORT  : buffer.asShortBuffer().put(  (short[])  sourceArray, arrayOffset, arrayLength); break;
+            case DataBuffer.TYPE_INT    : buffer.asIntBuffer().put(    (int[])    sourceArray, arrayOffset, arrayLength); break;
+            case DataBuffer.TYPE_FLOAT  : buffer.asFloatBuffer().put(  (float[])  sourceArray, arrayOffset, arrayLength); break;
+            case DataBuffer.TYPE_DOUBLE : buffer.asDoubleBuffer().put( (double[]) sourceArray, arrayOffset, arrayLength); break;
+            default : throw new IllegalStateException("Unknown type : "+datatype);
+        }
+        deflateBlockLength += length;
+    }
+
+    /**
+     * Submit the current tile or strip to the {@linkplain Threads#getParallelExecutor() parallel executor} and write the oldest compressed blocks
+     * when too many are waiting. Blocks are written in channel in the order they are ended.
+     *
+     * @param offsetArray offset array of current image.
+     * @param byteCountArray byte count array of current image.
+     * @param blockIndex index of current tile or strip in offset and byte count arrays.
+     * @throws IOException if problem during compression or writing.
+     */
+    private void endDeflateBlock(final Object offsetArray, final Object byteCountArray, final int blockIndex) throws IOException {
+        if (pendingBlocks.isEmpty()) pendingBlockIndex = blockIndex;
+        assert blockIndex == pendingBlockIndex + pendingBlocks.size() : "Deflate blocks must be ended in order.";
+
+        //-- the encoder takes the block ownership --//
+        final byte[] block = deflateBlock;
+        deflateBlock = new byte[block.length];
+        pendingBlocks.add(Threads.getParallelExecutor().submit(new DeflateBlockEncoder(block, deflateBlockLength, currentBO,
+                bitPerSample / Byte.SIZE, deflatePixelLength, deflateRowLength, predictor, deflateLevel)));
+        deflateBlockLength = 0;
+
+        if (pendingBlocks.size() >= 2 * Threads.getParallelism()) {
+            writeDeflateBlock(offsetArray, byteCountArray);
+        }
+    }
+
+    /**
+     * Write all compressed blocks which are still waiting.
+     *
+     * @param offsetArray offset array of current image.
+     * @param byteCountArray byte count array of current image.
+     * @throws IOException if problem during compression or writing.
+     */
+    private void flushDeflateBlocks(final Object offsetArray, final Object byteCountArray) throws IOException {
+        while (!pendingBlocks.isEmpty()) {
+            writeDeflateBlock(offsetArray, byteCountArray);
+        }
+    }
+
+    /**
+     * Wait for the oldest compressed block, write it at current channel position
+     * and set its offset and byte count.
+     *
+     * @param offsetArray offset array of current image.
+     * @param byteCountArray byte count array of current image.
+     * @throws IOException if problem during compression or writing.
+     */
+    private void writeDeflateBlock(final Object offsetArray, final Object byteCountArray) throws IOException {
+        final byte[] compressed;
+        try {
+            compressed = pendingBlocks.poll().get();
+        } catch (InterruptedException ex) {
+            cancelDeflateBlocks();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing image blocks.");
+        } catch (ExecutionException ex) {
+            cancelDeflateBlocks();
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error)            throw (Error) cause;
+            throw new IIOException(cause.getMessage(), cause);
+        }
+        final long offset = channel.getStreamPosition();
+        channel.write(compressed);
+
+        final int index = pendingBlockIndex++;
+        if (isBigTIFF) {
+            Array.setLong(offsetArray, index, offset);
+            Array.setLong(byteCountArray, index, compressed.length);
+        } else {
+            Array.setInt(offsetArray, index, (int) offset);
+            Array.setInt(byteCountArray, index, compressed.length);
+        }
+    }
+
+    /**
+     * Cancel compression of blocks which have not been written, after a writing failure.
+     */
+    private void cancelDeflateBlocks() {
+        for (Future<byte[]> block : pendingBlocks) {
+            block.cancel(false);
+        }
+        pendingBlocks.clear();
+    }
+
     /**
      * Write the given value into stream {@linkplain #channel}
      * in accordance with LZW algorithm compression.
@@ -3446,6 +3837,112 @@ public class TiffImageWriter extends SpatialImageWriter {
         }
     }
 
+    /**
+     * Applies predictor on a tile or strip, then compresses it with Deflate algorithm.
+     * Each instance owns its samples array and can be run by any thread.
+     */
+    private static final class DeflateBlockEncoder implements Callable<byte[]> {
+
+        private final byte[] raw;
+        private final int length;
+        private final ByteOrder byteOrder;
+        private final int sampleSize, pixelLength, rowLength;
+        private final short predictor;
+        private final int level;
+
+        DeflateBlockEncoder(final byte[] raw, final int length, final ByteOrder byteOrder, final int sampleSize,
+                final int pixelLength, final int rowLength, final short predictor, final int level) {
+            this.raw         = raw;
+            this.length      = length;
+            this.byteOrder   = byteOrder;
+            this.sampleSize  = sampleSize;
+            this.pixelLength = pixelLength;
+            this.rowLength   = rowLength;
+            this.predictor   = predictor;
+            this.level       = level;
+        }
+
+        /**
+         * Returns compressed block bytes.
+         */
+        @Override
+        public byte[] call() {
+            if (predictor == 2) {
+                horizontalDifferencing();
+            } else if (predictor == 3) {
+                floatingPointPredictor();
+            }
+            final Deflater deflater = new Deflater(level);
+            try {
+                deflater.setInput(raw, 0, length);
+                deflater.finish();
+                byte[] compressed = new byte[(length >>> 1) + 64];
+                int n = 0;
+                while (!deflater.finished()) {
+                    if (n == compressed.length) {
+                        compressed = Arrays.copyOf(compressed, compressed.length << 1);
+                    }
+                    n += deflater.deflate(compressed, n, compressed.length - n);
+                }
+                return Arrays.copyOf(compressed, n);
+            } finally {
+                deflater.end();
+            }
+        }
+
+        /**
+         * Replaces each sample by its difference with the same sample of the previous pixel in the row (predictor 2).
+         */
+        private void horizontalDifferencing() {
+            final ByteBuffer buffer = ByteBuffer.wrap(raw, 0, length).order(byteOrder);
+            final ShortBuffer shorts = (sampleSize == 2) ? buffer.asShortBuffer() : null;
+            final IntBuffer   ints   = (sampleSize == 4) ? buffer.asIntBuffer()   : null;
+            final int numSamples = length / sampleSize;
+            assert numSamples % rowLength == 0;
+            for (int rowStart = 0; rowStart < numSamples; rowStart += rowLength) {
+                final int rowFirst = rowStart + pixelLength;
+                switch (sampleSize) {
+                    case 1 : {
+                        for (int i = rowStart + rowLength - 1; i >= rowFirst; i--) raw[i] -= raw[i - pixelLength];
+                        break;
+                    }
+                    case 2 : {
+                        for (int i = rowStart + rowLength - 1; i >= rowFirst; i--) shorts.put(i, (short) (shorts.get(i) - shorts.get(i - pixelLength)));
+                        break;
+                    }
+                    case 4 : {
+                        for (int i = rowStart + rowLength - 1; i >= rowFirst; i--) ints.put(i, ints.get(i) - ints.get(i - pixelLength));
+                        break;
+                    }
+                    default : throw new AssertionError(sampleSize);
+                }
+            }
+        }
+
+        /**
+         * Floating point predictor (predictor 3) : samples bytes of each row are stored by significance in big endian
+         * order (all most significant bytes first, then all second bytes, <i>etc.</i>) then differenced.
+         */
+        private void floatingPointPredictor() {
+            final int rowBytes = rowLength * sampleSize;
+            final byte[] row   = new byte[rowBytes];
+            final boolean bigEndian = ByteOrder.BIG_ENDIAN.equals(byteOrder);
+            assert length % rowBytes == 0;
+            for (int rowStart = 0; rowStart < length; rowStart += rowBytes) {
+                for (int c = 0; c < rowLength; c++) {
+                    final int sampleStart = rowStart + c * sampleSize;
+                    for (int b = 0; b < sampleSize; b++) {
+                        row[b * rowLength + c] = raw[sampleStart + (bigEndian ? b : sampleSize - 1 - b)];
+                    }
+                }
+                for (int i = rowBytes - 1; i >= pixelLength; i--) {
+                    row[i] -= row[i - pixelLength];
+                }
+                System.arraycopy(row, 0, raw, rowStart, rowBytes);
+            }
+        }
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -0,0 +1,466 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.image.io.plugin.TiffReader;
+
+import java.awt.Rectangle;
+import java.awt.image.DataBuffer;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.Deflater;
+import javax.imageio.ImageReadParam;
+import org.apache.sis.test.TestUtilities;
+import org.apache.sis.util.logging.Logging;
+import org.geotoolkit.image.io.plugin.TiffImageReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link TiffImageReader} with Deflate compressed strips and tiles, with and without predictor.<br/>
+ * Tested files are encoded by this class, independently from {@link org.geotoolkit.image.io.plugin.TiffImageWriter},
+ * with byte orders and block sizes the writer does not produce.
+ *
+ * @author Geotoolkit.org contributors
+ */
+public strictfp class DeflateTiffReaderTest {
+
+    private static final Logger LOGGER = Logging.getLogger(DeflateTiffReaderTest.class);
+
+    /**
+     * Tiff tag types used by this test.
+     */
+    private static final short TYPE_SHORT = 3, TYPE_LONG = 4;
+
+    private final Random random = TestUtilities.createRandomNumberGenerator();
+
+    private File tempDir;
+
+    private TiffImageReader reader;
+
+    @Before
+    public void init() throws IOException {
+        tempDir = Files.createTempDirectory("tiffDeflateTests").toFile();
+        reader  = new TiffImageReader(null);
+    }
+
+    @After
+    public void dispose() {
+        reader.dispose();
+        for (File f : tempDir.listFiles()) {
+            f.delete();
+        }
+        tempDir.delete();
+    }
+
+    /**
+     * RGB byte image, tiled, with horizontal differencing.
+     */
+    @Test
+    public void tiledBytePredictorTest() throws IOException {
+        final Raster source = createRaster(DataBuffer.TYPE_BYTE, 3, 253, 197);
+        final File file = new File(tempDir, "tiledByte.tiff");
+        writeTiff(file, source, ByteOrder.LITTLE_ENDIAN, 2, 64, 32, true);
+        checkRead(file, source);
+    }
+
+    /**
+     * Unsigned short image, in strips, with horizontal differencing, in big endian order.
+     */
+    @Test
+    public void stripUShortPredictorTest() throws IOException {
+        final Raster source = createRaster(DataBuffer.TYPE_USHORT, 1, 171, 150);
+        final File file = new File(tempDir, "stripUShort.tiff");
+        writeTiff(file, source, ByteOrder.BIG_ENDIAN, 2, 171, 7, false);
+        checkRead(file, source);
+    }
+
+    /**
+     * Integer image, tiled, without predictor.
+     */
+    @Test
+    public void tiledIntTest() throws IOException {
+        final Raster source = createRaster(DataBuffer.TYPE_INT, 2, 100, 130);
+        final File file = new File(tempDir, "tiledInt.tiff");
+        writeTiff(file, source, ByteOrder.LITTLE_ENDIAN, 1, 48, 64, true);
+        checkRead(file, source);
+    }
+
+    /**
+     * Float image, tiled, with floating point predictor.
+     */
+    @Test
+    public void tiledFloatPredictorTest() throws IOException {
+        final Raster source = createRaster(DataBuffer.TYPE_FLOAT, 1, 200, 180);
+        final File file = new File(tempDir, "tiledFloat.tiff");
+        writeTiff(file, source, ByteOrder.LITTLE_ENDIAN, 3, 32, 32, true);
+        checkRead(file, source);
+    }
+
+    /**
+     * Double image, in strips, with floating point predictor.
+     */
+    @Test
+    public void stripDoublePredictorTest() throws IOException {
+        final Raster source = createRaster(DataBuffer.TYPE_DOUBLE, 2, 90, 77);
+        final File file = new File(tempDir, "stripDouble.tiff");
+        writeTiff(file, source, ByteOrder.BIG_ENDIAN, 3, 90, 16, false);
+        checkRead(file, source);
+    }
+
+    /**
+     * An abort request must stop the reading before the next block.
+     */
+    @Test
+    public void abortTest() throws IOException {
+        final Raster source = createRaster(DataBuffer.TYPE_BYTE, 3, 253, 197);
+        final File file = new File(tempDir, "abort.tiff");
+        writeTiff(file, source, ByteOrder.LITTLE_ENDIAN, 2, 64, 32, true);
+
+        final AtomicInteger checks = new AtomicInteger();
+        final AtomicBoolean aborted = new AtomicBoolean();
+        final TiffImageReader abortReader = new TiffImageReader(null) {
+            @Override
+            protected synchronized boolean abortRequested() {
+                return checks.incrementAndGet() >= 3;
+            }
+
+            @Override
+            protected void processReadAborted() {
+                aborted.set(true);
+                super.processReadAborted();
+            }
+        };
+        try {
+            abortReader.setInput(file);
+            final Raster result = abortReader.read(0).getRaster();
+            assertTrue("Abort must be reported to listeners.", aborted.get());
+            assertEquals("Reading must stop at the first abort request.", 3, checks.get());
+            //-- last tile is never decoded --//
+            for (int y = 192; y < 197; y++) {
+                for (int x = 192; x < 253; x++) {
+                    for (int b = 0; b < 3; b++) {
+                        assertEquals(0, result.getSample(x, y, b));
+                    }
+                }
+            }
+        } finally {
+            abortReader.dispose();
+        }
+    }
+
+    /**
+     * Read throughput over a large tiled image, results are logged.
+     * This is a benchmark, the reading is checked by the other tests.
+     */
+    @Test
+    @Ignore
+    public void readThroughputTest() throws IOException {
+        final int width = 2048, height = 2048;
+        final Raster source = createRaster(DataBuffer.TYPE_BYTE, 3, width, height);
+        final File file = new File(tempDir, "large.tiff");
+        writeTiff(file, source, ByteOrder.LITTLE_ENDIAN, 2, 256, 256, true);
+
+        reader.setInput(file);
+        //-- warm up --//
+        reader.read(0);
+
+        final int nbRead = 3;
+        final long start = System.nanoTime();
+        Raster result = null;
+        for (int i = 0; i < nbRead; i++) {
+            result = reader.read(0).getRaster();
+        }
+        final double seconds = (System.nanoTime() - start) / 1E9;
+        final double mb      = (double) nbRead * width * height * 3 / (1024 * 1024);
+        LOGGER.log(Level.FINE, "Deflate tiled read : {0} MB/s ({1} MB compressed in {2} MB raw)",
+                new Object[]{mb / seconds, file.length() / (1024 * 1024), width * height * 3 / (1024 * 1024)});
+
+        //-- only check a few rows to keep the test fast --//
+        final Rectangle area = new Rectangle(0, 1000, width, 3);
+        assertArrayEquals(source.getPixels(area.x, area.y, area.width, area.height, (int[]) null),
+                          result.getPixels(area.x, area.y, area.width, area.height, (int[]) null));
+    }
+
+    /**
+     * Reads the given file entirely, then with a random source region and subsampling,
+     * and compares the results with the source raster.
+     */
+    private void checkRead(final File file, final Raster source) throws IOException {
+        reader.setInput(file);
+        compare(source, reader.read(0).getRaster(), new Rectangle(source.getWidth(), source.getHeight()), 1, 1);
+
+        final int width  = source.getWidth();
+        final int height = source.getHeight();
+        final int x  = random.nextInt(width  / 2);
+        final int y  = random.nextInt(height / 2);
+        final Rectangle region = new Rectangle(x, y, random.nextInt(width - x - 1) + 1, random.nextInt(height - y - 1) + 1);
+        final int xs = random.nextInt(4) + 1;
+        final int ys = random.nextInt(4) + 1;
+        final ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceRegion(region);
+        param.setSourceSubsampling(xs, ys, 0, 0);
+        compare(source, reader.read(0, param).getRaster(), region, xs, ys);
+    }
+
+    /**
+     * Compares read raster with the expected area of the source raster.
+     */
+    private static void compare(final Raster source, final Raster result, final Rectangle region, final int xs, final int ys) {
+        assertEquals("width",  (region.width  + xs - 1) / xs, result.getWidth());
+        assertEquals("height", (region.height + ys - 1) / ys, result.getHeight());
+        assertEquals("bands",  source.getNumBands(), result.getNumBands());
+        for (int y = 0; y < result.getHeight(); y++) {
+            for (int x = 0; x < result.getWidth(); x++) {
+                for (int b = 0; b < source.getNumBands(); b++) {
+                    assertEquals("pixel ("+x+", "+y+") band "+b,
+                            source.getSampleDouble(region.x + x * xs, region.y + y * ys, b),
+                            result.getSampleDouble(x, y, b), 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a pixel interleaved raster filled with gradients and noise, to obtain
+     * compressible but non trivial data.
+     */
+    private WritableRaster createRaster(final int dataType, final int numBands, final int width, final int height) {
+        final int[] bandOffsets = new int[numBands];
+        for (int b = 0; b < numBands; b++) bandOffsets[b] = b;
+        final WritableRaster raster = Raster.createWritableRaster(
+                new PixelInterleavedSampleModel(dataType, width, height, numBands, width * numBands, bandOffsets), null);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                for (int b = 0; b < numBands; b++) {
+                    switch (dataType) {
+                        case DataBuffer.TYPE_BYTE   : raster.setSample(x, y, b, (x + y * (b + 1) + random.nextInt(4)) & 0xFF); break;
+                        case DataBuffer.TYPE_USHORT : raster.setSample(x, y, b, (x * 300 + y * 7 + random.nextInt(64)) & 0xFFFF); break;
+                        case DataBuffer.TYPE_INT    : raster.setSample(x, y, b, x * 100000 - y * 3 + random.nextInt()); break;
+                        case DataBuffer.TYPE_FLOAT  : raster.setSample(x, y, b, x * 0.5f + y - random.nextFloat()); break;
+                        case DataBuffer.TYPE_DOUBLE : raster.setSample(x, y, b, x * 1E-3 - y * (b + 1) + random.nextDouble()); break;
+                        default: throw new AssertionError(dataType);
+                    }
+                }
+            }
+        }
+        return raster;
+    }
+
+    /**
+     * Writes a Deflate compressed tiff file with one image.
+     *
+     * @param file        output file.
+     * @param raster      pixels to write, pixel interleaved.
+     * @param order       file byte order.
+     * @param predictor   1 for none, 2 for horizontal differencing, 3 for floating point predictor.
+     * @param blockWidth  tile width, or image width for strips.
+     * @param blockHeight tile height, or rows per strip.
+     * @param tiled       {@code true} for tiles, {@code false} for strips.
+     */
+    private static void writeTiff(final File file, final Raster raster, final ByteOrder order, final int predictor,
+            final int blockWidth, final int blockHeight, final boolean tiled) throws IOException {
+        final int width     = raster.getWidth();
+        final int height    = raster.getHeight();
+        final int numBands  = raster.getNumBands();
+        final int dataType  = raster.getSampleModel().getDataType();
+        final int numXBlock = (width  + blockWidth  - 1) / blockWidth;
+        final int numYBlock = (height + blockHeight - 1) / blockHeight;
+
+        final byte[][] blocks = new byte[numXBlock * numYBlock][];
+        int length = 0;
+        for (int by = 0; by < numYBlock; by++) {
+            for (int bx = 0; bx < numXBlock; bx++) {
+                //-- tiles are padded, last strip is not --//
+                final int rows = tiled ? blockHeight : Math.min(blockHeight, height - by * blockHeight);
+                final byte[] block = encodeBlock(raster, bx * blockWidth, by * blockHeight, blockWidth, rows, predictor, order);
+                blocks[by * numXBlock + bx] = block;
+                length += block.length;
+            }
+        }
+
+        final ByteBuffer out = ByteBuffer.allocate(length + blocks.length * 8 + 1024).order(order);
+        final byte mark = (byte) ((order == ByteOrder.LITTLE_ENDIAN) ? 'I' : 'M');
+        out.put(mark).put(mark).putShort((short) 42).putInt(0);
+
+        final int[] offsets = new int[blocks.length];
+        final int[] counts  = new int[blocks.length];
+        for (int i = 0; i < blocks.length; i++) {
+            offsets[i] = out.position();
+            counts[i]  = blocks[i].length;
+            out.put(blocks[i]);
+        }
+
+        final int sampleBits = DataBuffer.getDataTypeSize(dataType);
+        final int[] bits = new int[numBands];
+        for (int b = 0; b < numBands; b++) bits[b] = sampleBits;
+        final int sampleFormat = (dataType == DataBuffer.TYPE_FLOAT || dataType == DataBuffer.TYPE_DOUBLE) ? 3
+                               : (dataType == DataBuffer.TYPE_INT) ? 2 : 1;
+
+        //-- entries in ascending tag order : tag, type, values --//
+        final List<int[]> entries = new ArrayList<>();
+        entries.add(new int[]{256, TYPE_LONG});   entries.add(new int[]{width});
+        entries.add(new int[]{257, TYPE_LONG});   entries.add(new int[]{height});
+        entries.add(new int[]{258, TYPE_SHORT});  entries.add(bits);
+        entries.add(new int[]{259, TYPE_SHORT});  entries.add(new int[]{8});
+        entries.add(new int[]{262, TYPE_SHORT});  entries.add(new int[]{(numBands == 3) ? 2 : 1});
+        if (!tiled) {
+            entries.add(new int[]{273, TYPE_LONG});  entries.add(offsets);
+        }
+        entries.add(new int[]{277, TYPE_SHORT});  entries.add(new int[]{numBands});
+        if (!tiled) {
+            entries.add(new int[]{278, TYPE_LONG});  entries.add(new int[]{blockHeight});
+            entries.add(new int[]{279, TYPE_LONG});  entries.add(counts);
+        }
+        entries.add(new int[]{284, TYPE_SHORT});  entries.add(new int[]{1});
+        entries.add(new int[]{317, TYPE_SHORT});  entries.add(new int[]{predictor});
+        if (tiled) {
+            entries.add(new int[]{322, TYPE_LONG});  entries.add(new int[]{blockWidth});
+            entries.add(new int[]{323, TYPE_LONG});  entries.add(new int[]{blockHeight});
+            entries.add(new int[]{324, TYPE_LONG});  entries.add(offsets);
+            entries.add(new int[]{325, TYPE_LONG});  entries.add(counts);
+        }
+        final int[] formats = new int[numBands];
+        for (int b = 0; b < numBands; b++) formats[b] = sampleFormat;
+        entries.add(new int[]{339, TYPE_SHORT});  entries.add(formats);
+
+        //-- values which do not fit in entries --//
+        final int nbEntries = entries.size() / 2;
+        final int[] valueOffsets = new int[nbEntries];
+        for (int e = 0; e < nbEntries; e++) {
+            final int[] key    = entries.get(2 * e);
+            final int[] values = entries.get(2 * e + 1);
+            if (values.length * ((key[1] == TYPE_SHORT) ? 2 : 4) > 4) {
+                if ((out.position() & 1) != 0) out.put((byte) 0);
+                valueOffsets[e] = out.position();
+                writeValues(out, key[1], values);
+            }
+        }
+
+        if ((out.position() & 1) != 0) out.put((byte) 0);
+        out.putInt(4, out.position());
+        out.putShort((short) nbEntries);
+        for (int e = 0; e < nbEntries; e++) {
+            final int[] key    = entries.get(2 * e);
+            final int[] values = entries.get(2 * e + 1);
+            out.putShort((short) key[0]).putShort((short) key[1]).putInt(values.length);
+            if (valueOffsets[e] != 0) {
+                out.putInt(valueOffsets[e]);
+            } else {
+                final int end = out.position() + 4;
+                writeValues(out, key[1], values);
+                while (out.position() < end) out.put((byte) 0);
+            }
+        }
+        out.putInt(0);
+        Files.write(file.toPath(), Arrays.copyOf(out.array(), out.position()));
+    }
+
+    private static void writeValues(final ByteBuffer out, final int type, final int[] values) {
+        for (int v : values) {
+            if (type == TYPE_SHORT) out.putShort((short) v);
+            else out.putInt(v);
+        }
+    }
+
+    /**
+     * Encodes and compresses a block of pixels, pixels outside the raster are written as 0.
+     */
+    private static byte[] encodeBlock(final Raster raster, final int minX, final int minY, final int width,
+            final int height, final int predictor, final ByteOrder order) {
+        final int numBands   = raster.getNumBands();
+        final int dataType   = raster.getSampleModel().getDataType();
+        final int sampleSize = DataBuffer.getDataTypeSize(dataType) / Byte.SIZE;
+        final int rowBytes   = width * numBands * sampleSize;
+        final ByteBuffer buffer = ByteBuffer.allocate(height * rowBytes)
+                .order((predictor == 3) ? ByteOrder.BIG_ENDIAN : order);
+
+        for (int y = minY; y < minY + height; y++) {
+            for (int x = minX; x < minX + width; x++) {
+                for (int b = 0; b < numBands; b++) {
+                    final boolean inside = x < raster.getWidth() && y < raster.getHeight();
+                    switch (dataType) {
+                        case DataBuffer.TYPE_BYTE   :
+                        case DataBuffer.TYPE_USHORT :
+                        case DataBuffer.TYPE_INT    : {
+                            int v = inside ? raster.getSample(x, y, b) : 0;
+                            if (predictor == 2 && x > minX) {
+                                v -= (x - 1 < raster.getWidth() && inside) ? raster.getSample(x - 1, y, b) : 0;
+                            }
+                            if (dataType == DataBuffer.TYPE_BYTE)        buffer.put((byte) v);
+                            else if (dataType == DataBuffer.TYPE_USHORT) buffer.putShort((short) v);
+                            else                                         buffer.putInt(v);
+                            break;
+                        }
+                        case DataBuffer.TYPE_FLOAT  : buffer.putFloat(inside  ? raster.getSampleFloat(x, y, b)  : 0); break;
+                        case DataBuffer.TYPE_DOUBLE : buffer.putDouble(inside ? raster.getSampleDouble(x, y, b) : 0); break;
+                        default: throw new AssertionError(dataType);
+                    }
+                }
+            }
+        }
+        final byte[] raw = buffer.array();
+
+        if (predictor == 3) {
+            //-- store bytes by significance then difference them --//
+            final byte[] row = new byte[rowBytes];
+            final int count = rowBytes / sampleSize;
+            for (int r = 0; r < raw.length; r += rowBytes) {
+                for (int c = 0; c < count; c++) {
+                    for (int s = 0; s < sampleSize; s++) {
+                        row[s * count + c] = raw[r + c * sampleSize + s];
+                    }
+                }
+                for (int i = rowBytes - 1; i >= numBands; i--) {
+                    row[i] -= row[i - numBands];
+                }
+                System.arraycopy(row, 0, raw, r, rowBytes);
+            }
+        }
+
+        final Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            final byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                compressed.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+}
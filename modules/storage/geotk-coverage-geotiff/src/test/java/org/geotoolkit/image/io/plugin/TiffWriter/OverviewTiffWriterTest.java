@@ -0,0 +1,229 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.image.io.plugin.TiffWriter;
+
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import org.apache.sis.test.TestUtilities;
+import org.geotoolkit.image.io.plugin.TiffImageReader;
+import org.geotoolkit.image.io.plugin.TiffImageWriteParam;
+import org.geotoolkit.image.io.plugin.TiffImageWriter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link TiffImageWriter} Deflate predictors and internal overviews written in cloud optimized layout.
+ *
+ * @author Geotoolkit.org contributors
+ */
+public strictfp class OverviewTiffWriterTest {
+
+    /**
+     * TileOffsets tiff tag.
+     */
+    private static final int TILE_OFFSETS = 324;
+
+    private final Random random = TestUtilities.createRandomNumberGenerator();
+
+    private File tempDir;
+
+    private TiffImageWriter writer;
+
+    private TiffImageReader reader;
+
+    @Before
+    public void init() throws IOException {
+        tempDir = Files.createTempDirectory("tiffOverviewTests").toFile();
+        writer  = new TiffImageWriter(null);
+        reader  = new TiffImageReader(null);
+    }
+
+    @After
+    public void dispose() {
+        writer.dispose();
+        reader.dispose();
+        for (File f : tempDir.listFiles()) {
+            f.delete();
+        }
+        tempDir.delete();
+    }
+
+    /**
+     * Unsigned short image, in strips, with horizontal differencing.
+     */
+    @Test
+    public void stripUShortPredictorTest() throws IOException {
+        final BufferedImage source = createImage(DataBuffer.TYPE_USHORT, 3, 157, 93);
+        final TiffImageWriteParam param = createParam(2);
+        final File file = write(source, param);
+        checkRead(source, file, 0, 1);
+    }
+
+    /**
+     * Double image, tiled, with floating point predictor.
+     */
+    @Test
+    public void tiledDoublePredictorTest() throws IOException {
+        final BufferedImage source = createImage(DataBuffer.TYPE_DOUBLE, 1, 130, 211);
+        final TiffImageWriteParam param = createParam(3);
+        param.setTilingMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setTiling(48, 32, 0, 0);
+        final File file = write(source, param);
+        checkRead(source, file, 0, 1);
+    }
+
+    /**
+     * Float image with two overviews : all image file directories must be written before tiles,
+     * and tiles of smallest overview first.
+     */
+    @Test
+    public void overviewsTest() throws IOException {
+        final BufferedImage source = createImage(DataBuffer.TYPE_FLOAT, 1, 301, 199);
+        final TiffImageWriteParam param = createParam(3);
+        param.setTilingMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setTiling(32, 32, 0, 0);
+        param.setOverviews(2, 4);
+        final File file = write(source, param);
+
+        //-- overviews are thumbnails of the full resolution image --//
+        reader.setInput(file);
+        assertEquals(1, reader.getNumImages(true));
+        assertEquals(2, reader.getNumThumbnails(0));
+        assertEquals(151, reader.getThumbnailWidth(0, 0));
+        assertEquals(100, reader.getThumbnailHeight(0, 0));
+        assertEquals(76,  reader.getThumbnailWidth(0, 1));
+        assertEquals(50,  reader.getThumbnailHeight(0, 1));
+        checkRead(source, file, 0, 1);
+        checkRead(source, file, 1, 2);
+        checkRead(source, file, 2, 4);
+
+        //-- layout --//
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        buffer.order(buffer.get(0) == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        final List<long[]> levels = new ArrayList<>();
+        long lastIFD = 0;
+        for (int ifd = buffer.getInt(4); ifd != 0;) {
+            lastIFD = ifd;
+            final int numEntries = buffer.getShort(ifd) & 0xFFFF;
+            long[] offsets = null;
+            for (int e = 0; e < numEntries; e++) {
+                final int entry = ifd + 2 + e * 12;
+                final int tag   = buffer.getShort(entry) & 0xFFFF;
+                final int count = buffer.getInt(entry + 4);
+                if (tag == TILE_OFFSETS) {
+                    offsets = new long[count];
+                    final int pos = (count == 1) ? entry + 8 : buffer.getInt(entry + 8);
+                    for (int i = 0; i < count; i++) {
+                        offsets[i] = buffer.getInt(pos + 4 * i) & 0xFFFFFFFFL;
+                    }
+                }
+            }
+            assertNotNull(offsets);
+            levels.add(offsets);
+            ifd = buffer.getInt(ifd + 2 + numEntries * 12);
+        }
+        assertEquals(3, levels.size());
+        long previousMin = Long.MAX_VALUE;
+        for (long[] offsets : levels) {
+            long min = Long.MAX_VALUE;
+            for (long offset : offsets) {
+                assertTrue("Tiles must be written after image file directories.", offset > lastIFD);
+                min = Math.min(min, offset);
+            }
+            assertTrue("Tiles must be ordered from smallest overview to full resolution.", min < previousMin);
+            previousMin = min;
+        }
+    }
+
+    /**
+     * Invalid predictor for data type.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void invalidPredictorTest() throws IOException {
+        write(createImage(DataBuffer.TYPE_BYTE, 1, 20, 20), createParam(3));
+    }
+
+    private TiffImageWriteParam createParam(final int predictor) {
+        final TiffImageWriteParam param = (TiffImageWriteParam) writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionType("Deflate");
+        param.setPredictor(predictor);
+        return param;
+    }
+
+    private File write(final BufferedImage image, final TiffImageWriteParam param) throws IOException {
+        final File file = new File(tempDir, "test"+random.nextInt(Integer.MAX_VALUE)+".tiff");
+        writer.setOutput(file);
+        writer.write(image, param);
+        writer.dispose();
+        writer = new TiffImageWriter(null);
+        return file;
+    }
+
+    /**
+     * Check the image, or thumbnail at index {@code thumbnail - 1}, is the source image subsampled with given factor.
+     */
+    private void checkRead(final BufferedImage source, final File file, final int thumbnail, final int factor) throws IOException {
+        reader.setInput(file);
+        final Raster tested = ((thumbnail == 0) ? reader.read(0) : reader.readThumbnail(0, thumbnail - 1)).getRaster();
+        final Raster expected = source.getRaster();
+        assertEquals((expected.getWidth()  + factor - 1) / factor, tested.getWidth());
+        assertEquals((expected.getHeight() + factor - 1) / factor, tested.getHeight());
+        for (int y = 0; y < tested.getHeight(); y++) {
+            for (int x = 0; x < tested.getWidth(); x++) {
+                for (int b = 0; b < expected.getNumBands(); b++) {
+                    assertEquals(expected.getSampleDouble(x * factor, y * factor, b), tested.getSampleDouble(x, y, b), 0.0);
+                }
+            }
+        }
+    }
+
+    private BufferedImage createImage(final int dataType, final int numBands, final int width, final int height) {
+        final ColorSpace cs = ColorSpace.getInstance((numBands == 3) ? ColorSpace.CS_sRGB : ColorSpace.CS_GRAY);
+        final int[] bandOffsets = new int[numBands];
+        for (int b = 0; b < numBands; b++) bandOffsets[b] = b;
+        final BufferedImage image = ImageTypeSpecifier.createInterleaved(cs, bandOffsets, dataType, false, false)
+                .createBufferedImage(width, height);
+        final WritableRaster raster = image.getRaster();
+        //-- smooth values with noise, to be representative of predictor use --//
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                for (int b = 0; b < numBands; b++) {
+                    final double value = 1000 * Math.sin(x / 17.0) * Math.cos(y / 11.0) + random.nextInt(50);
+                    raster.setSample(x, y, b, (dataType == DataBuffer.TYPE_USHORT) ? Math.abs(value) : value);
+                }
+            }
+        }
+        return image;
+    }
+}
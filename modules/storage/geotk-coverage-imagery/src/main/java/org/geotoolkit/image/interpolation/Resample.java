@@ -21,11 +21,18 @@ import java.awt.geom.AffineTransform;
 import java.awt.image.DataBuffer;
 import java.awt.image.RenderedImage;
 import java.awt.image.WritableRenderedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import org.apache.sis.geometry.Envelope2D;
 import org.apache.sis.geometry.GeneralEnvelope;
 import org.apache.sis.util.ArgumentChecks;
 import org.apache.sis.geometry.Envelopes;
 import org.geotoolkit.image.io.large.WritableLargeRenderedImage;
+import org.geotoolkit.internal.Threads;
 import org.geotoolkit.image.iterator.PixelIterator;
 import org.geotoolkit.image.iterator.PixelIteratorFactory;
 import org.geotoolkit.math.XMath;
@@ -112,6 +119,21 @@ public class Resample {
      */
     ResampleGrid theGrid;
 
+    /**
+     * Source image and interpolation parameters, used to create an interpolation for each
+     * worker when destination tiles are filled concurrently.
+     * Image source is {@code null} when the interpolation has been given by caller,
+     * destination image is then filled by a single thread.
+     */
+    private final RenderedImage imageSrc;
+    private final InterpolationCase interpolationCase;
+    private final int lanczosWindow;
+
+    /**
+     * {@code true} to fill destination tiles concurrently when possible.
+     */
+    private boolean parallel = true;
+
     /**
      * <p>Fill destination image from interpolation of source pixels.<br/>
      * Source pixel coordinate is obtained from invert transformation of destination pixel coordinates.<br/>
@@ -282,6 +304,9 @@ public class Resample {
         //-- interpolation creation --//
         PixelIterator pix = PixelIteratorFactory.createDefaultIterator(imageSrc);
         interpol          = Interpolation.create(pix, interpolation, lanczosWindow, rbc, fillValue);
+        this.imageSrc          = imageSrc;
+        this.interpolationCase = interpolation;
+        this.lanczosWindow     = lanczosWindow;
 
         this.rbc   = rbc;
         this.clamp = getClamp(imageDest.getSampleModel().getDataType());
@@ -336,6 +361,9 @@ public class Resample {
         this.destIterator              = PixelIteratorFactory.createDefaultWriteableIterator(this.imageDest, this.imageDest, resampleArea);
         this.destToSourceMathTransform = mathTransform;
         this.interpol                  = interpol;
+        this.imageSrc                  = null;
+        this.interpolationCase         = null;
+        this.lanczosWindow             = 0;
         srcCoords  = new double[2];
         destCoords = new double[2];
         this.rbc   = rbc;
@@ -356,9 +384,11 @@ public class Resample {
     /**
      * Fill destination image from pre-computed grid.
      *
+     * @param destIterator iterator on the destination area to fill.
+     * @param interpol interpolation of source image pixels.
      * @throws TransformException
      */
-    private void fillImageByGrid() throws TransformException {
+    private void fillImageByGrid(final PixelIterator destIterator, final Interpolation interpol) throws TransformException {
 
         final double[] theGridArray  = theGrid.getGrid();
         final int stepX              = theGrid.getStepX();
@@ -416,7 +446,7 @@ public class Resample {
                 final int interMaxRastX = StrictMath.min(rMaxX, rectBound.x + rectBound.width);
 
                 //-- define minimum and maximum needed grid index in X direction.
-                final int gCMinX = (int) (interMinRastX - minGridY / stepX) + minGridXIndex;
+                final int gCMinX = (int) ((interMinRastX - minGridX) / stepX) + minGridXIndex;
                 /*
                  * Max grid index in X direction equal Math.ceil(intersectionX / stepX) + 1.
                  * With + 1 because gridWidth = sub-division on X axis + 1;
@@ -602,9 +632,14 @@ public class Resample {
     /**
      * Fill image without any grid, all pixels coordinates are transform by given {@link MathTransform}.
      *
+     * @param destIterator iterator on the destination area to fill.
+     * @param interpol interpolation of source image pixels.
      * @throws TransformException
      */
-    private void fillImageByAffineTransform(AffineTransform destCoordToSource) throws TransformException {
+    private void fillImageByAffineTransform(final PixelIterator destIterator, final Interpolation interpol,
+            final AffineTransform destCoordToSource) throws TransformException {
+        final double[] destCoords = new double[2];
+        final double[] srcCoords  = new double[2];
         int band;
         while (destIterator.next()) {
             band = 0;
@@ -638,9 +673,13 @@ public class Resample {
     /**
      * Fill image without any grid, all pixels coordinates are transform by given {@link MathTransform}.
      *
+     * @param destIterator iterator on the destination area to fill.
+     * @param interpol interpolation of source image pixels.
      * @throws TransformException
      */
-    private void fillImageByTransform() throws TransformException {
+    private void fillImageByTransform(final PixelIterator destIterator, final Interpolation interpol) throws TransformException {
+        final double[] destCoords = new double[2];
+        final double[] srcCoords  = new double[2];
         int band;
         while (destIterator.next()) {
             band = 0;
@@ -672,26 +711,163 @@ public class Resample {
 
     /**
      * Fill destination image from source image pixel interpolation.
+     * <p>
+     * When the resampled area covers several destination tiles and the interpolation
+     * has been created by this object, tiles are filled concurrently by the
+     * {@linkplain Threads#getParallelExecutor() shared executor}, each worker using
+     * its own source iterator and interpolation.
+     * </p>
      */
     public void fillImage() throws TransformException {
+        AffineTransform affine = null;
         if (destToSourceMathTransform instanceof MathTransform2D) {
             try {
                 final GridFactory gridFact = new GridFactory(0.125);
                 final Object object = gridFact.create((MathTransform2D) destToSourceMathTransform, destIterator.getBoundary(false));
                 if (object instanceof AffineTransform) {
-                    fillImageByAffineTransform((AffineTransform) object);
+                    affine = (AffineTransform) object;
                 } else {
                     theGrid = (ResampleGrid) object;
-                    fillImageByGrid();
                 }
-                return;
             } catch (TransformException ex) {
                 //-- leave to fall back
             } catch (ArithmeticException e) {
                 //-- leave to fall back
             }
         }
-        fillImageByTransform();
+
+        final Rectangle[] tiles = getParallelAreas();
+        if (tiles == null) {
+            fill(destIterator, interpol, affine);
+            return;
+        }
+        fillConcurrently(tiles, affine);
+    }
+
+    /**
+     * Splits the given tiles in at most {@link Threads#getParallelism()} chunks, fills
+     * the last chunk in the caller thread and the others in the shared executor.
+     * Waits for all chunks even in case of failure, since workers must not write
+     * in the destination image after this method returns.
+     */
+    private void fillConcurrently(final Rectangle[] tiles, final AffineTransform affine) throws TransformException {
+        final ExecutorService executor = Threads.getParallelExecutor();
+        final int numChunks = Math.min(tiles.length, Threads.getParallelism());
+        final List<Future<?>> tasks = new ArrayList<>(numChunks - 1);
+        Throwable failure = null;
+        try {
+            for (int c = 0; c < numChunks - 1; c++) {
+                final int start = (int) ((long) tiles.length *  c      / numChunks);
+                final int end   = (int) ((long) tiles.length * (c + 1) / numChunks);
+                tasks.add(executor.submit(new Callable<Object>() {
+                    @Override public Object call() throws TransformException {
+                        fillTiles(tiles, start, end, affine);
+                        return null;
+                    }
+                }));
+            }
+            fillTiles(tiles, (int) ((long) tiles.length * (numChunks - 1) / numChunks), tiles.length, affine);
+        } catch (TransformException | RuntimeException | Error e) {
+            failure = e;
+        }
+        boolean interrupted = false;
+        for (final Future<?> task : tasks) {
+            while (true) {
+                try {
+                    task.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    continue;
+                }
+                break;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            if (failure instanceof TransformException) throw (TransformException) failure;
+            if (failure instanceof RuntimeException)   throw (RuntimeException)   failure;
+            if (failure instanceof Error)              throw (Error)              failure;
+            throw new TransformException(failure.getLocalizedMessage(), failure);
+        }
+    }
+
+    /**
+     * Fills a range of destination tiles with its own iterators and interpolation.
+     */
+    private void fillTiles(final Rectangle[] tiles, final int start, final int end, AffineTransform affine)
+            throws TransformException {
+        //-- AffineTransform is not immutable, keep a copy for each chunk.
+        if (affine != null) affine = new AffineTransform(affine);
+        final Interpolation workerInterpol = Interpolation.create(PixelIteratorFactory.createDefaultIterator(imageSrc),
+                interpolationCase, lanczosWindow, rbc, fillValue);
+        for (int i = start; i < end; i++) {
+            fill(PixelIteratorFactory.createDefaultWriteableIterator(imageDest, imageDest, tiles[i]), workerInterpol, affine);
+        }
+    }
+
+    /**
+     * Fill the area of the given iterator, with the grid if one has been computed.
+     */
+    private void fill(final PixelIterator destIterator, final Interpolation interpol, final AffineTransform affine)
+            throws TransformException {
+        if (affine != null) {
+            fillImageByAffineTransform(destIterator, interpol, affine);
+        } else if (theGrid != null) {
+            fillImageByGrid(destIterator, interpol);
+        } else {
+            fillImageByTransform(destIterator, interpol);
+        }
+    }
+
+    /**
+     * Enable or disable the concurrent fill of destination tiles, enabled by default.
+     *
+     * @param parallel {@code false} to fill the destination image in the calling thread only.
+     * @since 4.00
+     */
+    public void setParallel(final boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Returns the destination tile areas to fill concurrently.
+     *
+     * @return intersections of the destination tiles with the resampled area,
+     *         or {@code null} if the image must be filled by a single thread.
+     */
+    private Rectangle[] getParallelAreas() {
+        if (!parallel || imageSrc == null || Threads.getParallelism() < 2) return null;
+        final Rectangle area = destIterator.getBoundary(true);
+        final int tileWidth  = imageDest.getTileWidth();
+        final int tileHeight = imageDest.getTileHeight();
+        final int gridX      = imageDest.getTileGridXOffset();
+        final int gridY      = imageDest.getTileGridYOffset();
+        final int minTX = (int) Math.floor((area.x - gridX) / (double) tileWidth);
+        final int minTY = (int) Math.floor((area.y - gridY) / (double) tileHeight);
+        final int maxTX = (int) Math.floor((area.x + area.width  - 1 - gridX) / (double) tileWidth);
+        final int maxTY = (int) Math.floor((area.y + area.height - 1 - gridY) / (double) tileHeight);
+        final long nbTiles = (long) (maxTX - minTX + 1) * (maxTY - minTY + 1);
+        if (area.isEmpty() || nbTiles < 2 || nbTiles > Integer.MAX_VALUE) return null;
+
+        //-- create the destination rasters before workers request them.
+        imageDest.getWritableTile(imageDest.getMinTileX(), imageDest.getMinTileY());
+        imageDest.releaseWritableTile(imageDest.getMinTileX(), imageDest.getMinTileY());
+
+        final Rectangle[] tiles = new Rectangle[(int) nbTiles];
+        int i = 0;
+        for (int ty = minTY; ty <= maxTY; ty++) {
+            for (int tx = minTX; tx <= maxTX; tx++) {
+                final Rectangle tile = new Rectangle(gridX + tx * tileWidth, gridY + ty * tileHeight, tileWidth, tileHeight);
+                tiles[i++] = tile.intersection(area);
+            }
+        }
+        return tiles;
     }
 
     /**
@@ -53,6 +53,15 @@ public class ImageCacheConfiguration extends Static {
      */
     public static final String KEY_CACHE_SWAP = "geotk.image.cache.swap";
 
+    /**
+     *  The {@linkplain System#getProperties() system properties} key which control
+     *  the LargeCache swap format.
+     *  Valid values : "true", "false"
+     *  If true tiles are written without encoding in a memory-mapped file per image, otherwise
+     *  each tile is encoded in its own file of the QuadTreeDirectory.
+     */
+    public static final String KEY_CACHE_SWAP_RAW = "geotk.image.cache.swap.raw";
+
     /**
      * Default memory size used if {@linkplain System#getProperties() system properties} {@linkplain #KEY_CACHE_MEMORY_SIZE}
      * property is not defined.
@@ -161,4 +170,27 @@ public class ImageCacheConfiguration extends Static {
     public static synchronized void setCacheSwapEnable(boolean allowSwap) {
         System.getProperties().setProperty(KEY_CACHE_SWAP, String.valueOf(allowSwap));
     }
+
+    /**
+     * Check in {@linkplain System#getProperties() system properties} for cache swap format configuration.
+     *
+     * @return return property value or {@code true} if property not found.
+     * @since 4.00
+     */
+    public static boolean isCacheSwapRaw() {
+        final String raw = System.getProperties().getProperty(KEY_CACHE_SWAP_RAW);
+        return raw == null || Boolean.parseBoolean(raw);
+    }
+
+    /**
+     * Set cache swap format in {@linkplain System#getProperties() system properties}.
+     * The value is used by images created after this call.
+     *
+     * @param raw {@code true} to write tiles without encoding in a memory-mapped file,
+     *        {@code false} to encode each tile in its own file.
+     * @since 4.00
+     */
+    public static synchronized void setCacheSwapRaw(boolean raw) {
+        System.getProperties().setProperty(KEY_CACHE_SWAP_RAW, String.valueOf(raw));
+    }
 }
@@ -30,10 +30,13 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.ref.PhantomReference;
 import java.lang.ref.ReferenceQueue;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -66,6 +69,12 @@ public class LargeMap extends PhantomReference<RenderedImage> {
     private final int numTilesX;
     private final int numTilesY;
     private final QuadTreeDirectory qTD;
+
+    /**
+     * Memory-mapped swap area, used instead of the quad tree directory when raw swap is enabled.
+     * @see ImageCacheConfiguration#isCacheSwapRaw()
+     */
+    private final RawTileSwap rawSwap;
     private final String dirPath;
     private final int riMinX;
     private final int riMinY;
@@ -88,6 +97,12 @@ public class LargeMap extends PhantomReference<RenderedImage> {
      */
     private final LinkedHashMap<Point, LargeRaster> tiles = new LinkedHashMap<>();
 
+    /**
+     * Tiles removed from memory but not written on disk yet, they are still returned by
+     * {@link #getRaster(int, int) } until the flush worker has written them.
+     */
+    private final Map<Point, LargeRaster> flushing = new HashMap<>();
+
     /**
      * <p>List which contain {@link java.awt.image.Raster} from {@link java.awt.image.RenderedImage} owner.<br/>
      * If some of {@link java.awt.image.Raster} weight within list exceed memory capacity, {@link java.awt.image.Raster} are stored
@@ -120,10 +135,16 @@ public class LargeMap extends PhantomReference<RenderedImage> {
 
         //quad tree directory architecture.
         this.dirPath = TEMPORARY_PATH + "/img_" + ri.hashCode();
-        if (enableSwap) {
-            this.qTD = new QuadTreeDirectory(dirPath, numTilesX, numTilesY, FORMAT, true);
+        final SampleModel tileModel = ri.getSampleModel().createCompatibleSampleModel(riTileWidth, riTileHeight);
+        if (enableSwap && ImageCacheConfiguration.isCacheSwapRaw() && RawTileSwap.isSupported(tileModel)) {
+            this.rawSwap = new RawTileSwap(tileModel);
+            this.qTD     = null;
+        } else if (enableSwap) {
+            this.rawSwap = null;
+            this.qTD     = new QuadTreeDirectory(dirPath, numTilesX, numTilesY, FORMAT, true);
         } else {
-            this.qTD = null;
+            this.rawSwap = null;
+            this.qTD     = null;
         }
 
         //reader writer
@@ -187,11 +208,14 @@ public class LargeMap extends PhantomReference<RenderedImage> {
         tileLock.writeLock().lock();
         try {
             tiles.remove(tileCorner);
+            flushing.remove(tileCorner);
         } finally {
             tileLock.writeLock().unlock();
         }
 
-        if (enableSwap) {
+        if (rawSwap != null) {
+            rawSwap.remove(tileCorner);
+        } else if (enableSwap) {
             //quad tree
             final File removeFile = new File(qTD.getPath(tileCorner.x, tileCorner.y));
             //delete on hard disk if exist.
@@ -210,6 +234,7 @@ public class LargeMap extends PhantomReference<RenderedImage> {
      */
     Raster getRaster(int tileX, int tileY) throws IOException, IllegalArgumentException {
         final Point tileCorner = new Point(tileX - minTileX, tileY - minTileY);
+        final LargeRaster flushed;
         // Check if queried raster is cached.
         try {
             tileLock.readLock().lock();
@@ -217,13 +242,28 @@ public class LargeMap extends PhantomReference<RenderedImage> {
             if (lRaster != null) {
                 return lRaster.getRaster();
             }
+            flushed = flushing.get(tileCorner);
         } finally {
             tileLock.readLock().unlock();
         }
 
+        if (flushed != null) {
+            // Tile is being written on disk, put it back in memory.
+            final WritableRaster raster = (WritableRaster) flushed.getRaster();
+            add(tileCorner, raster);
+            return raster;
+        }
+
         if (!enableSwap) {
             // raster not found in memory
             throw new IllegalArgumentException("Tile (" + tileX + ", " + tileY + ") not found in memory.");
+        } else if (rawSwap != null) {
+            final WritableRaster raster = rawSwap.read(tileCorner, WPOINT);
+            if (raster != null) {
+                final WritableRaster checkedRaster = checkRaster(raster, tileCorner);
+                add(tileCorner, checkedRaster);
+                return checkedRaster;
+            }
         } else {
             // If not, we must take it from input quad-tree.
             final File getFile = new File(qTD.getPath(tileCorner.x, tileCorner.y));
@@ -268,7 +308,10 @@ public class LargeMap extends PhantomReference<RenderedImage> {
             tileLock.writeLock().lock();
             remainingCapacity = memoryCapacity;
             tiles.clear();
-            if (enableSwap) {
+            flushing.clear();
+            if (rawSwap != null) {
+                rawSwap.clear();
+            } else if (enableSwap) {
                 qTD.cleanDirectory();
             }
         } finally {
@@ -315,6 +358,13 @@ public class LargeMap extends PhantomReference<RenderedImage> {
      * @throws java.io.IOException if impossible to write raster on disk.
      */
     private void writeRaster(LargeRaster lRaster) throws IOException {
+        if (rawSwap != null) {
+            final Point tileCorner = new Point(lRaster.getGridX(), lRaster.getGridY());
+            if (!rawSwap.contains(tileCorner) || isWritableRenderedImage) {
+                rawSwap.write(tileCorner, lRaster.getRaster());
+            }
+            return;
+        }
         final File tileFile = new File(qTD.getPath(lRaster.getGridX(), lRaster.getGridY()));
         if (!tileFile.exists() || isWritableRenderedImage) {
             final BufferedImage toWrite = new BufferedImage(
@@ -358,6 +408,31 @@ public class LargeMap extends PhantomReference<RenderedImage> {
         }
     }
 
+    /**
+     * Waits until the tiles exceeding the memory capacity have been written on disk.
+     *
+     * @throws InterruptedException if the current thread has been interrupted while waiting.
+     * @throws IllegalStateException if the flush failed.
+     */
+    void awaitFlush() throws InterruptedException {
+        while (true) {
+            final Future<Boolean> state;
+            synchronized (this) {
+                // Tiles added while a worker was running may need another one.
+                checkMap();
+                state = flushState;
+            }
+            if (state == null || state.isDone()) {
+                break;
+            }
+            try {
+                state.get();
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException(ex.getCause());
+            }
+        }
+    }
+
     private static ImageReader getImageReader() throws IOException {
         final Iterator<ImageReader> readers = ImageIO.getImageReadersByFormatName(FORMAT);
         if (readers.hasNext()) {
@@ -386,45 +461,61 @@ public class LargeMap extends PhantomReference<RenderedImage> {
         public Boolean call() {
             final Thread currentThread = Thread.currentThread();
             final LinkedList<LargeRaster> toFlush = new LinkedList<>();
+            final boolean exhausted;
 
             // While the cache size is exceeded, we flush tiles, beginning with the oldest one.
             tileLock.writeLock().lock();
-            tileLock.readLock().lock();
             try {
-                final Iterator<Point> tileIterator = tiles.keySet().iterator();
+                final Iterator<Map.Entry<Point, LargeRaster>> tileIterator = tiles.entrySet().iterator();
                 while (remainingCapacity < 0 && tileIterator.hasNext() && !currentThread.isInterrupted()) {
-                    final Point tileCorner = tileIterator.next();
-                    final LargeRaster largeRaster = tiles.get(tileCorner);
+                    final Map.Entry<Point, LargeRaster> entry = tileIterator.next();
+                    final LargeRaster largeRaster = entry.getValue();
                     if (largeRaster != null) {
                         remainingCapacity += largeRaster.getWeight();
                         tileIterator.remove();
                         if (enableSwap) {
                             toFlush.add(largeRaster);
+                            flushing.put(entry.getKey(), largeRaster);
                         }
                     }
                 }
-
-                // We've de-referenced tiles, now we can flush them without blocking other threads from reading this cache.
+                // Only a failure if every tile in memory has been evicted.
+                exhausted = remainingCapacity < 0 && !tileIterator.hasNext();
+            } finally {
                 tileLock.writeLock().unlock();
-                while (!toFlush.isEmpty()) {
-                    try {
-                        writeRaster(toFlush.poll());
-                    } catch (IOException e) {
-                        // If flush operation fails, it's not a severe error, cache will miss the tile, so source image will need to reload it.
-                        LOGGER.log(Level.WARNING, "Tile cannot be flushed, it will be lost !", e);
-                    }
-                }
+            }
 
-                if (remainingCapacity < 0) {
-                    throw new IllegalStateException("No tile available for flushing, but cache size has been exceeded.");
+            // We've de-referenced tiles, now we can flush them without blocking other threads,
+            // tiles waiting to be written are still available in the flushing map.
+            while (!toFlush.isEmpty()) {
+                final LargeRaster largeRaster = toFlush.poll();
+                try {
+                    writeRaster(largeRaster);
+                } catch (IOException e) {
+                    // If flush operation fails, it's not a severe error, cache will miss the tile, so source image will need to reload it.
+                    LOGGER.log(Level.WARNING, "Tile cannot be flushed, it will be lost !", e);
                 }
-                return true;
-            } finally {
-                if (tileLock.isWriteLockedByCurrentThread()) {
+                final Point tileCorner = new Point(largeRaster.getGridX(), largeRaster.getGridY());
+                tileLock.writeLock().lock();
+                try {
+                    if (flushing.get(tileCorner) == largeRaster) {
+                        flushing.remove(tileCorner);
+                    }
+                } finally {
                     tileLock.writeLock().unlock();
                 }
-                tileLock.readLock().unlock();
             }
+
+            if (exhausted) {
+                throw new IllegalStateException("No tile available for flushing, but cache size has been exceeded.");
+            }
+
+            // Tiles added while writing, or read back from the flushing map, may need another flush.
+            synchronized (LargeMap.this) {
+                flushState = null;
+            }
+            checkMap();
+            return true;
         }
     }
 }
@@ -0,0 +1,338 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2015, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.image.io.large;
+
+import java.awt.Point;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferDouble;
+import java.awt.image.DataBufferFloat;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DataBufferShort;
+import java.awt.image.DataBufferUShort;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Swap area of the tiles of one image, tile {@link DataBuffer} contents are stored without any
+ * encoding in fixed size slots of a single memory-mapped file.
+ *
+ * The file is created on first write and grows by segments of several slots, slots freed by
+ * removed tiles are reused. Tile sample models are kept in memory to rebuild the rasters.
+ *
+ * @author Geotoolkit.org contributors
+ */
+final class RawTileSwap {
+
+    /**
+     * Size of a mapped segment in bytes, a segment holds at least one slot.
+     */
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private final SampleModel tileModel;
+    private final int dataType;
+    private final int elementSize;
+    private final int slotSize;
+    private final int slotsPerSegment;
+
+    private final Map<Point,Slot> slots = new HashMap<>();
+    private final BitSet usedSlots = new BitSet();
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+    private File file;
+    private RandomAccessFile raf;
+
+    /**
+     * @param tileModel sample model of a full tile, defines the slot size.
+     */
+    RawTileSwap(final SampleModel tileModel) {
+        this.tileModel   = tileModel;
+        this.dataType    = tileModel.getDataType();
+        this.elementSize = DataBuffer.getDataTypeSize(dataType) / Byte.SIZE;
+        final DataBuffer db = tileModel.createDataBuffer();
+        final long size = (long) db.getSize() * db.getNumBanks() * elementSize;
+        if (size > SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Tile too large for raw swap : " + size + " bytes.");
+        }
+        this.slotSize        = (int) size;
+        this.slotsPerSegment = SEGMENT_SIZE / slotSize;
+    }
+
+    /**
+     * @return true if tiles of this data type can be stored.
+     */
+    static boolean isSupported(final SampleModel tileModel) {
+        switch (tileModel.getDataType()) {
+            case DataBuffer.TYPE_BYTE   :
+            case DataBuffer.TYPE_SHORT  :
+            case DataBuffer.TYPE_USHORT :
+            case DataBuffer.TYPE_INT    :
+            case DataBuffer.TYPE_FLOAT  :
+            case DataBuffer.TYPE_DOUBLE : break;
+            default : return false;
+        }
+        final long size = (long) tileModel.getWidth() * tileModel.getHeight() * tileModel.getNumDataElements()
+                * DataBuffer.getDataTypeSize(tileModel.getDataType()) / Byte.SIZE;
+        return size > 0 && size <= SEGMENT_SIZE;
+    }
+
+    /**
+     * @return true if the tile has been stored.
+     */
+    synchronized boolean contains(final Point tileCorner) {
+        return slots.containsKey(tileCorner);
+    }
+
+    /**
+     * Store the tile raster, replacing the previous one if any.
+     */
+    synchronized void write(final Point tileCorner, Raster raster) throws IOException {
+        DataBuffer db = raster.getDataBuffer();
+        if (db.getDataType() != dataType) {
+            throw new IOException("Unexpected raster data type : " + db.getDataType());
+        }
+        int[] bankLengths = getBankLengths(db);
+        if (getLength(bankLengths) > slotSize) {
+            //-- raster is a view over a larger buffer, copy the needed samples only.
+            final WritableRaster copy = Raster.createWritableRaster(
+                    tileModel.createCompatibleSampleModel(raster.getWidth(), raster.getHeight()), null);
+            copy.setRect(-raster.getMinX(), -raster.getMinY(), raster);
+            raster      = copy;
+            db          = copy.getDataBuffer();
+            bankLengths = getBankLengths(db);
+            if (getLength(bankLengths) > slotSize) {
+                throw new IOException("Raster too large for swap slot : " + getLength(bankLengths) + " bytes.");
+            }
+        }
+
+        Slot slot = slots.get(tileCorner);
+        if (slot == null) {
+            final int index = usedSlots.nextClearBit(0);
+            usedSlots.set(index);
+            slot = new Slot(index);
+            slots.put(new Point(tileCorner), slot);
+        }
+        slot.sampleModel = raster.getSampleModel();
+        slot.bankLengths = bankLengths;
+        slot.size        = db.getSize();
+        slot.offsets     = db.getOffsets();
+
+        final ByteBuffer buffer = getSlotBuffer(slot.index);
+        int position = 0;
+        for (int b = 0; b < bankLengths.length; b++) {
+            buffer.position(position);
+            switch (dataType) {
+                case DataBuffer.TYPE_BYTE   : buffer.put(((DataBufferByte) db).getData(b)); break;
+                case DataBuffer.TYPE_SHORT  : buffer.asShortBuffer().put(((DataBufferShort) db).getData(b)); break;
+                case DataBuffer.TYPE_USHORT : buffer.asShortBuffer().put(((DataBufferUShort) db).getData(b)); break;
+                case DataBuffer.TYPE_INT    : buffer.asIntBuffer().put(((DataBufferInt) db).getData(b)); break;
+                case DataBuffer.TYPE_FLOAT  : buffer.asFloatBuffer().put(((DataBufferFloat) db).getData(b)); break;
+                case DataBuffer.TYPE_DOUBLE : buffer.asDoubleBuffer().put(((DataBufferDouble) db).getData(b)); break;
+            }
+            position += bankLengths[b] * elementSize;
+        }
+    }
+
+    /**
+     * Rebuild a stored tile raster.
+     *
+     * @param location raster upper left corner.
+     * @return stored raster, or {@code null} if the tile has not been stored.
+     */
+    synchronized WritableRaster read(final Point tileCorner, final Point location) throws IOException {
+        final Slot slot = slots.get(tileCorner);
+        if (slot == null) return null;
+
+        final ByteBuffer buffer = getSlotBuffer(slot.index);
+        final int numBanks = slot.bankLengths.length;
+        //-- start position of each bank in the slot.
+        final int[] positions = new int[numBanks];
+        for (int b = 1; b < numBanks; b++) {
+            positions[b] = positions[b-1] + slot.bankLengths[b-1] * elementSize;
+        }
+        final DataBuffer db;
+        switch (dataType) {
+            case DataBuffer.TYPE_BYTE : {
+                final byte[][] data = new byte[numBanks][];
+                for (int b = 0; b < numBanks; b++) {
+                    data[b] = new byte[slot.bankLengths[b]];
+                    buffer.position(positions[b]);
+                    buffer.get(data[b]);
+                }
+                db = new DataBufferByte(data, slot.size, slot.offsets);
+                break;
+            }
+            case DataBuffer.TYPE_SHORT : {
+                final short[][] data = new short[numBanks][];
+                for (int b = 0; b < numBanks; b++) {
+                    data[b] = new short[slot.bankLengths[b]];
+                    buffer.position(positions[b]);
+                    buffer.asShortBuffer().get(data[b]);
+                }
+                db = new DataBufferShort(data, slot.size, slot.offsets);
+                break;
+            }
+            case DataBuffer.TYPE_USHORT : {
+                final short[][] data = new short[numBanks][];
+                for (int b = 0; b < numBanks; b++) {
+                    data[b] = new short[slot.bankLengths[b]];
+                    buffer.position(positions[b]);
+                    buffer.asShortBuffer().get(data[b]);
+                }
+                db = new DataBufferUShort(data, slot.size, slot.offsets);
+                break;
+            }
+            case DataBuffer.TYPE_INT : {
+                final int[][] data = new int[numBanks][];
+                for (int b = 0; b < numBanks; b++) {
+                    data[b] = new int[slot.bankLengths[b]];
+                    buffer.position(positions[b]);
+                    buffer.asIntBuffer().get(data[b]);
+                }
+                db = new DataBufferInt(data, slot.size, slot.offsets);
+                break;
+            }
+            case DataBuffer.TYPE_FLOAT : {
+                final float[][] data = new float[numBanks][];
+                for (int b = 0; b < numBanks; b++) {
+                    data[b] = new float[slot.bankLengths[b]];
+                    buffer.position(positions[b]);
+                    buffer.asFloatBuffer().get(data[b]);
+                }
+                db = new DataBufferFloat(data, slot.size, slot.offsets);
+                break;
+            }
+            case DataBuffer.TYPE_DOUBLE : {
+                final double[][] data = new double[numBanks][];
+                for (int b = 0; b < numBanks; b++) {
+                    data[b] = new double[slot.bankLengths[b]];
+                    buffer.position(positions[b]);
+                    buffer.asDoubleBuffer().get(data[b]);
+                }
+                db = new DataBufferDouble(data, slot.size, slot.offsets);
+                break;
+            }
+            default : throw new IOException("Unsupported data type : " + dataType);
+        }
+        return Raster.createWritableRaster(slot.sampleModel, db, location);
+    }
+
+    /**
+     * Free the slot of the given tile.
+     */
+    synchronized void remove(final Point tileCorner) {
+        final Slot slot = slots.remove(tileCorner);
+        if (slot != null) {
+            usedSlots.clear(slot.index);
+        }
+    }
+
+    /**
+     * Free all slots and delete the swap file.
+     * The file will be created again on next write.
+     */
+    synchronized void clear() {
+        slots.clear();
+        usedSlots.clear();
+        segments.clear();
+        if (raf != null) {
+            try {
+                raf.close();
+            } catch (IOException ex) {
+                //-- file is deleted anyway
+            }
+            raf = null;
+        }
+        if (file != null) {
+            //-- mapped segments may still prevent deletion on some systems until collected.
+            if (!file.delete()) file.deleteOnExit();
+            file = null;
+        }
+    }
+
+    /**
+     * Returns a buffer positioned at the start of the slot, limited to the slot size.
+     */
+    private ByteBuffer getSlotBuffer(final int index) throws IOException {
+        final int segmentIndex = index / slotsPerSegment;
+        while (segments.size() <= segmentIndex) {
+            if (raf == null) {
+                file = File.createTempFile("img_", ".tiles");
+                file.deleteOnExit();
+                raf = new RandomAccessFile(file, "rw");
+            }
+            final long start = (long) segments.size() * slotsPerSegment * slotSize;
+            final MappedByteBuffer segment = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, start, (long) slotsPerSegment * slotSize);
+            segments.add(segment);
+        }
+        final ByteBuffer buffer = segments.get(segmentIndex).duplicate();
+        final int start = (index % slotsPerSegment) * slotSize;
+        buffer.position(start);
+        buffer.limit(start + slotSize);
+        return buffer.slice().order(ByteOrder.nativeOrder());
+    }
+
+    private static int[] getBankLengths(final DataBuffer db) {
+        final int[] lengths = new int[db.getNumBanks()];
+        for (int b = 0; b < lengths.length; b++) {
+            final Object array;
+            if      (db instanceof DataBufferByte)   array = ((DataBufferByte)   db).getData(b);
+            else if (db instanceof DataBufferShort)  array = ((DataBufferShort)  db).getData(b);
+            else if (db instanceof DataBufferUShort) array = ((DataBufferUShort) db).getData(b);
+            else if (db instanceof DataBufferInt)    array = ((DataBufferInt)    db).getData(b);
+            else if (db instanceof DataBufferFloat)  array = ((DataBufferFloat)  db).getData(b);
+            else                                     array = ((DataBufferDouble) db).getData(b);
+            lengths[b] = Array.getLength(array);
+        }
+        return lengths;
+    }
+
+    private long getLength(final int[] bankLengths) {
+        long length = 0;
+        for (int l : bankLengths) length += l;
+        return length * elementSize;
+    }
+
+    /**
+     * Position of a stored tile and the layout needed to rebuild its raster.
+     */
+    private static final class Slot {
+        private final int index;
+        private SampleModel sampleModel;
+        private int[] bankLengths;
+        private int size;
+        private int[] offsets;
+
+        private Slot(final int index) {
+            this.index = index;
+        }
+    }
+}
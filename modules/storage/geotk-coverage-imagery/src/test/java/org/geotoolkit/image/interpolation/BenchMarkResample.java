@@ -16,7 +16,9 @@
  */
 package org.geotoolkit.image.interpolation;
 
+import java.awt.Dimension;
 import java.awt.image.BufferedImage;
+import java.awt.image.WritableRenderedImage;
 import java.util.Random;
 import org.apache.sis.geometry.Envelope2D;
 import org.apache.sis.internal.referencing.j2d.AffineTransform2D;
@@ -25,6 +27,7 @@ import org.apache.sis.referencing.operation.transform.MathTransforms;
 import org.apache.sis.geometry.Envelopes;
 import org.geotoolkit.image.internal.ImageUtils;
 import org.geotoolkit.image.internal.SampleType;
+import org.geotoolkit.image.io.large.WritableLargeRenderedImage;
 import org.geotoolkit.image.iterator.PixelIterator;
 import org.geotoolkit.image.iterator.PixelIteratorFactory;
 import org.geotoolkit.referencing.CRS;
@@ -213,4 +216,35 @@ public class BenchMarkResample {
         System.out.println("stats mercator : "+stats);
 
     }
+
+    /**
+     * Compare sequential and concurrent fill of a tiled destination image for each interpolation.
+     */
+    @Test
+    @Ignore
+    public void benchParallelTest() throws Exception {
+        final MathTransform destToSource = mercatTransform;
+        final WritableRenderedImage tiled = new WritableLargeRenderedImage(0, 0, SRC_WIDTH, SRC_HEIGHT,
+                new Dimension(256, 256), 0, 0, target.getColorModel());
+
+        for (InterpolationCase interpolation : new InterpolationCase[]{InterpolationCase.NEIGHBOR,
+                InterpolationCase.BILINEAR, InterpolationCase.BICUBIC, InterpolationCase.LANCZOS}) {
+            for (boolean parallel : new boolean[]{false, true}) {
+                final Statistics stats = new Statistics(interpolation + (parallel ? " parallel" : " sequential"));
+                int n = 0;
+                while (n++ < 15) {
+                    final Resample resample = new Resample(destToSource, tiled, source,
+                            interpolation, ResampleBorderComportement.EXTRAPOLATION, new double[]{0});
+                    resample.setParallel(parallel);
+                    final long t0 = System.currentTimeMillis();
+                    resample.fillImage();
+                    final long t = System.currentTimeMillis() - t0;
+                    if (n > 5) {
+                        stats.accept(t);
+                    }
+                }
+                System.out.println(stats);
+            }
+        }
+    }
 }
@@ -16,6 +16,7 @@
  */
 package org.geotoolkit.image.interpolation;
 
+import java.awt.Dimension;
 import java.awt.Transparency;
 import java.awt.color.ColorSpace;
 import java.awt.image.*;
@@ -24,6 +25,7 @@ import org.apache.sis.geometry.Envelope2D;
 import org.apache.sis.internal.referencing.j2d.AffineTransform2D;
 import org.apache.sis.referencing.operation.transform.MathTransforms;
 import org.apache.sis.geometry.Envelopes;
+import org.geotoolkit.image.io.large.WritableLargeRenderedImage;
 import org.geotoolkit.image.iterator.PixelIterator;
 import org.geotoolkit.image.iterator.PixelIteratorFactory;
 import org.geotoolkit.referencing.CRS;
@@ -454,6 +456,59 @@ public class ResampleTest {
         return (t - t0) * (f1 - f0) + f0;
     }
 
+    /**
+     * Concurrent fill of destination tiles must give the same result as the sequential fill,
+     * with an affine transform and with a transform approximated by a grid.
+     */
+    @Test
+    public void parallelFillTest() throws FactoryException, TransformException {
+        final ColorSpace cs = ColorSpace.getInstance(ColorSpace.CS_GRAY);
+        final ColorModel cm = new ComponentColorModel(cs, new int[]{Float.SIZE}, false, false, Transparency.OPAQUE, DataBuffer.TYPE_FLOAT);
+        final ImageTypeSpecifier imgTypeSpec = new ImageTypeSpecifier(cm, cm.createCompatibleSampleModel(1, 1));
+        sourceImg = imgTypeSpec.createBufferedImage(20, 20);
+        final PixelIterator pix = PixelIteratorFactory.createDefaultWriteableIterator(sourceImg, sourceImg);
+        int i = 0;
+        while (pix.next()) {
+            pix.setSampleDouble((i++ * 7) % 13);
+        }
+
+        final MathTransform scale = new AffineTransform2D(0.4, 0.1, -0.1, 0.4, 1, 1);
+
+        final CoordinateReferenceSystem crs = CRS.decode("EPSG:2154");
+        final ProjectedCRS projCRS = (ProjectedCRS) crs;
+        final MathTransform mt = projCRS.getConversionFromBase().getMathTransform();
+        final Envelope srcEnv  = new Envelope2D(projCRS.getBaseCRS(), 45, -8, 5, 16);
+        final Envelope destEnv = Envelopes.transform(mt, srcEnv);
+        final MathTransform srcGridToCrs  = MathTransforms.concatenate(pixelInCellCenter,
+                new AffineTransform2D(srcEnv.getSpan(0) / 20, 0, 0, -srcEnv.getSpan(1) / 20, srcEnv.getMinimum(0), srcEnv.getMaximum(1)));
+        final MathTransform destGridToCrs = MathTransforms.concatenate(pixelInCellCenter,
+                new AffineTransform2D(destEnv.getSpan(0) / 50, 0, 0, -destEnv.getSpan(1) / 50, destEnv.getMinimum(0), destEnv.getMaximum(1)));
+        final MathTransform projection = MathTransforms.concatenate(srcGridToCrs, mt, destGridToCrs.inverse()).inverse();
+
+        for (MathTransform destToSrc : new MathTransform[]{scale, projection}) {
+            for (InterpolationCase interpolation : new InterpolationCase[]{InterpolationCase.NEIGHBOR,
+                    InterpolationCase.BILINEAR, InterpolationCase.BICUBIC, InterpolationCase.LANCZOS}) {
+                final WritableRenderedImage expected = new WritableLargeRenderedImage(0, 0, 50, 50, new Dimension(16, 16), 0, 0, cm);
+                final WritableRenderedImage result   = new WritableLargeRenderedImage(0, 0, 50, 50, new Dimension(16, 16), 0, 0, cm);
+
+                Resample resample = new Resample(destToSrc, expected, sourceImg, interpolation, ResampleBorderComportement.FILL_VALUE, new double[]{-1});
+                resample.setParallel(false);
+                resample.fillImage();
+
+                resample = new Resample(destToSrc, result, sourceImg, interpolation, ResampleBorderComportement.FILL_VALUE, new double[]{-1});
+                resample.fillImage();
+
+                final PixelIterator expectedIte = PixelIteratorFactory.createRowMajorIterator(expected);
+                final PixelIterator resultIte   = PixelIteratorFactory.createRowMajorIterator(result);
+                while (expectedIte.next()) {
+                    assertTrue(resultIte.next());
+                    assertEquals(interpolation.name(), expectedIte.getSampleDouble(), resultIte.getSampleDouble(), 0);
+                }
+                assertFalse(resultIte.next());
+            }
+        }
+    }
+
     /**
      * Affect appropriate image for tests.
      *
@@ -0,0 +1,219 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2015, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.image.io.large;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.Transparency;
+import java.awt.color.ColorSpace;
+import java.awt.image.BandedSampleModel;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.lang.ref.ReferenceQueue;
+import java.awt.image.RenderedImage;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tiles swapped on disk by {@link LargeMap} must be read back unchanged.
+ *
+ * @author Geotoolkit.org contributors
+ */
+public class LargeMapSwapTest {
+
+    private static final int TILE_SIZE = 64;
+
+    @After
+    public void resetConfiguration() {
+        System.getProperties().remove(ImageCacheConfiguration.KEY_CACHE_SWAP_RAW);
+    }
+
+    @Test
+    public void rawSwapTest() throws Exception {
+        ImageCacheConfiguration.setCacheSwapRaw(true);
+        swapTest();
+    }
+
+    @Test
+    public void encodedSwapTest() throws Exception {
+        ImageCacheConfiguration.setCacheSwapRaw(false);
+        swapTest();
+    }
+
+    /**
+     * Raw swap must keep banded layouts and rasters smaller than a full tile.
+     */
+    @Test
+    public void rawSwapLayoutTest() throws Exception {
+        final SampleModel tileModel = new BandedSampleModel(DataBuffer.TYPE_SHORT, TILE_SIZE, TILE_SIZE, 3);
+        final RawTileSwap swap = new RawTileSwap(tileModel);
+        try {
+            final WritableRaster full  = createRaster(tileModel, 1);
+            final WritableRaster small = createRaster(tileModel.createCompatibleSampleModel(20, 10), 2);
+            swap.write(new Point(0, 0), full);
+            swap.write(new Point(1, 0), small);
+            assertSameSamples(full,  swap.read(new Point(0, 0), new Point(0, 0)));
+            assertSameSamples(small, swap.read(new Point(1, 0), new Point(0, 0)));
+
+            //-- freed slot is reused and overwritten.
+            swap.remove(new Point(0, 0));
+            assertNull(swap.read(new Point(0, 0), new Point(0, 0)));
+            final WritableRaster other = createRaster(tileModel, 3);
+            swap.write(new Point(2, 2), other);
+            assertSameSamples(other, swap.read(new Point(2, 2), new Point(0, 0)));
+            assertSameSamples(small, swap.read(new Point(1, 0), new Point(0, 0)));
+        } finally {
+            swap.clear();
+        }
+    }
+
+    /**
+     * Fill a map whose capacity holds a few tiles only, then read all tiles back.
+     */
+    private static void swapTest() throws Exception {
+        final RenderedImage image = createImage(8, 8, DataBuffer.TYPE_FLOAT);
+        final long tileWeight = TILE_SIZE * TILE_SIZE * 4;
+        final LargeMap map = new LargeMap(image, new ReferenceQueue<RenderedImage>(), tileWeight * 4, true);
+        try {
+            final WritableRaster[] expected = new WritableRaster[image.getNumXTiles() * image.getNumYTiles()];
+            for (int ty = 0; ty < image.getNumYTiles(); ty++) {
+                for (int tx = 0; tx < image.getNumXTiles(); tx++) {
+                    final WritableRaster raster = createRaster(image.getSampleModel(), ty * 8 + tx);
+                    expected[ty * 8 + tx] = raster.createCompatibleWritableRaster();
+                    expected[ty * 8 + tx].setRect(raster);
+                    map.add(tx, ty, raster);
+                }
+            }
+            //-- read tiles back from disk, not from the tiles waiting to be written --//
+            map.awaitFlush();
+            for (int ty = 0; ty < image.getNumYTiles(); ty++) {
+                for (int tx = 0; tx < image.getNumXTiles(); tx++) {
+                    final Raster raster = map.getRaster(tx, ty);
+                    assertEquals(tx * TILE_SIZE, raster.getMinX());
+                    assertEquals(ty * TILE_SIZE, raster.getMinY());
+                    assertSameSamples(expected[ty * 8 + tx], raster);
+                }
+            }
+        } finally {
+            map.removeTiles();
+        }
+    }
+
+    /**
+     * Tiles added or read back while the flush worker writes tiles must not make the flush fail.
+     */
+    @Test
+    public void addDuringFlushTest() throws Exception {
+        ImageCacheConfiguration.setCacheSwapRaw(true);
+        final RenderedImage image = createImage(8, 8, DataBuffer.TYPE_FLOAT);
+        final long tileWeight = TILE_SIZE * TILE_SIZE * 4;
+        final LargeMap map = new LargeMap(image, new ReferenceQueue<RenderedImage>(), tileWeight * 4, true);
+        try {
+            final WritableRaster[] expected = new WritableRaster[64];
+            for (int i = 0; i < 64; i++) {
+                final WritableRaster raster = createRaster(image.getSampleModel(), i);
+                expected[i] = raster.createCompatibleWritableRaster();
+                expected[i].setRect(raster);
+                map.add(i % 8, i / 8, raster);
+                //-- oldest tiles are being flushed, read them back in memory --//
+                for (int k = Math.max(0, i - 6); k < i; k++) {
+                    map.getRaster(k % 8, k / 8);
+                }
+            }
+            map.awaitFlush();
+            for (int i = 0; i < 64; i++) {
+                assertSameSamples(expected[i], map.getRaster(i % 8, i / 8));
+            }
+            map.awaitFlush();
+        } finally {
+            map.removeTiles();
+        }
+    }
+
+    /**
+     * Compare tile swapping time of the raw and encoded formats.
+     */
+    @Test
+    @Ignore
+    public void benchSwapTest() throws Exception {
+        for (boolean raw : new boolean[]{false, true, false, true}) {
+            ImageCacheConfiguration.setCacheSwapRaw(raw);
+            final RenderedImage image = createImage(32, 32, DataBuffer.TYPE_FLOAT);
+            final LargeMap map = new LargeMap(image, new ReferenceQueue<RenderedImage>(), TILE_SIZE * TILE_SIZE * 4 * 16, true);
+            final long t0 = System.nanoTime();
+            for (int ty = 0; ty < 32; ty++) {
+                for (int tx = 0; tx < 32; tx++) {
+                    map.add(tx, ty, createRaster(image.getSampleModel(), tx + ty));
+                }
+            }
+            //-- add() only submits the tiles to write --//
+            map.awaitFlush();
+            final long t1 = System.nanoTime();
+            for (int ty = 0; ty < 32; ty++) {
+                for (int tx = 0; tx < 32; tx++) {
+                    map.getRaster(tx, ty);
+                }
+            }
+            final long t2 = System.nanoTime();
+            map.removeTiles();
+            System.out.println((raw ? "raw" : "encoded") + " : write " + (t1 - t0) / 1000000 + " ms, read " + (t2 - t1) / 1000000 + " ms");
+        }
+    }
+
+    private static RenderedImage createImage(final int numXTiles, final int numYTiles, final int dataType) {
+        final ColorModel cm = new ComponentColorModel(ColorSpace.getInstance(ColorSpace.CS_GRAY),
+                false, false, Transparency.OPAQUE, dataType);
+        return new WritableLargeRenderedImage(0, 0, numXTiles * TILE_SIZE, numYTiles * TILE_SIZE,
+                new Dimension(TILE_SIZE, TILE_SIZE), 0, 0, cm);
+    }
+
+    private static WritableRaster createRaster(final SampleModel model, final long seed) {
+        final WritableRaster raster = Raster.createWritableRaster(model.createCompatibleSampleModel(
+                Math.min(model.getWidth(), TILE_SIZE), Math.min(model.getHeight(), TILE_SIZE)), null);
+        final Random random = new Random(seed);
+        for (int y = 0; y < raster.getHeight(); y++) {
+            for (int x = 0; x < raster.getWidth(); x++) {
+                for (int b = 0; b < raster.getNumBands(); b++) {
+                    raster.setSample(x, y, b, random.nextInt(1000));
+                }
+            }
+        }
+        return raster;
+    }
+
+    private static void assertSameSamples(final Raster expected, final Raster result) {
+        assertEquals(expected.getWidth(),    result.getWidth());
+        assertEquals(expected.getHeight(),   result.getHeight());
+        assertEquals(expected.getNumBands(), result.getNumBands());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                for (int b = 0; b < expected.getNumBands(); b++) {
+                    assertEquals(expected.getSampleDouble(expected.getMinX() + x, expected.getMinY() + y, b),
+                                 result.getSampleDouble(result.getMinX() + x, result.getMinY() + y, b), 0);
+                }
+            }
+        }
+    }
+}
@@ -402,6 +402,7 @@ public class PGCoverageReference extends AbstractPyramidalCoverageReference {
 
             insertStmt = cnx.createStatement();
             insertStmt.executeUpdate(query.toString());
+            setTileExist(pyramidId, mosaicId, col, row);
 
             final CoverageStoreContentEvent event = fireTileUpdated(pyramidId, mosaicId, Collections.singletonList(new Point(col,row)));
             getStore().forwardContentEvent(event);
@@ -417,6 +418,22 @@ public class PGCoverageReference extends AbstractPyramidalCoverageReference {
 
     }
 
+    /**
+     * Mark the tile as existing in the mosaic bitmap, the pyramid model is not
+     * rebuilt after a tile insertion.
+     */
+    private void setTileExist(String pyramidId, String mosaicId, int col, int row) {
+        for (final Pyramid p : pyramidSet.getPyramids()) {
+            if (p.getId().equals(pyramidId)) {
+                for(GridMosaic mosaic : p.getMosaics()){
+                    if (mosaic.getId().equals(mosaicId)) {
+                        ((PGGridMosaic)mosaic).setTileExist(col, row, true);
+                    }
+                }
+            }
+        }
+    }
+
     @Override
     public void deleteTile(String pyramidId, String mosaicId, int col, int row) throws DataStoreException {
         Connection cnx = null;
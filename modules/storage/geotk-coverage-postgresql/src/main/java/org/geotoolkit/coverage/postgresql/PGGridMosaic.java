@@ -22,22 +22,56 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import org.geotoolkit.internal.Threads;
 import org.geotoolkit.storage.coverage.AbstractGridMosaic;
 import org.geotoolkit.storage.coverage.Pyramid;
 import org.geotoolkit.storage.coverage.TileReference;
 import org.apache.sis.storage.DataStoreException;
+import org.geotoolkit.util.Cancellable;
 import org.opengis.geometry.DirectPosition;
 
 /**
+ * Mosaic stored in the "Tile" table.
+ * The positions of existing tiles are loaded once in a bitmap, so testing if a tile
+ * is missing does not query the database. Tile sets are fetched in binary with a
+ * single query and pushed in the queue while rows arrive.
  *
  * @author Johann Sorel
  */
 public class PGGridMosaic extends AbstractGridMosaic{
 
+    /**
+     * Maximum number of positions in a single IN clause.
+     */
+    private static final int MAX_POSITIONS_PER_QUERY = 1000;
+
+    /**
+     * Number of rows fetched at once, tiles are queued as soon as they are fetched.
+     */
+    private static final int FETCH_SIZE = 16;
+
+    /**
+     * Maximum number of cells of the bitmap of existing tiles (512 KB), larger grids query each tile.
+     */
+    static final int MAX_BITMAP_CELLS = 1 << 22;
+
     private final PGCoverageReference ref;
     private final long id;
 
+    /**
+     * Existing tiles, indexed by row*gridWidth+col, null if not loaded yet.
+     */
+    private BitSet tileExist;
+
     public PGGridMosaic(final PGCoverageReference ref, final long id,
             Pyramid pyramid, DirectPosition upperLeft, Dimension gridSize, Dimension tileSize, double scale) {
         super(String.valueOf(id),pyramid, upperLeft, gridSize, tileSize, scale);
@@ -47,6 +81,23 @@ public class PGGridMosaic extends AbstractGridMosaic{
 
     @Override
     public boolean isMissing(int col, int row) {
+        final Dimension gridSize = getGridSize();
+        if(col < 0 || row < 0 || col >= gridSize.width || row >= gridSize.height){
+            return true;
+        }
+        final BitSet exist = getTileExist();
+        if(exist != null){
+            synchronized(exist){
+                return !exist.get(row*gridSize.width + col);
+            }
+        }
+        return queryIsMissing(col, row);
+    }
+
+    /**
+     * Grid too large for a bitmap, query the tile.
+     */
+    boolean queryIsMissing(int col, int row) {
         Connection cnx = null;
         Statement stmt = null;
         ResultSet rs = null;
@@ -74,6 +125,74 @@ public class PGGridMosaic extends AbstractGridMosaic{
         }
     }
 
+    /**
+     * Load the positions of existing tiles on first call.
+     *
+     * @return bitmap of existing tiles, or null if the grid is too large.
+     */
+    private synchronized BitSet getTileExist() {
+        if(tileExist != null){
+            return tileExist;
+        }
+        final Dimension gridSize = getGridSize();
+        if((long)gridSize.width * gridSize.height > MAX_BITMAP_CELLS){
+            return null;
+        }
+
+        final BitSet exist = new BitSet(gridSize.width * gridSize.height);
+        try{
+            loadTileExist(exist, gridSize);
+        }catch(SQLException ex){
+            throw new RuntimeException(ex);
+        }
+        tileExist = exist;
+        return tileExist;
+    }
+
+    /**
+     * Set the bits of the existing tiles of this mosaic.
+     *
+     * @param exist bitmap to fill, indexed by row*gridWidth+col
+     * @param gridSize mosaic grid size
+     */
+    void loadTileExist(final BitSet exist, final Dimension gridSize) throws SQLException {
+        Connection cnx = null;
+        Statement stmt = null;
+        ResultSet rs = null;
+        try{
+            cnx = ref.getStore().getDataSource().getConnection();
+            stmt = cnx.createStatement();
+
+            final StringBuilder query = new StringBuilder();
+            query.append("SELECT \"positionX\",\"positionY\" FROM ");
+            query.append(ref.getStore().encodeTableName("Tile"));
+            query.append(" WHERE \"mosaicId\"=").append(getDatabaseId());
+
+            rs = stmt.executeQuery(query.toString());
+            while(rs.next()){
+                final int col = rs.getInt(1);
+                final int row = rs.getInt(2);
+                if(col >= 0 && row >= 0 && col < gridSize.width && row < gridSize.height){
+                    exist.set(row*gridSize.width + col);
+                }
+            }
+        }finally{
+            ref.getStore().closeSafe(cnx, stmt, rs);
+        }
+    }
+
+    /**
+     * Update the bitmap of existing tiles after a tile has been written or deleted.
+     */
+    synchronized void setTileExist(int col, int row, boolean exist) {
+        final Dimension gridSize = getGridSize();
+        if(tileExist != null && col >= 0 && row >= 0 && col < gridSize.width && row < gridSize.height){
+            synchronized(tileExist){
+                tileExist.set(row*gridSize.width + col, exist);
+            }
+        }
+    }
+
     public long getDatabaseId() {
         return id;
     }
@@ -88,4 +207,149 @@ public class PGGridMosaic extends AbstractGridMosaic{
         return tile;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Missing tiles are skipped, the others are fetched in a background thread
+     * and queued as they arrive. A fetching failure is queued as a {@link DataStoreException}.
+     * </p>
+     */
+    @Override
+    public BlockingQueue<Object> getTiles(Collection<? extends Point> positions, Map hints) throws DataStoreException {
+        //room for the tiles, a failure and the end of the queue
+        final TileQueue queue = new TileQueue(positions.size()+2);
+
+        final Set<Point> toFetch = new HashSet<>();
+        for(Point p : positions){
+            if(!isMissing(p.x, p.y)){
+                toFetch.add(new Point(p));
+            }
+        }
+        if(toFetch.isEmpty()){
+            queue.offer(END_OF_QUEUE);
+            return queue;
+        }
+
+        Threads.executeWork(new Runnable() {
+            @Override
+            public void run() {
+                try{
+                    fetchTiles(toFetch, queue);
+                }catch(SQLException | RuntimeException ex){
+                    queue.offer(new DataStoreException("Failed to fetch tiles of mosaic "+getDatabaseId()+" : "+ex.getMessage(), ex));
+                }finally{
+                    queue.offer(END_OF_QUEUE);
+                }
+            }
+        });
+        return queue;
+    }
+
+    /**
+     * Create the SQL conditions selecting the given positions : a range condition if
+     * the positions cover most of their bounding rectangle, lists of positions otherwise.
+     */
+    static List<String> positionConditions(final Set<Point> positions) {
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for(Point p : positions){
+            minX = Math.min(minX, p.x); maxX = Math.max(maxX, p.x);
+            minY = Math.min(minY, p.y); maxY = Math.max(maxY, p.y);
+        }
+        final long area = (long)(maxX-minX+1) * (maxY-minY+1);
+
+        final List<String> conditions = new ArrayList<>();
+        if(area <= 2L * positions.size()){
+            conditions.add("\"positionX\" BETWEEN "+minX+" AND "+maxX
+                    +" AND \"positionY\" BETWEEN "+minY+" AND "+maxY);
+        }else{
+            StringBuilder sb = null;
+            int count = 0;
+            for(Point p : positions){
+                if(sb == null){
+                    sb = new StringBuilder("(\"positionX\",\"positionY\") IN (");
+                }else{
+                    sb.append(',');
+                }
+                sb.append('(').append(p.x).append(',').append(p.y).append(')');
+                if(++count == MAX_POSITIONS_PER_QUERY){
+                    conditions.add(sb.append(')').toString());
+                    sb = null;
+                    count = 0;
+                }
+            }
+            if(sb != null){
+                conditions.add(sb.append(')').toString());
+            }
+        }
+        return conditions;
+    }
+
+    /**
+     * Fetch the tiles and push them in the queue, until the queue is cancelled.
+     */
+    void fetchTiles(final Set<Point> positions, final TileQueue queue) throws SQLException {
+        final PGCoverageStore store = ref.getStore();
+        final List<String> conditions = positionConditions(positions);
+
+        Connection cnx = null;
+        Statement stmt = null;
+        ResultSet rs = null;
+        try{
+            cnx = store.getDataSource().getConnection();
+            //the driver fetches rows by chunks only inside a transaction
+            final boolean autoCommit = cnx.getAutoCommit();
+            cnx.setAutoCommit(false);
+            try{
+                stmt = cnx.createStatement();
+                stmt.setFetchSize(FETCH_SIZE);
+                for(String condition : conditions){
+                    final StringBuilder query = new StringBuilder();
+                    query.append("SELECT \"positionX\",\"positionY\",st_asbinary(\"raster\") FROM ");
+                    query.append(store.encodeTableName("Tile"));
+                    query.append(" WHERE \"mosaicId\"=").append(getDatabaseId());
+                    query.append(" AND ").append(condition);
+
+                    rs = stmt.executeQuery(query.toString());
+                    while(rs.next()){
+                        if(queue.isCancelled()) return;
+                        final Point position = new Point(rs.getInt(1), rs.getInt(2));
+                        if(positions.contains(position)){
+                            queue.offer(new PGTileReference(this, position, rs.getBytes(3)));
+                        }
+                    }
+                    store.closeSafe(rs);
+                    rs = null;
+                }
+            }finally{
+                cnx.commit();
+                cnx.setAutoCommit(autoCommit);
+            }
+        }finally{
+            store.closeSafe(cnx, stmt, rs);
+        }
+    }
+
+    /**
+     * Queue of fetched tiles, cancelling stops the fetching.
+     */
+    static final class TileQueue extends ArrayBlockingQueue<Object> implements Cancellable{
+
+        private volatile boolean cancelled = false;
+
+        TileQueue(final int capacity){
+            super(capacity);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
 }
@@ -26,7 +26,6 @@ import java.sql.Statement;
 import java.util.logging.Level;
 import javax.imageio.ImageReader;
 import javax.imageio.spi.ImageReaderSpi;
-import net.iharder.Base64;
 import org.geotoolkit.storage.coverage.TileReference;
 import org.geotoolkit.coverage.wkb.WKBRasterImageReader;
 
@@ -41,12 +40,25 @@ public class PGTileReference implements TileReference{
     private final PGGridMosaic mosaic;
     private final Point position;
     private SoftReference<byte[]> data = null;
+    /**
+     * Tile bytes fetched with other tiles, released on first use.
+     */
+    private byte[] preloaded = null;
 
     public PGTileReference(final PGGridMosaic mosaic, final Point position) {
         this.mosaic = mosaic;
         this.position = position;
     }
 
+    /**
+     * @param wkb tile raster already fetched, as WKB
+     */
+    PGTileReference(final PGGridMosaic mosaic, final Point position, final byte[] wkb) {
+        this.mosaic = mosaic;
+        this.position = position;
+        this.preloaded = wkb;
+    }
+
     @Override
     public ImageReader getImageReader() throws IOException {
         final ImageReader reader = SPI.createReaderInstance();
@@ -63,7 +75,11 @@ public class PGTileReference implements TileReference{
     public synchronized Object getInput() {
         final PGCoverageStore store = mosaic.getCoverageReference().getStore();
         byte[] buffer = null;
-        if(data != null){
+        if(preloaded != null){
+            buffer = preloaded;
+            data = new SoftReference<byte[]>(buffer);
+            preloaded = null;
+        }else if(data != null){
             buffer = data.get();
         }
         if(buffer == null){
@@ -92,7 +108,7 @@ public class PGTileReference implements TileReference{
             final long mosaicId = mosaic.getDatabaseId();
 
             final StringBuilder query = new StringBuilder();
-            query.append("SELECT encode(st_asbinary(\"raster\"),'base64') FROM ");
+            query.append("SELECT st_asbinary(\"raster\") FROM ");
             query.append(store.encodeTableName("Tile"));
             query.append(" WHERE \"mosaicId\"=").append(mosaicId);
             query.append(" AND \"positionX\"=").append(position.x);
@@ -101,13 +117,7 @@ public class PGTileReference implements TileReference{
             rs = stmt.executeQuery(query.toString());
             
             if(rs.next()){
-                byte[] data = rs.getBytes(1);
-                try {
-                    data = Base64.decode(data);
-                } catch (IOException ex) {
-                    throw new SQLException("Failed to uncompressed base64 : "+ex.getMessage(),ex);
-                }
-                return data;
+                return rs.getBytes(1);
             }
             
             throw new SQLException("No tile found for mosaic "+mosaicId +" and position "+position.x+"/"+position.y);
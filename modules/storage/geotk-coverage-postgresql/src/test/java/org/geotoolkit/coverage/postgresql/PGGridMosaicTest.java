@@ -0,0 +1,227 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2015, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.coverage.postgresql;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.sis.geometry.GeneralDirectPosition;
+import org.apache.sis.storage.DataStoreException;
+import org.geotoolkit.storage.coverage.GridMosaic;
+import org.geotoolkit.util.Cancellable;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tile bitmap, queries and tile queue of {@link PGGridMosaic}, without database.
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+public class PGGridMosaicTest {
+
+    /**
+     * The bitmap is loaded once, then updated by tile writes and deletes.
+     */
+    @Test
+    public void tileExistTest() {
+        final MockMosaic mosaic = new MockMosaic(new Dimension(4, 3), new Point(0, 0), new Point(3, 2), new Point(1, 1));
+        assertFalse(mosaic.isMissing(0, 0));
+        assertFalse(mosaic.isMissing(3, 2));
+        assertFalse(mosaic.isMissing(1, 1));
+        assertTrue(mosaic.isMissing(1, 0));
+        assertTrue(mosaic.isMissing(0, 1));
+        //outside the grid
+        assertTrue(mosaic.isMissing(-1, 0));
+        assertTrue(mosaic.isMissing(4, 0));
+        assertTrue(mosaic.isMissing(0, 3));
+        assertEquals("Bitmap must be loaded once.", 1, mosaic.loads.get());
+        assertEquals(0, mosaic.queries.get());
+
+        mosaic.setTileExist(1, 0, true);
+        mosaic.setTileExist(0, 0, false);
+        mosaic.setTileExist(5, 5, true);
+        assertFalse(mosaic.isMissing(1, 0));
+        assertTrue(mosaic.isMissing(0, 0));
+        assertTrue(mosaic.isMissing(3, 0));
+        assertEquals(1, mosaic.loads.get());
+    }
+
+    /**
+     * Grids too large for a bitmap query each tile.
+     */
+    @Test
+    public void largeGridTest() {
+        final MockMosaic mosaic = new MockMosaic(new Dimension(100000, 100000), new Point(5, 5));
+        assertFalse(mosaic.isMissing(5, 5));
+        assertTrue(mosaic.isMissing(6, 5));
+        assertEquals(0, mosaic.loads.get());
+        assertEquals(2, mosaic.queries.get());
+    }
+
+    /**
+     * The bitmap size is capped, grids just above the limit query each tile.
+     */
+    @Test
+    public void bitmapLimitTest() {
+        final MockMosaic below = new MockMosaic(new Dimension(2048, 2048), new Point(5, 5));
+        assertFalse(below.isMissing(5, 5));
+        assertEquals(1, below.loads.get());
+        assertEquals(0, below.queries.get());
+
+        final MockMosaic above = new MockMosaic(new Dimension(2049, 2048), new Point(5, 5));
+        assertTrue((long) 2049 * 2048 > PGGridMosaic.MAX_BITMAP_CELLS);
+        assertFalse(above.isMissing(5, 5));
+        assertEquals(0, above.loads.get());
+        assertEquals(1, above.queries.get());
+    }
+
+    /**
+     * Dense positions are selected by range, sparse positions by lists of at most 1000 positions.
+     */
+    @Test
+    public void positionConditionsTest() {
+        final Set<Point> dense = new HashSet<>();
+        for (int y = 2; y < 6; y++) {
+            for (int x = 3; x < 8; x++) {
+                if (x != 4 || y != 3) dense.add(new Point(x, y));
+            }
+        }
+        assertEquals(Arrays.asList("\"positionX\" BETWEEN 3 AND 7 AND \"positionY\" BETWEEN 2 AND 5"),
+                PGGridMosaic.positionConditions(dense));
+
+        final Set<Point> sparse = new HashSet<>();
+        for (int i = 0; i < 2500; i++) {
+            sparse.add(new Point(i * 3, i));
+        }
+        final List<String> conditions = PGGridMosaic.positionConditions(sparse);
+        assertEquals(3, conditions.size());
+        int nb = 0;
+        for (String condition : conditions) {
+            assertTrue(condition.startsWith("(\"positionX\",\"positionY\") IN ((") && condition.endsWith("))"));
+            nb += condition.split("\\),\\(").length;
+        }
+        assertEquals(2500, nb);
+        assertTrue(conditions.get(0).contains("(0,0)"));
+    }
+
+    /**
+     * Missing tiles are not fetched, the queue ends at once when all tiles are missing.
+     */
+    @Test
+    public void missingTilesTest() throws Exception {
+        final MockMosaic mosaic = new MockMosaic(new Dimension(4, 4), new Point(2, 2));
+        final BlockingQueue<Object> queue = mosaic.getTiles(Arrays.asList(new Point(0, 0), new Point(1, 3)), null);
+        assertTrue(queue instanceof Cancellable);
+        assertSame(GridMosaic.END_OF_QUEUE, queue.poll(10, TimeUnit.SECONDS));
+        assertTrue(queue.isEmpty());
+        assertEquals(0, mosaic.fetches.get());
+    }
+
+    /**
+     * Cancelling the queue stops the fetching, the queue is ended anyway.
+     */
+    @Test
+    public void cancelTest() throws Exception {
+        final MockMosaic mosaic = new MockMosaic(new Dimension(4, 4), new Point(0, 0), new Point(1, 0), new Point(2, 0));
+        final BlockingQueue<Object> queue = mosaic.getTiles(
+                Arrays.asList(new Point(0, 0), new Point(1, 0), new Point(2, 0), new Point(3, 0)), null);
+        final Object first = queue.poll(10, TimeUnit.SECONDS);
+        assertTrue(first instanceof PGTileReference);
+        assertEquals(3, mosaic.fetched.size());
+        assertFalse(mosaic.fetched.contains(new Point(3, 0)));
+        ((Cancellable) queue).cancel();
+        assertSame(GridMosaic.END_OF_QUEUE, queue.poll(10, TimeUnit.SECONDS));
+        assertEquals(1, mosaic.fetches.get());
+    }
+
+    /**
+     * A fetching failure is queued before the end of the queue.
+     */
+    @Test
+    public void fetchFailureTest() throws Exception {
+        final MockMosaic mosaic = new MockMosaic(new Dimension(4, 4), new Point(0, 0), new Point(1, 0));
+        mosaic.failure = new SQLException("connection lost");
+        final BlockingQueue<Object> queue = mosaic.getTiles(Arrays.asList(new Point(0, 0), new Point(1, 0)), null);
+        assertTrue(queue.poll(10, TimeUnit.SECONDS) instanceof PGTileReference);
+        final Object error = queue.poll(10, TimeUnit.SECONDS);
+        assertTrue(error instanceof DataStoreException);
+        assertSame(mosaic.failure, ((DataStoreException) error).getCause());
+        assertSame(GridMosaic.END_OF_QUEUE, queue.poll(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Mosaic with tiles in memory instead of the database.
+     */
+    private static final class MockMosaic extends PGGridMosaic {
+
+        private final Set<Point> existing = new HashSet<>();
+        final Set<Point> fetched = new HashSet<>();
+        final AtomicInteger loads = new AtomicInteger();
+        final AtomicInteger queries = new AtomicInteger();
+        final AtomicInteger fetches = new AtomicInteger();
+        SQLException failure;
+
+        MockMosaic(final Dimension gridSize, final Point... tiles) {
+            super(null, 1, null, new GeneralDirectPosition(0, 0), gridSize, new Dimension(256, 256), 1);
+            existing.addAll(Arrays.asList(tiles));
+        }
+
+        @Override
+        void loadTileExist(final BitSet exist, final Dimension gridSize) {
+            loads.incrementAndGet();
+            for (Point p : existing) {
+                exist.set(p.y * gridSize.width + p.x);
+            }
+        }
+
+        @Override
+        boolean queryIsMissing(final int col, final int row) {
+            queries.incrementAndGet();
+            return !existing.contains(new Point(col, row));
+        }
+
+        /**
+         * Push the first tile, then fail or wait for the cancellation.
+         */
+        @Override
+        void fetchTiles(final Set<Point> positions, final TileQueue queue) throws SQLException {
+            fetches.incrementAndGet();
+            fetched.addAll(positions);
+            queue.offer(new PGTileReference(this, positions.iterator().next(), new byte[0]));
+            if (failure != null) {
+                throw failure;
+            }
+            try {
+                for (int i = 0; i < 1000 && !queue.isCancelled(); i++) {
+                    Thread.sleep(10);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -112,6 +112,8 @@ public interface GridMosaic {
     /**
      * Retrieve a set of TileReferences.<p>
      * The end of the queue is notified by the {@link GridMosaic#END_OF_QUEUE} object.<p>
+     * If tiles could not be fetched, the exception is queued before the end of the queue,
+     * consumers should report it instead of returning partial results.<p>
      * The returned queue may implement Canceleable if for some reason there is no need
      * to continue iteration on the queue.
      * 
@@ -22,13 +22,30 @@ import javax.imageio.ImageReader;
 import java.awt.*;
 import java.awt.image.*;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Vector;
+import java.util.WeakHashMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.apache.sis.storage.DataStoreException;
 import org.apache.sis.util.ArgumentChecks;
+import org.apache.sis.util.collection.BackingStoreException;
 import org.apache.sis.util.collection.Cache;
+import org.geotoolkit.internal.Threads;
+import org.geotoolkit.internal.metrics.GeotkTimed;
+import org.geotoolkit.internal.metrics.Metrics;
+import org.geotoolkit.internal.metrics.Timer;
 import org.geotoolkit.math.XMath;
+import org.geotoolkit.util.Cancellable;
 
 /**
  * Implementation of RenderedImage using GridMosaic.
@@ -43,10 +60,20 @@ public class GridMosaicRenderedImage implements RenderedImage {
 
     private static final Logger LOGGER = Logging.getLogger(GridMosaicRenderedImage.class);
 
+    private static final Timer DECODE_TIMER = Metrics.timer("coverage.tile.decode");
+
+    /**
+     * Tile caches shared by all images over the same mosaic.
+     * Keys are weak so the caches are released with their mosaic.
+     */
+    private static final Map<GridMosaic,Cache<Point,Raster>> TILE_CACHES =
+            Collections.synchronizedMap(new WeakHashMap<GridMosaic,Cache<Point,Raster>>());
+
     /**
-     * A tile cache
+     * A tile cache, shared with other images over the same mosaic.
+     * Rasters are stored with their location in the mosaic grid.
      */
-    private final Cache<Point,Raster> tileCache = new Cache<>(10, 12, true);
+    private final Cache<Point,Raster> tileCache;
 
     /**
      * The original mosaic to read
@@ -68,6 +95,12 @@ public class GridMosaicRenderedImage implements RenderedImage {
      */
     private SampleModel sampleModel = null;
 
+    /**
+     * If {@code true}, tiles requested by {@link #getData(java.awt.Rectangle)}
+     * are fetched in one batch and decoded concurrently.
+     */
+    private volatile boolean prefetch = false;
+
     /**
      * Constructor
      * @param mosaic the mosaic to read as a rendered image
@@ -91,6 +124,7 @@ public class GridMosaicRenderedImage implements RenderedImage {
         }
         this.mosaic = mosaic;
         this.gridRange = gridRange;
+        this.tileCache = getTileCache(mosaic);
 
         RenderedImage firstTile = getFirstTile();
         if (firstTile != null) {
@@ -99,6 +133,20 @@ public class GridMosaicRenderedImage implements RenderedImage {
         }
     }
 
+    /**
+     * Returns the tile cache shared by all images over the given mosaic.
+     */
+    private static Cache<Point,Raster> getTileCache(final GridMosaic mosaic) {
+        synchronized (TILE_CACHES) {
+            Cache<Point,Raster> cache = TILE_CACHES.get(mosaic);
+            if (cache == null) {
+                cache = new Cache<>(10, 12, true);
+                TILE_CACHES.put(mosaic, cache);
+            }
+            return cache;
+        }
+    }
+
     private RenderedImage getFirstTile() {
         RenderedImage firstTile = null;
         if (colorModel == null && sampleModel == null) {
@@ -143,6 +191,39 @@ public class GridMosaicRenderedImage implements RenderedImage {
         return (Rectangle) gridRange.clone();
     }
 
+    /**
+     * @return true if tiles are fetched in batch and decoded concurrently.
+     */
+    public boolean isPrefetch() {
+        return prefetch;
+    }
+
+    /**
+     * Enable or disable the prefetch mode.
+     * When enabled, {@link #getData()} and {@link #getData(java.awt.Rectangle)} request
+     * all covered tiles in one call to {@link GridMosaic#getTiles(java.util.Collection, java.util.Map)},
+     * decode them on the shared worker pool and copy them in the output raster as they arrive.
+     * A tile which can not be decoded makes those methods fail with a {@link BackingStoreException}.
+     *
+     * @param prefetch true to enable prefetch mode
+     */
+    public void setPrefetch(boolean prefetch) {
+        this.prefetch = prefetch;
+    }
+
+    /**
+     * Load in the tile cache all tiles intersecting the given area.
+     * Tiles are fetched in one batch and decoded concurrently, whatever the prefetch mode.
+     *
+     * @param area area in image pixel coordinates
+     * @throws DataStoreException if a tile could not be fetched or decoded,
+     *         or if the current thread has been interrupted.
+     */
+    public void prefetch(final Rectangle area) throws DataStoreException {
+        if (getSampleModel() == null) return;
+        loadTiles(area, null);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -316,13 +397,7 @@ public class GridMosaicRenderedImage implements RenderedImage {
                 if (!mosaic.isMissing(tileX,tileY)) {
                     final TileReference tile = mosaic.getTile(tileX,tileY, null);
                     if (tile != null) {
-                        if (tile.getInput() instanceof RenderedImage) {
-                            buffer = ((RenderedImage)tile.getInput()).getData().getDataBuffer();
-                        } else {
-                            final ImageReader reader = tile.getImageReader();
-                            buffer = reader.read(0).getData().getDataBuffer();
-                            reader.dispose();
-                        }
+                        buffer = readBuffer(tile);
                     }
                 }
 
@@ -333,10 +408,7 @@ public class GridMosaicRenderedImage implements RenderedImage {
 
                 //create a raster from tile image with tile position offset.
                 LOGGER.log(Level.FINE, "Request tile {0}:{1} ", new Object[]{tileX,tileY});
-                final int rX = tileX*this.getTileWidth();
-                final int rY = tileY*this.getTileHeight();
-
-                raster = Raster.createWritableRaster(getSampleModel(), buffer, new Point(rX, rY));
+                raster = createRaster(tileX, tileY, buffer);
 
                 this.tileCache.put(new Point(tileX, tileY), raster);
 
@@ -348,6 +420,171 @@ public class GridMosaicRenderedImage implements RenderedImage {
         return raster;
     }
 
+    /**
+     * Read the tile image and return its data buffer.
+     */
+    @GeotkTimed("coverage.tile.decode")
+    private static DataBuffer readBuffer(final TileReference tile) throws IOException {
+        if (tile.getInput() instanceof RenderedImage) {
+            return ((RenderedImage)tile.getInput()).getData().getDataBuffer();
+        }
+        final long start = DECODE_TIMER.start();
+        final ImageReader reader = tile.getImageReader();
+        try {
+            return reader.read(tile.getImageIndex()).getData().getDataBuffer();
+        } finally {
+            reader.dispose();
+            DECODE_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * Create a raster located at the given tile position in the mosaic grid.
+     */
+    private Raster createRaster(final int tileX, final int tileY, final DataBuffer buffer) {
+        final int rX = tileX*this.getTileWidth();
+        final int rY = tileY*this.getTileHeight();
+        return Raster.createWritableRaster(getSampleModel(), buffer, new Point(rX, rY));
+    }
+
+    /**
+     * Fetch all tiles intersecting the given area and copy them in the target raster.
+     * Cached tiles are copied immediately, other tiles are requested in one batch
+     * from the mosaic then decoded on the worker pool and copied as they arrive.
+     * On failure or interruption the remaining fetch and decoding tasks are cancelled.
+     *
+     * @param area area in image pixel coordinates
+     * @param target raster covering the area, its origin is at area upper left corner.
+     *        Can be null if tiles should only be loaded in the cache.
+     */
+    private void loadTiles(final Rectangle area, final WritableRaster target) throws DataStoreException {
+        final Point upperLeftPosition = this.getPositionOf(area.x, area.y);
+        final Point lowerRightPosition = this.getPositionOf(area.x + area.width - 1, area.y + area.height - 1);
+
+        final List<Point> toLoad = new ArrayList<>();
+        for (int y = Math.max(upperLeftPosition.y, 0); y < Math.min(lowerRightPosition.y + 1, this.getNumYTiles()); y++) {
+            for (int x = Math.max(upperLeftPosition.x, 0); x < Math.min(lowerRightPosition.x + 1, this.getNumXTiles()); x++) {
+                if (isTileMissing(x, y)) continue;
+                final Point position = new Point(x + gridRange.x, y + gridRange.y);
+                final Raster cached = tileCache.peek(position);
+                if (cached != null) {
+                    copyTile(position, cached, area, target);
+                } else {
+                    toLoad.add(position);
+                }
+            }
+        }
+        if (toLoad.isEmpty()) return;
+
+        final CompletionService<Raster> decoders = new ExecutorCompletionService<>(Threads.getParallelExecutor());
+        final BlockingQueue<Object> queue = mosaic.getTiles(toLoad, null);
+        final List<Future<Raster>> submitted = new ArrayList<>(toLoad.size());
+        int pending = 0;
+        boolean done = false;
+        try {
+            while (true) {
+                final Object obj = queue.take();
+                if (obj == GridMosaic.END_OF_QUEUE) break;
+                if (obj instanceof Exception) {
+                    throw new DataStoreException("Failed to fetch mosaic tiles.", (Exception) obj);
+                }
+                if (obj instanceof TileReference) {
+                    submitted.add(decoders.submit(new TileDecoder((TileReference) obj)));
+                    pending++;
+                }
+                //copy tiles already decoded while the mosaic is still fetching
+                Future<Raster> decoded;
+                while ((decoded = decoders.poll()) != null) {
+                    pending--;
+                    copyDecoded(decoded, area, target);
+                }
+            }
+            for (; pending > 0; pending--) {
+                copyDecoded(decoders.take(), area, target);
+            }
+            done = true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new DataStoreException("Interrupted while fetching mosaic tiles.", ex);
+        } finally {
+            if (!done) {
+                //stop fetching and decoding tiles nobody will use
+                if (queue instanceof Cancellable) {
+                    ((Cancellable) queue).cancel();
+                }
+                for (Future<Raster> future : submitted) {
+                    future.cancel(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copy a decoded tile in the target raster.
+     *
+     * @throws DataStoreException if the tile could not be decoded
+     */
+    private void copyDecoded(final Future<Raster> done, final Rectangle area, final WritableRaster target)
+            throws InterruptedException, DataStoreException {
+        final Raster raster;
+        try {
+            raster = done.get();
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new DataStoreException("Failed to decode mosaic tile : " + cause.getMessage(), cause);
+        }
+        final Point position = new Point(raster.getMinX() / getTileWidth(), raster.getMinY() / getTileHeight());
+        copyTile(position, raster, area, target);
+    }
+
+    /**
+     * Copy the part of a tile intersecting the area in the target raster.
+     *
+     * @param position tile position in the mosaic grid
+     * @param rasterIn tile raster, located at its position in the mosaic grid
+     * @param area area in image pixel coordinates
+     * @param target raster covering the area, can be null
+     */
+    private void copyTile(final Point position, final Raster rasterIn, final Rectangle area, final WritableRaster target) {
+        if (target == null) return;
+        final Rectangle tileRect = new Rectangle(
+                (position.x - gridRange.x) * this.getTileWidth(),
+                (position.y - gridRange.y) * this.getTileHeight(),
+                this.getTileWidth(), this.getTileHeight());
+        final Rectangle inter = tileRect.intersection(area);
+        if (inter.isEmpty()) return;
+
+        final Object data = rasterIn.getDataElements(
+                rasterIn.getMinX() + inter.x - tileRect.x,
+                rasterIn.getMinY() + inter.y - tileRect.y,
+                inter.width, inter.height, null);
+        target.setDataElements(inter.x - area.x, inter.y - area.y, inter.width, inter.height, data);
+    }
+
+    /**
+     * Decode a tile in a worker thread and store it in the tile cache.
+     */
+    private final class TileDecoder implements Callable<Raster> {
+
+        private final TileReference tile;
+
+        private TileDecoder(final TileReference tile) {
+            this.tile = tile;
+        }
+
+        @Override
+        public Raster call() throws IOException {
+            final Point position = tile.getPosition();
+            LOGGER.log(Level.FINE, "Decode tile {0}:{1} ", new Object[]{position.x,position.y});
+            final Raster raster = createRaster(position.x, position.y, readBuffer(tile));
+            tileCache.put(new Point(position), raster);
+            return raster;
+        }
+    }
+
     private boolean isTileMissing(int x, int y) throws DataStoreException{
         return mosaic.isMissing(x+gridRange.x, y+gridRange.y);
     }
@@ -361,6 +598,9 @@ public class GridMosaicRenderedImage implements RenderedImage {
      */
     @Override
     public Raster getData() {
+        if (prefetch) {
+            return getData(new Rectangle(0, 0, getWidth(), getHeight()));
+        }
         final RenderedImage firstTile = getFirstTile();
         Raster rasterOut = null;
         if (firstTile != null) {
@@ -376,7 +616,7 @@ public class GridMosaicRenderedImage implements RenderedImage {
             try {
 
                 for (int y = 0; y < this.getNumYTiles(); y++) {
-                    for (int x = 0; x < this.getNumYTiles(); x++) {
+                    for (int x = 0; x < this.getNumXTiles(); x++) {
                         if (!isTileMissing(x, y)) {
                             final TileReference tile = getTileReference(x, y);
                             final RenderedImage sourceImg;
@@ -421,6 +661,15 @@ public class GridMosaicRenderedImage implements RenderedImage {
                 }
             }
 
+            if (prefetch) {
+                try {
+                    loadTiles(rect, (WritableRaster) rasterOut);
+                } catch (DataStoreException ex) {
+                    throw new BackingStoreException(ex);
+                }
+                return rasterOut;
+            }
+
             try {
                 final Point upperLeftPosition = this.getPositionOf(rect.x, rect.y);
                 final Point lowerRightPosition = this.getPositionOf(rect.x + rect.width - 1, rect.y + rect.height - 1);
@@ -50,6 +50,8 @@ import org.geotoolkit.coverage.io.GridCoverageReadParam;
 import org.geotoolkit.coverage.io.GridCoverageReader;
 import org.geotoolkit.factory.FactoryFinder;
 import org.geotoolkit.internal.referencing.CRSUtilities;
+import org.geotoolkit.internal.metrics.Metrics;
+import org.geotoolkit.internal.metrics.Timer;
 import org.geotoolkit.referencing.CRS;
 import org.geotoolkit.referencing.ReferencingUtilities;
 import org.geotoolkit.image.BufferedImages;
@@ -85,6 +87,8 @@ public class PyramidalModelReader extends GridCoverageReader{
     
     protected static final Logger LOGGER = Logging.getLogger(PyramidalModelReader.class);
 
+    private static final Timer DECODE_TIMER = Metrics.timer("coverage.tile.decode");
+
     @Deprecated
     public PyramidalModelReader() {
         this.coverageFinder = new DefaultCoverageFinder();
@@ -487,6 +491,10 @@ public class PyramidalModelReader extends GridCoverageReader{
                     break;
                 }
 
+                if(obj instanceof Exception){
+                    throw new CoverageStoreException("Failed to fetch mosaic tiles.", (Exception)obj);
+                }
+
                 if(obj instanceof TileReference){
                     final TileReference tile = (TileReference)obj;
                     final Point position = tile.getPosition();
@@ -500,6 +508,7 @@ public class PyramidalModelReader extends GridCoverageReader{
                         tileImage = (RenderedImage) input;
                     }else{
                         ImageReader reader = null;
+                        final long start = DECODE_TIMER.start();
                         try {
                             reader    = tile.getImageReader();
                             tileImage = reader.read(tile.getImageIndex());
@@ -507,6 +516,7 @@ public class PyramidalModelReader extends GridCoverageReader{
                             throw new CoverageStoreException(ex.getMessage(),ex);
                         } finally {
                             ImageIOUtilities.releaseReader(reader);
+                            DECODE_TIMER.stop(start);
                         }
                     }
                     
@@ -0,0 +1,247 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2015, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.storage.coverage;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.sis.geometry.GeneralDirectPosition;
+import org.apache.sis.storage.DataStoreException;
+import org.apache.sis.util.collection.BackingStoreException;
+import org.geotoolkit.coverage.memory.MPGridMosaic;
+import org.geotoolkit.coverage.memory.MPTileReference;
+import org.geotoolkit.util.Cancellable;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Prefetch mode and shared tile cache of {@link GridMosaicRenderedImage}.
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+public class GridMosaicRenderedImageTest {
+
+    private static final int TILE_SIZE = 16;
+
+    /**
+     * Tiles covered by the requested area are fetched in one batch,
+     * then served from the cache.
+     */
+    @Test
+    public void prefetchTest() {
+        final CountingMosaic mosaic = createMosaic(4, 3, null);
+        final GridMosaicRenderedImage image = new GridMosaicRenderedImage(mosaic);
+        image.setPrefetch(true);
+
+        final Rectangle area = new Rectangle(8, 8, 40, 20);
+        Raster raster = image.getData(area);
+        assertEquals(1, mosaic.batches.get());
+        assertSamples(area, raster, 4);
+
+        raster = image.getData(area);
+        assertEquals("Cached tiles must not be fetched again.", 1, mosaic.batches.get());
+        assertSamples(area, raster, 4);
+
+        raster = image.getData();
+        assertEquals(2, mosaic.batches.get());
+        assertSamples(new Rectangle(0, 0, 4 * TILE_SIZE, 3 * TILE_SIZE), raster, 4);
+    }
+
+    /**
+     * Images over the same mosaic share their tiles, the cache is released with the mosaic.
+     */
+    @Test
+    public void tileCacheTest() throws Exception {
+        CountingMosaic mosaic = createMosaic(4, 4, null);
+        GridMosaicRenderedImage image1 = new GridMosaicRenderedImage(mosaic);
+        image1.prefetch(new Rectangle(0, 0, 4 * TILE_SIZE, 4 * TILE_SIZE));
+        assertEquals(1, mosaic.batches.get());
+
+        GridMosaicRenderedImage image2 = new GridMosaicRenderedImage(mosaic, new Rectangle(1, 1, 2, 2));
+        final int before = mosaic.requests.get();
+        final Raster tile = image2.getTile(0, 0);
+        assertEquals("Tile must be read from the shared cache.", before, mosaic.requests.get());
+        assertEquals(TILE_SIZE, tile.getMinX());
+        assertEquals(TILE_SIZE, tile.getMinY());
+        assertEquals(1 + 4, tile.getSample(TILE_SIZE, TILE_SIZE, 0));
+
+        final WeakReference<GridMosaic> ref = new WeakReference<GridMosaic>(mosaic);
+        mosaic = null;
+        image1 = null;
+        image2 = null;
+        for (int i = 0; i < 20 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertNull("The tile cache must not retain its mosaic.", ref.get());
+    }
+
+    /**
+     * Decoding failures must reach the caller.
+     */
+    @Test
+    public void failureTest() {
+        final CountingMosaic mosaic = createMosaic(3, 3, new Point(2, 1));
+        final GridMosaicRenderedImage image = new GridMosaicRenderedImage(mosaic);
+        try {
+            image.prefetch(new Rectangle(0, 0, 3 * TILE_SIZE, 3 * TILE_SIZE));
+            fail("Decoding failure must be propagated.");
+        } catch (DataStoreException ex) {
+            //expected
+        }
+
+        image.setPrefetch(true);
+        try {
+            image.getData(new Rectangle(2 * TILE_SIZE, 0, TILE_SIZE, 3 * TILE_SIZE));
+            fail("Decoding failure must be propagated.");
+        } catch (BackingStoreException ex) {
+            assertTrue(ex.getCause() instanceof DataStoreException);
+        }
+        //tiles which can be decoded are still usable
+        assertSamples(new Rectangle(0, 0, TILE_SIZE, TILE_SIZE), image.getData(new Rectangle(0, 0, TILE_SIZE, TILE_SIZE)), 3);
+    }
+
+    /**
+     * An interrupted prefetch must cancel the tile queue.
+     */
+    @Test
+    public void interruptTest() {
+        final CancellableQueue queue = new CancellableQueue();
+        final CountingMosaic mosaic = new CountingMosaic(new Dimension(2, 2)) {
+            @Override
+            public BlockingQueue<Object> getTiles(Collection<? extends Point> positions, Map hints) {
+                //the queue never ends
+                return queue;
+            }
+        };
+        fillMosaic(mosaic, null);
+        final GridMosaicRenderedImage image = new GridMosaicRenderedImage(mosaic);
+        Thread.currentThread().interrupt();
+        try {
+            image.prefetch(new Rectangle(0, 0, 2 * TILE_SIZE, 2 * TILE_SIZE));
+            fail("Interruption must be reported.");
+        } catch (DataStoreException ex) {
+            assertTrue(ex.getCause() instanceof InterruptedException);
+        } finally {
+            assertTrue("Interrupted status must be restored.", Thread.interrupted());
+        }
+        assertTrue(queue.isCancelled());
+    }
+
+    private static CountingMosaic createMosaic(final int width, final int height, final Point failing) {
+        final CountingMosaic mosaic = new CountingMosaic(new Dimension(width, height));
+        fillMosaic(mosaic, failing);
+        return mosaic;
+    }
+
+    /**
+     * Fill the mosaic with tiles whose samples are the tile index.
+     */
+    private static void fillMosaic(final MPGridMosaic mosaic, final Point failing) {
+        final Dimension size = mosaic.getGridSize();
+        for (int y = 0; y < size.height; y++) {
+            for (int x = 0; x < size.width; x++) {
+                final BufferedImage tile;
+                if (failing != null && failing.x == x && failing.y == y) {
+                    tile = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_BYTE_GRAY) {
+                        @Override
+                        public Raster getData() {
+                            throw new IllegalStateException("Broken tile");
+                        }
+                    };
+                } else {
+                    tile = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_BYTE_GRAY);
+                }
+                final WritableRaster raster = tile.getRaster();
+                for (int py = 0; py < TILE_SIZE; py++) {
+                    for (int px = 0; px < TILE_SIZE; px++) {
+                        raster.setSample(px, py, 0, x + y * size.width);
+                    }
+                }
+                mosaic.setTile(x, y, new MPTileReference(tile, 0, new Point(x, y)));
+            }
+        }
+    }
+
+    private static void assertSamples(final Rectangle area, final Raster raster, final int gridWidth) {
+        assertEquals(area.width, raster.getWidth());
+        assertEquals(area.height, raster.getHeight());
+        for (int y = 0; y < area.height; y++) {
+            for (int x = 0; x < area.width; x++) {
+                final int tileX = (area.x + x) / TILE_SIZE;
+                final int tileY = (area.y + y) / TILE_SIZE;
+                assertEquals(tileX + tileY * gridWidth,
+                        raster.getSample(raster.getMinX() + x, raster.getMinY() + y, 0));
+            }
+        }
+    }
+
+    /**
+     * Memory mosaic counting the tile requests.
+     */
+    private static class CountingMosaic extends MPGridMosaic {
+
+        final AtomicInteger batches = new AtomicInteger();
+        final AtomicInteger requests = new AtomicInteger();
+
+        CountingMosaic(final Dimension gridSize) {
+            super(0, null, new GeneralDirectPosition(0, 0), gridSize, new Dimension(TILE_SIZE, TILE_SIZE), 1);
+        }
+
+        @Override
+        public MPTileReference getTile(int col, int row, Map hints) throws DataStoreException {
+            requests.incrementAndGet();
+            return super.getTile(col, row, hints);
+        }
+
+        @Override
+        public BlockingQueue<Object> getTiles(Collection<? extends Point> positions, Map hints) throws DataStoreException {
+            batches.incrementAndGet();
+            return super.getTiles(positions, hints);
+        }
+    }
+
+    private static final class CancellableQueue extends ArrayBlockingQueue<Object> implements Cancellable {
+
+        private volatile boolean cancelled;
+
+        CancellableQueue() {
+            super(1);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
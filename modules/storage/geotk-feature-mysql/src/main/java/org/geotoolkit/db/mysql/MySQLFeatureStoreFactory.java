@@ -67,7 +67,7 @@ public class MySQLFeatureStoreFactory extends AbstractJDBCFeatureStoreFactory {
     public static final ParameterDescriptorGroup PARAMETERS_DESCRIPTOR =
             new DefaultParameterDescriptorGroup("MySQLParameters",
                 IDENTIFIER,HOST,PORT,DATABASE,TABLE,USER,PASSWORD,NAMESPACE,
-                DATASOURCE,MAXCONN,MINCONN,VALIDATECONN,FETCHSIZE,MAXWAIT,SIMPLETYPE);
+                DATASOURCE,MAXCONN,MINCONN,VALIDATECONN,FETCHSIZE,BATCHSIZE,MAXWAIT,SIMPLETYPE);
 
     @Override
     public Identification getIdentification() {
@@ -70,7 +70,7 @@ public class OracleFeatureStoreFactory extends AbstractJDBCFeatureStoreFactory{
     public static final ParameterDescriptorGroup PARAMETERS_DESCRIPTOR =
             new DefaultParameterDescriptorGroup("OracleParameters",
                 IDENTIFIER,HOST,PORT,DATABASE,SCHEMA,TABLE,USER,PASSWORD,NAMESPACE,
-                DATASOURCE,MAXCONN,MINCONN,VALIDATECONN,FETCHSIZE,MAXWAIT,SIMPLETYPE);
+                DATASOURCE,MAXCONN,MINCONN,VALIDATECONN,FETCHSIZE,BATCHSIZE,MAXWAIT,SIMPLETYPE);
 
     @Override
     public Identification getIdentification() {
@@ -36,7 +36,7 @@ import org.postgis.binary.ValueGetter;
 import static org.postgis.Geometry.*;
 
 /**
- * PostGIS Hexa-EWKB Geometry reader/write classes.
+ * PostGIS Hexa-EWKB Geometry reader/writer classes.
  * http://postgis.net/docs/using_postgis_dbmanagement.html#EWKB_EWKT
  * 
  * This format is the natural form returned by a query selection a geometry field
@@ -51,6 +51,8 @@ final class PostgisHexEWKB {
     private static final int MASK_SRID      = 0x20000000;
     private static final int MASK_GEOMTYPE  = 0x1FFFFFFF;
     
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    
     private final GeometryFactory gf;
     private final PostgresDialect dialect;
     
@@ -198,4 +200,112 @@ final class PostgisHexEWKB {
         return gf.createGeometryCollection(geoms);
     }
     
+    ////////////////////////////////////////////////////////////////////////////
+    // WRITING /////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////
+    
+    /**
+     * Encode geometry in little endian hexadecimal EWKB.
+     * 
+     * @param geom geometry to encode, not null
+     * @param srid geometry srid, ignored if lower or equal to 0
+     * @return hexadecimal EWKB
+     */
+    public String write(final Geometry geom, final int srid) {
+        final Coordinate first = geom.getCoordinate();
+        final boolean hasZ = first != null && !Double.isNaN(first.z);
+        final StringBuilder sb = new StringBuilder();
+        write(sb, geom, srid, hasZ);
+        return sb.toString();
+    }
+    
+    private void write(final StringBuilder sb, final Geometry geom, final int srid, final boolean hasZ) {
+        final int geomType;
+        if (geom instanceof Point)                   geomType = POINT;
+        else if (geom instanceof LineString)         geomType = LINESTRING;
+        else if (geom instanceof Polygon)            geomType = POLYGON;
+        else if (geom instanceof MultiPoint)         geomType = MULTIPOINT;
+        else if (geom instanceof MultiLineString)    geomType = MULTILINESTRING;
+        else if (geom instanceof MultiPolygon)       geomType = MULTIPOLYGON;
+        else if (geom instanceof GeometryCollection) geomType = GEOMETRYCOLLECTION;
+        else throw new IllegalArgumentException("Unknown geometry type : "+geom.getGeometryType());
+        
+        int flags = geomType;
+        if (hasZ)     flags |= MASK_Z;
+        if (srid > 0) flags |= MASK_SRID;
+        
+        writeByte(sb, ValueGetter.NDR.NUMBER);
+        writeInt(sb, flags);
+        if (srid > 0) {
+            writeInt(sb, srid);
+        }
+        
+        switch (geomType) {
+            case POINT:
+                if (geom.isEmpty()) {
+                    //empty point is encoded with NaN ordinates
+                    writeDouble(sb, Double.NaN);
+                    writeDouble(sb, Double.NaN);
+                    if (hasZ) writeDouble(sb, Double.NaN);
+                } else {
+                    writeCS(sb, ((Point) geom).getCoordinateSequence(), hasZ, false);
+                }
+                break;
+            case LINESTRING:
+                writeCS(sb, ((LineString) geom).getCoordinateSequence(), hasZ, true);
+                break;
+            case POLYGON:
+                final Polygon poly = (Polygon) geom;
+                if (poly.isEmpty()) {
+                    writeInt(sb, 0);
+                } else {
+                    writeInt(sb, poly.getNumInteriorRing()+1);
+                    writeCS(sb, poly.getExteriorRing().getCoordinateSequence(), hasZ, true);
+                    for (int i=0,n=poly.getNumInteriorRing(); i<n; i++) {
+                        writeCS(sb, poly.getInteriorRingN(i).getCoordinateSequence(), hasZ, true);
+                    }
+                }
+                break;
+            default:
+                final int nb = geom.getNumGeometries();
+                writeInt(sb, nb);
+                for (int i=0; i<nb; i++) {
+                    write(sb, geom.getGeometryN(i), 0, hasZ);
+                }
+        }
+    }
+    
+    private static void writeCS(final StringBuilder sb, final CoordinateSequence cs, 
+            final boolean hasZ, final boolean withSize) {
+        final int nb = cs.size();
+        final boolean csHasZ = cs.getDimension() > 2;
+        if (withSize) {
+            writeInt(sb, nb);
+        }
+        for (int i=0; i<nb; i++) {
+            writeDouble(sb, cs.getOrdinate(i, CoordinateSequence.X));
+            writeDouble(sb, cs.getOrdinate(i, CoordinateSequence.Y));
+            if (hasZ) {
+                writeDouble(sb, csHasZ ? cs.getOrdinate(i, CoordinateSequence.Z) : Double.NaN);
+            }
+        }
+    }
+    
+    private static void writeByte(final StringBuilder sb, final int value) {
+        sb.append(HEX[(value >>> 4) & 0xF]).append(HEX[value & 0xF]);
+    }
+    
+    private static void writeInt(final StringBuilder sb, final int value) {
+        writeByte(sb, value);
+        writeByte(sb, value >>> 8);
+        writeByte(sb, value >>> 16);
+        writeByte(sb, value >>> 24);
+    }
+    
+    private static void writeDouble(final StringBuilder sb, final double value) {
+        final long bits = Double.doubleToLongBits(value);
+        writeInt(sb, (int) bits);
+        writeInt(sb, (int) (bits >>> 32));
+    }
+    
 }
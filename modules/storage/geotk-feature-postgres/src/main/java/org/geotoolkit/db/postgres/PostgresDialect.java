@@ -32,6 +32,7 @@ import java.lang.reflect.Array;
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.Date;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -589,9 +590,9 @@ final class PostgresDialect extends AbstractSQLDialect{
         }
                 
         
+        //geometries are transfered as binary WKB, decoded without intermediate text encoding
         final CoordinateReferenceSystem crs = gatt.getCoordinateReferenceSystem();
         final int dimensions = (crs == null) ? 2 : crs.getCoordinateSystem().getDimension();
-        sql.append("encode(");
 
         if(res > 0){
             if (dimensions > 2) {
@@ -615,7 +616,7 @@ final class PostgresDialect extends AbstractSQLDialect{
                     sql.append(",").append(res).append(")"); 
                 }
             }
-            sql.append(") ");
+            sql.append(")");
         }else{
             if (dimensions > 2) {
                 sql.append("ST_AsEWKB(");
@@ -624,10 +625,8 @@ final class PostgresDialect extends AbstractSQLDialect{
                 sql.append("ST_AsBinary(");
                 encodeColumnName(sql, gatt.getLocalName());
             }
-            sql.append(") ");
+            sql.append(")");
         }
-
-        sql.append(",'base64')");
     }
 
     @Override
@@ -667,6 +666,45 @@ final class PostgresDialect extends AbstractSQLDialect{
         }
     }
 
+    @Override
+    public boolean supportsBatchInsert() {
+        return true;
+    }
+
+    @Override
+    public int setGeometryParameter(PreparedStatement stmt, int index, Geometry value, int srid) throws SQLException {
+        return super.setGeometryParameter(stmt, index, normalizeGeometry(value), srid);
+    }
+
+    /**
+     * Encode geometry as hexadecimal EWKB, used by COPY statements.
+     * 
+     * @param value geometry, can be null
+     * @param srid geometry srid
+     * @return hexadecimal EWKB or null
+     */
+    String encodeHexEWKB(Geometry value, int srid) {
+        value = normalizeGeometry(value);
+        return (value == null) ? null : ewkbReader.write(value, srid);
+    }
+
+    /**
+     * Adapt geometry to postgis constraints.
+     */
+    private Geometry normalizeGeometry(Geometry value) {
+        if (value == null) return null;
+        if (value instanceof LinearRing) {
+            //postgis does not handle linear rings, convert to just a line string
+            value = value.getFactory().createLineString(((LinearRing) value).getCoordinateSequence());
+        }
+        if(value.isEmpty() && ((Comparable)getVersion(null).getMajor()).compareTo((Comparable)Integer.valueOf(2)) < 0){
+            //empty geometries are interpreted as Geometrycollection in postgis < 2
+            //this breaks the column geometry type constraint so we replace those by null
+            return null;
+        }
+        return value;
+    }
+
     @Override
     public void encodeCoverageValue(StringBuilder sql, Coverage value) throws DataStoreException {
         try{
@@ -1147,6 +1185,28 @@ final class PostgresDialect extends AbstractSQLDialect{
     }
     
     
+    /**
+     * Decode binary WKB or EWKB with a reader reused by each thread.
+     *
+     * @param wkb geometry bytes, can be null
+     * @return geometry or null
+     */
+    private Geometry readWKB(final byte[] wkb) throws IOException {
+        if (wkb == null) {
+            return null;
+        }
+        WKBReader reader = wkbReader.get();
+        if (reader == null) {
+            reader = new WKBReader(featurestore.getGeometryFactory());
+            wkbReader.set(reader);
+        }
+        try {
+            return reader.read(wkb);
+        } catch (ParseException ex) {
+            throw new IOException(ex.getMessage(),ex);
+        }
+    }
+
     @Override
     public Geometry decodeGeometryValue(GeometryDescriptor descriptor, ResultSet rs, 
         String column) throws IOException, SQLException {
@@ -1155,16 +1215,7 @@ final class PostgresDialect extends AbstractSQLDialect{
             case HEXEWKB:
                 return ewkbReader.read(rs.getString(column));
             case WKB:
-                WKBReader reader = wkbReader.get();
-                if (reader == null) {
-                    reader = new WKBReader(featurestore.getGeometryFactory());
-                    wkbReader.set(reader);
-                }
-                try {
-                    return (Geometry) reader.read(Base64.decode(rs.getBytes(column)));
-                } catch (ParseException ex) {
-                    throw new IOException(ex.getMessage(),ex);
-                }
+                return readWKB(rs.getBytes(column));
             default:
                 throw new IllegalStateException("Can not decode geometry not knowing it's encoding.");
         }
@@ -1193,20 +1244,7 @@ final class PostgresDialect extends AbstractSQLDialect{
             case HEXEWKB:
                 return ewkbReader.read(rs.getString(column));
             case WKB:
-                WKBReader reader = wkbReader.get();
-                if (reader == null) {
-                    reader = new WKBReader(featurestore.getGeometryFactory());
-                    wkbReader.set(reader);
-                }
-                final byte[] encodedValue = rs.getBytes(column);
-                if (encodedValue != null) {
-                    try {
-                        return (Geometry) reader.read(Base64.decode(encodedValue));
-                    } catch (ParseException ex) {
-                        throw new IOException(ex.getMessage(),ex);
-                    }
-                }
-                return null;
+                return readWKB(rs.getBytes(column));
             default:
                 throw new IllegalStateException("Can not decode geometry not knowing it's encoding.");
         }
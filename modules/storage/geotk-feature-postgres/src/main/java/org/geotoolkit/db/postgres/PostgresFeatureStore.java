@@ -16,12 +16,18 @@
  */
 package org.geotoolkit.db.postgres;
 
+import com.vividsolutions.jts.geom.Geometry;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.charset.Charset;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import org.apache.commons.dbcp.DelegatingConnection;
 import org.geotoolkit.data.query.DefaultQueryCapabilities;
 import org.geotoolkit.data.query.Query;
 import org.geotoolkit.data.query.QueryCapabilities;
@@ -29,6 +35,7 @@ import org.geotoolkit.db.DefaultJDBCFeatureStore;
 import static org.geotoolkit.db.JDBCFeatureStore.CUSTOM_SQL;
 import org.geotoolkit.db.JDBCFeatureStoreUtilities;
 import org.geotoolkit.db.dialect.SQLQueryBuilder;
+import org.geotoolkit.db.reverse.ColumnMetaModel;
 import org.geotoolkit.internal.sql.ScriptRunner;
 import org.apache.sis.storage.DataStoreException;
 import org.geotoolkit.db.dialect.SQLDialect;
@@ -36,9 +43,15 @@ import org.geotoolkit.parameter.Parameters;
 import org.geotoolkit.parameter.ParametersExt;
 import org.geotoolkit.version.VersionControl;
 import org.geotoolkit.version.VersioningException;
+import org.geotoolkit.feature.ComplexAttribute;
+import org.geotoolkit.feature.type.ComplexType;
 import org.geotoolkit.feature.type.FeatureType;
 import org.geotoolkit.feature.type.Name;
+import org.geotoolkit.feature.type.PropertyDescriptor;
 import org.opengis.parameter.ParameterValueGroup;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
 
 /**
  * Extends default jdbc feature store with versioning and subsampling capabilities.
@@ -49,17 +62,26 @@ public class PostgresFeatureStore extends DefaultJDBCFeatureStore{
     
     private static final QueryCapabilities PG_CAPA = new DefaultQueryCapabilities(false, true, new String[]{Query.GEOTK_QOM, CUSTOM_SQL});
     
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    
+    /** Size of the text buffer sent to the COPY stream */
+    private static final int COPY_BUFFER_SIZE = 65536;
+    
     //historisation informations
     private Boolean hasHSFunctions;
     private PostgresQueryBuilder querybuilder = null;
     
+    //insert with COPY statements when ids are not needed
+    private final boolean copyInsert;
+    
     public PostgresFeatureStore(String host, int port, String database, String schema, String user, String password) throws DataStoreException {
-        super(toParameters(host,port,database,schema,user,password), PostgresFeatureStoreFactory.NAME);
+        this(toParameters(host,port,database,schema,user,password), PostgresFeatureStoreFactory.NAME);
         ((PostgresFeatureStoreFactory)getFactory()).prepareStore(this, parameters);
     }
     
     public PostgresFeatureStore(ParameterValueGroup params, String factoryId) {
         super(params, factoryId);
+        copyInsert = Boolean.TRUE.equals(Parameters.getOrCreate(PostgresFeatureStoreFactory.COPYINSERT, params).getValue());
     }
 
     private static ParameterValueGroup toParameters(String host, int port, 
@@ -87,6 +109,149 @@ public class PostgresFeatureStore extends DefaultJDBCFeatureStore{
         return querybuilder;
     }
     
+    ////////////////////////////////////////////////////////////////////////////
+    // Bulk insertion //////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * {@inheritDoc }
+     * 
+     * If the store is configured with {@link PostgresFeatureStoreFactory#COPYINSERT}
+     * and ids are not requested, features are streamed with a COPY statement.
+     */
+    @Override
+    protected void insertBatch(Collection<? extends ComplexAttribute> features, ComplexType featureType,
+            Connection cx, boolean updateIds) throws DataStoreException {
+        if (copyInsert && !updateIds && !features.isEmpty() && canInsertBatch(featureType)) {
+            try {
+                final CopyManager copyManager = getCopyManager(cx);
+                if (copyManager != null) {
+                    insertCopy(copyManager, features, featureType, cx);
+                    return;
+                }
+            } catch (SQLException ex) {
+                throw new DataStoreException(ex.getMessage(), ex);
+            }
+            getLogger().fine("Postgres connection not reachable, COPY insertion disabled.");
+        }
+        super.insertBatch(features, featureType, cx, updateIds);
+    }
+
+    /**
+     * Stream features in a 'COPY table (columns) FROM STDIN' statement.
+     * Values are encoded in the text format, geometries as hexadecimal EWKB.
+     */
+    private void insertCopy(final CopyManager copyManager, final Collection<? extends ComplexAttribute> features,
+            final ComplexType featureType, final Connection cx) throws DataStoreException, SQLException {
+        final PostgresDialect dialect = (PostgresDialect) getDialect();
+        final List<ColumnMetaModel> keyColumns = getDatabaseModel().getPrimaryKey(featureType.getName()).getColumns();
+        final List<PropertyDescriptor> columns = getQueryBuilder().insertColumns(featureType);
+
+        final StringBuilder sql = new StringBuilder("COPY ");
+        dialect.encodeSchemaAndTableName(sql, getDatabaseSchema(), featureType.getName().getLocalPart());
+        sql.append(" (");
+        for (PropertyDescriptor desc : columns) {
+            dialect.encodeColumnName(sql, desc.getName().getLocalPart());
+            sql.append(',');
+        }
+        sql.setLength(sql.length() - 1);
+        sql.append(") FROM STDIN");
+        getLogger().fine(sql.toString());
+
+        final CopyIn copy = copyManager.copyIn(sql.toString());
+        try {
+            final StringBuilder rows = new StringBuilder(COPY_BUFFER_SIZE + 1024);
+            for (ComplexAttribute feature : features) {
+                fillSequencedKeys(feature, keyColumns, cx);
+                for (int i=0,n=columns.size(); i<n; i++) {
+                    if (i > 0) rows.append('\t');
+                    final PropertyDescriptor desc = columns.get(i);
+                    final Object value = feature.getProperty(desc.getName().getLocalPart()).getValue();
+                    if (value instanceof Geometry) {
+                        final Geometry geom = (Geometry) value;
+                        final String ewkb = dialect.encodeHexEWKB(geom, SQLQueryBuilder.getGeometrySRID(geom, desc));
+                        rows.append(ewkb == null ? "\\N" : ewkb);
+                    } else {
+                        encodeCopyValue(rows, value);
+                    }
+                }
+                rows.append('\n');
+                if (rows.length() >= COPY_BUFFER_SIZE) {
+                    final byte[] bytes = rows.toString().getBytes(UTF8);
+                    copy.writeToCopy(bytes, 0, bytes.length);
+                    rows.setLength(0);
+                }
+            }
+            final byte[] bytes = rows.toString().getBytes(UTF8);
+            copy.writeToCopy(bytes, 0, bytes.length);
+            copy.endCopy();
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+
+        if (cx.getAutoCommit()) {
+            fireFeaturesAdded(featureType.getName(), null);
+        }
+    }
+
+    /**
+     * Encode a value in COPY text format.
+     */
+    private static void encodeCopyValue(final StringBuilder sb, Object value) {
+        if (value == null) {
+            sb.append("\\N");
+            return;
+        }
+        if (value instanceof Boolean) {
+            sb.append(((Boolean) value) ? 't' : 'f');
+            return;
+        }
+        if (value instanceof byte[]) {
+            //bytea hexadecimal format, backslash is escaped
+            sb.append("\\\\x");
+            for (byte b : (byte[]) value) {
+                sb.append(Character.forDigit((b >>> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return;
+        }
+        if (value instanceof java.util.Date && !(value instanceof java.sql.Date
+                || value instanceof java.sql.Time || value instanceof Timestamp)) {
+            value = new Timestamp(((java.util.Date) value).getTime());
+        }
+        final String str = value.toString();
+        for (int i=0,n=str.length(); i<n; i++) {
+            final char c = str.charAt(i);
+            switch (c) {
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default: sb.append(c);
+            }
+        }
+    }
+
+    /**
+     * Find the postgres copy api of the connection.
+     * 
+     * @return CopyManager or null if the driver connection can not be reached.
+     */
+    private static CopyManager getCopyManager(Connection cx) throws SQLException {
+        if (cx instanceof DelegatingConnection) {
+            final Connection inner = ((DelegatingConnection) cx).getInnermostDelegate();
+            if (inner != null) cx = inner;
+        }
+        if (cx instanceof PGConnection) {
+            return ((PGConnection) cx).getCopyAPI();
+        }
+        if (cx.isWrapperFor(PGConnection.class)) {
+            return cx.unwrap(PGConnection.class).getCopyAPI();
+        }
+        return null;
+    }
+
     ////////////////////////////////////////////////////////////////////////////
     // Versioning control //////////////////////////////////////////////////////
     ////////////////////////////////////////////////////////////////////////////
@@ -63,6 +63,12 @@ public class PostgresFeatureStoreFactory extends AbstractJDBCFeatureStoreFactory
     public static final ParameterDescriptor<Boolean> LOOSEBBOX =
              new DefaultParameterDescriptor<Boolean>("Loose bbox","Perform only primary filter on bbox",Boolean.class,true,false);
 
+    /**
+     * Parameter to insert features with COPY statements when feature ids are not needed.
+     */
+    public static final ParameterDescriptor<Boolean> COPYINSERT =
+             new DefaultParameterDescriptor<Boolean>("Copy insert","Insert features with COPY statements when ids are not requested",Boolean.class,false,false);
+
     /**
      * Parameter for database port.
      */
@@ -73,7 +79,7 @@ public class PostgresFeatureStoreFactory extends AbstractJDBCFeatureStoreFactory
     public static final ParameterDescriptorGroup PARAMETERS_DESCRIPTOR =
             new DefaultParameterDescriptorGroup("PostgresParameters",
                 IDENTIFIER,HOST,PORT,DATABASE,SCHEMA,TABLE,USER,PASSWORD,NAMESPACE,
-                DATASOURCE,MAXCONN,MINCONN,VALIDATECONN,FETCHSIZE,MAXWAIT,LOOSEBBOX,SIMPLETYPE);
+                DATASOURCE,MAXCONN,MINCONN,VALIDATECONN,FETCHSIZE,BATCHSIZE,MAXWAIT,LOOSEBBOX,SIMPLETYPE,COPYINSERT);
     
     
     @Override
@@ -106,6 +112,14 @@ public class PostgresFeatureStoreFactory extends AbstractJDBCFeatureStoreFactory
         return "select now()";
     }
 
+    /**
+     * The driver connection is needed to reach the postgres COPY api.
+     */
+    @Override
+    protected boolean isUnderlyingConnectionAccessAllowed() {
+        return true;
+    }
+
     @Override
     protected DefaultJDBCFeatureStore toFeatureStore(ParameterValueGroup params, String factoryId) {
         //add versioning support
@@ -32,7 +32,10 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -42,6 +45,8 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.logging.Logger;
+import org.apache.sis.util.logging.Logging;
 
 import org.geotoolkit.data.FeatureCollection;
 import org.geotoolkit.data.FeatureIterator;
@@ -51,6 +56,9 @@ import org.geotoolkit.data.query.Query;
 import org.geotoolkit.data.query.QueryBuilder;
 import org.geotoolkit.data.session.Session;
 import org.geotoolkit.db.JDBCFeatureStore;
+import org.geotoolkit.factory.FactoryFinder;
+import org.geotoolkit.factory.Hints;
+import org.geotoolkit.factory.HintsPending;
 import org.geotoolkit.feature.FeatureTypeBuilder;
 import org.geotoolkit.feature.FeatureUtilities;
 import org.geotoolkit.referencing.CRS;
@@ -87,6 +95,7 @@ import org.geotoolkit.filter.identity.DefaultFeatureId;
 import static org.junit.Assert.*;
 import org.geotoolkit.feature.type.AssociationType;
 import org.junit.After;
+import org.opengis.filter.FilterFactory;
 import org.opengis.filter.identity.FeatureId;
 
 /**
@@ -95,6 +104,8 @@ import org.opengis.filter.identity.FeatureId;
  */
 public class PostgresFeatureStoreTest {
     
+    private static final Logger LOGGER = Logging.getLogger(PostgresFeatureStoreTest.class);
+    private static final FilterFactory FF = FactoryFinder.getFilterFactory(null);
     private static final double DELTA = 0.00000001;    
     /** basic field types */
     private static final FeatureType FTYPE_SIMPLE;
@@ -685,6 +696,223 @@ public class PostgresFeatureStoreTest {
         
     }
         
+    /**
+     * Insert a large number of features with the different insertion modes :
+     * one statement per feature, prepared statement batches and COPY.
+     */
+    @Test
+    public void testBulkInsert() throws DataStoreException, VersioningException{
+        final int nb = 5000;
+        final String batchParam = PostgresFeatureStoreFactory.BATCHSIZE.getName().getCode();
+        final String copyParam = PostgresFeatureStoreFactory.COPYINSERT.getName().getCode();
+        final Hints noIds = new Hints(HintsPending.UPDATE_ID_ON_INSERT, Boolean.FALSE);
+
+        try{
+            // one insert per feature ----------------------------------------------
+            ParametersExt.getOrCreateValue(params, batchParam).setValue(1);
+            ParametersExt.getOrCreateValue(params, copyParam).setValue(false);
+            reload(true);
+            store.createFeatureType(FTYPE_SIMPLE.getName(), FTYPE_SIMPLE);
+            FeatureType resType = store.getFeatureType(store.getNames().iterator().next());
+            long time = System.currentTimeMillis();
+            List<FeatureId> addedIds = store.addFeatures(resType.getName(), createSimpleFeatures(resType, nb));
+            LOGGER.info("Single inserts : "+(System.currentTimeMillis()-time)+"ms");
+            assertEquals(nb, addedIds.size());
+            assertEquals(new DefaultFeatureId("testTable.1"), addedIds.get(0));
+            assertEquals(new DefaultFeatureId("testTable."+nb), addedIds.get(nb-1));
+            assertEquals(nb, store.getCount(QueryBuilder.all(resType.getName())));
+
+            // batch insert --------------------------------------------------------
+            ParametersExt.getOrCreateValue(params, batchParam).setValue(1000);
+            reload(true);
+            store.createFeatureType(FTYPE_SIMPLE.getName(), FTYPE_SIMPLE);
+            resType = store.getFeatureType(store.getNames().iterator().next());
+            time = System.currentTimeMillis();
+            addedIds = store.addFeatures(resType.getName(), createSimpleFeatures(resType, nb));
+            LOGGER.info("Batch inserts : "+(System.currentTimeMillis()-time)+"ms");
+            assertEquals(nb, addedIds.size());
+            assertEquals(new DefaultFeatureId("testTable.1"), addedIds.get(0));
+            assertEquals(new DefaultFeatureId("testTable."+nb), addedIds.get(nb-1));
+            assertEquals(nb, store.getCount(QueryBuilder.all(resType.getName())));
+
+            // copy insert ---------------------------------------------------------
+            ParametersExt.getOrCreateValue(params, copyParam).setValue(true);
+            reload(true);
+            store.createFeatureType(FTYPE_SIMPLE.getName(), FTYPE_SIMPLE);
+            resType = store.getFeatureType(store.getNames().iterator().next());
+            time = System.currentTimeMillis();
+            store.addFeatures(resType.getName(), createSimpleFeatures(resType, nb), noIds);
+            LOGGER.info("Copy inserts : "+(System.currentTimeMillis()-time)+"ms");
+            assertEquals(nb, store.getCount(QueryBuilder.all(resType.getName())));
+
+            final FeatureIterator ite = store.createSession(false).getFeatureCollection(
+                    QueryBuilder.filtered(resType.getName(), FF.equals(FF.property("integer"), FF.literal(42)))).iterator();
+            try{
+                final Feature resFeature = ite.next();
+                assertEquals(true, resFeature.getProperty("boolean").getValue());
+                assertEquals(42l, resFeature.getProperty("long").getValue());
+                assertEquals("line\t42\\", resFeature.getProperty("string").getValue());
+                assertFalse(ite.hasNext());
+            }finally{
+                ite.close();
+            }
+        }finally{
+            ParametersExt.getOrCreateValue(params, batchParam).setValue(1000);
+            ParametersExt.getOrCreateValue(params, copyParam).setValue(false);
+        }
+    }
+
+    /**
+     * Batch insertion reads the generated keys once per batch, the driver must
+     * return the keys of every row of the batch, in insertion order.
+     */
+    @Test
+    public void testBatchGeneratedKeys() throws DataStoreException, VersioningException, SQLException{
+        reload(true);
+
+        // driver behavior -----------------------------------------------------
+        try (Connection cnx = store.getDataSource().getConnection()) {
+            final Statement stmt = cnx.createStatement();
+            stmt.executeUpdate("create table \"batch_keys\" (id serial PRIMARY KEY, value integer);");
+            try (PreparedStatement ps = cnx.prepareStatement(
+                    "insert into \"batch_keys\" (value) values (?)", Statement.RETURN_GENERATED_KEYS)) {
+                for(int i=0;i<3;i++){
+                    ps.setInt(1, i);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    for(int i=1;i<=3;i++){
+                        assertTrue("missing generated key "+i, rs.next());
+                        assertEquals(i, rs.getInt("id"));
+                    }
+                    assertFalse(rs.next());
+                }
+            } finally {
+                stmt.executeUpdate("drop table \"batch_keys\";");
+                stmt.close();
+            }
+        }
+
+        // store ids, with a last batch smaller than the batch size ------------
+        final String batchParam = PostgresFeatureStoreFactory.BATCHSIZE.getName().getCode();
+        final int nb = 25;
+        try{
+            ParametersExt.getOrCreateValue(params, batchParam).setValue(7);
+            reload(true);
+            store.createFeatureType(FTYPE_SIMPLE.getName(), FTYPE_SIMPLE);
+            final FeatureType resType = store.getFeatureType(store.getNames().iterator().next());
+            final List<FeatureId> addedIds = store.addFeatures(resType.getName(), createSimpleFeatures(resType, nb));
+            assertEquals(nb, addedIds.size());
+            for(int i=0;i<nb;i++){
+                assertEquals(new DefaultFeatureId("testTable."+(i+1)), addedIds.get(i));
+            }
+
+            //each id must match the inserted feature
+            final FeatureIterator ite = store.createSession(false).getFeatureCollection(QueryBuilder.all(resType.getName())).iterator();
+            try{
+                int count = 0;
+                while(ite.hasNext()){
+                    final Feature resFeature = ite.next();
+                    final int value = (Integer)resFeature.getProperty("integer").getValue();
+                    assertEquals("testTable."+(value+1), resFeature.getIdentifier().getID());
+                    count++;
+                }
+                assertEquals(nb, count);
+            }finally{
+                ite.close();
+            }
+        }finally{
+            ParametersExt.getOrCreateValue(params, batchParam).setValue(1000);
+        }
+    }
+
+    private static List<Feature> createSimpleFeatures(final FeatureType type, final int nb){
+        final List<Feature> features = new ArrayList<>(nb);
+        for(int i=0;i<nb;i++){
+            final Feature feature = FeatureUtilities.defaultFeature(type, "0");
+            feature.getProperty("boolean").setValue(i%2==0);
+            feature.getProperty("byte").setValue(i%100);
+            feature.getProperty("short").setValue(i%1000);
+            feature.getProperty("integer").setValue(i);
+            feature.getProperty("long").setValue((long)i);
+            feature.getProperty("float").setValue(i/2f);
+            feature.getProperty("double").setValue(i/3d);
+            feature.getProperty("string").setValue("line\t"+i+"\\");
+            features.add(feature);
+        }
+        return features;
+    }
+
+    /**
+     * Read a large table, loading the full result at once then streaming it by pages,
+     * and with only one of the columns.
+     */
+    @Test
+    public void testStreamingRead() throws Exception{
+        final int nb = 20000;
+        final String copyParam = PostgresFeatureStoreFactory.COPYINSERT.getName().getCode();
+        final GeometryFactory gf = new GeometryFactory();
+
+        final FeatureTypeBuilder ftb = new FeatureTypeBuilder();
+        ftb.setName("readTable");
+        ftb.add("integer", Integer.class);
+        ftb.add("string", String.class);
+        ftb.add("geometry", LineString.class, CRS_4326);
+        ftb.setDefaultGeometry("geometry");
+        final FeatureType type = ftb.buildFeatureType();
+
+        try{
+            ParametersExt.getOrCreateValue(params, copyParam).setValue(true);
+            reload(true);
+            store.createFeatureType(type.getName(), type);
+            final FeatureType resType = store.getFeatureType(store.getNames().iterator().next());
+            final List<Feature> features = new ArrayList<>(nb);
+            for(int i=0;i<nb;i++){
+                final Coordinate[] coords = new Coordinate[50];
+                for(int k=0;k<coords.length;k++){
+                    coords[k] = new Coordinate(i%180, k);
+                }
+                final Feature feature = FeatureUtilities.defaultFeature(resType, "0");
+                feature.getProperty("integer").setValue(i);
+                feature.getProperty("string").setValue("feature "+i);
+                feature.getProperty("geometry").setValue(gf.createLineString(coords));
+                features.add(feature);
+            }
+            store.addFeatures(resType.getName(), features, new Hints(HintsPending.UPDATE_ID_ON_INSERT, Boolean.FALSE));
+
+            final QueryBuilder qb = new QueryBuilder(resType.getName());
+            qb.setHints(new Hints(JDBCFeatureStore.FETCH_SIZE, 0));
+            final int nbAll = readAll(qb.buildQuery(), "Read at once");
+            qb.setHints(new Hints(JDBCFeatureStore.FETCH_SIZE, 5000));
+            final int nbPaged = readAll(qb.buildQuery(), "Read by pages");
+            qb.setProperties(new String[]{"integer"});
+            final int nbSubset = readAll(qb.buildQuery(), "Read one column by pages");
+            assertEquals(nb, nbAll);
+            assertEquals(nb, nbPaged);
+            assertEquals(nb, nbSubset);
+        }finally{
+            ParametersExt.getOrCreateValue(params, copyParam).setValue(false);
+        }
+    }
+
+    private int readAll(final Query query, final String label) throws DataStoreException{
+        final long time = System.nanoTime();
+        int count = 0;
+        final FeatureReader reader = store.getFeatureReader(query);
+        try{
+            while(reader.hasNext()){
+                assertNotNull(reader.next().getProperty("integer").getValue());
+                count++;
+            }
+        }finally{
+            reader.close();
+        }
+        final double seconds = (System.nanoTime()-time) / 1e9;
+        LOGGER.info(label+" : "+(int)(count/seconds)+" rows/s");
+        return count;
+    }
+        
     @Test
     public void testArrayInsert() throws DataStoreException, VersioningException{
         reload(true);
@@ -95,6 +95,10 @@ public abstract class AbstractJDBCFeatureStoreFactory extends AbstractFeatureSto
     public static final ParameterDescriptor<Integer> FETCHSIZE =
              new DefaultParameterDescriptor<>("fetch size","number of records read with each iteraction with the dbms",Integer.class,1000,false);
     
+    /** Number of records sent with each batch when inserting features, 1 or less disables batching */
+    public static final ParameterDescriptor<Integer> BATCHSIZE =
+             new DefaultParameterDescriptor<>("batch size","number of records sent with each insert batch to the dbms",Integer.class,1000,false);
+    
     /** Maximum amount of time the pool will wait when trying to grab a new connection **/
     public static final ParameterDescriptor<Integer> MAXWAIT =
              new DefaultParameterDescriptor<>("Connection timeout","number of seconds the connection pool wait for login",Integer.class,20,false);
@@ -292,7 +296,7 @@ public abstract class AbstractJDBCFeatureStoreFactory extends AbstractFeatureSto
         }
 
         // allow manipulating connections for possible tuning.
-        dataSource.setAccessToUnderlyingConnectionAllowed(true);
+        dataSource.setAccessToUnderlyingConnectionAllowed(isUnderlyingConnectionAccessAllowed());
 
         return new DBCPDataSource(dataSource);
     }
@@ -303,6 +307,14 @@ public abstract class AbstractJDBCFeatureStoreFactory extends AbstractFeatureSto
      */
     protected abstract String getValidationQuery();
 
+    /**
+     * @return true if the pooled connections must give access to the driver connection,
+     * needed by stores using vendor specific apis. Default is false.
+     */
+    protected boolean isUnderlyingConnectionAccessAllowed() {
+        return false;
+    }
+
     /**
      * Build JDBC url string = jdbc:<database>://<host>:<port>/<dbname>
      */
@@ -17,8 +17,11 @@
 package org.geotoolkit.db;
 
 import com.vividsolutions.jts.geom.GeometryFactory;
+import java.io.Closeable;
 import java.io.IOException;
+import com.vividsolutions.jts.geom.Geometry;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -26,6 +29,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -53,12 +57,14 @@ import org.geotoolkit.db.reverse.*;
 import org.geotoolkit.db.session.JDBCSession;
 import org.geotoolkit.factory.FactoryFinder;
 import org.geotoolkit.factory.Hints;
+import org.geotoolkit.factory.HintsPending;
 import org.geotoolkit.feature.AttributeDescriptorBuilder;
 import org.geotoolkit.feature.AttributeTypeBuilder;
 import org.geotoolkit.feature.type.DefaultName;
 import org.geotoolkit.feature.FeatureTypeBuilder;
 import org.geotoolkit.feature.FeatureUtilities;
 import org.geotoolkit.feature.SchemaException;
+import org.geotoolkit.filter.identity.DefaultFeatureId;
 import org.geotoolkit.filter.visitor.CRSAdaptorVisitor;
 import org.geotoolkit.filter.visitor.FIDFixVisitor;
 import org.geotoolkit.filter.visitor.FilterAttributeExtractor;
@@ -67,6 +73,7 @@ import org.geotoolkit.parameter.Parameters;
 import org.geotoolkit.referencing.CRS;
 import org.apache.sis.storage.DataStoreException;
 import org.geotoolkit.feature.ComplexAttribute;
+import org.geotoolkit.feature.AbstractFeature;
 import org.geotoolkit.feature.Feature;
 import org.geotoolkit.feature.Property;
 import org.geotoolkit.feature.simple.SimpleFeatureType;
@@ -78,6 +85,7 @@ import org.geotoolkit.feature.type.FeatureType;
 import org.geotoolkit.feature.type.Name;
 import org.geotoolkit.feature.type.PropertyDescriptor;
 import org.geotoolkit.feature.type.PropertyType;
+import org.opengis.coverage.Coverage;
 import org.opengis.filter.Filter;
 import org.opengis.filter.FilterFactory;
 import org.opengis.filter.identity.FeatureId;
@@ -113,6 +121,8 @@ public class DefaultJDBCFeatureStore extends JDBCFeatureStore{
     
     //number of records to retrieve with each db call.
     private final int fetchSize;
+    //number of records to send with each db call when inserting.
+    private final int batchSize;
     private SQLQueryBuilder queryBuilder;
         
     
@@ -121,6 +131,7 @@ public class DefaultJDBCFeatureStore extends JDBCFeatureStore{
         this.factoryId = factoryId;
         
         fetchSize = (Integer)Parameters.getOrCreate(AbstractJDBCFeatureStoreFactory.FETCHSIZE, params).getValue();
+        batchSize = (Integer)Parameters.getOrCreate(AbstractJDBCFeatureStoreFactory.BATCHSIZE, params).getValue();
         final boolean simpleTypes = (Boolean)Parameters.getOrCreate(AbstractJDBCFeatureStoreFactory.SIMPLETYPE, params).getValue();        
         dbmodel = new DataBaseModel(this, simpleTypes); 
         
@@ -165,6 +176,14 @@ public class DefaultJDBCFeatureStore extends JDBCFeatureStore{
     public int getFetchSize() {
         return fetchSize;
     }
+
+    /**
+     * @return number of records sent with each db call when inserting features,
+     *         a value lower or equal to 1 disables batch insertion.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
     
     public void setDialect(SQLDialect dialect) {
         ArgumentChecks.ensureNonNull("dialect", dialect);
@@ -401,17 +420,22 @@ public class DefaultJDBCFeatureStore extends JDBCFeatureStore{
             }
         }
         
+        //without post filter, extra columns are only needed for feature ids,
+        //the reader can directly return the requested type
+        final boolean postFiltered = postFilter != null && postFilter != Filter.INCLUDE;
+
         FeatureReader reader;
         try {
             sql = getQueryBuilder().selectSQL(queryFeatureType, preQuery);
-            reader = new JDBCFeatureReader(this, sql, queryFeatureType, cnx, release, null);
+            reader = new JDBCFeatureReader(this, sql, queryFeatureType,
+                    postFiltered ? queryFeatureType : returnedFeatureType, cnx, release, query.getHints());
         } catch (SQLException ex) {
             throw new DataStoreException(ex.getMessage(), ex);
         }
-        
+        final FeatureType readerType = reader.getFeatureType();
         
         // if post filter, wrap it
-        if (postFilter != null && postFilter != Filter.INCLUDE) {
+        if (postFiltered) {
             reader = GenericFilterFeatureIterator.wrap(reader, postFilter);
         }
 
@@ -428,7 +452,7 @@ public class DefaultJDBCFeatureStore extends JDBCFeatureStore{
         }
 
         //if we need to constraint type
-        if(!returnedFeatureType.equals(queryFeatureType)){
+        if(!returnedFeatureType.equals(readerType)){
             reader = GenericRetypeFeatureIterator.wrap(reader, returnedFeatureType, query.getHints());
         }
 
@@ -459,7 +483,7 @@ public class DefaultJDBCFeatureStore extends JDBCFeatureStore{
         try {
             final FeatureType ft = getFeatureType(query);
             
-            final JDBCFeatureReader reader = new JDBCFeatureReader(this, sql, ft, cnx, release, null);
+            final JDBCFeatureReader reader = new JDBCFeatureReader(this, sql, ft, cnx, release, query.getHints());
             return reader;
         } catch (SchemaException ex) {
             throw new DataStoreException(ex);
@@ -1034,6 +1058,163 @@ public class DefaultJDBCFeatureStore extends JDBCFeatureStore{
         }
     }
 
+    /**
+     * Check if features of the given type can be inserted with {@link #insertBatch }.
+     * Only flat types with auto generated or sequenced primary keys are supported,
+     * coverages and arrays are still encoded in the sql text. The dialect must
+     * declare it supports batch insertion.
+     */
+    protected boolean canInsertBatch(final ComplexType featureType) throws DataStoreException {
+        if (batchSize <= 1 || !getDialect().supportsBatchInsert()
+                || !(featureType instanceof SimpleFeatureType)) return false;
+
+        final PrimaryKey key = dbmodel.getPrimaryKey(featureType.getName());
+        if (key == null || key.isNull()) return false;
+        for (ColumnMetaModel col : key.getColumns()) {
+            if (col.getType() != ColumnMetaModel.Type.AUTO && col.getType() != ColumnMetaModel.Type.SEQUENCED) {
+                return false;
+            }
+        }
+        for (PropertyDescriptor desc : featureType.getDescriptors()) {
+            final Class binding = desc.getType().getBinding();
+            if (Coverage.class.isAssignableFrom(binding) || binding.isArray()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Insert features using a prepared statement, rows are sent to the database
+     * by groups of {@link #getBatchSize()}. Types not supported by batch insertion
+     * fallback on sql text insertion.
+     *
+     * @param features features to insert
+     * @param featureType features type
+     * @param cx connection to use
+     * @param updateIds if true, generated primary keys are fetched after each batch,
+     *        set on the features and the feature id stored in the "fid" user data.
+     * @throws DataStoreException
+     */
+    protected void insertBatch(final Collection<? extends ComplexAttribute> features, final ComplexType featureType,
+            final Connection cx, final boolean updateIds) throws DataStoreException {
+        if (features.isEmpty()) return;
+
+        if (!canInsertBatch(featureType)) {
+            if (updateIds) {
+                for (ComplexAttribute feature : features) {
+                    insert(feature, featureType, cx);
+                }
+            } else {
+                insert(features, featureType, cx);
+            }
+            return;
+        }
+
+        final PrimaryKey key = dbmodel.getPrimaryKey(featureType.getName());
+        final List<ColumnMetaModel> keyColumns = key.getColumns();
+        final List<PropertyDescriptor> columns = getQueryBuilder().insertColumns(featureType);
+        final boolean autoKeys = columns.size() < featureType.getDescriptors().size();
+        final String sql = getQueryBuilder().insertPreparedSQL(featureType, columns);
+        getLogger().log(Level.FINE, "Inserting features in batch: {0}", sql);
+
+        PreparedStatement stmt = null;
+        try {
+            stmt = (updateIds && autoKeys) ?
+                    cx.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS) : cx.prepareStatement(sql);
+
+            final List<ComplexAttribute> pending = new ArrayList<>(Math.min(batchSize, features.size()));
+            for (ComplexAttribute feature : features) {
+                fillSequencedKeys(feature, keyColumns, cx);
+
+                int index = 1;
+                for (PropertyDescriptor desc : columns) {
+                    final Class binding = desc.getType().getBinding();
+                    final Object value = feature.getProperty(desc.getName().getLocalPart()).getValue();
+                    if (Geometry.class.isAssignableFrom(binding)) {
+                        final Geometry geom = (Geometry) value;
+                        index = getDialect().setGeometryParameter(stmt, index, geom,
+                                SQLQueryBuilder.getGeometrySRID(geom, desc));
+                    } else {
+                        getDialect().setValueParameter(stmt, index++, value, binding);
+                    }
+                }
+                stmt.addBatch();
+                pending.add(feature);
+
+                if (pending.size() >= batchSize) {
+                    executeBatch(stmt, pending, featureType, keyColumns, updateIds, autoKeys);
+                }
+            }
+            executeBatch(stmt, pending, featureType, keyColumns, updateIds, autoKeys);
+
+            if (cx.getAutoCommit()) {
+                fireFeaturesAdded(featureType.getName(), null);
+            }
+        } catch (SQLException ex) {
+            throw new DataStoreException("Failed to insert features : "+ex.getMessage()+"\nSQL Query :"+sql, ex);
+        } finally {
+            JDBCFeatureStoreUtilities.closeSafe(getLogger(),stmt);
+        }
+    }
+
+    /**
+     * Sequenced keys are not generated by the database, set the next sequence
+     * value on the feature if the key is not defined.
+     */
+    protected void fillSequencedKeys(final ComplexAttribute feature, final List<ColumnMetaModel> keyColumns,
+            final Connection cx) throws SQLException, DataStoreException {
+        for (ColumnMetaModel col : keyColumns) {
+            if (col.getType() == ColumnMetaModel.Type.SEQUENCED) {
+                final Property prop = feature.getProperty(col.getName());
+                if (prop.getValue() == null) {
+                    prop.setValue(col.nextColumnValue(this, cx));
+                }
+            }
+        }
+    }
+
+    /**
+     * Send pending rows and report generated keys on the features.
+     */
+    private void executeBatch(final PreparedStatement stmt, final List<ComplexAttribute> pending,
+            final ComplexType featureType, final List<ColumnMetaModel> keyColumns,
+            final boolean updateIds, final boolean autoKeys) throws SQLException {
+        if (pending.isEmpty()) return;
+        stmt.executeBatch();
+
+        if (updateIds) {
+            final ResultSet rs = autoKeys ? stmt.getGeneratedKeys() : null;
+            try {
+                //generated keys may contain all table columns or only the key columns, in order
+                final boolean byName = rs != null && rs.getMetaData().getColumnCount() > keyColumns.size();
+                for (ComplexAttribute feature : pending) {
+                    final boolean hasKeys = rs != null && rs.next();
+                    if (rs != null && !hasKeys) {
+                        //some drivers only return the keys of the last statement of a batch
+                        throw new SQLException("The driver returned less generated keys than inserted rows ("
+                                + pending.size() + "), ids can not be updated.");
+                    }
+                    final Object[] keyValues = new Object[keyColumns.size()];
+                    for (int k = 0; k < keyValues.length; k++) {
+                        final ColumnMetaModel col = keyColumns.get(k);
+                        final Property prop = feature.getProperty(col.getName());
+                        if (hasKeys && col.getType() == ColumnMetaModel.Type.AUTO) {
+                            final Object id = byName ? rs.getObject(col.getName()) : rs.getObject(k+1);
+                            prop.setValue(id);
+                        }
+                        keyValues[k] = prop.getValue();
+                    }
+                    feature.getUserData().put("fid", featureType.getName().getLocalPart() + "." + PrimaryKey.encodeFID(keyValues));
+                }
+            } finally {
+                JDBCFeatureStoreUtilities.closeSafe(getLogger(), null, null, rs);
+            }
+        }
+        stmt.clearBatch();
+        pending.clear();
+    }
+
     /**
      * Decompose feature in flat features, they are ordered in appropriate insertion order.
      * 
@@ -1134,12 +1315,79 @@ public class DefaultJDBCFeatureStore extends JDBCFeatureStore{
      */
     protected List<FeatureId> handleAddWithFeatureWriter(final Name groupName, final Collection<? extends Feature> newFeatures,
             Connection cnx, final Hints hints) throws DataStoreException{
+        final FeatureType type = getFeatureType(groupName);
+        if(isWritable(groupName) && canInsertBatch(type)){
+            return handleAddWithBatch(type, newFeatures, cnx, hints);
+        }
         try{
             return FeatureStoreUtilities.write(getFeatureWriterAppend(groupName,cnx,hints), newFeatures);
         }catch(FeatureStoreRuntimeException ex){
             throw new DataStoreException(ex);
         }
     }
+
+    /**
+     * Add features by groups of {@link #getBatchSize()} using {@link #insertBatch }.
+     */
+    private List<FeatureId> handleAddWithBatch(final FeatureType type, final Collection<? extends Feature> newFeatures,
+            Connection cnx, final Hints hints) throws DataStoreException{
+        final boolean updateIds = hints == null || !Boolean.FALSE.equals(hints.get(HintsPending.UPDATE_ID_ON_INSERT));
+        final List<FeatureId> ids = new ArrayList<>();
+        final List<Feature> batch = new ArrayList<>();
+        final List<FeatureId> sourceIds = new ArrayList<>();
+
+        final boolean release = (cnx == null);
+        try {
+            if(release){
+                cnx = getDataSource().getConnection();
+            }
+            final Iterator<? extends Feature> ite = newFeatures.iterator();
+            try{
+                while(ite.hasNext()){
+                    final Feature f = ite.next();
+                    final Feature candidate = FeatureUtilities.defaultFeature(type, "-1");
+                    FeatureUtilities.copy(f,candidate,false);
+                    batch.add(candidate);
+                    sourceIds.add(f.getIdentifier());
+                    if(batch.size() >= batchSize){
+                        flushBatch(type, batch, sourceIds, ids, cnx, updateIds);
+                    }
+                }
+            }finally{
+                if(ite instanceof Closeable){
+                    ((Closeable)ite).close();
+                }
+            }
+            flushBatch(type, batch, sourceIds, ids, cnx, updateIds);
+        } catch (SQLException | IOException ex) {
+            throw new DataStoreException(ex.getMessage(), ex);
+        } finally {
+            if(release){
+                JDBCFeatureStoreUtilities.closeSafe(getLogger(), cnx);
+            }
+        }
+        return ids;
+    }
+
+    private void flushBatch(final FeatureType type, final List<Feature> batch, final List<FeatureId> sourceIds,
+            final List<FeatureId> ids, final Connection cnx, final boolean updateIds) throws DataStoreException{
+        insertBatch(batch, type, cnx, updateIds);
+        for(int i=0,n=batch.size(); i<n; i++){
+            final Feature candidate = batch.get(i);
+            final String fid = (String) candidate.getUserData().get("fid");
+            if(fid != null){
+                final FeatureId id = new DefaultFeatureId(fid);
+                if(candidate instanceof AbstractFeature){
+                    ((AbstractFeature)candidate).setIdentifier(id);
+                }
+                ids.add(id);
+            }else{
+                ids.add(sourceIds.get(i));
+            }
+        }
+        batch.clear();
+        sourceIds.clear();
+    }
     
     /**
      * Convinient method to handle adding features operation by using the
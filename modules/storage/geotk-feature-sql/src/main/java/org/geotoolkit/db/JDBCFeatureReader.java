@@ -24,6 +24,7 @@ import java.util.logging.Level;
 import org.apache.sis.util.ArgumentChecks;
 import org.geotoolkit.data.FeatureReader;
 import org.geotoolkit.data.FeatureStoreRuntimeException;
+import org.geotoolkit.data.FeatureWriter;
 import static org.geotoolkit.db.JDBCFeatureStoreUtilities.*;
 import org.geotoolkit.db.reverse.PrimaryKey;
 import org.geotoolkit.factory.Hints;
@@ -39,6 +40,12 @@ import org.opengis.filter.identity.FeatureId;
 
 /**
  * JDBC Feature reader, both simple and complexe features.
+ * <p>
+ * Records are fetched by pages of {@link JDBCFeatureStore#FETCH_SIZE} records, or the store
+ * fetch size if the hint is not set. When the reader owns the connection, the connection
+ * auto-commit is disabled while reading : most drivers (PostgreSQL for example) ignore the
+ * fetch size and load the full result in memory otherwise.
+ * </p>
  * 
  * @author Johann Sorel (Geomatys)
  * @module pending
@@ -55,6 +62,8 @@ public class JDBCFeatureReader implements FeatureReader {
     //array of properties for faster access when simple type
     protected final PropertyDescriptor[] properties;
     protected final Object[] values;
+    //result set column index of each property, when simple type
+    protected final int[] columns;
     
     /**
      * statement,result set that is being worked from.
@@ -63,35 +72,77 @@ public class JDBCFeatureReader implements FeatureReader {
     protected final ResultSet rs;
     protected final Connection cx;
     protected final boolean release ;
+    /** true if auto-commit has been disabled to stream records */
+    private final boolean restoreAutoCommit;
     /** the next feature */
     private Feature feature = null;
     protected boolean closed = false;
     
     public JDBCFeatureReader(final DefaultJDBCFeatureStore store, final String sql, 
             final FeatureType type, Connection cnx, boolean release, final Hints hints) throws SQLException,DataStoreException {
+        this(store, sql, type, type, cnx, release, hints);
+    }
+
+    /**
+     * Create a reader returning only a subset of the sql query columns.
+     * Columns which are not in the returned type are not decoded, they can still be used
+     * to build feature identifiers.
+     *
+     * @param queryType feature type matching the sql query columns
+     * @param type returned feature type, subset of the query type. Only used if both types are simple.
+     */
+    public JDBCFeatureReader(final DefaultJDBCFeatureStore store, final String sql, final FeatureType queryType,
+            final FeatureType type, Connection cnx, boolean release, final Hints hints) throws SQLException,DataStoreException {
         ArgumentChecks.ensureNonNull("Connection", cnx);
         final Name typeName = type.getName();
         final String name = typeName.getLocalPart();
         this.fidBase = name + ".";
         
-        this.type = type;
+        this.type = (queryType instanceof SimpleFeatureType && type instanceof SimpleFeatureType) ? type : queryType;
         this.store = store;
         PrimaryKey pk = store.getDatabaseModel().getPrimaryKey(typeName);
         this.pkey = (pk==null)? new PrimaryKey("qom") : pk;
         this.properties = this.type.getDescriptors().toArray(new PropertyDescriptor[0]);
         this.values = new Object[this.properties.length];
+        this.columns = new int[this.properties.length];
+        final PropertyDescriptor[] queryProperties = queryType.getDescriptors().toArray(new PropertyDescriptor[0]);
+        for(int i=0;i<columns.length;i++){
+            final String propName = properties[i].getName().getLocalPart();
+            for(int k=0;k<queryProperties.length;k++){
+                if(queryProperties[k].getName().getLocalPart().equals(propName)){
+                    columns[i] = k+1;
+                    break;
+                }
+            }
+            if(columns[i] == 0){
+                throw new DataStoreException("Property "+propName+" is not in the query type.");
+            }
+        }
         
         this.sql = sql;        
         this.cx = cnx;
+        this.hints = hints;
+        this.release = release;
+
+        int fetchSize = store.getFetchSize();
+        if(hints != null && hints.get(JDBCFeatureStore.FETCH_SIZE) instanceof Integer){
+            fetchSize = (Integer) hints.get(JDBCFeatureStore.FETCH_SIZE);
+        }
+        //writers must keep the connection state, their changes would not be commited
+        this.restoreAutoCommit = release && fetchSize > 0 && !(this instanceof FeatureWriter) && cx.getAutoCommit();
+        if(restoreAutoCommit){
+            cx.setAutoCommit(false);
+        }
+
         this.st = cx.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
-        this.st.setFetchSize(store.getFetchSize());
+        this.st.setFetchSize(Math.max(fetchSize, 0));
         try {
             this.rs = this.st.executeQuery(sql);
         } catch (SQLException sqle){
+            closeSafe(store.getLogger(),null,st,null);
+            restoreConnection();
             throw new SQLException(sqle.getMessage()+" with query :"+ sql,sqle);
         }
-        this.hints = hints;
-        this.release = release;
     }
     
     public JDBCFeatureReader(final JDBCFeatureReader other) throws SQLException {
@@ -105,8 +156,10 @@ public class JDBCFeatureReader implements FeatureReader {
         this.rs = other.rs;
         this.cx = other.cx;
         this.release = other.release;
+        this.restoreAutoCommit = false;
         this.properties = other.properties;
         this.values = new Object[this.properties.length];
+        this.columns = other.columns;
     }
     
     @Override
@@ -147,7 +200,7 @@ public class JDBCFeatureReader implements FeatureReader {
         if(type instanceof SimpleFeatureType){
             for(int i=0;i<values.length;i++){
                 final PropertyDescriptor pdesc = properties[i];
-                values[i] = JDBCComplexFeature.readSimpleValue(store.getDialect(), rs, i+1, pdesc);
+                values[i] = JDBCComplexFeature.readSimpleValue(store.getDialect(), rs, columns[i], pdesc);
             }
             return new DefaultSimpleFeature((SimpleFeatureType)type, fid, values.clone(), false);
         }else{
@@ -158,7 +211,26 @@ public class JDBCFeatureReader implements FeatureReader {
     @Override
     public void close() {
         closed = true;
-        closeSafe(store.getLogger(),(release)?cx:null,st,rs);
+        closeSafe(store.getLogger(),null,st,rs);
+        restoreConnection();
+        if(release){
+            closeSafe(store.getLogger(),cx);
+        }
+    }
+
+    /**
+     * Restore connection auto-commit if it has been disabled to stream records.
+     * Nothing has been written, the transaction is rolled back.
+     */
+    private void restoreConnection() {
+        if(restoreAutoCommit){
+            try {
+                cx.rollback();
+                cx.setAutoCommit(true);
+            } catch (SQLException ex) {
+                store.getLogger().log(Level.WARNING, ex.getMessage(), ex);
+            }
+        }
     }
 
     @Override
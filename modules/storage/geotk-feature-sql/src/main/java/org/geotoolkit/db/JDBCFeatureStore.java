@@ -32,6 +32,13 @@ import org.opengis.parameter.ParameterValueGroup;
 public abstract class JDBCFeatureStore extends AbstractFeatureStore{
     
     public static final RenderingHints.Key RESAMPLING = new org.geotoolkit.factory.Hints.Key(Object.class);
+
+    /**
+     * Query hint, number of records fetched with each round trip to the database.
+     * Overrides the store fetch size for a single query. Value is an Integer,
+     * 0 or less to read all records at once.
+     */
+    public static final RenderingHints.Key FETCH_SIZE = new org.geotoolkit.factory.Hints.Key(Integer.class);
     
     /**
      * Query language supported : SQL.
@@ -96,9 +96,9 @@ public class JDBCFeatureWriterInsert extends JDBCFeatureReader implements Featur
         if(batchInsert){
             toAdd.add(last);
             last = (AbstractFeature)FeatureUtilities.defaultFeature(type, "-1");
-            if(toAdd.size() > 1000){
+            if(toAdd.size() >= Math.max(store.getBatchSize(), 1)){
                 try {
-                    store.insert(toAdd, type, cx);
+                    store.insertBatch(toAdd, type, cx, false);
                 } catch (DataStoreException e) {
                     throw new FeatureStoreRuntimeException(e);
                 }
@@ -124,7 +124,7 @@ public class JDBCFeatureWriterInsert extends JDBCFeatureReader implements Featur
         if(batchInsert && !toAdd.isEmpty()){
             try {
                 //do the insert
-                store.insert(toAdd, type, cx);
+                store.insertBatch(toAdd, type, cx, false);
             } catch (DataStoreException e) {
                 throw new FeatureStoreRuntimeException(e);
             }
@@ -16,8 +16,14 @@
  */
 package org.geotoolkit.db.dialect;
 
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.WKBWriter;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
 import org.geotoolkit.feature.AttributeTypeBuilder;
 import org.geotoolkit.filter.capability.DefaultFilterCapabilities;
 import org.geotoolkit.filter.visitor.CapabilitiesFilterSplitter;
@@ -82,6 +88,48 @@ public abstract class AbstractSQLDialect implements SQLDialect {
         encodeTableName(sql, tableName);
     }
     
+    /**
+     * Batch insertion is disabled by default, dialects must declare they support it.
+     */
+    @Override
+    public boolean supportsBatchInsert() {
+        return false;
+    }
+
+    /**
+     * Default implementation use the OGC ST_GeomFromWKB function,
+     * with two parameters : the geometry WKB and the srid.
+     */
+    @Override
+    public void encodeGeometryParameter(StringBuilder sql) {
+        sql.append("ST_GeomFromWKB(?,?)");
+    }
+
+    @Override
+    public int setGeometryParameter(PreparedStatement stmt, int index, Geometry value, int srid) throws SQLException {
+        if (value == null) {
+            stmt.setNull(index++, Types.BINARY);
+        } else {
+            final Coordinate first = value.getCoordinate();
+            final int dim = (first == null || Double.isNaN(first.z)) ? 2 : 3;
+            stmt.setBytes(index++, new WKBWriter(dim).write(value));
+        }
+        stmt.setInt(index++, srid);
+        return index;
+    }
+
+    @Override
+    public void setValueParameter(PreparedStatement stmt, int index, Object value, Class type) throws SQLException {
+        if (value == null) {
+            stmt.setNull(index, Types.NULL);
+        } else if (value instanceof java.util.Date && !(value instanceof java.sql.Date
+                || value instanceof java.sql.Time || value instanceof Timestamp)) {
+            stmt.setTimestamp(index, new Timestamp(((java.util.Date) value).getTime()));
+        } else {
+            stmt.setObject(index, value);
+        }
+    }
+
     @Override
     public void encodePostColumnCreateTable(StringBuilder sql, AttributeDescriptor att) {
     }
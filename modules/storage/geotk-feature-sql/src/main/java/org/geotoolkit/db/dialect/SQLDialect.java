@@ -19,6 +19,7 @@ package org.geotoolkit.db.dialect;
 import com.vividsolutions.jts.geom.Geometry;
 import java.io.IOException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Map;
@@ -116,6 +117,46 @@ public interface SQLDialect {
     void encodeGeometryValue(StringBuilder sql, Geometry value, int srid) throws DataStoreException;
     
     void encodeCoverageValue(StringBuilder sql, Coverage value) throws DataStoreException;
+
+    /**
+     * Check if features can be inserted with prepared statements executed in batch.
+     * Dialects returning true must support {@link #encodeGeometryParameter(java.lang.StringBuilder) }
+     * and {@link #setGeometryParameter(java.sql.PreparedStatement, int, com.vividsolutions.jts.geom.Geometry, int) }.
+     * 
+     * @return true if batch insertion is supported
+     */
+    boolean supportsBatchInsert();
+
+    /**
+     * Encode the parameter placeholder of a geometry value in a prepared statement.
+     * The parameters are set with {@link #setGeometryParameter(java.sql.PreparedStatement, int, com.vividsolutions.jts.geom.Geometry, int) }.
+     * 
+     * @param sql 
+     */
+    void encodeGeometryParameter(StringBuilder sql);
+
+    /**
+     * Set a geometry value in a prepared statement.
+     * 
+     * @param stmt prepared statement
+     * @param index index of the first parameter of the geometry placeholder
+     * @param value geometry, can be null
+     * @param srid geometry srid
+     * @return index of the next parameter
+     * @throws SQLException 
+     */
+    int setGeometryParameter(PreparedStatement stmt, int index, Geometry value, int srid) throws SQLException;
+
+    /**
+     * Set an attribute value in a prepared statement.
+     * 
+     * @param stmt prepared statement
+     * @param index parameter index
+     * @param value attribute value, can be null
+     * @param type attribute binding
+     * @throws SQLException 
+     */
+    void setValueParameter(PreparedStatement stmt, int index, Object value, Class type) throws SQLException;
     
     void encodePrimaryKey(StringBuilder sql, Class binding, String sqlType);
 
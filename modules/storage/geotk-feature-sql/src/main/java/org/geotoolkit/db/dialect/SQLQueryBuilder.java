@@ -320,6 +320,62 @@ public class SQLQueryBuilder {
         return sqlType.toString() + sqlValues.toString();
     }
 
+    /**
+     * List the columns filled by an insert statement.
+     * Auto generated primary key columns are excluded.
+     *
+     * @param featureType
+     * @return list of inserted properties, in table order
+     * @throws DataStoreException
+     */
+    public List<PropertyDescriptor> insertColumns(final ComplexType featureType) throws DataStoreException{
+        final PrimaryKey key = store.getDatabaseModel().getPrimaryKey(featureType.getName());
+        final List<PropertyDescriptor> columns = new ArrayList<>();
+        fields :
+        for(PropertyDescriptor desc : featureType.getDescriptors()){
+            final String attName = desc.getName().getLocalPart();
+            for (ColumnMetaModel col : key.getColumns()) {
+                if(col.getName().equals(attName) && col.getType() == ColumnMetaModel.Type.AUTO){
+                    continue fields;
+                }
+            }
+            columns.add(desc);
+        }
+        return columns;
+    }
+
+    /**
+     * Generates an 'INSERT INTO' prepared statement with one parameter placeholder
+     * for each column. Geometry placeholders are encoded by the dialect.
+     *
+     * @param featureType
+     * @param columns inserted columns, see {@link #insertColumns(org.geotoolkit.feature.type.ComplexType) }
+     * @return prepared statement sql
+     */
+    public String insertPreparedSQL(final ComplexType featureType, final List<PropertyDescriptor> columns){
+        final StringBuilder sql = new StringBuilder();
+        sql.append("INSERT INTO ");
+        dialect.encodeSchemaAndTableName(sql, databaseSchema, featureType.getName().getLocalPart());
+        sql.append(" ( ");
+        for(PropertyDescriptor desc : columns){
+            dialect.encodeColumnName(sql, desc.getName().getLocalPart());
+            sql.append(',');
+        }
+        sql.setLength(sql.length() - 1);
+        sql.append(" ) VALUES ( ");
+        for(PropertyDescriptor desc : columns){
+            if (Geometry.class.isAssignableFrom(desc.getType().getBinding())) {
+                dialect.encodeGeometryParameter(sql);
+            } else {
+                sql.append('?');
+            }
+            sql.append(',');
+        }
+        sql.setLength(sql.length() - 1);
+        sql.append(" )");
+        return sql.toString();
+    }
+
 
     /**
      * Generates an 'UPDATE' sql statement.
@@ -279,13 +279,6 @@ public abstract class AbstractFeatureCollection extends AbstractCollection<Featu
         //          otherwise the result will be illogic.
 
 
-        //wrap sort by ---------------------------------------------------------
-        //This can be really expensive, and force the us to read the full iterator.
-        //that may cause out of memory errors.
-        if(sorts != null && sorts.length != 0){
-            result = GenericSortByFeatureIterator.wrap(result, sorts);
-        }
-
         //wrap filter ----------------------------------------------------------
         //we must keep the filter first since it impacts the start index and max feature
         if(filter != null && filter != Filter.INCLUDE){
@@ -297,6 +290,21 @@ public abstract class AbstractFeatureCollection extends AbstractCollection<Featu
             }
         }
 
+        //wrap sort by ---------------------------------------------------------
+        //This can be really expensive, and force the us to read the full iterator.
+        //placed after the filter since it does not change the filtered features,
+        //only the first features are kept when the number of features is limited.
+        if(sorts != null && sorts.length != 0){
+            int limit = 0;
+            if(max != null && max > 0){
+                final long first = (long)max + ((start != null && start > 0) ? start : 0);
+                if(first <= Integer.MAX_VALUE){
+                    limit = (int) first;
+                }
+            }
+            result = GenericSortByFeatureIterator.wrap(result, sorts, limit);
+        }
+
         //wrap start index -----------------------------------------------------
         if(start != null && start > 0){
             result = GenericStartIndexFeatureIterator.wrap(result, start);
@@ -48,6 +48,7 @@ import org.geotoolkit.feature.SchemaException;
 import org.geotoolkit.parameter.Parameters;
 import org.apache.sis.util.logging.Logging;
 import org.geotoolkit.data.memory.GenericQueryFeatureIterator;
+import org.geotoolkit.data.memory.GenericTimedFeatureIterator;
 import org.geotoolkit.storage.StorageEvent;
 import org.geotoolkit.storage.StorageListener;
 import org.geotoolkit.version.Version;
@@ -493,7 +494,7 @@ public abstract class AbstractFeatureStore extends FeatureStore {
      * @throws org.apache.sis.storage.DataStoreException
      */
     protected FeatureReader handleRemaining(FeatureReader reader, final Query remainingParameters) throws DataStoreException{
-        return GenericQueryFeatureIterator.wrap(reader, remainingParameters);
+        return GenericTimedFeatureIterator.wrap(GenericQueryFeatureIterator.wrap(reader, remainingParameters));
     }
 
     /**
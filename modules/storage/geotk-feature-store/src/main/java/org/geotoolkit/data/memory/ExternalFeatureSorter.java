@@ -0,0 +1,650 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2015, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+
+package org.geotoolkit.data.memory;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.io.WKBReader;
+import com.vividsolutions.jts.io.WKBWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import org.geotoolkit.data.FeatureStoreRuntimeException;
+import org.geotoolkit.feature.Feature;
+import org.geotoolkit.feature.FeatureFactory;
+import org.geotoolkit.feature.Property;
+import org.geotoolkit.feature.type.AttributeDescriptor;
+import org.geotoolkit.feature.type.ComplexType;
+import org.geotoolkit.feature.type.FeatureType;
+import org.geotoolkit.feature.type.PropertyDescriptor;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
+
+/**
+ * Sort features with a bounded number of features in memory.
+ * <p>
+ * When the memory budget is exceeded, the buffered features are sorted and spilled to disk :
+ * the property values are appended to a data file and a run file receives the sort keys
+ * with the record offset in the data file. Runs are merged at the end and features are read
+ * back from their offset while iterating.
+ * </p>
+ * Features with equal sort keys are returned in the order they were added, whether they
+ * were spilled or not.
+ * Only features of a single type made of simple attributes with common values (numbers,
+ * texts, dates, non empty geometries and serializable objects) can be spilled, other
+ * features stay in memory.
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+final class ExternalFeatureSorter implements Closeable {
+
+    private static final FeatureFactory FF = FeatureFactory.LENIENT;
+
+    //value tags
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte SHORT = 6;
+    private static final byte BYTE = 7;
+    private static final byte BOOLEAN = 8;
+    private static final byte DATE = 9;
+    private static final byte GEOMETRY = 10;
+    private static final byte SERIALIZED = 11;
+
+    private final SortBy[] orders;
+    private final Comparator<Entry> comparator;
+    private final int maxInMemory;
+
+    private List<Entry> buffer = new ArrayList<>();
+    //rank of the next added feature
+    private long sequence;
+    //buffer size triggering a spill, features which can not be spilled stay in the buffer
+    private int spillThreshold;
+
+    //spill state, created on first spill
+    private FeatureType type;
+    private List<PropertyDescriptor> descriptors;
+    private Map<PropertyDescriptor,Integer> descriptorIndex;
+    private File dataFile;
+    private DataOutputStream dataOut;
+    private long dataOffset;
+    private final List<File> runFiles = new ArrayList<>();
+    private final List<Integer> runSizes = new ArrayList<>();
+
+    //geometry user data (usually the CRS) are few and shared, they are kept in memory
+    private final List<Object> userDatas = new ArrayList<>();
+    private final Map<Object,Integer> userDataIndex = new IdentityHashMap<>();
+
+    private final WKBWriter wkbWriter2D = new WKBWriter(2, true);
+    private final WKBWriter wkbWriter3D = new WKBWriter(3, true);
+    private final WKBReader wkbReader = new WKBReader();
+
+    private RandomAccessFile dataIn;
+    private final List<Closeable> runIns = new ArrayList<>();
+
+    /**
+     * @param orders sort orders
+     * @param featureComparator comparator for the given orders
+     * @param maxInMemory number of features kept in memory before spilling to disk
+     */
+    ExternalFeatureSorter(final SortBy[] orders, final Comparator<Feature> featureComparator, final int maxInMemory) {
+        this.orders = orders;
+        this.comparator = new Comparator<Entry>() {
+            @Override
+            public int compare(final Entry e1, final Entry e2) {
+                final int c = featureComparator.compare(e1.feature, e2.feature);
+                return (c != 0) ? c : Long.compare(e1.sequence, e2.sequence);
+            }
+        };
+        this.maxInMemory = maxInMemory;
+        this.spillThreshold = maxInMemory;
+    }
+
+    /**
+     * Add a feature, the feature must not be modified afterward.
+     */
+    void add(final Feature feature) throws FeatureStoreRuntimeException {
+        buffer.add(new Entry(feature, sequence++));
+        if (buffer.size() > spillThreshold) {
+            spill();
+        }
+    }
+
+    /**
+     * Sort the buffer, write the features which can be and keep the others in memory.
+     */
+    private void spill() throws FeatureStoreRuntimeException {
+        Collections.sort(buffer, comparator);
+        final List<Entry> kept = new ArrayList<>();
+        try {
+            File runFile = null;
+            DataOutputStream runOut = null;
+            int runSize = 0;
+            try {
+                for (Entry entry : buffer) {
+                    final byte[] record = encodeFeature(entry.feature);
+                    final byte[] keys = (record == null) ? null : encodeKeys(entry.feature);
+                    if (keys == null) {
+                        kept.add(entry);
+                        continue;
+                    }
+                    if (runOut == null) {
+                        if (dataOut == null) {
+                            dataFile = File.createTempFile("geotk-sort-data", ".tmp");
+                            dataFile.deleteOnExit();
+                            dataOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(dataFile)));
+                        }
+                        runFile = File.createTempFile("geotk-sort-run", ".tmp");
+                        runFile.deleteOnExit();
+                        runOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(runFile)));
+                    }
+                    runOut.write(keys);
+                    runOut.writeLong(entry.sequence);
+                    runOut.writeLong(dataOffset);
+                    dataOut.writeInt(record.length);
+                    dataOut.write(record);
+                    dataOffset += 4 + record.length;
+                    runSize++;
+                }
+            } finally {
+                if (runOut != null) {
+                    runOut.close();
+                    runFiles.add(runFile);
+                    runSizes.add(runSize);
+                }
+            }
+        } catch (IOException ex) {
+            throw new FeatureStoreRuntimeException(ex);
+        }
+        buffer = kept;
+        spillThreshold = kept.size() + maxInMemory;
+    }
+
+    /**
+     * Sort all added features.
+     *
+     * @return iterator over the sorted features, features read back from disk are new instances.
+     */
+    Iterator<Feature> sort() throws FeatureStoreRuntimeException {
+        Collections.sort(buffer, comparator);
+        if (runFiles.isEmpty()) {
+            final Iterator<Entry> ite = buffer.iterator();
+            return new Iterator<Feature>() {
+                @Override
+                public boolean hasNext() {
+                    return ite.hasNext();
+                }
+
+                @Override
+                public Feature next() {
+                    return ite.next().feature;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException("Not supported.");
+                }
+            };
+        }
+
+        final List<Run> runs = new ArrayList<>();
+        try {
+            dataOut.close();
+            dataIn = new RandomAccessFile(dataFile, "r");
+            for (int i = 0; i < runFiles.size(); i++) {
+                final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(runFiles.get(i))));
+                runIns.add(in);
+                runs.add(new FileRun(in, runSizes.get(i)));
+            }
+        } catch (IOException ex) {
+            throw new FeatureStoreRuntimeException(ex);
+        }
+        //features which could not be spilled, they may precede spilled features with the same keys
+        runs.add(new MemoryRun(buffer.iterator()));
+
+        final PriorityQueue<Run> queue = new PriorityQueue<>(runs.size(), new Comparator<Run>() {
+            @Override
+            public int compare(final Run r1, final Run r2) {
+                final int c = compareKeys(r1.keys, r2.keys);
+                return (c != 0) ? c : Long.compare(r1.sequence, r2.sequence);
+            }
+        });
+        for (Run run : runs) {
+            if (run.advance()) queue.add(run);
+        }
+
+        return new Iterator<Feature>() {
+            @Override
+            public boolean hasNext() {
+                return !queue.isEmpty();
+            }
+
+            @Override
+            public Feature next() {
+                final Run run = queue.poll();
+                if (run == null) {
+                    throw new NoSuchElementException("No more elements.");
+                }
+                final Feature feature = run.feature();
+                if (run.advance()) queue.add(run);
+                return feature;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Not supported.");
+            }
+        };
+    }
+
+    /**
+     * Delete the temporary files.
+     */
+    @Override
+    public void close() {
+        buffer = Collections.emptyList();
+        for (Closeable in : runIns) {
+            closeQuietly(in);
+        }
+        runIns.clear();
+        closeQuietly(dataIn);
+        closeQuietly(dataOut);
+        for (File f : runFiles) {
+            f.delete();
+        }
+        runFiles.clear();
+        if (dataFile != null) {
+            dataFile.delete();
+            dataFile = null;
+        }
+    }
+
+    private static void closeQuietly(final Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ex) {
+                //temporary file, nothing to do
+            }
+        }
+    }
+
+    private Object[] keys(final Feature feature) {
+        final Object[] keys = new Object[orders.length];
+        for (int i = 0; i < orders.length; i++) {
+            keys[i] = orders[i].getPropertyName().evaluate(feature);
+        }
+        return keys;
+    }
+
+    /**
+     * Same order as {@link org.geotoolkit.data.query.SortByComparator}.
+     */
+    private int compareKeys(final Object[] keys1, final Object[] keys2) {
+        for (int i = 0; i < orders.length; i++) {
+            final Comparable o1 = (Comparable) keys1[i];
+            final Comparable o2 = (Comparable) keys2[i];
+            if (o1 == null) {
+                return -1;
+            } else if (o2 == null) {
+                return 1;
+            }
+            final int result = (orders[i].getSortOrder() == SortOrder.ASCENDING) ? o1.compareTo(o2) : o2.compareTo(o1);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // record encoding /////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @return encoded feature or null if the feature can not be spilled.
+     */
+    private byte[] encodeFeature(final Feature feature) throws IOException {
+        if (type == null) {
+            type = feature.getType();
+            descriptors = new ArrayList<>(type.getDescriptors());
+            descriptorIndex = new IdentityHashMap<>();
+            for (int i = 0; i < descriptors.size(); i++) {
+                descriptorIndex.put(descriptors.get(i), i);
+            }
+        } else if (feature.getType() != type) {
+            return null;
+        }
+
+        final Collection<Property> properties = feature.getProperties();
+        for (Property prop : properties) {
+            final PropertyDescriptor desc = prop.getDescriptor();
+            if (!(desc instanceof AttributeDescriptor) || desc.getType() instanceof ComplexType
+                    || !descriptorIndex.containsKey(desc) || !isEncodable(prop.getValue())) {
+                return null;
+            }
+        }
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            writeString(out, feature.getIdentifier().getID());
+            out.writeInt(properties.size());
+            for (Property prop : properties) {
+                out.writeInt(descriptorIndex.get(prop.getDescriptor()));
+                writeValue(out, prop.getValue(), userDataIndex);
+            }
+        } catch (NotSerializableException ex) {
+            //a serializable value contains a non serializable object
+            return null;
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return encoded sort keys or null if they can not be spilled.
+     */
+    private byte[] encodeKeys(final Feature feature) throws IOException {
+        final Object[] keys = keys(feature);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            for (Object key : keys) {
+                if (!isEncodable(key)) return null;
+                writeValue(out, key, null);
+            }
+        } catch (NotSerializableException ex) {
+            return null;
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private Feature readFeature(final long offset) throws IOException {
+        dataIn.seek(offset);
+        final byte[] record = new byte[dataIn.readInt()];
+        dataIn.readFully(record);
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        final String id = readString(in);
+        final int nbProperties = in.readInt();
+        final List<Property> properties = new ArrayList<>(nbProperties);
+        for (int i = 0; i < nbProperties; i++) {
+            final AttributeDescriptor desc = (AttributeDescriptor) descriptors.get(in.readInt());
+            properties.add(FF.createAttribute(readValue(in), desc, null));
+        }
+        return FF.createFeature(properties, type, id);
+    }
+
+    private static boolean isEncodable(final Object value) {
+        if (value instanceof Geometry) {
+            //empty points can not be written in WKB
+            return !((Geometry) value).isEmpty();
+        }
+        return value == null || value instanceof Serializable;
+    }
+
+    /**
+     * @param userDataIndex where to register geometry user data, null for sort keys.
+     */
+    private void writeValue(final DataOutputStream out, final Object value,
+            final Map<Object,Integer> userDataIndex) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value.getClass() == Date.class) {
+            out.writeByte(DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value instanceof Geometry && userDataIndex != null) {
+            final Geometry geom = (Geometry) value;
+            final Object userData = geom.getUserData();
+            int udIndex = -1;
+            if (userData != null) {
+                Integer index = userDataIndex.get(userData);
+                if (index == null) {
+                    index = userDatas.size();
+                    userDatas.add(userData);
+                    userDataIndex.put(userData, index);
+                }
+                udIndex = index;
+            }
+            final boolean is3D = !Double.isNaN(geom.getCoordinate().z);
+            final byte[] wkb = (is3D ? wkbWriter3D : wkbWriter2D).write(geom);
+            out.writeByte(GEOMETRY);
+            out.writeInt(udIndex);
+            out.writeInt(wkb.length);
+            out.write(wkb);
+        } else {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+                oos.writeObject(value);
+            }
+            out.writeByte(SERIALIZED);
+            out.writeInt(bytes.size());
+            bytes.writeTo(out);
+        }
+    }
+
+    private Object readValue(final DataInputStream in) throws IOException {
+        final byte tag = in.readByte();
+        switch (tag) {
+            case NULL:    return null;
+            case STRING:  return readString(in);
+            case INTEGER: return in.readInt();
+            case LONG:    return in.readLong();
+            case DOUBLE:  return in.readDouble();
+            case FLOAT:   return in.readFloat();
+            case SHORT:   return in.readShort();
+            case BYTE:    return in.readByte();
+            case BOOLEAN: return in.readBoolean();
+            case DATE:    return new Date(in.readLong());
+            case GEOMETRY: {
+                final int udIndex = in.readInt();
+                final byte[] wkb = new byte[in.readInt()];
+                in.readFully(wkb);
+                final Geometry geom;
+                try {
+                    geom = wkbReader.read(wkb);
+                } catch (ParseException ex) {
+                    throw new IOException(ex);
+                }
+                if (udIndex >= 0) {
+                    geom.setUserData(userDatas.get(udIndex));
+                }
+                return geom;
+            }
+            case SERIALIZED: {
+                final byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    return ois.readObject();
+                } catch (ClassNotFoundException ex) {
+                    throw new IOException(ex);
+                }
+            }
+            default: throw new IOException("Unknown value tag " + tag);
+        }
+    }
+
+    private static void writeString(final DataOutputStream out, final String str) throws IOException {
+        final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // merge ///////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * A buffered feature with its rank in the added features.
+     */
+    private static final class Entry {
+        final Feature feature;
+        final long sequence;
+
+        Entry(final Feature feature, final long sequence) {
+            this.feature = feature;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * A sorted sequence of features, positioned on its current feature.
+     */
+    private abstract static class Run {
+        Object[] keys;
+        /** Rank of the current feature in the added features, for features with the same keys. */
+        long sequence;
+
+        /**
+         * Move to the next feature.
+         * @return false if there are no more features.
+         */
+        abstract boolean advance();
+
+        abstract Feature feature();
+    }
+
+    private final class FileRun extends Run {
+        private final DataInputStream in;
+        private int remaining;
+        private long offset;
+
+        FileRun(final DataInputStream in, final int size) {
+            this.in = in;
+            this.remaining = size;
+        }
+
+        @Override
+        boolean advance() {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            try {
+                final Object[] candidate = new Object[orders.length];
+                for (int i = 0; i < candidate.length; i++) {
+                    candidate[i] = readValue(in);
+                }
+                keys = candidate;
+                sequence = in.readLong();
+                offset = in.readLong();
+            } catch (EOFException ex) {
+                throw new FeatureStoreRuntimeException("Truncated sort file.", ex);
+            } catch (IOException ex) {
+                throw new FeatureStoreRuntimeException(ex);
+            }
+            return true;
+        }
+
+        @Override
+        Feature feature() {
+            try {
+                return readFeature(offset);
+            } catch (IOException ex) {
+                throw new FeatureStoreRuntimeException(ex);
+            }
+        }
+    }
+
+    private final class MemoryRun extends Run {
+        private final Iterator<Entry> ite;
+        private Feature current;
+
+        MemoryRun(final Iterator<Entry> ite) {
+            this.ite = ite;
+        }
+
+        @Override
+        boolean advance() {
+            if (!ite.hasNext()) {
+                return false;
+            }
+            final Entry entry = ite.next();
+            current = entry.feature;
+            keys = keys(current);
+            sequence = entry.sequence;
+            return true;
+        }
+
+        @Override
+        Feature feature() {
+            return current;
+        }
+    }
+}
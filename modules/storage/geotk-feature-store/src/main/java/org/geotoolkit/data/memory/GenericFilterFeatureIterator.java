@@ -28,6 +28,7 @@ import org.geotoolkit.factory.Hints;
 import org.apache.sis.util.Classes;
 import org.geotoolkit.feature.Feature;
 import org.geotoolkit.feature.type.FeatureType;
+import org.geotoolkit.filter.FilterUtilities;
 import org.opengis.filter.Filter;
 
 /**
@@ -127,7 +128,7 @@ public class GenericFilterFeatureIterator<R extends FeatureIterator> implements
     private static final class GenericFilterFeatureReader extends GenericFilterFeatureIterator<FeatureReader> implements FeatureReader{
 
         private GenericFilterFeatureReader(final FeatureReader reader, final Filter filter){
-            super(reader,filter);
+            super(reader,FilterUtilities.compile(filter, reader.getFeatureType()));
         }
         
         @Override
@@ -147,7 +148,7 @@ public class GenericFilterFeatureIterator<R extends FeatureIterator> implements
     private static final class GenericFilterFeatureWriter extends GenericFilterFeatureIterator<FeatureWriter> implements FeatureWriter{
 
         private GenericFilterFeatureWriter(final FeatureWriter writer, final Filter filter){
-            super(writer,filter);
+            super(writer,FilterUtilities.compile(filter, writer.getFeatureType()));
         }
 
         @Override
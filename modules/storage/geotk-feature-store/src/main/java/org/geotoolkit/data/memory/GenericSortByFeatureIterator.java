@@ -20,8 +20,10 @@ package org.geotoolkit.data.memory;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
 import org.geotoolkit.data.FeatureCollection;
 import org.geotoolkit.data.FeatureIterator;
 import org.geotoolkit.data.FeatureReader;
@@ -34,22 +36,33 @@ import org.geotoolkit.feature.Feature;
 import org.geotoolkit.feature.type.FeatureType;
 import org.opengis.filter.sort.SortBy;
 
+import static org.apache.sis.util.ArgumentChecks.*;
+
 /**
  * Basic support for a  FeatureIterator that will sort features using the given sort by
- * orders. This may be very consuming in memory since this implementation must iterate
- * over all features and store them in memory in the right order.
+ * orders. This implementation must iterate over all features before returning the first one.
  *
- * Don't use this class in you now that your iterator holds a great amount of features,
- * otherwise it may cause an Out Of Memory Exception.
+ * When a limit is given and is small enough, only the first features are kept in memory.
+ * Otherwise features are kept in memory up to a given number, beyond which they are
+ * sorted by chunks written in temporary files and merged while iterating.
  *
  * @author Johann Sorel (Geomatys)
  * @module pending
  */
 public class GenericSortByFeatureIterator<R extends FeatureIterator> implements FeatureIterator {
 
+    /**
+     * Default number of features kept in memory before sorting them in temporary files.
+     */
+    public static final int DEFAULT_MAX_IN_MEMORY = 100000;
+
     protected final R iterator;
+    private final SortBy[] orders;
     private final Comparator<Feature> comparator;
-    protected List<Feature> ordered = null;
+    private final int limit;
+    private final int maxInMemory;
+    private Iterator<Feature> ordered = null;
+    private ExternalFeatureSorter sorter = null;
     protected int index = 0;
 
     /**
@@ -57,22 +70,77 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
      *
      * @param iterator FeatureReader to sort
      * @param orders sorting orders
+     * @param limit maximum number of features to return, 0 for all features
+     * @param maxInMemory number of features kept in memory before using temporary files
      */
-    private GenericSortByFeatureIterator(final R iterator, final SortBy[] orders) {
+    private GenericSortByFeatureIterator(final R iterator, final SortBy[] orders, final int limit, final int maxInMemory) {
+        ensurePositive("limit", limit);
+        ensureStrictlyPositive("maxInMemory", maxInMemory);
         this.iterator = iterator;
+        this.orders = orders;
         this.comparator = new SortByComparator(orders);
+        this.limit = limit;
+        this.maxInMemory = maxInMemory;
     }
 
     private synchronized void sort() throws FeatureStoreRuntimeException{
         if(ordered != null) return;
 
-        ordered = new ArrayList<>();
+        if(limit > 0 && limit <= maxInMemory){
+            ordered = sortFirst();
+            return;
+        }
 
+        sorter = new ExternalFeatureSorter(orders, comparator, maxInMemory);
+        while(iterator.hasNext()){
+            sorter.add(FeatureUtilities.copy( iterator.next()));
+        }
+        ordered = sorter.sort();
+    }
+
+    /**
+     * Keep only the first features in a bounded heap, the last feature of the heap
+     * is on top. Features are numbered to preserve the order of features with the
+     * same keys, as a full sort would do.
+     */
+    private Iterator<Feature> sortFirst() throws FeatureStoreRuntimeException{
+        final Comparator<Ranked> rankComparator = new Comparator<Ranked>() {
+            @Override
+            public int compare(final Ranked r1, final Ranked r2) {
+                final int c = comparator.compare(r1.feature, r2.feature);
+                return (c != 0) ? c : Long.compare(r1.rank, r2.rank);
+            }
+        };
+        final PriorityQueue<Ranked> heap = new PriorityQueue<>(limit, Collections.reverseOrder(rankComparator));
+        long rank = 0;
         while(iterator.hasNext()){
-            ordered.add(FeatureUtilities.copy( iterator.next()));
+            final Feature candidate = iterator.next();
+            if(heap.size() < limit){
+                heap.add(new Ranked(FeatureUtilities.copy(candidate), rank));
+            }else if(comparator.compare(candidate, heap.peek().feature) < 0){
+                heap.poll();
+                heap.add(new Ranked(FeatureUtilities.copy(candidate), rank));
+            }
+            rank++;
         }
 
-        Collections.sort(ordered,comparator);
+        final List<Ranked> first = new ArrayList<>(heap);
+        Collections.sort(first, rankComparator);
+        final List<Feature> features = new ArrayList<>(first.size());
+        for(Ranked r : first){
+            features.add(r.feature);
+        }
+        return features.iterator();
+    }
+
+    private static final class Ranked{
+        private final Feature feature;
+        private final long rank;
+
+        private Ranked(final Feature feature, final long rank){
+            this.feature = feature;
+            this.rank = rank;
+        }
     }
 
     /**
@@ -80,14 +148,11 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
      */
     @Override
     public Feature next() throws FeatureStoreRuntimeException {
-        sort();
-        try{
-            Feature c = ordered.get(index);
-            index++;
-            return c;
-        }catch(IndexOutOfBoundsException ex){
+        if(!hasNext()){
             throw new NoSuchElementException("No more elements.");
         }
+        index++;
+        return ordered.next();
     }
 
     /**
@@ -95,6 +160,9 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
      */
     @Override
     public void close() throws FeatureStoreRuntimeException {
+        if(sorter != null){
+            sorter.close();
+        }
         iterator.close();
     }
 
@@ -104,7 +172,7 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
     @Override
     public boolean hasNext() throws FeatureStoreRuntimeException {
         sort();
-        return index < ordered.size();
+        return (limit == 0 || index < limit) && ordered.hasNext();
     }
 
     /**
@@ -134,8 +202,9 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
      */
     private static final class GenericSortByFeatureReader extends GenericSortByFeatureIterator<FeatureReader> implements FeatureReader{
 
-        private GenericSortByFeatureReader(final FeatureReader reader,final SortBy[] orders){
-            super(reader,orders);
+        private GenericSortByFeatureReader(final FeatureReader reader,final SortBy[] orders,
+                final int limit, final int maxInMemory){
+            super(reader,orders,limit,maxInMemory);
         }
 
         @Override
@@ -148,15 +217,17 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
     private static final class GenericSortByFeatureCollection extends WrapFeatureCollection{
 
         private final SortBy[] order;
+        private final int limit;
 
-        private GenericSortByFeatureCollection(final FeatureCollection original, final SortBy[] order){
+        private GenericSortByFeatureCollection(final FeatureCollection original, final SortBy[] order, final int limit){
             super(original);
             this.order = order;
+            this.limit = limit;
         }
 
         @Override
         public FeatureIterator iterator(final Hints hints) throws FeatureStoreRuntimeException {
-            return wrap(getOriginalFeatureCollection().iterator(hints), order);
+            return wrap(getOriginalFeatureCollection().iterator(hints), order, limit);
         }
 
         @Override
@@ -170,17 +241,61 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
      * Wrap a FeatureReader will a sort by order.
      */
     public static FeatureReader wrap(final FeatureReader reader, final SortBy[] orders){
-        return new GenericSortByFeatureReader(reader, orders);
+        return wrap(reader, orders, 0);
+    }
+
+    /**
+     * Wrap a FeatureReader will a sort by order, returning only the first features.
+     *
+     * @param limit maximum number of features to return, 0 for all features
+     * @since 4.00
+     */
+    public static FeatureReader wrap(final FeatureReader reader, final SortBy[] orders, final int limit){
+        return wrap(reader, orders, limit, DEFAULT_MAX_IN_MEMORY);
+    }
+
+    /**
+     * Wrap a FeatureReader will a sort by order, returning only the first features.
+     *
+     * @param limit maximum number of features to return, 0 for all features
+     * @param maxInMemory number of features kept in memory, beyond which features
+     *        are sorted using temporary files
+     * @since 4.00
+     */
+    public static FeatureReader wrap(final FeatureReader reader, final SortBy[] orders, final int limit, final int maxInMemory){
+        return new GenericSortByFeatureReader(reader, orders, limit, maxInMemory);
     }
 
     /**
      * Wrap a FeatureIterator will a sort by order.
      */
     public static FeatureIterator wrap(final FeatureIterator reader, final SortBy[] orders){
+        return wrap(reader, orders, 0);
+    }
+
+    /**
+     * Wrap a FeatureIterator will a sort by order, returning only the first features.
+     *
+     * @param limit maximum number of features to return, 0 for all features
+     * @since 4.00
+     */
+    public static FeatureIterator wrap(final FeatureIterator reader, final SortBy[] orders, final int limit){
+        return wrap(reader, orders, limit, DEFAULT_MAX_IN_MEMORY);
+    }
+
+    /**
+     * Wrap a FeatureIterator will a sort by order, returning only the first features.
+     *
+     * @param limit maximum number of features to return, 0 for all features
+     * @param maxInMemory number of features kept in memory, beyond which features
+     *        are sorted using temporary files
+     * @since 4.00
+     */
+    public static FeatureIterator wrap(final FeatureIterator reader, final SortBy[] orders, final int limit, final int maxInMemory){
         if(reader instanceof FeatureReader){
-            return wrap((FeatureReader)reader,orders);
+            return wrap((FeatureReader)reader,orders,limit,maxInMemory);
         }else{
-            return new GenericSortByFeatureIterator(reader, orders);
+            return new GenericSortByFeatureIterator(reader, orders, limit, maxInMemory);
         }
     }
 
@@ -188,7 +303,17 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
      * Wrap a FeatureCollection will a sort by order.
      */
     public static FeatureCollection wrap(final FeatureCollection original, final SortBy[] orders){
-        return new GenericSortByFeatureCollection(original,orders);
+        return wrap(original, orders, 0);
+    }
+
+    /**
+     * Wrap a FeatureCollection will a sort by order, returning only the first features.
+     *
+     * @param limit maximum number of features to return, 0 for all features
+     * @since 4.00
+     */
+    public static FeatureCollection wrap(final FeatureCollection original, final SortBy[] orders, final int limit){
+        return new GenericSortByFeatureCollection(original,orders,limit);
     }
 
 }
@@ -0,0 +1,148 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.memory;
+
+import org.apache.sis.util.Classes;
+import org.geotoolkit.data.FeatureIterator;
+import org.geotoolkit.data.FeatureReader;
+import org.geotoolkit.data.FeatureStoreRuntimeException;
+import org.geotoolkit.feature.Feature;
+import org.geotoolkit.feature.type.FeatureType;
+import org.geotoolkit.internal.metrics.Counter;
+import org.geotoolkit.internal.metrics.GeotkTimed;
+import org.geotoolkit.internal.metrics.Metrics;
+import org.geotoolkit.internal.metrics.Timer;
+
+/**
+ * Feature iterator recording the time spent in the wrapped iterator.
+ * The total time of each iterator is recorded in the {@code feature.read} timer when it is closed,
+ * the number of returned features in the {@code feature.read.features} counter.
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+public class GenericTimedFeatureIterator<R extends FeatureIterator> implements FeatureIterator {
+
+    private static final Timer READ_TIMER = Metrics.timer("feature.read");
+    private static final Counter FEATURE_COUNTER = Metrics.counter("feature.read.features");
+
+    protected final R iterator;
+    private long elapsed = 0;
+    private long nbFeature = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates a new instance of GenericTimedFeatureIterator
+     *
+     * @param iterator FeatureIterator to time
+     */
+    private GenericTimedFeatureIterator(final R iterator) {
+        this.iterator = iterator;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Feature next() throws FeatureStoreRuntimeException {
+        final long start = System.nanoTime();
+        try {
+            final Feature feature = iterator.next();
+            nbFeature++;
+            return feature;
+        } finally {
+            elapsed += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public boolean hasNext() throws FeatureStoreRuntimeException {
+        final long start = System.nanoTime();
+        try {
+            return iterator.hasNext();
+        } finally {
+            elapsed += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    @GeotkTimed("feature.read")
+    public void close() throws FeatureStoreRuntimeException {
+        final long start = System.nanoTime();
+        try {
+            iterator.close();
+        } finally {
+            if (!closed) {
+                closed = true;
+                READ_TIMER.record(elapsed + System.nanoTime() - start);
+                FEATURE_COUNTER.add(nbFeature);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void remove() {
+        iterator.remove();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder(Classes.getShortClassName(this));
+        sb.append("[Timed]\n");
+        String subIterator = "\u2514\u2500\u2500" + iterator.toString(); //move text to the right
+        subIterator = subIterator.replaceAll("\n", "\n\u00A0\u00A0\u00A0"); //move text to the right
+        sb.append(subIterator);
+        return sb.toString();
+    }
+
+    /**
+     * Wrap a FeatureReader recording read time.
+     */
+    private static final class GenericTimedFeatureReader extends GenericTimedFeatureIterator<FeatureReader> implements FeatureReader{
+
+        private GenericTimedFeatureReader(final FeatureReader reader){
+            super(reader);
+        }
+
+        @Override
+        public FeatureType getFeatureType() {
+            return iterator.getFeatureType();
+        }
+
+    }
+
+    /**
+     * Wrap a FeatureReader recording read time.
+     * The reader is returned unchanged if metrics are disabled.
+     */
+    public static FeatureReader wrap(final FeatureReader reader){
+        if(!Metrics.isEnabled()){
+            return reader;
+        }
+        return new GenericTimedFeatureReader(reader);
+    }
+
+}
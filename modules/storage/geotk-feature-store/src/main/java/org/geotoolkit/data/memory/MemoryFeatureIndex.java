@@ -0,0 +1,527 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2015, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+
+package org.geotoolkit.data.memory;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.index.quadtree.Quadtree;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.apache.sis.referencing.CommonCRS;
+import org.geotoolkit.feature.Feature;
+import org.geotoolkit.feature.type.FeatureType;
+import org.geotoolkit.feature.type.GeometryDescriptor;
+import org.geotoolkit.feature.type.PropertyDescriptor;
+import org.geotoolkit.referencing.CRS;
+import org.opengis.filter.And;
+import org.opengis.filter.Filter;
+import org.opengis.filter.Id;
+import org.opengis.filter.Or;
+import org.opengis.filter.PropertyIsBetween;
+import org.opengis.filter.PropertyIsEqualTo;
+import org.opengis.filter.PropertyIsGreaterThan;
+import org.opengis.filter.PropertyIsGreaterThanOrEqualTo;
+import org.opengis.filter.PropertyIsLessThan;
+import org.opengis.filter.PropertyIsLessThanOrEqualTo;
+import org.opengis.filter.BinaryComparisonOperator;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Literal;
+import org.opengis.filter.expression.PropertyName;
+import org.opengis.filter.identity.Identifier;
+import org.opengis.filter.spatial.BBOX;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+/**
+ * Indexes of a memory feature store type.
+ * <p>
+ * A quadtree may index the default geometry envelopes and hash or sorted maps may index
+ * attribute values. Indexes are updated each time a feature is added, modified or removed.
+ * Queries only use them to select candidate features : the candidates are a superset of
+ * the features matching the filter, which must still be evaluated on each of them.
+ * </p>
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+final class MemoryFeatureIndex {
+
+    /**
+     * Relative tolerance added to numeric bounds. Filters may compare values after a conversion
+     * to float or with a tolerance, searching a slightly larger range ensures no feature is missed.
+     */
+    private static final double TOLERANCE = 1E-6;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final FeatureType type;
+
+    //spatial index, null if not created
+    private Quadtree quadtree;
+    private Map<String,Envelope> envelopes;
+    private String geometryName;
+    private CoordinateReferenceSystem geometryCrs;
+
+    //attribute indexes by attribute name
+    private final Map<String,AttributeIndex> attributeIndexes = new HashMap<>();
+
+    //statistics of the searches answered by the indexes, for tests
+    final AtomicLong indexedSearches = new AtomicLong();
+    final AtomicLong candidateCount = new AtomicLong();
+
+    MemoryFeatureIndex(final FeatureType type) {
+        this.type = type;
+    }
+
+    boolean isEmpty() {
+        lock.readLock().lock();
+        try {
+            return quadtree == null && attributeIndexes.isEmpty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Create the spatial index on the default geometry and index the given features.
+     */
+    void createSpatialIndex(final Collection<? extends Feature> features) {
+        final GeometryDescriptor desc = type.getGeometryDescriptor();
+        if (desc == null) {
+            throw new IllegalArgumentException("Type " + type.getName() + " has no default geometry.");
+        }
+        lock.writeLock().lock();
+        try {
+            geometryName = desc.getLocalName();
+            geometryCrs = desc.getCoordinateReferenceSystem();
+            quadtree = new Quadtree();
+            envelopes = new HashMap<>();
+            for (Feature feature : features) {
+                addSpatial(feature);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Create an attribute index and index the given features.
+     *
+     * @param sorted true to support range comparisons, only numeric and text attributes can be sorted.
+     */
+    void createAttributeIndex(final String attribute, final boolean sorted, final Collection<? extends Feature> features) {
+        final PropertyDescriptor desc = type.getDescriptor(attribute);
+        if (desc == null) {
+            throw new IllegalArgumentException("Type " + type.getName() + " has no attribute " + attribute);
+        }
+        final Class<?> binding = desc.getType().getBinding();
+        if (sorted && !Number.class.isAssignableFrom(binding) && !String.class.equals(binding)) {
+            throw new IllegalArgumentException("Sorted index can only be created on numeric and text attributes, "
+                    + attribute + " is a " + binding.getName());
+        }
+        final AttributeIndex index = new AttributeIndex(attribute, binding, sorted);
+        lock.writeLock().lock();
+        try {
+            for (Feature feature : features) {
+                index.add(feature);
+            }
+            attributeIndexes.put(attribute, index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void add(final Feature feature) {
+        lock.writeLock().lock();
+        try {
+            if (quadtree != null) addSpatial(feature);
+            for (AttributeIndex index : attributeIndexes.values()) {
+                index.add(feature);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(final String id) {
+        lock.writeLock().lock();
+        try {
+            if (quadtree != null) removeSpatial(id);
+            for (AttributeIndex index : attributeIndexes.values()) {
+                index.remove(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Update the index entries of a feature which values have been modified.
+     */
+    void update(final Feature feature) {
+        final String id = feature.getIdentifier().getID();
+        lock.writeLock().lock();
+        try {
+            if (quadtree != null) {
+                removeSpatial(id);
+                addSpatial(feature);
+            }
+            for (AttributeIndex index : attributeIndexes.values()) {
+                index.remove(id);
+                index.add(feature);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addSpatial(final Feature feature) {
+        final Object value = feature.getPropertyValue(geometryName);
+        if (value instanceof Geometry && !((Geometry) value).isEmpty()) {
+            final String id = feature.getIdentifier().getID();
+            final Envelope env = new Envelope(((Geometry) value).getEnvelopeInternal());
+            quadtree.insert(env, id);
+            envelopes.put(id, env);
+        }
+    }
+
+    private void removeSpatial(final String id) {
+        final Envelope env = envelopes.remove(id);
+        if (env != null) {
+            quadtree.remove(env, id);
+        }
+    }
+
+    /**
+     * Find the identifiers of the features which may match the filter.
+     *
+     * @return candidate feature identifiers, or null if the indexes can not be used for this filter.
+     */
+    Collection<String> candidates(final Filter filter) {
+        lock.readLock().lock();
+        try {
+            final Collection<String> candidates = search(filter);
+            if (candidates != null) {
+                indexedSearches.incrementAndGet();
+                candidateCount.addAndGet(candidates.size());
+            }
+            return candidates;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Collection<String> search(final Filter filter) {
+        if (filter == Filter.EXCLUDE) {
+            return Collections.emptyList();
+        } else if (filter instanceof Id) {
+            final Set<String> ids = new HashSet<>();
+            for (Identifier id : ((Id) filter).getIdentifiers()) {
+                ids.add(String.valueOf(id.getID()));
+            }
+            return ids;
+        } else if (filter instanceof And) {
+            //use the most selective indexed child
+            Collection<String> best = null;
+            for (Filter child : ((And) filter).getChildren()) {
+                final Collection<String> candidates = search(child);
+                if (candidates != null && (best == null || candidates.size() < best.size())) {
+                    best = candidates;
+                }
+            }
+            return best;
+        } else if (filter instanceof Or) {
+            //all children must be indexed
+            final Set<String> union = new HashSet<>();
+            for (Filter child : ((Or) filter).getChildren()) {
+                final Collection<String> candidates = search(child);
+                if (candidates == null) {
+                    return null;
+                }
+                union.addAll(candidates);
+            }
+            return union;
+        } else if (filter instanceof BBOX) {
+            return searchBBox((BBOX) filter);
+        } else if (filter instanceof PropertyIsBetween) {
+            final PropertyIsBetween between = (PropertyIsBetween) filter;
+            final AttributeIndex index = getIndex(between.getExpression());
+            if (index == null || !index.sorted
+                    || !(between.getLowerBoundary() instanceof Literal)
+                    || !(between.getUpperBoundary() instanceof Literal)) {
+                return null;
+            }
+            final Object lower = index.boundKey(((Literal) between.getLowerBoundary()).getValue());
+            final Object upper = index.boundKey(((Literal) between.getUpperBoundary()).getValue());
+            if (lower == null || upper == null) {
+                return null;
+            }
+            return index.range(lower, upper);
+        } else if (filter instanceof BinaryComparisonOperator) {
+            return searchComparison((BinaryComparisonOperator) filter);
+        }
+        return null;
+    }
+
+    private Collection<String> searchBBox(final BBOX bbox) {
+        if (quadtree == null) {
+            return null;
+        }
+        final String name = bbox.getPropertyName();
+        if (name != null && !name.isEmpty() && !name.equals(geometryName)) {
+            return null;
+        }
+        //the bbox filter transforms geometries in the bbox crs, WGS84 by default
+        CoordinateReferenceSystem crs = null;
+        if (bbox.getExpression2() instanceof Literal) {
+            final Object value = ((Literal) bbox.getExpression2()).getValue();
+            if (value instanceof org.opengis.geometry.Envelope) {
+                crs = ((org.opengis.geometry.Envelope) value).getCoordinateReferenceSystem();
+            }
+        }
+        if (crs == null) {
+            crs = CommonCRS.WGS84.normalizedGeographic();
+        }
+        if (geometryCrs == null || !CRS.equalsIgnoreMetadata(geometryCrs, crs)) {
+            return null;
+        }
+
+        final Envelope env = new Envelope(bbox.getMinX(), bbox.getMaxX(), bbox.getMinY(), bbox.getMaxY());
+        final List<String> result = new ArrayList<>();
+        for (Object candidate : quadtree.query(env)) {
+            //quadtree returns all items of the intersected nodes
+            final Envelope candidateEnv = envelopes.get(candidate);
+            if (candidateEnv != null && candidateEnv.intersects(env)) {
+                result.add((String) candidate);
+            }
+        }
+        return result;
+    }
+
+    private Collection<String> searchComparison(final BinaryComparisonOperator filter) {
+        final Expression exp1 = filter.getExpression1();
+        final Expression exp2 = filter.getExpression2();
+        final AttributeIndex index;
+        final Object literal;
+        final boolean swapped;
+        if (exp1 instanceof PropertyName && exp2 instanceof Literal) {
+            index = getIndex(exp1);
+            literal = ((Literal) exp2).getValue();
+            swapped = false;
+        } else if (exp2 instanceof PropertyName && exp1 instanceof Literal) {
+            index = getIndex(exp2);
+            literal = ((Literal) exp1).getValue();
+            swapped = true;
+        } else {
+            return null;
+        }
+        if (index == null || literal == null) {
+            return null;
+        }
+
+        if (filter instanceof PropertyIsEqualTo) {
+            if (!filter.isMatchingCase() && index.binding == String.class) {
+                return null;
+            }
+            if (!index.sorted) {
+                final Object key = index.hashKey(literal);
+                return (key == null) ? null : index.get(key);
+            }
+            final Object key = index.boundKey(literal);
+            return (key == null) ? null : index.range(key, key);
+        }
+
+        if (!index.sorted) {
+            return null;
+        }
+        final Object key = index.boundKey(literal);
+        if (key == null) {
+            return null;
+        }
+        //bounds are always inclusive, numeric keys are approximated as doubles
+        boolean greater;
+        if (filter instanceof PropertyIsGreaterThan || filter instanceof PropertyIsGreaterThanOrEqualTo) {
+            greater = true;
+        } else if (filter instanceof PropertyIsLessThan || filter instanceof PropertyIsLessThanOrEqualTo) {
+            greater = false;
+        } else {
+            return null;
+        }
+        if (swapped) greater = !greater;
+        return greater ? index.range(key, null) : index.range(null, key);
+    }
+
+    private AttributeIndex getIndex(final Expression exp) {
+        if (exp instanceof PropertyName) {
+            return attributeIndexes.get(((PropertyName) exp).getPropertyName());
+        }
+        return null;
+    }
+
+    /**
+     * Index of the values of a single attribute.
+     * Numeric values are stored as Long (integer types) in hash indexes and as Double in sorted
+     * indexes, because the filters compare numbers by value whatever their class is.
+     */
+    private static final class AttributeIndex {
+
+        private final String attribute;
+        private final Class<?> binding;
+        private final boolean sorted;
+        private final Map<Object,Set<String>> values;
+        private final Map<String,Object> keys = new HashMap<>();
+
+        AttributeIndex(final String attribute, final Class<?> binding, final boolean sorted) {
+            this.attribute = attribute;
+            this.binding = binding;
+            this.sorted = sorted;
+            this.values = sorted ? new TreeMap<Object,Set<String>>() : new HashMap<Object,Set<String>>();
+        }
+
+        void add(final Feature feature) {
+            final Object value = feature.getPropertyValue(attribute);
+            if (value == null) {
+                return;
+            }
+            final Object key = sorted ? sortKey(value) : normalize(value);
+            if (key == null) {
+                return;
+            }
+            final String id = feature.getIdentifier().getID();
+            Set<String> ids = values.get(key);
+            if (ids == null) {
+                ids = new HashSet<>();
+                values.put(key, ids);
+            }
+            ids.add(id);
+            keys.put(id, key);
+        }
+
+        void remove(final String id) {
+            final Object key = keys.remove(id);
+            if (key != null) {
+                final Set<String> ids = values.get(key);
+                if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                    values.remove(key);
+                }
+            }
+        }
+
+        Collection<String> get(final Object key) {
+            final Set<String> ids = values.get(key);
+            return (ids == null) ? Collections.<String>emptyList() : new ArrayList<>(ids);
+        }
+
+        /**
+         * @param lower inclusive lower bound, or null.
+         * @param upper inclusive upper bound, or null.
+         */
+        Collection<String> range(Object lower, Object upper) {
+            if (lower instanceof Double) lower = (Double) lower - tolerance((Double) lower);
+            if (upper instanceof Double) upper = (Double) upper + tolerance((Double) upper);
+            NavigableMap<Object,Set<String>> map = (NavigableMap<Object,Set<String>>) values;
+            if (lower != null && upper != null && ((Comparable) lower).compareTo(upper) > 0) {
+                return Collections.emptyList();
+            }
+            if (lower != null) map = map.tailMap(lower, true);
+            if (upper != null) map = map.headMap(upper, true);
+            final List<String> result = new ArrayList<>();
+            for (Set<String> ids : map.values()) {
+                result.addAll(ids);
+            }
+            return result;
+        }
+
+        /**
+         * Key used by hash indexes, null if the value can not be looked up in the index.
+         */
+        Object hashKey(final Object literal) {
+            if (Number.class.isAssignableFrom(binding)) {
+                if (!isIntegral(binding) || !(literal instanceof Number)) {
+                    //floating point equality has a tolerance
+                    return null;
+                }
+                if (isIntegral(literal.getClass())) {
+                    return normalize(literal);
+                }
+                final double value = ((Number) literal).doubleValue();
+                if (value != Math.rint(value) || Math.abs(value) > (1L << 52)) {
+                    return null;
+                }
+                return (long) value;
+            }
+            return binding.isInstance(literal) ? literal : null;
+        }
+
+        /**
+         * Key used by sorted indexes, null if the value can not be compared with the indexed values.
+         */
+        Object sortKey(final Object value) {
+            if (Number.class.isAssignableFrom(binding)) {
+                double d;
+                if (value instanceof Number) {
+                    d = ((Number) value).doubleValue();
+                } else if (value instanceof String) {
+                    try {
+                        d = Double.parseDouble((String) value);
+                    } catch (NumberFormatException ex) {
+                        return null;
+                    }
+                } else {
+                    return null;
+                }
+                return d;
+            }
+            return (value instanceof String) ? value : null;
+        }
+
+        /**
+         * Sort key of a filter bound. NaN values are stored in the index
+         * (sorted after all other numbers, like the filters do) but are not valid bounds.
+         */
+        Object boundKey(final Object literal) {
+            final Object key = sortKey(literal);
+            return (key instanceof Double && ((Double) key).isNaN()) ? null : key;
+        }
+
+        private static double tolerance(final double value) {
+            return Double.isInfinite(value) ? 0 : Math.abs(value) * TOLERANCE;
+        }
+
+        private static Object normalize(final Object value) {
+            if (value instanceof Number && isIntegral(value.getClass())) {
+                return ((Number) value).longValue();
+            }
+            return value;
+        }
+
+        private static boolean isIntegral(final Class<?> type) {
+            return type == Long.class || type == Integer.class || type == Short.class || type == Byte.class;
+        }
+    }
+}
@@ -70,10 +70,12 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
         final AtomicLong incId = new AtomicLong(-1);//first one will be 0
         final FeatureType type;
         final Map<String,Feature> features;
+        final MemoryFeatureIndex index;
 
         Group(final FeatureType type){
             this.type = type;
             this.features = new ConcurrentHashMap<String, Feature>();
+            this.index = new MemoryFeatureIndex(type);
         }
 
         public String generateId(){
@@ -137,6 +139,47 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
 
             };
         }
+
+        /**
+         * Iterate on the features with the given identifiers, missing ones are skipped.
+         */
+        public Iterator<? extends Feature> createIterator(final Collection<String> ids) {
+            final Iterator<String> iteIds = ids.iterator();
+
+            return new Iterator<Feature>(){
+
+                Feature next = null;
+
+                @Override
+                public boolean hasNext() {
+                    findNext();
+                    return next != null;
+                }
+
+                @Override
+                public Feature next() {
+                    findNext();
+                    if(next == null){
+                        throw new FeatureStoreRuntimeException("No more features.");
+                    }
+                    final Feature candidate = next;
+                    next = null;
+                    return candidate;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException("Not supported.");
+                }
+
+                private void findNext(){
+                    while(next == null && iteIds.hasNext()){
+                        next = features.get(iteIds.next());
+                    }
+                }
+
+            };
+        }
     }
 
     private final QueryCapabilities capabilities = new DefaultQueryCapabilities(false);
@@ -271,6 +314,53 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
         fireSchemaDeleted(typeName, grp.getFeatureType());
     }
 
+    /**
+     * Create a spatial index on the default geometry of the given type.
+     * The index is updated when features are added, modified or removed and is used
+     * by the queries with a bounding box filter expressed in the geometry CRS.
+     * Indexes are dropped when the feature type is updated.
+     *
+     * @param groupName feature type name
+     * @throws DataStoreException if the type does not exist
+     * @throws IllegalArgumentException if the type has no default geometry
+     * @since 4.00
+     */
+    public void createSpatialIndex(final Name groupName) throws DataStoreException {
+        typeCheck(groupName);
+        final Group grp = groups.get(groupName);
+        grp.index.createSpatialIndex(grp.features.values());
+    }
+
+    /**
+     * Create an index on an attribute of the given type.
+     * A hash index is used by equality filters, a sorted index is also used by
+     * range comparisons but is only available on numeric and text attributes.
+     * The index is updated when features are added, modified or removed.
+     * Indexes are dropped when the feature type is updated.
+     *
+     * @param groupName feature type name
+     * @param attribute attribute local name
+     * @param sorted true for a sorted index, false for a hash index
+     * @throws DataStoreException if the type does not exist
+     * @throws IllegalArgumentException if the attribute does not exist or can not be sorted
+     * @since 4.00
+     */
+    public void createAttributeIndex(final Name groupName, final String attribute, final boolean sorted)
+            throws DataStoreException {
+        ensureNonNull("attribute", attribute);
+        typeCheck(groupName);
+        final Group grp = groups.get(groupName);
+        grp.index.createAttributeIndex(attribute, sorted, grp.features.values());
+    }
+
+    /**
+     * Returns the indexes of the given type, for tests.
+     */
+    MemoryFeatureIndex getIndex(final Name groupName) throws DataStoreException {
+        typeCheck(groupName);
+        return groups.get(groupName).index;
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -323,6 +413,7 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
             }
             
             grp.features.put(candidateId, copy);
+            grp.index.add(copy);
             addedIds.add(new DefaultFeatureId(candidateId));
         }
 
@@ -359,6 +450,7 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
                     prop.setValue(value);
                 }
             }
+            grp.index.update(candidate);
         }
 
         //fire update event
@@ -378,7 +470,9 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
 
         final Set<Identifier> rems = new HashSet<Identifier>();
         for(final Identifier itd : toRemove){
-            final Feature candidate = grp.features.remove(String.valueOf(itd.getID()));
+            final String id = String.valueOf(itd.getID());
+            grp.index.remove(id);
+            final Feature candidate = grp.features.remove(id);
             if(candidate == null) continue;
 
             rems.add(itd);
@@ -436,7 +530,13 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
                 remaining.setFilter(Filter.INCLUDE);
             }
         }else{
-            ite = grp.createIterator(null);
+            //use the indexes to select candidates, the filter is still evaluated on them
+            final Collection<String> candidates = grp.index.isEmpty() ? null : grp.index.candidates(filter);
+            if(candidates != null){
+                ite = grp.createIterator(candidates);
+            }else{
+                ite = grp.createIterator((Id)null);
+            }
         }
 
         final FeatureReader reader;
@@ -444,7 +544,6 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
         reader = GenericWrapFeatureIterator.wrapToReader(ite, grp.getFeatureType()); 
 
         //fall back on generic parameter handling.
-        //todo we should handle at least spatial filter here by using a quadtree.
         return handleRemaining(reader, remaining.buildQuery());
     }
 
@@ -25,6 +25,7 @@ import com.vividsolutions.jts.geom.Point;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import junit.framework.TestCase;
@@ -59,6 +60,7 @@ import org.geotoolkit.geometry.jts.transform.GeometryScaleTransformer;
 import org.geotoolkit.geometry.jts.transform.GeometryTransformer;
 import org.geotoolkit.referencing.CRS;
 import org.apache.sis.referencing.CommonCRS;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.geotoolkit.feature.Feature;
 import org.geotoolkit.feature.FeatureFactory;
@@ -641,6 +643,144 @@ public class GenericIteratorTest extends TestCase{
         assertTrue(checkIte.isClosed());
     }
 
+    /**
+     * Sorting only the first features or with temporary files must give the same
+     * order than a full sort in memory.
+     */
+    @Test
+    public void testSortByIteratorLimitAndSpill(){
+        final FeatureCollection large = FeatureStoreUtilities.collection("lid", originalType);
+        for(int i=0;i<1000;i++){
+            final Feature f = FeatureUtilities.defaultFeature(originalType, "");
+            final int value = (i*7919) % 1000;
+            f.setPropertyValue("att_geom", GF.createPoint(new Coordinate(value, i)));
+            f.setPropertyValue("att_string", "s"+(value%10));
+            f.setPropertyValue("att_double", (double)value);
+            large.add(f);
+        }
+        final SortBy[] sorts = new SortBy[]{
+            FF.sort("att_string", SortOrder.ASCENDING),
+            FF.sort("att_double", SortOrder.DESCENDING)
+        };
+
+        final List<Feature> expected = new ArrayList<Feature>();
+        FeatureIterator ite = GenericSortByFeatureIterator.wrap(large.iterator(), sorts);
+        while(ite.hasNext()) expected.add(ite.next());
+        ite.close();
+        assertEquals(1000, expected.size());
+
+        //first features only
+        ite = GenericSortByFeatureIterator.wrap(large.iterator(), sorts, 10);
+        assertSameFeatures(expected.subList(0, 10), ite);
+
+        //temporary files
+        ite = GenericSortByFeatureIterator.wrap(large.iterator(), sorts, 0, 64);
+        assertSameFeatures(expected, ite);
+
+        //limit larger than the memory budget
+        ite = GenericSortByFeatureIterator.wrap(large.iterator(), sorts, 500, 64);
+        assertSameFeatures(expected.subList(0, 500), ite);
+    }
+
+    /**
+     * Features with equal sort keys must keep their input order, including
+     * features which can not be written in temporary files.
+     */
+    @Test
+    public void testSortByIteratorTies(){
+        final FeatureCollection large = FeatureStoreUtilities.collection("tid", originalType);
+        for(int i=0;i<1000;i++){
+            final Feature f = FeatureUtilities.defaultFeature(originalType, "");
+            //empty points can not be spilled, they stay in memory
+            f.setPropertyValue("att_geom", (i%7 == 0) ? GF.createPoint((Coordinate)null) : GF.createPoint(new Coordinate(i, i)));
+            f.setPropertyValue("att_string", "s"+(i%3));
+            f.setPropertyValue("att_double", (double)i);
+            large.add(f);
+        }
+        final SortBy[] sorts = new SortBy[]{FF.sort("att_string", SortOrder.ASCENDING)};
+
+        //stable sort of the input order
+        final List<Feature> expected = new ArrayList<Feature>();
+        for(int k=0;k<3;k++){
+            final FeatureIterator ite = large.iterator();
+            try{
+                while(ite.hasNext()){
+                    final Feature f = ite.next();
+                    if(("s"+k).equals(f.getPropertyValue("att_string"))) expected.add(f);
+                }
+            }finally{
+                ite.close();
+            }
+        }
+
+        assertSameFeatures(expected, GenericSortByFeatureIterator.wrap(large.iterator(), sorts));
+        assertSameFeatures(expected.subList(0, 100), GenericSortByFeatureIterator.wrap(large.iterator(), sorts, 100));
+        assertSameFeatures(expected, GenericSortByFeatureIterator.wrap(large.iterator(), sorts, 0, 64));
+        assertSameFeatures(expected.subList(0, 500), GenericSortByFeatureIterator.wrap(large.iterator(), sorts, 500, 64));
+    }
+
+    /**
+     * Compare sorting time of a full sort in memory, of the first features only and with temporary files.
+     */
+    @Test
+    @Ignore
+    public void benchSortByIterator(){
+        final FeatureCollection large = FeatureStoreUtilities.collection("bid", originalType);
+        for(int i=0;i<200000;i++){
+            final Feature f = FeatureUtilities.defaultFeature(originalType, "");
+            final int value = (int)((i*7919L) % 200000);
+            f.setPropertyValue("att_geom", GF.createPoint(new Coordinate(value, i)));
+            f.setPropertyValue("att_string", "s"+(value%100));
+            f.setPropertyValue("att_double", (double)value);
+            large.add(f);
+        }
+        final SortBy[] sorts = new SortBy[]{
+            FF.sort("att_string", SortOrder.ASCENDING),
+            FF.sort("att_double", SortOrder.DESCENDING)
+        };
+
+        for(int i=0;i<5;i++){
+            long time = System.nanoTime();
+            consume(GenericSortByFeatureIterator.wrap(large.iterator(), sorts));
+            final long memory = System.nanoTime() - time;
+
+            time = System.nanoTime();
+            consume(GenericSortByFeatureIterator.wrap(large.iterator(), sorts, 100));
+            final long topk = System.nanoTime() - time;
+
+            time = System.nanoTime();
+            consume(GenericSortByFeatureIterator.wrap(large.iterator(), sorts, 0, 10000));
+            final long spill = System.nanoTime() - time;
+
+            System.out.println("memory : "+memory/1000000+"ms  first 100 : "+topk/1000000
+                    +"ms  temporary files : "+spill/1000000+"ms");
+        }
+    }
+
+    private static void consume(final FeatureIterator ite){
+        try{
+            while(ite.hasNext()) ite.next();
+        }finally{
+            ite.close();
+        }
+    }
+
+    private static void assertSameFeatures(final List<Feature> expected, final FeatureIterator ite){
+        try{
+            for(Feature f : expected){
+                assertTrue(ite.hasNext());
+                final Feature candidate = ite.next();
+                assertEquals(f.getIdentifier().getID(), candidate.getIdentifier().getID());
+                assertEquals(f.getPropertyValue("att_string"), candidate.getPropertyValue("att_string"));
+                assertEquals(f.getPropertyValue("att_double"), candidate.getPropertyValue("att_double"));
+                assertTrue(((Point)f.getPropertyValue("att_geom")).equalsExact((Point)candidate.getPropertyValue("att_geom")));
+            }
+            assertFalse(ite.hasNext());
+        }finally{
+            ite.close();
+        }
+    }
+
     @Test
     public void testSortByIteratorOnComplex(){
 
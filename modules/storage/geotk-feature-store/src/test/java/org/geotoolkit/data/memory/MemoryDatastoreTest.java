@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -50,6 +51,8 @@ import org.geotoolkit.feature.Feature;
 import org.geotoolkit.feature.FeatureUtilities;
 import org.geotoolkit.feature.type.FeatureType;
 import org.geotoolkit.feature.type.Name;
+import org.geotoolkit.feature.type.PropertyDescriptor;
+import org.apache.sis.referencing.CommonCRS;
 import org.opengis.filter.Filter;
 import org.opengis.filter.FilterFactory;
 import org.opengis.filter.sort.SortBy;
@@ -786,6 +789,101 @@ public class MemoryDatastoreTest extends TestCase{
 
     }
 
+    /**
+     * Queries must return the same features with indexes, also after updates and removals,
+     * and only visit the candidates selected by the indexes.
+     */
+    @Test
+    public void testIndexes() throws Exception{
+        final FeatureTypeBuilder builder = new FeatureTypeBuilder();
+        final MemoryFeatureStore store = new MemoryFeatureStore();
+        final GeometryFactory gf = new GeometryFactory();
+
+        final Name name = new DefaultName("http://test.com", "TestSchema1");
+        builder.reset();
+        builder.setName(name);
+        builder.add("geometry", Point.class, CommonCRS.WGS84.normalizedGeographic());
+        builder.add("num", Integer.class);
+        builder.add("name", String.class);
+        builder.setDefaultGeometry("geometry");
+        final FeatureType type = builder.buildFeatureType();
+        store.createFeatureType(name,type);
+
+        final List<Feature> features = new ArrayList<Feature>();
+        for(int i=0;i<100;i++){
+            final Feature f = FeatureUtilities.defaultFeature(type, "");
+            f.setPropertyValue("geometry", gf.createPoint(new Coordinate(i, i)));
+            f.setPropertyValue("num", i);
+            f.setPropertyValue("name", "n"+(i%10));
+            features.add(f);
+        }
+        //index half before and half after insertion
+        store.addFeatures(name, features.subList(0, 50));
+        store.createSpatialIndex(name);
+        store.createAttributeIndex(name, "num", true);
+        store.createAttributeIndex(name, "name", false);
+        store.addFeatures(name, features.subList(50, 100));
+
+        final Filter bbox = FF.bbox("geometry", 9.5, 9.5, 19.5, 19.5, "CRS:84");
+        assertEquals(10, countIndexed(store, name, bbox));
+        assertEquals(10, countIndexed(store, name, FF.greaterOrEqual(FF.property("num"), FF.literal(90))));
+        assertEquals(9, countIndexed(store, name, FF.less(FF.literal(90), FF.property("num"))));
+        assertEquals(10, countIndexed(store, name, FF.equals(FF.property("name"), FF.literal("n3"))));
+        assertEquals(1, countIndexed(store, name, FF.equals(FF.property("num"), FF.literal(42d))));
+        assertEquals(1, countIndexed(store, name, FF.and(bbox, FF.equals(FF.property("name"), FF.literal("n3")))));
+        assertEquals(10, countIndexed(store, name, FF.or(
+                FF.less(FF.property("num"), FF.literal(5)),
+                FF.between(FF.property("num"), FF.literal(95), FF.literal(99)))));
+
+        //update
+        final Map<PropertyDescriptor,Object> values = new HashMap<PropertyDescriptor, Object>();
+        values.put(type.getDescriptor("num"), 1000);
+        values.put(type.getDescriptor("geometry"), gf.createPoint(new Coordinate(200, 200)));
+        store.updateFeatures(name, FF.equals(FF.property("name"), FF.literal("n3")), values);
+        assertEquals(10, countIndexed(store, name, FF.greaterOrEqual(FF.property("num"), FF.literal(1000))));
+        assertEquals(9, countIndexed(store, name, FF.between(FF.property("num"), FF.literal(90), FF.literal(99))));
+        assertEquals(9, countIndexed(store, name, bbox));
+        assertEquals(10, countIndexed(store, name, FF.bbox("geometry", 199, 199, 201, 201, "CRS:84")));
+
+        //remove
+        store.removeFeatures(name, bbox);
+        assertEquals(0, countIndexed(store, name, bbox));
+        assertEquals(91, count(store, name, Filter.INCLUDE));
+        assertEquals(0, countIndexed(store, name, FF.equals(FF.property("num"), FF.literal(15))));
+        assertEquals(9, countIndexed(store, name, FF.equals(FF.property("name"), FF.literal("n5"))));
+    }
+
+    /**
+     * Count the features matching the filter, checking the indexes selected fewer candidates than the features.
+     */
+    private static int countIndexed(final MemoryFeatureStore store, final Name name, final Filter filter) throws Exception{
+        final MemoryFeatureIndex index = store.getIndex(name);
+        final long searches = index.indexedSearches.get();
+        final long candidates = index.candidateCount.get();
+        final int count = count(store, name, filter);
+        assertEquals("Indexes not used for " + filter, searches + 1, index.indexedSearches.get());
+        final long visited = index.candidateCount.get() - candidates;
+        assertTrue(visited >= count);
+        assertTrue("Too many candidates for " + filter, visited < count(store, name, Filter.INCLUDE));
+        return count;
+    }
+
+    private static int count(final MemoryFeatureStore store, final Name name, final Filter filter) throws Exception{
+        final QueryBuilder qb = new QueryBuilder(name);
+        qb.setFilter(filter);
+        final FeatureReader reader = store.getFeatureReader(qb.buildQuery());
+        int count = 0;
+        try{
+            while(reader.hasNext()){
+                reader.next();
+                count++;
+            }
+        }finally{
+            reader.close();
+        }
+        return count;
+    }
+
     @Test
     public void testNoIteratorUnclosed() throws Exception{
         final FeatureTypeBuilder builder = new FeatureTypeBuilder();
@@ -110,6 +110,48 @@ public final class Threads extends AtomicInteger implements ThreadFactory, Rejec
         WORK_EXECUTOR = ex;
     }
 
+    /**
+     * The executor for CPU-bound works split in parallel tasks, for example tiles decoded or
+     * layers rendered concurrently. The number of threads is the number of processors, and
+     * tasks arriving while all threads are busy are enqueued. Threads are released when the
+     * executor stays idle.
+     */
+    private static final ParallelExecutor PARALLEL_EXECUTOR = new ParallelExecutor(
+            new Threads(false, true, "Parallel worker #"));
+
+    /**
+     * The executor of {@link #PARALLEL_EXECUTOR}. Tasks submitted from one of its own threads
+     * are run immediately in that thread: a parallel work nested in an other one (a tile decoded
+     * while a layer is rendered) could otherwise wait for tasks queued behind the waiting threads.
+     */
+    private static final class ParallelExecutor extends ThreadPoolExecutor {
+        /**
+         * {@code TRUE} for the threads of this executor.
+         */
+        private static final ThreadLocal<Boolean> WORKER = new ThreadLocal<>();
+
+        ParallelExecutor(final ThreadFactory factory) {
+            super(Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().availableProcessors(),
+                    1L, TimeUnit.MINUTES, new LinkedBlockingQueue<Runnable>(), factory);
+            allowCoreThreadTimeOut(true);
+        }
+
+        @Override
+        protected void beforeExecute(final Thread thread, final Runnable task) {
+            WORKER.set(Boolean.TRUE);
+            super.beforeExecute(thread, task);
+        }
+
+        @Override
+        public void execute(final Runnable task) {
+            if (WORKER.get() != null) {
+                task.run();
+            } else {
+                super.execute(task);
+            }
+        }
+    }
+
     /**
      * The executor for disposal tasks. The tasks submitted to this executor should be only
      * house-keeping works. The threads in this executor have a priority slightly higher than
@@ -174,6 +216,31 @@ public final class Threads extends AtomicInteger implements ThreadFactory, Rejec
         WORK_EXECUTOR.execute(task);
     }
 
+    /**
+     * Returns the executor shared by the CPU-bound works split in parallel tasks. Callers should
+     * not submit more than {@link #getParallelism()} tasks at a time for a single work, and must
+     * not shutdown the returned executor. Tasks submitted from a thread of this executor are run
+     * in the submitting thread.
+     *
+     * @return The shared executor for parallel works.
+     *
+     * @since 4.00
+     */
+    public static ExecutorService getParallelExecutor() {
+        return PARALLEL_EXECUTOR;
+    }
+
+    /**
+     * Returns the number of threads of the {@linkplain #getParallelExecutor() parallel executor}.
+     *
+     * @return The number of threads available for parallel works.
+     *
+     * @since 4.00
+     */
+    public static int getParallelism() {
+        return PARALLEL_EXECUTOR.getMaximumPoolSize();
+    }
+
     /**
      * Executes the given task in a disposer thread after the given delay. The task
      * is executed in a thread from the {@link #RESOURCE_DISPOSERS} group. They have
@@ -255,6 +322,7 @@ public final class Threads extends AtomicInteger implements ThreadFactory, Rejec
          * delay were honored.
          */
         WORK_EXECUTOR.shutdown();
+        PARALLEL_EXECUTOR.shutdown();
         DISPOSAL_EXECUTOR.shutdown();
         final ThreadPoolExecutor ex = (ThreadPoolExecutor) DISPOSAL_EXECUTOR;
         for (final Runnable task : ex.getQueue()) {
@@ -0,0 +1,74 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.internal.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic counter. Increments are ignored while {@link Metrics} are disabled.
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+public final class Counter {
+
+    private final String name;
+    private final AtomicLong value = new AtomicLong();
+
+    Counter(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return counter name in the {@link Metrics} registry.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Increment the counter by one.
+     */
+    public void increment() {
+        if (Metrics.enabled) value.incrementAndGet();
+    }
+
+    /**
+     * Increment the counter by the given amount.
+     *
+     * @param n amount to add
+     */
+    public void add(final long n) {
+        if (Metrics.enabled) value.addAndGet(n);
+    }
+
+    /**
+     * @return current counter value.
+     */
+    public long getCount() {
+        return value.get();
+    }
+
+    void reset() {
+        value.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return name + " : " + value.get();
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.internal.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Distribution of positive values, stored in power of two buckets.
+ * Recording is lock free and allocation free, percentiles are approximated
+ * by the upper bound of the bucket they fall in.
+ * Values are ignored while {@link Metrics} are disabled.
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+public final class Histogram {
+
+    /**
+     * Bucket i contains values in range [2^(i-1) ... 2^i[, bucket 0 contains zero.
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(Long.SIZE + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+    private final String name;
+
+    Histogram(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return histogram name in the {@link Metrics} registry.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Add a value in the distribution, negative values are counted as zero.
+     *
+     * @param value value to record
+     */
+    public void record(long value) {
+        if (!Metrics.enabled) return;
+        if (value < 0) value = 0;
+        buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long current;
+        while (value < (current = min.get()) && !min.compareAndSet(current, value));
+        while (value > (current = max.get()) && !max.compareAndSet(current, value));
+    }
+
+    /**
+     * @return number of recorded values.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return sum of recorded values.
+     */
+    public long getSum() {
+        return sum.get();
+    }
+
+    /**
+     * @return smallest recorded value, 0 if empty.
+     */
+    public long getMin() {
+        final long v = min.get();
+        return (v == Long.MAX_VALUE) ? 0 : v;
+    }
+
+    /**
+     * @return largest recorded value, 0 if empty.
+     */
+    public long getMax() {
+        final long v = max.get();
+        return (v == Long.MIN_VALUE) ? 0 : v;
+    }
+
+    /**
+     * @return mean of recorded values, 0 if empty.
+     */
+    public double getMean() {
+        final long n = count.get();
+        return (n == 0) ? 0 : (double) sum.get() / n;
+    }
+
+    /**
+     * Approximate percentile, the returned value is the upper bound of the bucket
+     * containing the percentile, never greater than the {@linkplain #getMax() maximum}.
+     *
+     * @param p percentile between 0 and 1, 0.5 for the median.
+     * @return approximate percentile, 0 if empty.
+     */
+    public long getPercentile(final double p) {
+        long total = 0;
+        final int nb = buckets.length();
+        final long[] snapshot = new long[nb];
+        for (int i = 0; i < nb; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+
+        final long rank = Math.max(1, (long) Math.ceil(p * total));
+        long cumulated = 0;
+        for (int i = 0; i < nb; i++) {
+            cumulated += snapshot[i];
+            if (cumulated >= rank) {
+                final long upper = (i == 0) ? 0 : (i >= Long.SIZE - 1) ? Long.MAX_VALUE : (1L << i) - 1;
+                return Math.min(upper, getMax());
+            }
+        }
+        return getMax();
+    }
+
+    void reset() {
+        for (int i = 0, n = buckets.length(); i < n; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        min.set(Long.MAX_VALUE);
+        max.set(Long.MIN_VALUE);
+    }
+
+    @Override
+    public String toString() {
+        return name + " : count=" + getCount() + " mean=" + getMean() + " max=" + getMax();
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.internal.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.apache.sis.util.ArgumentChecks;
+import org.apache.sis.util.logging.Logging;
+
+/**
+ * Registry of the counters, timers and histograms used to instrument Geotoolkit.
+ * <p>
+ * Metrics are disabled by default, they can be enabled with the {@code geotk.metrics}
+ * system property or with {@link #setEnabled(boolean)}. While disabled, recording a value
+ * is a single volatile read, instrumented code should keep its metrics in static fields.
+ * </p>
+ * <p>
+ * Once enabled, the registry is exposed over JMX with the {@link #OBJECT_NAME} name,
+ * see {@link org.geotoolkit.management.MetricsMXBean}.
+ * </p>
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+public final class Metrics {
+
+    private static final Logger LOGGER = Logging.getLogger(Metrics.class);
+
+    /**
+     * Name of the metrics bean in the platform MBean server.
+     */
+    public static final String OBJECT_NAME = "org.geotoolkit:type=Metrics";
+
+    static volatile boolean enabled;
+
+    private static final ConcurrentMap<String,Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String,Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String,Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    private static boolean registered;
+
+    static {
+        if (Boolean.getBoolean("geotk.metrics")) {
+            setEnabled(true);
+        }
+    }
+
+    private Metrics() {
+    }
+
+    /**
+     * @return true if metrics are recorded.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enable or disable metrics recording. Recorded values are preserved.
+     * The first activation registers the metrics bean in the platform MBean server.
+     *
+     * @param state true to record metrics
+     */
+    public static void setEnabled(final boolean state) {
+        if (state) {
+            register();
+        }
+        enabled = state;
+    }
+
+    private static synchronized void register() {
+        if (registered) return;
+        registered = true;
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new MetricsBean(), name);
+            }
+        } catch (JMException | SecurityException ex) {
+            LOGGER.log(Level.WARNING, "Could not register metrics bean : "+ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Get or create a counter.
+     *
+     * @param name counter name, by convention dot separated : module.operation
+     * @return counter, never null
+     */
+    public static Counter counter(final String name) {
+        ArgumentChecks.ensureNonNull("name", name);
+        Counter candidate = COUNTERS.get(name);
+        if (candidate == null) {
+            candidate = new Counter(name);
+            final Counter previous = COUNTERS.putIfAbsent(name, candidate);
+            if (previous != null) candidate = previous;
+        }
+        return candidate;
+    }
+
+    /**
+     * Get or create a timer.
+     *
+     * @param name timer name, by convention dot separated : module.operation
+     * @return timer, never null
+     */
+    public static Timer timer(final String name) {
+        ArgumentChecks.ensureNonNull("name", name);
+        Timer candidate = TIMERS.get(name);
+        if (candidate == null) {
+            candidate = new Timer(name);
+            final Timer previous = TIMERS.putIfAbsent(name, candidate);
+            if (previous != null) candidate = previous;
+        }
+        return candidate;
+    }
+
+    /**
+     * Get or create a histogram.
+     *
+     * @param name histogram name, by convention dot separated : module.operation
+     * @return histogram, never null
+     */
+    public static Histogram histogram(final String name) {
+        ArgumentChecks.ensureNonNull("name", name);
+        Histogram candidate = HISTOGRAMS.get(name);
+        if (candidate == null) {
+            candidate = new Histogram(name);
+            final Histogram previous = HISTOGRAMS.putIfAbsent(name, candidate);
+            if (previous != null) candidate = previous;
+        }
+        return candidate;
+    }
+
+    /**
+     * @return all counters sorted by name.
+     */
+    public static Map<String,Counter> getCounters() {
+        return new TreeMap<>(COUNTERS);
+    }
+
+    /**
+     * @return all timers sorted by name.
+     */
+    public static Map<String,Timer> getTimers() {
+        return new TreeMap<>(TIMERS);
+    }
+
+    /**
+     * @return all histograms sorted by name.
+     */
+    public static Map<String,Histogram> getHistograms() {
+        return new TreeMap<>(HISTOGRAMS);
+    }
+
+    /**
+     * Reset all recorded values. Metrics stay registered.
+     */
+    public static void reset() {
+        for (Counter c : COUNTERS.values()) c.reset();
+        for (Timer t : TIMERS.values()) t.reset();
+        for (Histogram h : HISTOGRAMS.values()) h.reset();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.internal.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.geotoolkit.management.MetricSnapshot;
+import org.geotoolkit.management.MetricsMXBean;
+
+/**
+ * JMX view of the {@link Metrics} registry.
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+final class MetricsBean implements MetricsMXBean {
+
+    @Override
+    public boolean isEnabled() {
+        return Metrics.isEnabled();
+    }
+
+    @Override
+    public void setEnabled(final boolean enabled) {
+        Metrics.setEnabled(enabled);
+    }
+
+    @Override
+    public Map<String,Long> getCounters() {
+        final Map<String,Long> result = new LinkedHashMap<>();
+        for (Counter c : Metrics.getCounters().values()) {
+            result.put(c.getName(), c.getCount());
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String,MetricSnapshot> getTimers() {
+        final Map<String,MetricSnapshot> result = new LinkedHashMap<>();
+        for (Timer t : Metrics.getTimers().values()) {
+            result.put(t.getName(), snapshot(t.getDurations()));
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String,MetricSnapshot> getHistograms() {
+        final Map<String,MetricSnapshot> result = new LinkedHashMap<>();
+        for (Histogram h : Metrics.getHistograms().values()) {
+            result.put(h.getName(), snapshot(h));
+        }
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        Metrics.reset();
+    }
+
+    static MetricSnapshot snapshot(final Histogram h) {
+        return new MetricSnapshot(h.getCount(), h.getSum(), h.getMin(), h.getMax(), h.getMean(),
+                h.getPercentile(0.5), h.getPercentile(0.99));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.internal.metrics;
+
+/**
+ * Records durations in nanoseconds. Typical use :
+ *
+ * {@preformat java
+ *     private static final Timer TIMER = Metrics.timer("module.operation");
+ *
+ *     final long start = TIMER.start();
+ *     try {
+ *         ...
+ *     } finally {
+ *         TIMER.stop(start);
+ *     }
+ * }
+ *
+ * While {@link Metrics} are disabled, {@link #start()} returns 0 without reading the clock
+ * and {@link #stop(long)} returns immediately.
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+public final class Timer {
+
+    private final Histogram durations;
+
+    Timer(final String name) {
+        durations = new Histogram(name);
+    }
+
+    /**
+     * @return timer name in the {@link Metrics} registry.
+     */
+    public String getName() {
+        return durations.getName();
+    }
+
+    /**
+     * @return start time to give to {@link #stop(long)}, 0 if metrics are disabled.
+     */
+    public long start() {
+        return Metrics.enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Record the duration since the given start time.
+     *
+     * @param start value returned by {@link #start()}
+     */
+    public void stop(final long start) {
+        if (start != 0) {
+            durations.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Record a duration.
+     *
+     * @param nanos duration in nanoseconds
+     */
+    public void record(final long nanos) {
+        durations.record(nanos);
+    }
+
+    /**
+     * @return distribution of recorded durations in nanoseconds.
+     */
+    public Histogram getDurations() {
+        return durations;
+    }
+
+    void reset() {
+        durations.reset();
+    }
+
+    @Override
+    public String toString() {
+        return durations.toString();
+    }
+}
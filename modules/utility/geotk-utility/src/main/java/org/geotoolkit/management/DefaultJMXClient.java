@@ -85,6 +85,18 @@ public class DefaultJMXClient {
         return mbeanProxy;
     }
 
+    /**
+     * Create a proxy of the remote Geotoolkit metrics registry.
+     * Metrics must have been enabled in the remote JVM.
+     *
+     * @return MetricsMXBean proxy instance
+     * @throws MalformedObjectNameException
+     */
+    public MetricsMXBean getMetrics() throws MalformedObjectNameException{
+        final ObjectName mbeanName = new ObjectName("org.geotoolkit:type=Metrics");
+        return JMX.newMXBeanProxy(mbsc, mbeanName, MetricsMXBean.class);
+    }
+
     /**
      * Release jmx connection.
      * @throws IOException
@@ -0,0 +1,85 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.management;
+
+import java.beans.ConstructorProperties;
+import java.io.Serializable;
+
+/**
+ * Immutable state of a timer or histogram at a given time.
+ * Percentiles are approximated.
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+public final class MetricSnapshot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long count;
+    private final long sum;
+    private final long min;
+    private final long max;
+    private final double mean;
+    private final long median;
+    private final long percentile99;
+
+    @ConstructorProperties({"count","sum","min","max","mean","median","percentile99"})
+    public MetricSnapshot(long count, long sum, long min, long max, double mean, long median, long percentile99) {
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+        this.median = median;
+        this.percentile99 = percentile99;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public long getMedian() {
+        return median;
+    }
+
+    public long getPercentile99() {
+        return percentile99;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count + " mean=" + mean + " min=" + min + " max=" + max
+                + " median=" + median + " p99=" + percentile99;
+    }
+}
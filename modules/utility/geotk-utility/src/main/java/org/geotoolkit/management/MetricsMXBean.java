@@ -0,0 +1,60 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.management;
+
+import java.util.Map;
+
+/**
+ * Management interface of the Geotoolkit metrics registry, registered in the platform
+ * MBean server under the name {@code org.geotoolkit:type=Metrics} once metrics are enabled.
+ * Timer values are in nanoseconds.
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+public interface MetricsMXBean {
+
+    /**
+     * @return true if metrics are recorded.
+     */
+    boolean isEnabled();
+
+    /**
+     * @param enabled true to record metrics
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * @return counter values by name.
+     */
+    Map<String,Long> getCounters();
+
+    /**
+     * @return timer durations by name, in nanoseconds.
+     */
+    Map<String,MetricSnapshot> getTimers();
+
+    /**
+     * @return histogram values by name.
+     */
+    Map<String,MetricSnapshot> getHistograms();
+
+    /**
+     * Reset all recorded values.
+     */
+    void reset();
+}
@@ -0,0 +1,116 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2014, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.internal.metrics;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMX;
+import javax.management.ObjectName;
+import org.geotoolkit.management.MetricSnapshot;
+import org.geotoolkit.management.MetricsMXBean;
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link Metrics} registry and its JMX view.
+ *
+ * @author Geotoolkit.org contributors
+ * @module pending
+ */
+public class MetricsTest {
+
+    @After
+    public void restore() {
+        Metrics.setEnabled(false);
+        Metrics.reset();
+    }
+
+    @Test
+    public void testDisabled() {
+        Metrics.setEnabled(false);
+        final Counter counter = Metrics.counter("test.disabled");
+        final Timer timer = Metrics.timer("test.disabled");
+        counter.increment();
+        assertEquals(0, timer.start());
+        timer.stop(0);
+        timer.record(10);
+        assertEquals(0, counter.getCount());
+        assertEquals(0, timer.getDurations().getCount());
+    }
+
+    @Test
+    public void testRegistry() {
+        Metrics.setEnabled(true);
+        assertSame(Metrics.counter("test.a"), Metrics.counter("test.a"));
+        assertSame(Metrics.timer("test.a"), Metrics.timer("test.a"));
+        assertSame(Metrics.histogram("test.a"), Metrics.histogram("test.a"));
+
+        final Counter counter = Metrics.counter("test.counter");
+        counter.increment();
+        counter.add(4);
+        assertEquals(5, counter.getCount());
+
+        final Timer timer = Metrics.timer("test.timer");
+        final long start = timer.start();
+        assertTrue(start != 0);
+        timer.stop(start);
+        assertEquals(1, timer.getDurations().getCount());
+
+        Metrics.reset();
+        assertEquals(0, counter.getCount());
+        assertEquals(0, timer.getDurations().getCount());
+    }
+
+    @Test
+    public void testHistogram() {
+        Metrics.setEnabled(true);
+        final Histogram histogram = Metrics.histogram("test.histogram");
+        for (int i=1; i<=100; i++) {
+            histogram.record(i);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(5050, histogram.getSum());
+        assertEquals(1, histogram.getMin());
+        assertEquals(100, histogram.getMax());
+        assertEquals(50.5, histogram.getMean(), 0.0);
+        //power of two buckets, median 50 is in bucket [32..63]
+        assertEquals(63, histogram.getPercentile(0.5));
+        assertEquals(100, histogram.getPercentile(0.99));
+    }
+
+    @Test
+    public void testJMX() throws Exception {
+        Metrics.setEnabled(true);
+        Metrics.counter("test.jmx").add(3);
+        Metrics.timer("test.jmx").record(1000);
+
+        final MetricsMXBean bean = JMX.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(),
+                new ObjectName(Metrics.OBJECT_NAME), MetricsMXBean.class);
+        assertTrue(bean.isEnabled());
+        assertEquals(Long.valueOf(3), bean.getCounters().get("test.jmx"));
+        final MetricSnapshot snapshot = bean.getTimers().get("test.jmx");
+        assertNotNull(snapshot);
+        assertEquals(1, snapshot.getCount());
+        assertEquals(1000, snapshot.getMax());
+
+        bean.reset();
+        assertEquals(Long.valueOf(0), bean.getCounters().get("test.jmx"));
+        bean.setEnabled(false);
+        assertFalse(Metrics.isEnabled());
+    }
+
+}